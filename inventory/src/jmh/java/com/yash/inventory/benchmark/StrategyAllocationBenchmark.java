@@ -0,0 +1,103 @@
+ package com.yash.inventory.benchmark;
+
+ import java.nio.file.Files;
+ import java.nio.file.Path;
+ import java.util.Collection;
+
+ import org.junit.jupiter.api.Tag;
+ import org.junit.jupiter.api.Test;
+ import org.openjdk.jmh.profile.GCProfiler;
+ import org.openjdk.jmh.results.RunResult;
+ import org.openjdk.jmh.results.format.ResultFormatType;
+ import org.openjdk.jmh.runner.Runner;
+ import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+ import org.openjdk.jmh.runner.options.OptionsBuilder;
+ import org.openjdk.jmh.runner.options.TimeValue;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ /**
+
+  * Runs the {@link StrategyAllocationJmh} benchmarks from the benchmark profile
+
+  *
+
+  * The GC profiler is always on, so every result carries gc.alloc.rate.norm (bytes allocated per call)
+
+  * next to the average time. Results are written as JMH JSON to target/benchmark/strategy-allocation.json,
+
+  * which can be diffed between releases or loaded into jmh.morethan.io.
+
+  *
+
+  * Run with: mvn -Pbenchmark test -Dtest=StrategyAllocationBenchmark
+
+  * Tune with: -Dbenchmark.jmh.batch-counts=10,1000 -Dbenchmark.jmh.fill-ratios=1.0 -Dbenchmark.jmh.request-ratios=0.5
+
+  *            -Dbenchmark.jmh.include=AllocateInto -Dbenchmark.jmh.forks=1 -Dbenchmark.jmh.warmup-iterations=3
+
+  *            -Dbenchmark.jmh.iterations=5 -Dbenchmark.jmh.iteration-millis=1000
+
+  */
+
+ @Tag("benchmark")
+
+ class StrategyAllocationBenchmark {
+
+   private static final Path RESULT_FILE = Path.of("target", "benchmark", "strategy-allocation.json");
+
+   @Test
+
+   void measureStrategyAllocation() throws Exception {
+
+     Files.createDirectories(RESULT_FILE.getParent());
+
+     TimeValue iterationTime = TimeValue.milliseconds(Long.getLong("benchmark.jmh.iteration-millis", 1000));
+
+     ChainedOptionsBuilder options = new OptionsBuilder()
+
+       .include(StrategyAllocationJmh.class.getSimpleName() + "\\." + System.getProperty("benchmark.jmh.include", ".*"))
+
+       .forks(Integer.getInteger("benchmark.jmh.forks", 1))
+
+       .warmupIterations(Integer.getInteger("benchmark.jmh.warmup-iterations", 3))
+
+       .warmupTime(iterationTime)
+
+       .measurementIterations(Integer.getInteger("benchmark.jmh.iterations", 5))
+
+       .measurementTime(iterationTime)
+
+       .addProfiler(GCProfiler.class)
+
+       .resultFormat(ResultFormatType.JSON)
+
+       .result(RESULT_FILE.toString());
+
+     param(options, "batchCount", "benchmark.jmh.batch-counts");
+
+     param(options, "fillRatio", "benchmark.jmh.fill-ratios");
+
+     param(options, "requestRatio", "benchmark.jmh.request-ratios");
+
+     Collection < RunResult > results = new Runner(options.build()).run();
+
+     assertFalse(results.isEmpty());
+
+     assertTrue(Files.size(RESULT_FILE) > 0);
+
+   }
+
+   private void param(ChainedOptionsBuilder options, String name, String property) {
+
+     String values = System.getProperty(property);
+
+     if (values != null && !values.isBlank()) {
+
+       options.param(name, values.split("\\s*,\\s*"));
+
+     }
+
+   }
+
+ }
@@ -0,0 +1,185 @@
+ package com.yash.inventory.benchmark;
+
+ import java.time.LocalDate;
+ import java.util.ArrayList;
+ import java.util.Collections;
+ import java.util.Comparator;
+ import java.util.List;
+ import java.util.Random;
+ import java.util.concurrent.TimeUnit;
+
+ import org.openjdk.jmh.annotations.Benchmark;
+ import org.openjdk.jmh.annotations.BenchmarkMode;
+ import org.openjdk.jmh.annotations.Level;
+ import org.openjdk.jmh.annotations.Mode;
+ import org.openjdk.jmh.annotations.OutputTimeUnit;
+ import org.openjdk.jmh.annotations.Param;
+ import org.openjdk.jmh.annotations.Scope;
+ import org.openjdk.jmh.annotations.Setup;
+ import org.openjdk.jmh.annotations.State;
+
+ import com.yash.inventory.entity.Batch;
+ import com.yash.inventory.entity.Product;
+ import com.yash.inventory.strategy.AllocationBuffer;
+ import com.yash.inventory.strategy.FEFOStrategy;
+ import com.yash.inventory.strategy.FIFOStrategy;
+
+ /**
+
+  * JMH benchmarks for the allocation strategies
+
+  *
+
+  * batchCount is the number of batches of one product, fillRatio the share of them that still hold stock
+
+  * and requestRatio the share of the product's total stock asked for in one call.
+
+  * allocate receives the batches in random order, as callers of the list-returning API may;
+
+  * allocateInto receives them in the strategy's order, as the batch index hands them out.
+
+  *
+
+  * Run through StrategyAllocationBenchmark, or directly with org.openjdk.jmh.Main on the test classpath.
+
+  */
+
+ @State(Scope.Benchmark)
+
+ @BenchmarkMode(Mode.AverageTime)
+
+ @OutputTimeUnit(TimeUnit.NANOSECONDS)
+
+ public class StrategyAllocationJmh {
+
+   private static final int BATCH_QUANTITY = 10;
+
+   private static final long SEED = 42L;
+
+   @Param({ "10", "100", "1000", "10000", "100000" })
+
+   public int batchCount;
+
+   @Param({ "0.25", "0.5", "1.0" })
+
+   public double fillRatio;
+
+   @Param({ "0.01", "0.5", "1.0" })
+
+   public double requestRatio;
+
+   private final FEFOStrategy fefo = new FEFOStrategy();
+
+   private final FIFOStrategy fifo = new FIFOStrategy();
+
+   private List < Batch > shuffledBatches;
+
+   private List < Batch > expiryOrderedBatches;
+
+   private List < Batch > receivedOrderedBatches;
+
+   private long availableQuantity;
+
+   private int quantityNeeded;
+
+   @Setup(Level.Trial)
+
+   public void setUp() {
+
+     Random random = new Random(SEED);
+
+     Product product = new Product();
+
+     product.setId(1L);
+
+     LocalDate today = LocalDate.now();
+
+     int filled = Math.max(1, (int) Math.round(batchCount * fillRatio));
+
+     List < Batch > batches = new ArrayList < > (batchCount);
+
+     for (int i = 0; i < batchCount; i++) {
+
+       int quantity = i < filled ? BATCH_QUANTITY : 0;
+
+       batches.add(new Batch((long) i + 1, "BATCH-" + i, product, quantity,
+
+         today.plusDays(1 + random.nextInt(3650)), today.minusDays(random.nextInt(3650))));
+
+     }
+
+     // Spread the empty batches instead of leaving them all at the end
+
+     Collections.shuffle(batches, random);
+
+     shuffledBatches = Collections.unmodifiableList(batches);
+
+     List < Batch > byExpiry = new ArrayList < > (batches);
+
+     byExpiry.sort(Comparator.comparing(Batch::getExpiryDate));
+
+     expiryOrderedBatches = Collections.unmodifiableList(byExpiry);
+
+     List < Batch > byReceived = new ArrayList < > (batches);
+
+     byReceived.sort(Comparator.comparing(Batch::getReceivedDate));
+
+     receivedOrderedBatches = Collections.unmodifiableList(byReceived);
+
+     availableQuantity = (long) filled * BATCH_QUANTITY;
+
+     quantityNeeded = (int) Math.max(1, Math.round(availableQuantity * requestRatio));
+
+   }
+
+   /**
+
+    * One reusable result buffer per benchmark thread, as a caller of allocateInto would keep
+
+    */
+
+   @State(Scope.Thread)
+
+   public static class Buffer {
+
+     final AllocationBuffer result = new AllocationBuffer();
+
+   }
+
+   @Benchmark
+
+   public List < Batch > fefoAllocate() {
+
+     return fefo.allocate(shuffledBatches, quantityNeeded, availableQuantity);
+
+   }
+
+   @Benchmark
+
+   public List < Batch > fifoAllocate() {
+
+     return fifo.allocate(shuffledBatches, quantityNeeded, availableQuantity);
+
+   }
+
+   @Benchmark
+
+   public int fefoAllocateInto(Buffer buffer) {
+
+     fefo.allocateInto(expiryOrderedBatches, quantityNeeded, availableQuantity, buffer.result);
+
+     return buffer.result.size();
+
+   }
+
+   @Benchmark
+
+   public int fifoAllocateInto(Buffer buffer) {
+
+     fifo.allocateInto(receivedOrderedBatches, quantityNeeded, availableQuantity, buffer.result);
+
+     return buffer.result.size();
+
+   }
+
+ }
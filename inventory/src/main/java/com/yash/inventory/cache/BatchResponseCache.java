@@ -0,0 +1,89 @@
+ package com.yash.inventory.cache;
+
+ import java.util.List;
+ import java.util.function.Function;
+
+ import com.yash.inventory.dto.BatchResponse;
+ import com.yash.inventory.support.TransactionCallbacks;
+
+ /** 
+
+  * Read-through cache of per-product batch listings 
+
+  * Implementations choose the eviction policy; writers bracket every stock change with 
+
+  * {@link #beginUpdate(String)} and {@link #endUpdate(String)} so a read never serves deducted stock 
+
+  */
+
+ public interface BatchResponseCache {
+
+   /** 
+
+    * Get the cached batches of a product, loading and caching them on a miss 
+
+    *  
+
+    * @param productCode Product code 
+
+    * @param loader Loads the batches from the database; its exceptions propagate and nothing is cached 
+
+    * @return Unmodifiable list of batches 
+
+    */
+
+   List < BatchResponse > get(String productCode, Function < String, List < BatchResponse >> loader);
+
+   /** 
+
+    * Drop a product's entry and bypass the cache for it until the matching {@link #endUpdate(String)} 
+
+    */
+
+   void beginUpdate(String productCode);
+
+   /** 
+
+    * Drop a product's entry again and resume caching it 
+
+    */
+
+   void endUpdate(String productCode);
+
+   /** 
+
+    * Drop every entry 
+
+    */
+
+   void invalidateAll();
+
+   /** 
+
+    * Snapshot of the hit, miss and eviction counters 
+
+    */
+
+   CacheStats stats();
+
+   /** 
+
+    * Invalidate a product for the rest of the surrounding transaction 
+
+    * The product bypasses the cache until the transaction completes, committed or rolled back 
+
+    *  
+
+    * @param productCode Product code 
+
+    */
+
+   default void invalidate(String productCode) {
+
+     beginUpdate(productCode);
+
+     TransactionCallbacks.afterCompletion(() -> endUpdate(productCode));
+
+   }
+
+ }
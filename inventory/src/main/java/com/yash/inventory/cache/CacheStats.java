@@ -0,0 +1,21 @@
+ package com.yash.inventory.cache;
+
+ /** 
+
+  * Point-in-time cache counters 
+
+  *  
+
+  * @param hits Reads served from the cache 
+
+  * @param misses Reads that went to the loader 
+
+  * @param evictions Entries dropped for size or age, not counting invalidations 
+
+  * @param size Entries currently cached 
+
+  */
+
+ public record CacheStats(long hits, long misses, long evictions, int size) {
+
+ }
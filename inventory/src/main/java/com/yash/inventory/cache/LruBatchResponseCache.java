@@ -0,0 +1,329 @@
+ package com.yash.inventory.cache;
+
+ import java.time.Duration;
+ import java.util.Collections;
+ import java.util.HashMap;
+ import java.util.Iterator;
+ import java.util.LinkedHashMap;
+ import java.util.List;
+ import java.util.Map;
+ import java.util.function.Function;
+ import java.util.function.LongSupplier;
+ import java.util.concurrent.atomic.LongAdder;
+ import java.util.concurrent.locks.ReentrantLock;
+
+ import org.springframework.beans.factory.annotation.Autowired;
+ import org.springframework.beans.factory.annotation.Value;
+ import org.springframework.stereotype.Component;
+
+ import com.yash.inventory.dto.BatchResponse;
+
+ /** 
+
+  * Bounded LRU cache with a fixed time-to-live per entry 
+
+  * A single lock guards the access-ordered map; loads run outside it, so a slow query never blocks other products 
+
+  * A load is only stored if no update of its product began since it started, which keeps pre-deduction reads out of 
+
+  * the cache; each product's in-flight loads share an epoch, so writes to other products never discard them 
+
+  */
+
+ @Component
+
+ public class LruBatchResponseCache implements BatchResponseCache {
+
+   private final int maxSize;
+
+   private final long ttlNanos;
+
+   private final LongSupplier ticker;
+
+   private final ReentrantLock lock = new ReentrantLock();
+
+   private final LinkedHashMap < String, Entry > entries = new LinkedHashMap < > (16, 0.75f, true);
+
+   private final Map < String, Integer > updatesInFlight = new HashMap < > ();
+
+   private final Map < String, Loading > loadsInFlight = new HashMap < > ();
+
+   private long clearEpoch;
+
+   private final LongAdder hits = new LongAdder();
+
+   private final LongAdder misses = new LongAdder();
+
+   private final LongAdder evictions = new LongAdder();
+
+   @Autowired
+
+   public LruBatchResponseCache(@Value("${inventory.cache.batches.max-size:10000}") int maxSize,
+
+     @Value("${inventory.cache.batches.ttl:30s}") Duration ttl) {
+
+     this(maxSize, ttl, System::nanoTime);
+
+   }
+
+   public LruBatchResponseCache(int maxSize, Duration ttl, LongSupplier ticker) {
+
+     if (maxSize <= 0) {
+
+       throw new IllegalArgumentException("Cache max size must be positive: " + maxSize);
+
+     }
+
+     if (ttl.isNegative() || ttl.isZero()) {
+
+       throw new IllegalArgumentException("Cache TTL must be positive: " + ttl);
+
+     }
+
+     this.maxSize = maxSize;
+
+     this.ttlNanos = ttl.toNanos();
+
+     this.ticker = ticker;
+
+   }
+
+   @Override
+
+   public List < BatchResponse > get(String productCode, Function < String, List < BatchResponse >> loader) {
+
+     Loading loading = null;
+
+     long epoch = 0;
+
+     long clears = 0;
+
+     lock.lock();
+
+     try {
+
+       if (updatesInFlight.containsKey(productCode)) {
+
+         misses.increment();
+
+       } else {
+
+         Entry entry = entries.get(productCode);
+
+         if (entry != null && ticker.getAsLong() - entry.loadedAt < ttlNanos) {
+
+           hits.increment();
+
+           return entry.batches;
+
+         }
+
+         if (entry != null) {
+
+           entries.remove(productCode);
+
+           evictions.increment();
+
+         }
+
+         misses.increment();
+
+         loading = loadsInFlight.computeIfAbsent(productCode, code -> new Loading());
+
+         loading.loaders++;
+
+         epoch = loading.epoch;
+
+         clears = clearEpoch;
+
+       }
+
+     } finally {
+
+       lock.unlock();
+
+     }
+
+     if (loading == null) {
+
+       return Collections.unmodifiableList(loader.apply(productCode));
+
+     }
+
+     List < BatchResponse > batches = null;
+
+     try {
+
+       batches = Collections.unmodifiableList(loader.apply(productCode));
+
+       return batches;
+
+     } finally {
+
+       finishLoad(productCode, loading, epoch, clears, batches);
+
+     }
+
+   }
+
+   @Override
+
+   public void beginUpdate(String productCode) {
+
+     lock.lock();
+
+     try {
+
+       bumpLoads(productCode);
+
+       updatesInFlight.merge(productCode, 1, Integer::sum);
+
+       entries.remove(productCode);
+
+     } finally {
+
+       lock.unlock();
+
+     }
+
+   }
+
+   @Override
+
+   public void endUpdate(String productCode) {
+
+     lock.lock();
+
+     try {
+
+       bumpLoads(productCode);
+
+       updatesInFlight.computeIfPresent(productCode, (code, count) -> count > 1 ? count - 1 : null);
+
+       entries.remove(productCode);
+
+     } finally {
+
+       lock.unlock();
+
+     }
+
+   }
+
+   @Override
+
+   public void invalidateAll() {
+
+     lock.lock();
+
+     try {
+
+       clearEpoch++;
+
+       entries.clear();
+
+     } finally {
+
+       lock.unlock();
+
+     }
+
+   }
+
+   @Override
+
+   public CacheStats stats() {
+
+     lock.lock();
+
+     try {
+
+       return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+
+     } finally {
+
+       lock.unlock();
+
+     }
+
+   }
+
+   private void bumpLoads(String productCode) {
+
+     Loading loading = loadsInFlight.get(productCode);
+
+     if (loading != null) {
+
+       loading.epoch++;
+
+     }
+
+   }
+
+   /** 
+
+    * Release a finished load and store its batches, unless it failed or overlapped an update of its product 
+
+    */
+
+   private void finishLoad(String productCode, Loading loading, long epoch, long clears, List < BatchResponse > batches) {
+
+     lock.lock();
+
+     try {
+
+       if (--loading.loaders == 0) {
+
+         loadsInFlight.remove(productCode);
+
+       }
+
+       // An update began or ended while loading: the loaded list may predate it 
+
+       if (batches == null || epoch != loading.epoch || clears != clearEpoch) {
+
+         return;
+
+       }
+
+       entries.put(productCode, new Entry(batches, ticker.getAsLong()));
+
+       Iterator < Map.Entry < String, Entry >> eldest = entries.entrySet().iterator();
+
+       while (entries.size() > maxSize) {
+
+         eldest.next();
+
+         eldest.remove();
+
+         evictions.increment();
+
+       }
+
+     } finally {
+
+       lock.unlock();
+
+     }
+
+   }
+
+   private record Entry(List < BatchResponse > batches, long loadedAt) {
+
+   }
+
+   /** 
+
+    * Loads of one product in flight, and the number of updates of it seen since the first of them started 
+
+    */
+
+   private static final class Loading {
+
+     private long epoch;
+
+     private int loaders;
+
+   }
+
+ }
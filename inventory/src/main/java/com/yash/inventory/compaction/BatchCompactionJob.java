@@ -0,0 +1,220 @@
+ package com.yash.inventory.compaction;
+
+ import java.time.Instant;
+ import java.time.LocalDate;
+ import java.util.List;
+ import java.util.Optional;
+ import java.util.concurrent.TimeUnit;
+ import java.util.concurrent.atomic.AtomicReference;
+ import java.util.concurrent.locks.ReentrantLock;
+
+ import org.slf4j.Logger;
+ import org.slf4j.LoggerFactory;
+ import org.springframework.beans.factory.annotation.Value;
+ import org.springframework.scheduling.annotation.Scheduled;
+ import org.springframework.stereotype.Component;
+ import org.springframework.transaction.PlatformTransactionManager;
+ import org.springframework.transaction.support.TransactionTemplate;
+
+ import com.yash.inventory.entity.Batch;
+ import com.yash.inventory.ledger.MovementRecorder;
+ import com.yash.inventory.ledger.MovementType;
+ import com.yash.inventory.repository.BatchRepository;
+
+ /** 
+
+  * Moves depleted and expired batches out of the batches table into batches_archive 
+
+  * Each chunk runs in its own short transaction and only locks dead rows, which no allocation reads, 
+
+  * so hot products are never blocked. Runs pause between chunks and stop at a per-run row cap 
+
+  */
+
+ @Component
+
+ public class BatchCompactionJob {
+
+   private static final Logger logger = LoggerFactory.getLogger(BatchCompactionJob.class);
+
+   private final BatchRepository batchRepository;
+
+   private final TransactionTemplate transactionTemplate;
+
+   private final MovementRecorder movementRecorder;
+
+   private final int chunkSize;
+
+   private final long maxRowsPerRun;
+
+   private final long pauseMillis;
+
+   private final ReentrantLock running = new ReentrantLock();
+
+   private final AtomicReference < CompactionReport > lastReport = new AtomicReference < > ();
+
+   public BatchCompactionJob(BatchRepository batchRepository, PlatformTransactionManager transactionManager,
+
+     MovementRecorder movementRecorder,
+
+     @Value("${inventory.compaction.chunk-size:500}") int chunkSize,
+
+     @Value("${inventory.compaction.max-rows-per-run:50000}") long maxRowsPerRun,
+
+     @Value("${inventory.compaction.pause-millis:50}") long pauseMillis) {
+
+     if (chunkSize <= 0 || maxRowsPerRun <= 0 || pauseMillis < 0) {
+
+       throw new IllegalArgumentException("Compaction chunk size and row cap must be positive, pause must not be negative");
+
+     }
+
+     this.batchRepository = batchRepository;
+
+     this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+     this.movementRecorder = movementRecorder;
+
+     this.chunkSize = chunkSize;
+
+     this.maxRowsPerRun = maxRowsPerRun;
+
+     this.pauseMillis = pauseMillis;
+
+   }
+
+   @Scheduled(fixedDelayString = "${inventory.compaction.interval-millis:3600000}",
+
+     initialDelayString = "${inventory.compaction.initial-delay-millis:300000}")
+
+   public void scheduledCompaction() {
+
+     compact();
+
+   }
+
+   /** 
+
+    * Archive dead batches chunk by chunk until none are left or the per-run cap is reached 
+
+    * A call made while another run is in progress returns without doing anything 
+
+    *  
+
+    * @return Report of this run, or empty if another run was already in progress 
+
+    */
+
+   public Optional < CompactionReport > compact() {
+
+     if (!running.tryLock()) {
+
+       logger.info("Batch compaction already running, skipped");
+
+       return Optional.empty();
+
+     }
+
+     try {
+
+       long start = System.nanoTime();
+
+       LocalDate today = LocalDate.now();
+
+       long archived = 0;
+
+       int chunks = 0;
+
+       while (archived < maxRowsPerRun) {
+
+         int limit = (int) Math.min(chunkSize, maxRowsPerRun - archived);
+
+         List < Batch > archivedBatches = transactionTemplate.execute(status -> {
+
+           List < Batch > dead = batchRepository.archiveDeadBatches(today, Instant.now(), limit);
+
+           // Stock still left in an archived batch expired with it; empty batches move nothing 
+
+           movementRecorder.record(MovementType.EXPIRY, dead.stream().filter(batch -> batch.getQuantity() > 0).toList(), -1);
+
+           return dead;
+
+         });
+
+         int moved = archivedBatches == null ? 0 : archivedBatches.size();
+
+         if (moved == 0) {
+
+           break;
+
+         }
+
+         archived += moved;
+
+         chunks++;
+
+         if (moved < limit || !pause()) {
+
+           break;
+
+         }
+
+       }
+
+       CompactionReport report = new CompactionReport(archived, chunks,
+
+         TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Instant.now());
+
+       lastReport.set(report);
+
+       logger.info("Batch compaction archived {} rows in {} chunks, {} ms", report.archivedRows(), report.chunks(),
+
+         report.elapsedMillis());
+
+       return Optional.of(report);
+
+     } finally {
+
+       running.unlock();
+
+     }
+
+   }
+
+   /** 
+
+    * Get the report of the most recent completed run 
+
+    */
+
+   public Optional < CompactionReport > getLastReport() {
+
+     return Optional.ofNullable(lastReport.get());
+
+   }
+
+   private boolean pause() {
+
+     if (pauseMillis == 0) {
+
+       return true;
+
+     }
+
+     try {
+
+       Thread.sleep(pauseMillis);
+
+       return true;
+
+     } catch (InterruptedException e) {
+
+       Thread.currentThread().interrupt();
+
+       return false;
+
+     }
+
+   }
+
+ }
@@ -0,0 +1,23 @@
+ package com.yash.inventory.compaction;
+
+ import java.time.Instant;
+
+ /** 
+
+  * Outcome of one compaction run 
+
+  *  
+
+  * @param archivedRows Batches moved to the archive table 
+
+  * @param chunks Transactions used to move them 
+
+  * @param elapsedMillis Wall time of the run, pauses between chunks included 
+
+  * @param finishedAt When the run ended 
+
+  */
+
+ public record CompactionReport(long archivedRows, int chunks, long elapsedMillis, Instant finishedAt) {
+
+ }
@@ -1,14 +1,37 @@
 package com.yash.inventory.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Supplier;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import com.yash.inventory.cache.CacheStats;
+import com.yash.inventory.compaction.BatchCompactionJob;
+import com.yash.inventory.compaction.CompactionReport;
+import com.yash.inventory.dto.AvailabilityResponse;
 import com.yash.inventory.dto.BatchResponse;
+import com.yash.inventory.dto.BulkInventoryUpdateRequest;
+import com.yash.inventory.dto.BulkInventoryUpdateResponse;
 import com.yash.inventory.dto.InventoryUpdateRequest;
 import com.yash.inventory.dto.InventoryUpdateResponse;
+import com.yash.inventory.dto.ProductInventoryResponse;
+import com.yash.inventory.dto.ReservationRequest;
+import com.yash.inventory.dto.ReservationResponse;
+import com.yash.inventory.engine.AllocationEngine;
+import com.yash.inventory.exception.ProductNotFoundException;
+import com.yash.inventory.exception.ReservationNotFoundException;
+import com.yash.inventory.ledger.LedgerHealth;
+import com.yash.inventory.ledger.MovementRecorder;
 import com.yash.inventory.service.InventoryService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -25,12 +48,34 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 public class InventoryController {
 
+  private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+  private static final String NEXT_AFTER_HEADER = "X-Next-After";
+
   private final InventoryService inventoryService;
 
-  public InventoryController(InventoryService inventoryService) {
+  private final AllocationEngine allocationEngine;
+
+  private final ObjectMapper objectMapper;
+
+  private final BatchCompactionJob compactionJob;
+
+  private final MovementRecorder movementRecorder;
+
+  public InventoryController(InventoryService inventoryService, AllocationEngine allocationEngine,
+
+    ObjectMapper objectMapper, BatchCompactionJob compactionJob, MovementRecorder movementRecorder) {
 
     this.inventoryService = inventoryService;
 
+    this.allocationEngine = allocationEngine;
+
+    this.objectMapper = objectMapper;
+
+    this.compactionJob = compactionJob;
+
+    this.movementRecorder = movementRecorder;
+
   }
 
   /** 
@@ -89,6 +134,120 @@ public class InventoryController {
 
   }
 
+  /** 
+
+   * GET /inventory/{productCode}/available - Get the allocatable quantity of a product 
+
+   *  
+
+   * @param productCode Product code 
+
+   * @return Available quantity without batch details 
+
+   */
+
+  @Operation(summary = "Get available quantity by product",
+
+    description = "Returns only the total allocatable quantity of a product, without downloading its batches")
+
+  @ApiResponses(value = {
+
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved available quantity"),
+
+    @ApiResponse(responseCode = "404", description = "Product not found"),
+
+    @ApiResponse(responseCode = "500", description = "Internal server error")
+
+  })
+
+  @GetMapping("/{productCode}/available")
+
+  public ResponseEntity <? > getAvailability(
+
+    @Parameter(description = "Unique product code", required = true, example = "PROD-001")
+
+    @PathVariable String productCode) {
+
+    try {
+
+      AvailabilityResponse availability = inventoryService.getAvailability(productCode);
+
+      return ResponseEntity.ok(availability);
+
+    } catch (ProductNotFoundException | IllegalArgumentException e) {
+
+      return ResponseEntity.status(HttpStatus.NOT_FOUND)
+
+        .body(new ErrorResponse(e.getMessage()));
+
+    } catch (Exception e) {
+
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+
+        .body(new ErrorResponse("Internal server error: " + e.getMessage()));
+
+    }
+
+  }
+
+  /** 
+
+   * GET /inventory/available?productCodes=... - Get the allocatable quantity of several products 
+
+   *  
+
+   * @param productCodes Product codes 
+
+   * @return Available quantities, one per distinct known product code 
+
+   */
+
+  @Operation(summary = "Get available quantity for several products",
+
+    description = "Returns the total allocatable quantity of each requested product in one call. " +
+
+    "Unknown product codes are left out of the response rather than failing the request")
+
+  @ApiResponses(value = {
+
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved available quantities"),
+
+    @ApiResponse(responseCode = "400", description = "No product codes given"),
+
+    @ApiResponse(responseCode = "500", description = "Internal server error")
+
+  })
+
+  @GetMapping("/available")
+
+  public ResponseEntity <? > getAvailability(
+
+    @Parameter(description = "Product codes", required = true, example = "PROD-001,PROD-002")
+
+    @RequestParam List < String > productCodes) {
+
+    try {
+
+      List < AvailabilityResponse > availability = inventoryService.getAvailability(productCodes);
+
+      return ResponseEntity.ok(availability);
+
+    } catch (IllegalArgumentException e) {
+
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+
+        .body(new ErrorResponse(e.getMessage()));
+
+    } catch (Exception e) {
+
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+
+        .body(new ErrorResponse("Internal server error: " + e.getMessage()));
+
+    }
+
+  }
+
   /** 
 
    * POST /inventory/update - Update inventory after order placement 
@@ -129,7 +288,7 @@ public class InventoryController {
 
     try {
 
-      InventoryUpdateResponse response = inventoryService.updateInventory(request);
+      InventoryUpdateResponse response = allocationEngine.allocate(request);
 
       return ResponseEntity.ok(response);
 
@@ -149,6 +308,180 @@ public class InventoryController {
 
   }
 
+  /** 
+
+   * POST /inventory/update/batch - Update inventory for several products in one call 
+
+   *  
+
+   * @param request Bulk inventory update request 
+
+   * @return Update responses with allocation details, one per line in request order 
+
+   */
+
+  @Operation(summary = "Update inventory in bulk",
+
+    description = "Deducts inventory for every line of an order in one transaction (all-or-nothing). Returns batch allocation details per line.")
+
+  @ApiResponses(value = {
+
+    @ApiResponse(responseCode = "200", description = "Inventory updated successfully for all lines"),
+
+    @ApiResponse(responseCode = "400", description = "Invalid request or insufficient inventory"),
+
+    @ApiResponse(responseCode = "500", description = "Internal server error")
+
+  })
+
+  @PostMapping("/update/batch")
+
+  public ResponseEntity <? > updateInventoryBatch(
+
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(
+
+      description = "Bulk inventory update request with one item per product line",
+
+      required = true)
+
+    @RequestBody BulkInventoryUpdateRequest request) {
+
+    try {
+
+      BulkInventoryUpdateResponse response = allocationEngine.allocateAll(request);
+
+      return ResponseEntity.ok(response);
+
+    } catch (IllegalArgumentException e) {
+
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+
+        .body(new ErrorResponse(e.getMessage()));
+
+    } catch (Exception e) {
+
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+
+        .body(new ErrorResponse("Internal server error: " + e.getMessage()));
+
+    }
+
+  }
+
+  /** 
+
+   * POST /inventory/reserve - Hold stock for an in-progress checkout 
+
+   *  
+
+   * @param request Lines to hold and an optional time-to-live in seconds 
+
+   * @return Held reservation with its id and expiry 
+
+   */
+
+  @Operation(summary = "Reserve inventory",
+
+    description = "Holds stock for every line (all-or-nothing) until the reservation is confirmed, released or expires. " +
+
+    "Held units are no longer available to other orders.")
+
+  @ApiResponses(value = {
+
+    @ApiResponse(responseCode = "201", description = "Reservation held"),
+
+    @ApiResponse(responseCode = "400", description = "Invalid request"),
+
+    @ApiResponse(responseCode = "500", description = "Insufficient inventory or internal server error")
+
+  })
+
+  @PostMapping("/reserve")
+
+  public ResponseEntity <? > reserve(
+
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(
+
+      description = "Reservation request with one item per product line and an optional ttlSeconds",
+
+      required = true)
+
+    @RequestBody ReservationRequest request) {
+
+    return reservationCall(() -> allocationEngine.reserve(request), HttpStatus.CREATED);
+
+  }
+
+  /** 
+
+   * POST /inventory/reservations/{reservationId}/confirm - Turn a held reservation into a sale 
+
+   */
+
+  @Operation(summary = "Confirm a reservation",
+
+    description = "Deducts the held units for good. Fails with 409 if the reservation is no longer held.")
+
+  @PostMapping("/reservations/{reservationId}/confirm")
+
+  public ResponseEntity <? > confirmReservation(@PathVariable String reservationId) {
+
+    return reservationCall(() -> allocationEngine.confirm(reservationId), HttpStatus.OK);
+
+  }
+
+  /** 
+
+   * POST /inventory/reservations/{reservationId}/release - Give held stock back 
+
+   */
+
+  @Operation(summary = "Release a reservation",
+
+    description = "Returns the held units to available stock. Fails with 409 if the reservation is no longer held.")
+
+  @PostMapping("/reservations/{reservationId}/release")
+
+  public ResponseEntity <? > releaseReservation(@PathVariable String reservationId) {
+
+    return reservationCall(() -> allocationEngine.release(reservationId), HttpStatus.OK);
+
+  }
+
+  private ResponseEntity <? > reservationCall(Supplier < ReservationResponse > call, HttpStatus successStatus) {
+
+    try {
+
+      return ResponseEntity.status(successStatus).body(call.get());
+
+    } catch (IllegalArgumentException e) {
+
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+
+        .body(new ErrorResponse(e.getMessage()));
+
+    } catch (ReservationNotFoundException e) {
+
+      return ResponseEntity.status(HttpStatus.NOT_FOUND)
+
+        .body(new ErrorResponse(e.getMessage()));
+
+    } catch (IllegalStateException e) {
+
+      return ResponseEntity.status(HttpStatus.CONFLICT)
+
+        .body(new ErrorResponse(e.getMessage()));
+
+    } catch (Exception e) {
+
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+
+        .body(new ErrorResponse("Internal server error: " + e.getMessage()));
+
+    }
+
+  }
+
   /** 
 
    * Error response DTO 
@@ -159,17 +492,51 @@ public class InventoryController {
 
   /** 
 
-   * GET /inventory/products - Get all products (for testing) 
+   * GET /inventory/products - Get one keyset page of products with their batches 
+
+   *  
+
+   * @param after Last product code of the previous page, taken from the X-Next-After header 
+
+   * @param limit Maximum number of products in the page 
+
+   * @return Products sorted by product code 
 
    */
 
-  @GetMapping("/products")
+  @Operation(summary = "List products with their batches",
+
+    description = "Returns one page of products sorted by product code. When more products follow, the X-Next-After " +
+
+    "header holds the value to pass as 'after' for the next page. Send Accept: application/x-ndjson to stream the whole catalog instead")
+
+  @GetMapping(value = "/products", produces = MediaType.APPLICATION_JSON_VALUE)
+
+  public ResponseEntity <? > getAllProducts(
+
+    @Parameter(description = "Last product code of the previous page") @RequestParam(required = false) String after,
 
-  public ResponseEntity <? > getAllProducts() {
+    @Parameter(description = "Page size, 1 to 1000") @RequestParam(defaultValue = "100") int limit) {
 
     try {
 
-      return ResponseEntity.ok(inventoryService.getAllProducts());
+      List < ProductInventoryResponse > products = inventoryService.getAllProducts(after, limit);
+
+      ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+      if (products.size() == limit) {
+
+        response.header(NEXT_AFTER_HEADER, products.get(products.size() - 1).getProductCode());
+
+      }
+
+      return response.body(products);
+
+    } catch (IllegalArgumentException e) {
+
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+
+        .body(new ErrorResponse(e.getMessage()));
 
     } catch (Exception e) {
 
@@ -181,4 +548,136 @@ public class InventoryController {
 
   }
 
-}
\ No newline at end of file
+  /** 
+
+   * GET /inventory/products as NDJSON - Stream every product with its batches, one JSON object per line 
+
+   */
+
+  @GetMapping(value = "/products", produces = APPLICATION_NDJSON_VALUE)
+
+  public ResponseEntity < StreamingResponseBody > streamAllProducts() {
+
+    StreamingResponseBody body = outputStream -> {
+
+      // Keep the response stream open between lines 
+
+      ObjectWriter writer = objectMapper.writerFor(ProductInventoryResponse.class)
+
+        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+      inventoryService.streamAllProducts(product -> {
+
+        try {
+
+          writer.writeValue(outputStream, product);
+
+          outputStream.write('\n');
+
+        } catch (IOException e) {
+
+          throw new UncheckedIOException(e);
+
+        }
+
+      });
+
+      outputStream.flush();
+
+    };
+
+    return ResponseEntity.ok()
+
+      .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+
+      .body(body);
+
+  }
+
+  /** 
+
+   * GET /inventory/cache/stats - Hit, miss and eviction counters of the batch cache 
+
+   */
+
+  @Operation(summary = "Get batch cache statistics",
+
+    description = "Returns hit, miss and eviction counters of the per-product batch cache behind GET /inventory/{productCode}")
+
+  @GetMapping("/cache/stats")
+
+  public ResponseEntity < CacheStats > getBatchCacheStats() {
+
+    return ResponseEntity.ok(inventoryService.getBatchCacheStats());
+
+  }
+
+  /** 
+
+   * POST /inventory/compaction/run - Archive depleted and expired batches now 
+
+   */
+
+  @Operation(summary = "Run batch compaction",
+
+    description = "Moves depleted and expired batches into the archive table in small chunks and reports rows archived and time spent. " +
+
+    "Returns 409 if a run is already in progress.")
+
+  @PostMapping("/compaction/run")
+
+  public ResponseEntity < CompactionReport > runCompaction() {
+
+    return compactionJob.compact()
+
+      .map(ResponseEntity::ok)
+
+      .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+
+  }
+
+  /** 
+
+   * GET /inventory/compaction/last - Report of the most recent compaction run 
+
+   */
+
+  @Operation(summary = "Get the last compaction report",
+
+    description = "Returns rows archived, chunks and time spent by the most recent compaction run, or 204 if none has run yet")
+
+  @GetMapping("/compaction/last")
+
+  public ResponseEntity < CompactionReport > getLastCompaction() {
+
+    return compactionJob.getLastReport()
+
+      .map(ResponseEntity::ok)
+
+      .orElseGet(() -> ResponseEntity.noContent().build());
+
+  }
+
+  /** 
+
+   * GET /inventory/ledger/health - Whether the movement ledger keeps up with committed movements 
+
+   */
+
+  @Operation(summary = "Get movement ledger health",
+
+    description = "Returns the ledger's movement count, appends that failed after commit and batches that disagreed with the batches table on startup. " +
+
+    "Returns 503 once an append failed or if the ledger drifted from the batches table; the ledger is never rewritten to match.")
+
+  @GetMapping("/ledger/health")
+
+  public ResponseEntity < LedgerHealth > getLedgerHealth() {
+
+    LedgerHealth health = movementRecorder.getHealth();
+
+    return ResponseEntity.status(health.healthy() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(health);
+
+  }
+
+}
@@ -0,0 +1,71 @@
+ package com.yash.inventory.dto;
+
+ /** 
+
+  * Allocatable quantity of a product, without its batch details 
+
+  */
+
+ public class AvailabilityResponse {
+
+   private String productCode;
+
+   private String productName;
+
+   private Long availableQuantity;
+
+   private Long reservedQuantity;
+
+   public String getProductCode() {
+		return productCode;
+	}
+
+	public void setProductCode(String productCode) {
+		this.productCode = productCode;
+	}
+
+	public String getProductName() {
+		return productName;
+	}
+
+	public void setProductName(String productName) {
+		this.productName = productName;
+	}
+
+	public Long getAvailableQuantity() {
+		return availableQuantity;
+	}
+
+	public void setAvailableQuantity(Long availableQuantity) {
+		this.availableQuantity = availableQuantity;
+	}
+
+	public Long getReservedQuantity() {
+		return reservedQuantity;
+	}
+
+	public void setReservedQuantity(Long reservedQuantity) {
+		this.reservedQuantity = reservedQuantity;
+	}
+
+   public AvailabilityResponse(String productCode, String productName, Long availableQuantity, Long reservedQuantity) {
+	super();
+	this.productCode = productCode;
+	this.productName = productName;
+	this.availableQuantity = availableQuantity;
+	this.reservedQuantity = reservedQuantity;
+}
+
+   public AvailabilityResponse(String productCode, String productName, Long availableQuantity) {
+	super();
+	this.productCode = productCode;
+	this.productName = productName;
+	this.availableQuantity = availableQuantity;
+}
+
+   public AvailabilityResponse() {
+	super();
+	// TODO Auto-generated constructor stub
+}
+
+ }
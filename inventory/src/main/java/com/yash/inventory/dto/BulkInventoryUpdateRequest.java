@@ -0,0 +1,27 @@
+ package com.yash.inventory.dto;
+
+ import java.util.List;
+
+ public class BulkInventoryUpdateRequest {
+
+   public List<InventoryUpdateRequest> getItems() {
+		return items;
+	}
+
+	public void setItems(List<InventoryUpdateRequest> items) {
+		this.items = items;
+	}
+
+   public BulkInventoryUpdateRequest(List<InventoryUpdateRequest> items) {
+	super();
+	this.items = items;
+}
+
+   public BulkInventoryUpdateRequest() {
+	super();
+	// TODO Auto-generated constructor stub
+}
+
+   private List < InventoryUpdateRequest > items;
+
+ }
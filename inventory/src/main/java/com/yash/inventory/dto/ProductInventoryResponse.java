@@ -0,0 +1,66 @@
+ package com.yash.inventory.dto;
+
+ import java.util.ArrayList;
+ import java.util.List;
+
+ /** 
+
+  * A product with all of its batches, as listed by GET /inventory/products 
+
+  */
+
+ public class ProductInventoryResponse {
+
+   private String productCode;
+
+   private String productName;
+
+   private String description;
+
+   private List < BatchResponse > batches = new ArrayList < > ();
+
+   public String getProductCode() {
+		return productCode;
+	}
+
+	public void setProductCode(String productCode) {
+		this.productCode = productCode;
+	}
+
+	public String getProductName() {
+		return productName;
+	}
+
+	public void setProductName(String productName) {
+		this.productName = productName;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public void setDescription(String description) {
+		this.description = description;
+	}
+
+	public List<BatchResponse> getBatches() {
+		return batches;
+	}
+
+	public void setBatches(List<BatchResponse> batches) {
+		this.batches = batches;
+	}
+
+   public ProductInventoryResponse(String productCode, String productName, String description) {
+	super();
+	this.productCode = productCode;
+	this.productName = productName;
+	this.description = description;
+}
+
+   public ProductInventoryResponse() {
+	super();
+	// TODO Auto-generated constructor stub
+}
+
+ }
@@ -0,0 +1,40 @@
+ package com.yash.inventory.dto;
+
+ import java.util.List;
+
+ public class ReservationRequest {
+
+   public List<InventoryUpdateRequest> getItems() {
+		return items;
+	}
+
+	public void setItems(List<InventoryUpdateRequest> items) {
+		this.items = items;
+	}
+
+	public Long getTtlSeconds() {
+		return ttlSeconds;
+	}
+
+	public void setTtlSeconds(Long ttlSeconds) {
+		this.ttlSeconds = ttlSeconds;
+	}
+
+   public ReservationRequest(List<InventoryUpdateRequest> items, Long ttlSeconds) {
+	super();
+	this.items = items;
+	this.ttlSeconds = ttlSeconds;
+}
+
+   public ReservationRequest() {
+	super();
+	// TODO Auto-generated constructor stub
+}
+
+   private List < InventoryUpdateRequest > items;
+
+   // How long the stock is held before it returns to available, defaults to the configured TTL 
+
+   private Long ttlSeconds;
+
+ }
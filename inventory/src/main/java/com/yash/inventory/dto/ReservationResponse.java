@@ -0,0 +1,62 @@
+ package com.yash.inventory.dto;
+
+ import java.time.Instant;
+ import java.util.List;
+
+ public class ReservationResponse {
+
+   public String getReservationId() {
+		return reservationId;
+	}
+
+	public void setReservationId(String reservationId) {
+		this.reservationId = reservationId;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public Instant getExpiresAt() {
+		return expiresAt;
+	}
+
+	public void setExpiresAt(Instant expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+
+	public List<InventoryUpdateResponse> getResults() {
+		return results;
+	}
+
+	public void setResults(List<InventoryUpdateResponse> results) {
+		this.results = results;
+	}
+
+   public ReservationResponse(String reservationId, String status, Instant expiresAt,
+			List<InventoryUpdateResponse> results) {
+		super();
+		this.reservationId = reservationId;
+		this.status = status;
+		this.expiresAt = expiresAt;
+		this.results = results;
+	}
+
+   public ReservationResponse() {
+	super();
+	// TODO Auto-generated constructor stub
+}
+
+   private String reservationId;
+
+   private String status;
+
+   private Instant expiresAt;
+
+   private List < InventoryUpdateResponse > results;
+
+ }
@@ -0,0 +1,86 @@
+ package com.yash.inventory.engine;
+
+ import com.yash.inventory.dto.BulkInventoryUpdateRequest;
+ import com.yash.inventory.dto.BulkInventoryUpdateResponse;
+ import com.yash.inventory.dto.InventoryUpdateRequest;
+ import com.yash.inventory.dto.InventoryUpdateResponse;
+ import com.yash.inventory.dto.ReservationRequest;
+ import com.yash.inventory.dto.ReservationResponse;
+
+ /** 
+
+  * Engine that decides how concurrent inventory updates are executed 
+
+  * Allows switching between concurrency-control approaches without touching the allocation logic 
+
+  */
+
+ public interface AllocationEngine {
+
+   /** 
+
+    * Allocate and deduct inventory for a single product 
+
+    *  
+
+    * @param request Inventory update request 
+
+    * @return Update response with allocation details 
+
+    */
+
+   InventoryUpdateResponse allocate(InventoryUpdateRequest request);
+
+   /** 
+
+    * Allocate and deduct inventory for many product lines, all-or-nothing 
+
+    *  
+
+    * @param request Bulk inventory update request 
+
+    * @return Per-line update responses 
+
+    */
+
+   BulkInventoryUpdateResponse allocateAll(BulkInventoryUpdateRequest request);
+
+   /** 
+
+    * Hold inventory for many product lines, all-or-nothing, until confirmed, released or expired 
+
+    *  
+
+    * @param request Reservation request 
+
+    * @return Held reservation 
+
+    */
+
+   ReservationResponse reserve(ReservationRequest request);
+
+   /** 
+
+    * Turn a held reservation into a sale 
+
+    */
+
+   ReservationResponse confirm(String reservationId);
+
+   /** 
+
+    * Return a held reservation's stock to available 
+
+    */
+
+   ReservationResponse release(String reservationId);
+
+   /** 
+
+    * Return a lapsed reservation's stock to available; a no-op if it is no longer held 
+
+    */
+
+   void expire(String reservationId);
+
+ }
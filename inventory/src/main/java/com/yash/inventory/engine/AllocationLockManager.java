@@ -0,0 +1,140 @@
+ package com.yash.inventory.engine;
+
+ import java.util.ArrayList;
+ import java.util.Collection;
+ import java.util.List;
+ import java.util.Objects;
+ import java.util.concurrent.locks.ReentrantLock;
+
+ import org.springframework.beans.factory.annotation.Value;
+ import org.springframework.stereotype.Component;
+
+ /** 
+
+  * Striped per-product locks for inventory allocation 
+
+  * Products hashing to different stripes allocate in parallel, the same product is always linearized 
+
+  */
+
+ @Component
+
+ public class AllocationLockManager {
+
+   private final ReentrantLock[] stripes;
+
+   private final int mask;
+
+   public AllocationLockManager(@Value("${inventory.allocation.lock-stripes:256}") int stripeCount) {
+
+     if (stripeCount <= 0) {
+
+       throw new IllegalArgumentException("Lock stripe count must be positive: " + stripeCount);
+
+     }
+
+     int size = Integer.highestOneBit(stripeCount);
+
+     if (size < stripeCount) {
+
+       size <<= 1;
+
+     }
+
+     this.stripes = new ReentrantLock[size];
+
+     for (int i = 0; i < size; i++) {
+
+       stripes[i] = new ReentrantLock();
+
+     }
+
+     this.mask = size - 1;
+
+   }
+
+   /** 
+
+    * Get the stripe index guarding a product 
+
+    *  
+
+    * @param productCode Product code 
+
+    * @return Stripe index 
+
+    */
+
+   public int stripeFor(String productCode) {
+
+     int hash = productCode.hashCode();
+
+     return (hash ^ (hash >>> 16)) & mask;
+
+   }
+
+   /** 
+
+    * Get the lock guarding a product 
+
+    *  
+
+    * @param productCode Product code 
+
+    * @return Lock shared by every product on the same stripe 
+
+    */
+
+   public ReentrantLock lockFor(String productCode) {
+
+     return stripes[stripeFor(productCode)];
+
+   }
+
+   /** 
+
+    * Get the distinct locks guarding several products, in ascending stripe order 
+
+    * Every caller acquiring them in this order makes multi-product allocation deadlock-free 
+
+    *  
+
+    * @param productCodes Product codes (null entries are ignored) 
+
+    * @return Locks to acquire in list order 
+
+    */
+
+   public List < ReentrantLock > locksFor(Collection < String > productCodes) {
+
+     int[] stripeIndexes = productCodes.stream()
+
+       .filter(Objects::nonNull)
+
+       .mapToInt(this::stripeFor)
+
+       .distinct()
+
+       .sorted()
+
+       .toArray();
+
+     List < ReentrantLock > locks = new ArrayList < > (stripeIndexes.length);
+
+     for (int stripeIndex: stripeIndexes) {
+
+       locks.add(stripes[stripeIndex]);
+
+     }
+
+     return locks;
+
+   }
+
+   public int getStripeCount() {
+
+     return stripes.length;
+
+   }
+
+ }
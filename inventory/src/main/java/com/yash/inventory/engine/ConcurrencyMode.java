@@ -0,0 +1,41 @@
+package com.yash.inventory.engine;
+
+/**
+
+ * How batch decrements guard against concurrent writers in the database
+
+ * Selected with inventory.concurrency.mode; matters most when several service instances share one database
+
+ */
+
+public enum ConcurrencyMode {
+
+  /**
+
+   * Conditional compare-and-set update: a row is only decremented while it still holds the quantity
+
+   */
+
+  CAS,
+
+  /**
+
+   * Read each batch's quantity and version, then update only if the version is unchanged
+
+   * A concurrent write aborts the transaction, which the allocation engine retries a bounded number of times
+
+   */
+
+  OPTIMISTIC,
+
+  /**
+
+   * Take PESSIMISTIC_WRITE row locks on the batches in id order, then update
+
+   * Writers queue on the rows instead of aborting; the id order keeps multi-batch locking deadlock-free
+
+   */
+
+  PESSIMISTIC
+
+}
@@ -0,0 +1,162 @@
+ package com.yash.inventory.engine;
+
+ import java.util.ArrayList;
+ import java.util.Arrays;
+ import java.util.Collection;
+ import java.util.List;
+ import java.util.Map;
+ import java.util.concurrent.locks.ReentrantLock;
+ import java.util.stream.Collectors;
+
+ import org.springframework.beans.factory.annotation.Value;
+ import org.springframework.stereotype.Component;
+
+ import com.yash.inventory.service.BatchShard;
+
+ /** 
+
+  * Flash-sale mode for hot products: each one's batches are split into independently locked shards 
+
+  * Writers holding different shards share neither a lock nor a batch row 
+
+  */ 
+
+ @Component
+
+ public class HotProductShards {
+
+   private final int shardCount;
+
+   private final Map < String, ReentrantLock[] > shardLocks;
+
+   public HotProductShards(@Value("${inventory.flash-sale.products:}") String productCodes,
+
+     @Value("${inventory.flash-sale.shards:0}") int shards) {
+
+     if (shards < 0) {
+
+       throw new IllegalArgumentException("Flash-sale shard count must not be negative: " + shards);
+
+     }
+
+     this.shardCount = shards == 0 ? Runtime.getRuntime().availableProcessors() : shards;
+
+     this.shardLocks = Arrays.stream(productCodes.split(","))
+
+       .map(String::trim)
+
+       .filter(code -> !code.isEmpty())
+
+       .distinct()
+
+       .collect(Collectors.toUnmodifiableMap(code -> code, code -> newLocks(shardCount)));
+
+   }
+
+   /** 
+
+    * Check whether a product is in flash-sale mode 
+
+    */ 
+
+   public boolean isHot(String productCode) {
+
+     return productCode != null && shardLocks.containsKey(productCode);
+
+   }
+
+   public int getShardCount() {
+
+     return shardCount;
+
+   }
+
+   /** 
+
+    * Get the shard the calling thread tries first, spreading threads evenly over the shards 
+
+    */ 
+
+   public int homeShard() {
+
+     long threadId = Thread.currentThread().getId();
+
+     return (int) Math.floorMod(threadId ^ (threadId >>> 16), (long) shardCount);
+
+   }
+
+   /** 
+
+    * Get a shard of a hot product 
+
+    * 
+
+    * @param index Shard number, from 0 to the shard count - 1 
+
+    */ 
+
+   public BatchShard shard(int index) {
+
+     return new BatchShard(index, shardCount);
+
+   }
+
+   /** 
+
+    * Get the lock guarding one shard of a hot product 
+
+    */ 
+
+   public ReentrantLock lockFor(String productCode, int index) {
+
+     return shardLocks.get(productCode)[index];
+
+   }
+
+   /** 
+
+    * Get every shard lock of the hot products among the given ones, in product code then shard order 
+
+    * Taken by writers that allocate across a whole hot product, after its stripe lock 
+
+    * 
+
+    * @param productCodes Product codes (null and non-hot entries are ignored) 
+
+    * @return Locks to acquire in list order 
+
+    */ 
+
+   public List < ReentrantLock > allLocksFor(Collection < String > productCodes) {
+
+     List < ReentrantLock > locks = new ArrayList < > ();
+
+     productCodes.stream()
+
+       .filter(this::isHot)
+
+       .distinct()
+
+       .sorted()
+
+       .forEach(code -> locks.addAll(Arrays.asList(shardLocks.get(code))));
+
+     return locks;
+
+   }
+
+   private static ReentrantLock[] newLocks(int count) {
+
+     ReentrantLock[] locks = new ReentrantLock[count];
+
+     for (int i = 0; i < count; i++) {
+
+       locks[i] = new ReentrantLock();
+
+     }
+
+     return locks;
+
+   }
+
+ }
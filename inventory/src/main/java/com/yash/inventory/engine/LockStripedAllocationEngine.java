@@ -0,0 +1,310 @@
+ package com.yash.inventory.engine;
+
+ import java.util.ArrayList;
+ import java.util.Collection;
+ import java.util.List;
+ import java.util.ListIterator;
+ import java.util.concurrent.atomic.LongAdder;
+ import java.util.concurrent.locks.ReentrantLock;
+ import java.util.function.Supplier;
+
+ import org.springframework.beans.factory.annotation.Value;
+ import org.springframework.dao.ConcurrencyFailureException;
+ import org.springframework.stereotype.Component;
+
+ import com.yash.inventory.dto.BulkInventoryUpdateRequest;
+ import com.yash.inventory.dto.BulkInventoryUpdateResponse;
+ import com.yash.inventory.dto.InventoryUpdateRequest;
+ import com.yash.inventory.dto.InventoryUpdateResponse;
+ import com.yash.inventory.dto.ReservationRequest;
+ import com.yash.inventory.dto.ReservationResponse;
+ import com.yash.inventory.exception.InsufficientInventoryException;
+ import com.yash.inventory.service.BatchShard;
+ import com.yash.inventory.service.InventoryService;
+ import com.yash.inventory.service.ReservationService;
+
+ /** 
+
+  * Allocation engine that linearizes updates per product with striped locks 
+
+  * The lock is held around the whole transaction, so the next writer always sees the committed batch index 
+
+  * With in-process locks off, as for several instances sharing one database, only inventory.concurrency.mode 
+
+  * guards the rows; transactions aborted by a concurrency conflict are retried a bounded number of times 
+
+  * Single-line updates of flash-sale products lock one shard of the product instead, stealing from the next shards 
+
+  * when theirs runs dry 
+
+  * Requests without product codes are passed straight to the service, which rejects them without taking a lock 
+
+  */
+
+ @Component
+
+ public class LockStripedAllocationEngine implements AllocationEngine {
+
+   private final InventoryService inventoryService;
+
+   private final ReservationService reservationService;
+
+   private final AllocationLockManager lockManager;
+
+   private final HotProductShards hotProducts;
+
+   private final boolean inProcessLocks;
+
+   private final int maxAttempts;
+
+   private final LongAdder conflicts = new LongAdder();
+
+   public LockStripedAllocationEngine(InventoryService inventoryService, ReservationService reservationService,
+
+     AllocationLockManager lockManager, HotProductShards hotProducts,
+
+     @Value("${inventory.allocation.in-process-locks:true}") boolean inProcessLocks,
+
+     @Value("${inventory.concurrency.max-attempts:5}") int maxAttempts) {
+
+     if (maxAttempts <= 0) {
+
+       throw new IllegalArgumentException("Max attempts must be positive: " + maxAttempts);
+
+     }
+
+     this.inventoryService = inventoryService;
+
+     this.reservationService = reservationService;
+
+     this.lockManager = lockManager;
+
+     this.hotProducts = hotProducts;
+
+     this.inProcessLocks = inProcessLocks;
+
+     this.maxAttempts = maxAttempts;
+
+   }
+
+   @Override
+
+   public InventoryUpdateResponse allocate(InventoryUpdateRequest request) {
+
+     if (request.getProductCode() == null) {
+
+       return inventoryService.updateInventory(request);
+
+     }
+
+     if (hotProducts.isHot(request.getProductCode())) {
+
+       return allocateSharded(request);
+
+     }
+
+     return withLocks(List.of(request.getProductCode()), () -> inventoryService.updateInventory(request));
+
+   }
+
+   @Override
+
+   public BulkInventoryUpdateResponse allocateAll(BulkInventoryUpdateRequest request) {
+
+     if (request.getItems() == null || request.getItems().contains(null)) {
+
+       return inventoryService.updateInventoryBulk(request);
+
+     }
+
+     return withLocks(request.getItems().stream().map(InventoryUpdateRequest::getProductCode).toList(),
+
+       () -> inventoryService.updateInventoryBulk(request));
+
+   }
+
+   @Override
+
+   public ReservationResponse reserve(ReservationRequest request) {
+
+     if (request.getItems() == null || request.getItems().contains(null)) {
+
+       return reservationService.reserve(request);
+
+     }
+
+     return withLocks(request.getItems().stream().map(InventoryUpdateRequest::getProductCode).toList(),
+
+       () -> reservationService.reserve(request));
+
+   }
+
+   @Override
+
+   public ReservationResponse confirm(String reservationId) {
+
+     // A reservation's products never change, so they can be read before locking 
+
+     return withLocks(reservationService.getProductCodes(reservationId), () -> reservationService.confirm(reservationId));
+
+   }
+
+   @Override
+
+   public ReservationResponse release(String reservationId) {
+
+     return withLocks(reservationService.getProductCodes(reservationId), () -> reservationService.release(reservationId));
+
+   }
+
+   @Override
+
+   public void expire(String reservationId) {
+
+     withLocks(reservationService.getProductCodes(reservationId), () -> {
+
+       reservationService.expire(reservationId);
+
+       return null;
+
+     });
+
+   }
+
+   /** 
+
+    * Get the number of transactions aborted by a concurrency conflict, whether retried or not 
+
+    */
+
+   public long getConflictCount() {
+
+     return conflicts.sum();
+
+   }
+
+   /** 
+
+    * Allocate a flash-sale product line from the calling thread's home shard, then from each next shard in turn 
+
+    * A line no single shard can cover is allocated across the whole product, holding every shard 
+
+    */
+
+   private InventoryUpdateResponse allocateSharded(InventoryUpdateRequest request) {
+
+     String productCode = request.getProductCode();
+
+     int home = hotProducts.homeShard();
+
+     for (int i = 0; i < hotProducts.getShardCount(); i++) {
+
+       int index = (home + i) % hotProducts.getShardCount();
+
+       BatchShard shard = hotProducts.shard(index);
+
+       ReentrantLock lock = hotProducts.lockFor(productCode, index);
+
+       lock.lock();
+
+       try {
+
+         return withRetry(() -> inventoryService.updateInventory(request, shard));
+
+       } catch (InsufficientInventoryException e) {
+
+         // This shard ran dry, steal from the next one 
+
+       } finally {
+
+         lock.unlock();
+
+       }
+
+     }
+
+     return withLocks(List.of(productCode), () -> inventoryService.updateInventory(request));
+
+   }
+
+   /** 
+
+    * Run an action holding the stripes of all given products, taken in stripe order to avoid deadlock 
+
+    * Flash-sale products' shard locks follow the stripes, so no shard writer runs alongside the action 
+
+    */
+
+   private < T > T withLocks(Collection < String > productCodes, Supplier < T > action) {
+
+     List < ReentrantLock > locks = new ArrayList < > ();
+
+     if (inProcessLocks) {
+
+       locks.addAll(lockManager.locksFor(productCodes));
+
+     }
+
+     locks.addAll(hotProducts.allLocksFor(productCodes));
+
+     int acquired = 0;
+
+     try {
+
+       for (ReentrantLock lock: locks) {
+
+         lock.lock();
+
+         acquired++;
+
+       }
+
+       return withRetry(action);
+
+     } finally {
+
+       ListIterator < ReentrantLock > held = locks.listIterator(acquired);
+
+       while (held.hasPrevious()) {
+
+         held.previous().unlock();
+
+       }
+
+     }
+
+   }
+
+   /** 
+
+    * Run an action, running it again while it fails on a concurrency conflict, up to the attempt limit 
+
+    * Each attempt is a fresh transaction, because the action is a transactional service call 
+
+    */
+
+   private < T > T withRetry(Supplier < T > action) {
+
+     for (int attempt = 1;; attempt++) {
+
+       try {
+
+         return action.get();
+
+       } catch (ConcurrencyFailureException e) {
+
+         conflicts.increment();
+
+         if (attempt >= maxAttempts) {
+
+           throw e;
+
+         }
+
+       }
+
+     }
+
+   }
+
+ }
@@ -0,0 +1,172 @@
+ package com.yash.inventory.engine;
+
+ import java.util.concurrent.atomic.AtomicLong;
+ import java.util.concurrent.atomic.AtomicLongArray;
+ import java.util.concurrent.locks.LockSupport;
+ import java.util.function.Supplier;
+
+ /** 
+
+  * Bounded multi-producer, single-consumer ring of pre-allocated entries, in the style of the LMAX Disruptor 
+
+  * Producers claim a sequence, fill the entry at that sequence in place and publish it; the consumer reads 
+
+  * published entries in sequence order and releases them for reuse. No locks are taken and no entry is 
+
+  * allocated after construction. A producer that laps the consumer waits for it to release a slot 
+
+  * 
+
+  * @param <E> Entry type, mutated in place by producers 
+
+  */ 
+
+ public class RingBuffer < E > {
+
+   private final Object[] entries;
+
+   private final int mask;
+
+   private final AtomicLong claimed = new AtomicLong();
+
+   // Sequence each slot was last published at, so the consumer sees producers finishing out of order
+
+   private final AtomicLongArray published;
+
+   // Next sequence the consumer will read; every slot before it is free
+
+   private volatile long released;
+
+   public RingBuffer(int size, Supplier < E > factory) {
+
+     if (size <= 0 || Integer.bitCount(size) != 1) {
+
+       throw new IllegalArgumentException("Ring size must be a positive power of two: " + size);
+
+     }
+
+     this.entries = new Object[size];
+
+     this.published = new AtomicLongArray(size);
+
+     for (int i = 0; i < size; i++) {
+
+       entries[i] = factory.get();
+
+       published.set(i, -1);
+
+     }
+
+     this.mask = size - 1;
+
+   }
+
+   /** 
+
+    * Claim the next sequence, waiting while the ring is full 
+
+    * 
+
+    * @return Sequence whose entry the caller now owns until it publishes 
+
+    */ 
+
+   public long next() {
+
+     long sequence = claimed.getAndIncrement();
+
+     for (int spins = 0; sequence - released >= entries.length; spins++) {
+
+       if (spins < 100) {
+
+         Thread.onSpinWait();
+
+       } else {
+
+         LockSupport.parkNanos(1_000);
+
+       }
+
+     }
+
+     return sequence;
+
+   }
+
+   /** 
+
+    * Get the entry of a claimed or published sequence 
+
+    */ 
+
+   @SuppressWarnings("unchecked")
+
+   public E get(long sequence) {
+
+     return (E) entries[(int) sequence & mask];
+
+   }
+
+   /** 
+
+    * Hand a filled entry to the consumer 
+
+    */ 
+
+   public void publish(long sequence) {
+
+     published.set((int) sequence & mask, sequence);
+
+   }
+
+   /** 
+
+    * Get the sequence after the last one published without a gap, starting from a sequence the consumer has not read 
+
+    * Consumer only 
+
+    * 
+
+    * @param from First unread sequence 
+
+    * @param limit Most entries to return at once 
+
+    * @return Sequence after the last readable entry; equal to from when nothing is published yet 
+
+    */ 
+
+   public long availableFrom(long from, int limit) {
+
+     long end = from;
+
+     while (end - from < limit && published.get((int) end & mask) == end) {
+
+       end++;
+
+     }
+
+     return end;
+
+   }
+
+   /** 
+
+    * Give every slot before a sequence back to producers 
+
+    * Consumer only 
+
+    */ 
+
+   public void release(long upTo) {
+
+     released = upTo;
+
+   }
+
+   public int getSize() {
+
+     return entries.length;
+
+   }
+
+ }
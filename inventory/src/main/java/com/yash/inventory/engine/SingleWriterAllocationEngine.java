@@ -0,0 +1,750 @@
+ package com.yash.inventory.engine;
+
+ import java.util.ArrayList;
+ import java.util.List;
+ import java.util.concurrent.CompletableFuture;
+ import java.util.concurrent.ExecutionException;
+ import java.util.concurrent.TimeUnit;
+ import java.util.concurrent.TimeoutException;
+ import java.util.concurrent.atomic.AtomicInteger;
+ import java.util.concurrent.atomic.LongAdder;
+ import java.util.concurrent.locks.LockSupport;
+ import java.util.concurrent.locks.ReentrantLock;
+
+ import org.slf4j.Logger;
+ import org.slf4j.LoggerFactory;
+ import org.springframework.beans.factory.annotation.Value;
+ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+ import org.springframework.context.annotation.Primary;
+ import org.springframework.stereotype.Component;
+
+ import com.yash.inventory.dto.BulkInventoryUpdateRequest;
+ import com.yash.inventory.dto.BulkInventoryUpdateResponse;
+ import com.yash.inventory.dto.InventoryUpdateRequest;
+ import com.yash.inventory.dto.InventoryUpdateResponse;
+ import com.yash.inventory.dto.ReservationRequest;
+ import com.yash.inventory.dto.ReservationResponse;
+ import com.yash.inventory.service.InventoryService;
+ import com.yash.inventory.service.LineOutcome;
+
+ import jakarta.annotation.PreDestroy;
+
+ /** 
+
+  * Allocation engine that hands each single-product update to the one worker thread owning its product's partition 
+
+  * Callers publish into the partition's pre-allocated {@link RingBuffer} and get a future; no lock is taken. The worker 
+
+  * drains whatever has been published, plans every line against the in-memory batch index and commits the whole group 
+
+  * in one transaction. Bulk updates and reservations still go through the {@link LockStripedAllocationEngine} 
+
+  * With a flush interval the worker runs write-behind: it keeps collecting updates until the interval runs out or 
+
+  * the group is full, so many updates of the same batches are coalesced into one commit. Callers are still only 
+
+  * answered once the commit covering their update is done 
+
+  * A worker that stops, through shutdown or an unexpected error, fails every update still queued for it 
+
+  */ 
+
+ @Component
+
+ @Primary
+
+ @ConditionalOnProperty(name = "inventory.allocation.engine", havingValue = "single-writer")
+
+ public class SingleWriterAllocationEngine implements AllocationEngine {
+
+   private static final Logger logger = LoggerFactory.getLogger(SingleWriterAllocationEngine.class);
+
+   private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+   private final InventoryService inventoryService;
+
+   private final LockStripedAllocationEngine lockingEngine;
+
+   private final int maxGroupSize;
+
+   private final long flushNanos;
+
+   private final long timeoutMillis;
+
+   private final Partition[] partitions;
+
+   private final LongAdder groupCommits = new LongAdder();
+
+   private final LongAdder committedLines = new LongAdder();
+
+   private volatile boolean running = true;
+
+   public SingleWriterAllocationEngine(InventoryService inventoryService, LockStripedAllocationEngine lockingEngine,
+
+     @Value("${inventory.pipeline.partitions:4}") int partitionCount,
+
+     @Value("${inventory.pipeline.ring-size:1024}") int ringSize,
+
+     @Value("${inventory.pipeline.max-group-size:256}") int maxGroupSize,
+
+     @Value("${inventory.pipeline.flush-millis:0}") long flushMillis,
+
+     @Value("${inventory.pipeline.timeout-millis:30000}") long timeoutMillis) {
+
+     if (partitionCount <= 0 || maxGroupSize <= 0 || flushMillis < 0 || timeoutMillis <= 0) {
+
+       throw new IllegalArgumentException("Pipeline partitions, max group size and timeout must be positive, flush interval must not be negative");
+
+     }
+
+     this.inventoryService = inventoryService;
+
+     this.lockingEngine = lockingEngine;
+
+     this.maxGroupSize = maxGroupSize;
+
+     this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+
+     this.timeoutMillis = timeoutMillis;
+
+     this.partitions = new Partition[partitionCount];
+
+     for (int i = 0; i < partitionCount; i++) {
+
+       partitions[i] = new Partition(i, ringSize);
+
+     }
+
+     logger.info("Single-writer allocation pipeline started with {} partitions of {} slots", partitionCount, ringSize);
+
+   }
+
+   /** 
+
+    * Allocate and deduct inventory for a single product on its partition's worker 
+
+    * 
+
+    * @param request Inventory update request 
+
+    * @return Future completed with the update response once the group holding it commits, or with why it failed 
+
+    */ 
+
+   public CompletableFuture < InventoryUpdateResponse > allocateAsync(InventoryUpdateRequest request) {
+
+     Partition partition = partitions[partitionFor(request.getProductCode())];
+
+     if (!running || partition.exited) {
+
+       return CompletableFuture.failedFuture(new IllegalStateException("Allocation pipeline is shut down"));
+
+     }
+
+     return partition.submit(request);
+
+   }
+
+   /** 
+
+    * Allocate on the partition's worker, waiting at most inventory.pipeline.timeout-millis for the worker to take 
+
+    * the update. An update still queued when the wait runs out is abandoned and never applied; once the worker has 
+
+    * claimed it, the caller waits for the group's outcome however long the commit takes 
+
+    */ 
+
+   @Override
+
+   public InventoryUpdateResponse allocate(InventoryUpdateRequest request) {
+
+     CompletableFuture < InventoryUpdateResponse > future = allocateAsync(request);
+
+     try {
+
+       return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+
+     } catch (ExecutionException e) {
+
+       throw failureOf(e);
+
+     } catch (TimeoutException e) {
+
+       IllegalStateException timeout = new IllegalStateException("Allocation of product " + request.getProductCode() +
+
+         " did not complete within " + timeoutMillis + " ms");
+
+       if (future instanceof PendingUpdate pending && !pending.abandon(timeout)) {
+
+         // Claimed by the worker, so the group commit decides; failing it now could hide an applied deduction 
+
+         return awaitClaimed(future, request);
+
+       }
+
+       throw timeout;
+
+     } catch (InterruptedException e) {
+
+       Thread.currentThread().interrupt();
+
+       throw new IllegalStateException("Interrupted while waiting for allocation of product " + request.getProductCode(), e);
+
+     }
+
+   }
+
+   private static InventoryUpdateResponse awaitClaimed(CompletableFuture < InventoryUpdateResponse > future,
+
+     InventoryUpdateRequest request) {
+
+     try {
+
+       return future.get();
+
+     } catch (ExecutionException e) {
+
+       throw failureOf(e);
+
+     } catch (InterruptedException e) {
+
+       Thread.currentThread().interrupt();
+
+       throw new IllegalStateException("Interrupted while waiting for allocation of product " + request.getProductCode(), e);
+
+     }
+
+   }
+
+   /** 
+
+    * Get the failure an update's future completed with, rethrowing errors as they are 
+
+    */ 
+
+   private static RuntimeException failureOf(ExecutionException e) {
+
+     if (e.getCause() instanceof Error cause) {
+
+       throw cause;
+
+     }
+
+     return e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+
+   }
+
+   @Override
+
+   public BulkInventoryUpdateResponse allocateAll(BulkInventoryUpdateRequest request) {
+
+     return lockingEngine.allocateAll(request);
+
+   }
+
+   @Override
+
+   public ReservationResponse reserve(ReservationRequest request) {
+
+     return lockingEngine.reserve(request);
+
+   }
+
+   @Override
+
+   public ReservationResponse confirm(String reservationId) {
+
+     return lockingEngine.confirm(reservationId);
+
+   }
+
+   @Override
+
+   public ReservationResponse release(String reservationId) {
+
+     return lockingEngine.release(reservationId);
+
+   }
+
+   @Override
+
+   public void expire(String reservationId) {
+
+     lockingEngine.expire(reservationId);
+
+   }
+
+   /** 
+
+    * Get the number of group transactions committed so far 
+
+    */ 
+
+   public long getGroupCommitCount() {
+
+     return groupCommits.sum();
+
+   }
+
+   /** 
+
+    * Get the number of lines committed by group transactions so far 
+
+    */ 
+
+   public long getCommittedLineCount() {
+
+     return committedLines.sum();
+
+   }
+
+   /** 
+
+    * Stop accepting updates, let every worker finish what was already published, then stop the workers 
+
+    * Anything published after a worker stopped is failed rather than left waiting 
+
+    */ 
+
+   @PreDestroy
+
+   public void shutdown() throws InterruptedException {
+
+     running = false;
+
+     for (Partition partition: partitions) {
+
+       LockSupport.unpark(partition.worker);
+
+     }
+
+     for (Partition partition: partitions) {
+
+       partition.worker.join(TimeUnit.SECONDS.toMillis(10));
+
+       if (partition.worker.isAlive()) {
+
+         logger.warn("Allocation worker {} did not stop within 10 s", partition.worker.getName());
+
+       } else {
+
+         partition.failLeftovers(null);
+
+       }
+
+     }
+
+   }
+
+   private int partitionFor(String productCode) {
+
+     int hash = productCode == null ? 0 : productCode.hashCode();
+
+     return Math.floorMod(hash ^ (hash >>> 16), partitions.length);
+
+   }
+
+   /** 
+
+    * Commit a drained group in one transaction and complete its futures 
+
+    * If a writer outside the pipeline got ahead of the index, the group is rolled back and every line is retried 
+
+    * on its own through the locking engine 
+
+    */ 
+
+   private void commit(List < InventoryUpdateRequest > requests, List < CompletableFuture < InventoryUpdateResponse >> futures) {
+
+     List < LineOutcome > outcomes;
+
+     try {
+
+       outcomes = inventoryService.updateInventoryGroup(requests);
+
+     } catch (Throwable e) {
+
+       logger.debug("Group of {} allocations rolled back, committing them one by one", requests.size(), e);
+
+       for (int i = 0; i < requests.size(); i++) {
+
+         try {
+
+           futures.get(i).complete(lockingEngine.allocate(requests.get(i)));
+
+         } catch (Throwable lineFailure) {
+
+           futures.get(i).completeExceptionally(lineFailure);
+
+         }
+
+       }
+
+       return;
+
+     }
+
+     groupCommits.increment();
+
+     committedLines.add(requests.size());
+
+     for (int i = 0; i < outcomes.size(); i++) {
+
+       LineOutcome outcome = outcomes.get(i);
+
+       if (outcome.isSuccess()) {
+
+         futures.get(i).complete(outcome.response());
+
+       } else {
+
+         futures.get(i).completeExceptionally(outcome.failure());
+
+       }
+
+     }
+
+   }
+
+   /** 
+
+    * Reusable ring entry carrying one update and its caller's future 
+
+    */ 
+
+   private static final class Slot {
+
+     private InventoryUpdateRequest request;
+
+     private PendingUpdate future;
+
+   }
+
+   /** 
+
+    * Future of one published update, with the claim that decides whether the worker or a timed-out caller settles it 
+
+    * The state lives on the update rather than the ring slot, which is reused once the worker has read it 
+
+    */ 
+
+   private static final class PendingUpdate extends CompletableFuture < InventoryUpdateResponse > {
+
+     private static final int QUEUED = 0;
+
+     private static final int CLAIMED = 1;
+
+     private static final int ABANDONED = 2;
+
+     private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+     /** 
+
+      * Take the update into a group; fails if its caller already gave up 
+
+      */ 
+
+     private boolean claim() {
+
+       return state.compareAndSet(QUEUED, CLAIMED);
+
+     }
+
+     /** 
+
+      * Fail the update for its caller, only while no group has claimed it 
+
+      */ 
+
+     private boolean abandon(Throwable failure) {
+
+       if (!state.compareAndSet(QUEUED, ABANDONED)) {
+
+         return false;
+
+       }
+
+       completeExceptionally(failure);
+
+       return true;
+
+     }
+
+   }
+
+   /** 
+
+    * One product partition: its ring and the single worker thread that owns its products 
+
+    */ 
+
+   private final class Partition implements Runnable {
+
+     private final RingBuffer < Slot > ring;
+
+     private final Thread worker;
+
+     private volatile boolean idle;
+
+     // Set once the worker loop ended; from then on leftovers are drained by whoever holds drainLock 
+
+     private volatile boolean exited;
+
+     private final ReentrantLock drainLock = new ReentrantLock();
+
+     // Next sequence to read; owned by the worker while it runs, then guarded by drainLock 
+
+     private long next;
+
+     private Partition(int index, int ringSize) {
+
+       this.ring = new RingBuffer < > (ringSize, Slot::new);
+
+       this.worker = new Thread(this, "allocation-writer-" + index);
+
+       worker.setDaemon(true);
+
+       worker.start();
+
+     }
+
+     private CompletableFuture < InventoryUpdateResponse > submit(InventoryUpdateRequest request) {
+
+       PendingUpdate future = new PendingUpdate();
+
+       long sequence = ring.next();
+
+       Slot slot = ring.get(sequence);
+
+       slot.request = request;
+
+       slot.future = future;
+
+       ring.publish(sequence);
+
+       if (idle) {
+
+         LockSupport.unpark(worker);
+
+       }
+
+       // The worker may have stopped between the caller's check and the publish; it will never read this slot 
+
+       if (exited) {
+
+         failLeftovers(null);
+
+       }
+
+       return future;
+
+     }
+
+     /** 
+
+      * Fail every update published but not read, once the worker has stopped 
+
+      * 
+
+      * @param cause Why the worker stopped, or null for a shutdown 
+
+      */ 
+
+     private void failLeftovers(Throwable cause) {
+
+       drainLock.lock();
+
+       try {
+
+         long end;
+
+         while ((end = ring.availableFrom(next, ring.getSize())) != next) {
+
+           for (long sequence = next; sequence < end; sequence++) {
+
+             Slot slot = ring.get(sequence);
+
+             PendingUpdate future = slot.future;
+
+             slot.request = null;
+
+             slot.future = null;
+
+             future.completeExceptionally(cause == null ?
+
+               new IllegalStateException("Allocation pipeline is shut down") :
+
+               new IllegalStateException("Allocation worker " + worker.getName() + " stopped", cause));
+
+           }
+
+           ring.release(end);
+
+           next = end;
+
+         }
+
+       } finally {
+
+         drainLock.unlock();
+
+       }
+
+     }
+
+     @Override
+
+     public void run() {
+
+       List < InventoryUpdateRequest > requests = new ArrayList < > (maxGroupSize);
+
+       List < CompletableFuture < InventoryUpdateResponse >> futures = new ArrayList < > (maxGroupSize);
+
+       Throwable failure = null;
+
+       try {
+
+         drain(requests, futures);
+
+       } catch (Throwable e) {
+
+         failure = e;
+
+         logger.error("Allocation worker {} stopped unexpectedly", worker.getName(), e);
+
+         futures.forEach(future -> future.completeExceptionally(e));
+
+       } finally {
+
+         // Flag the exit before the last drain, so a producer publishing meanwhile always drains its own slot 
+
+         exited = true;
+
+         failLeftovers(failure);
+
+       }
+
+     }
+
+     /** 
+
+      * Read published updates and commit them in groups until shutdown leaves the ring empty 
+
+      */ 
+
+     private void drain(List < InventoryUpdateRequest > requests, List < CompletableFuture < InventoryUpdateResponse >> futures) {
+
+       long firstQueuedAt = 0;
+
+       while (true) {
+
+         long end = ring.availableFrom(next, maxGroupSize - requests.size());
+
+         boolean drained = end == next;
+
+         for (long sequence = next; sequence < end; sequence++) {
+
+           Slot slot = ring.get(sequence);
+
+           // A caller that gave up waiting has already failed its future; its update is dropped 
+
+           if (slot.future.claim()) {
+
+             requests.add(slot.request);
+
+             futures.add(slot.future);
+
+           }
+
+           slot.request = null;
+
+           slot.future = null;
+
+         }
+
+         ring.release(end);
+
+         next = end;
+
+         if (requests.isEmpty()) {
+
+           if (!running) {
+
+             return;
+
+           }
+
+           park(next, IDLE_PARK_NANOS);
+
+           continue;
+
+         }
+
+         if (firstQueuedAt == 0) {
+
+           firstQueuedAt = System.nanoTime();
+
+         }
+
+         long lingerLeft = flushNanos - (System.nanoTime() - firstQueuedAt);
+
+         if (lingerLeft > 0 && requests.size() < maxGroupSize && running) {
+
+           // Write-behind: keep coalescing until the flush interval runs out or the group is full 
+
+           if (drained) {
+
+             park(next, lingerLeft);
+
+           }
+
+           continue;
+
+         }
+
+         try {
+
+           commit(requests, futures);
+
+         } catch (Throwable e) {
+
+           futures.forEach(future -> future.completeExceptionally(e));
+
+         }
+
+         requests.clear();
+
+         futures.clear();
+
+         firstQueuedAt = 0;
+
+       }
+
+     }
+
+     /** 
+
+      * Park until a producer publishes or the timeout passes 
+
+      */
+
+     private void park(long next, long nanos) {
+
+       // Flag idleness before the last look, so a producer publishing meanwhile always unparks us 
+
+       idle = true;
+
+       if (ring.availableFrom(next, 1) == next) {
+
+         LockSupport.parkNanos(nanos);
+
+       }
+
+       idle = false;
+
+     }
+
+   }
+
+ }
@@ -0,0 +1,113 @@
+package com.yash.inventory.entity;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+
+ * Depleted or expired batch moved out of the batches table by the compaction job
+
+ * Keeps the original batch id; the product is referenced by id only so archived rows outlive their product
+
+ */
+
+@Entity
+
+@Table(name = "batches_archive")
+public class ArchivedBatch {
+
+	@Id
+
+	private Long id;
+
+	@Column(nullable = false)
+
+	private String batchNumber;
+
+	@Column(nullable = false)
+
+	private Long productId;
+
+	@Column(nullable = false)
+
+	private Integer quantity;
+
+	@Column(nullable = false)
+
+	private LocalDate expiryDate;
+
+	@Column(nullable = false)
+
+	private LocalDate receivedDate;
+
+	@Column(nullable = false)
+
+	private Instant archivedAt;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getBatchNumber() {
+		return batchNumber;
+	}
+
+	public void setBatchNumber(String batchNumber) {
+		this.batchNumber = batchNumber;
+	}
+
+	public Long getProductId() {
+		return productId;
+	}
+
+	public void setProductId(Long productId) {
+		this.productId = productId;
+	}
+
+	public Integer getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(Integer quantity) {
+		this.quantity = quantity;
+	}
+
+	public LocalDate getExpiryDate() {
+		return expiryDate;
+	}
+
+	public void setExpiryDate(LocalDate expiryDate) {
+		this.expiryDate = expiryDate;
+	}
+
+	public LocalDate getReceivedDate() {
+		return receivedDate;
+	}
+
+	public void setReceivedDate(LocalDate receivedDate) {
+		this.receivedDate = receivedDate;
+	}
+
+	public Instant getArchivedAt() {
+		return archivedAt;
+	}
+
+	public void setArchivedAt(Instant archivedAt) {
+		this.archivedAt = archivedAt;
+	}
+
+	public ArchivedBatch() {
+		super();
+		// TODO Auto-generated constructor stub
+	}
+
+}
@@ -2,19 +2,33 @@ package com.yash.inventory.entity;
 
 import java.time.LocalDate;
 
+import org.hibernate.annotations.ColumnDefault;
+
+import com.yash.inventory.index.BatchIndexListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 
 @Entity
 
-@Table(name = "batches")
+@Table(name = "batches", indexes = {
+
+		// Serves the live-batch lookups: one product, not yet expired, in expiry order
+
+		@Index(name = "idx_batches_product_expiry", columnList = "product_id, expiry_date") })
+
+@EntityListeners(BatchIndexListener.class)
 public class Batch {
 
 	@Id
@@ -37,6 +51,14 @@ public class Batch {
 
 	private Integer quantity;
 
+	// Units held by open reservations; already taken out of quantity 
+
+	@Column(nullable = false)
+
+	@ColumnDefault("0")
+
+	private Integer reservedQuantity = 0;
+
 	@Column(nullable = false)
 
 	private LocalDate expiryDate;
@@ -45,6 +67,22 @@ public class Batch {
 
 	private LocalDate receivedDate;
 
+	// Bumped by every write, including the set-based JDBC updates, for optimistic concurrency control 
+
+	@Version
+
+	@Column(nullable = false)
+
+	@ColumnDefault("0")
+
+	private Long version;
+
+	// Quantity as last read from or written to the database, so entity writes can adjust the product counter by the difference 
+
+	@Transient
+
+	private Integer persistedQuantity;
+
 	public Long getId() {
 		return id;
 	}
@@ -77,6 +115,14 @@ public class Batch {
 		this.quantity = quantity;
 	}
 
+	public Integer getReservedQuantity() {
+		return reservedQuantity;
+	}
+
+	public void setReservedQuantity(Integer reservedQuantity) {
+		this.reservedQuantity = reservedQuantity;
+	}
+
 	public LocalDate getExpiryDate() {
 		return expiryDate;
 	}
@@ -92,6 +138,22 @@ public class Batch {
 	public void setReceivedDate(LocalDate receivedDate) {
 		this.receivedDate = receivedDate;
 	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public Integer getPersistedQuantity() {
+		return persistedQuantity;
+	}
+
+	public void setPersistedQuantity(Integer persistedQuantity) {
+		this.persistedQuantity = persistedQuantity;
+	}
 	
 	public Batch() {
 		super();
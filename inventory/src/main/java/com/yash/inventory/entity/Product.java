@@ -2,9 +2,14 @@
 
  import java.util.List;
 
+import org.hibernate.annotations.ColumnDefault;
+
+import com.yash.inventory.index.BatchIndexListener;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -16,6 +21,8 @@ import jakarta.persistence.Table;
 
  @Table(name = "products")
 
+ @EntityListeners(BatchIndexListener.class)
+
  public class Product {
 
    @Id
@@ -38,6 +45,16 @@ import jakarta.persistence.Table;
 
    private List < Batch > batches;
 
+   // Units on hand across this product's batches, expired ones included until archived; the allocatable quantity 
+
+   // comes from the batch index. Kept by set-based updates only, never written through the entity 
+
+   @Column(nullable = false, insertable = false, updatable = false)
+
+   @ColumnDefault("0")
+
+   private Long onHandQuantity;
+
    public Long getId() {
 	return id;
    }
@@ -78,6 +95,14 @@ import jakarta.persistence.Table;
 	this.batches = batches;
    }
 
+   public Long getOnHandQuantity() {
+	return onHandQuantity;
+   }
+
+   public void setOnHandQuantity(Long onHandQuantity) {
+	this.onHandQuantity = onHandQuantity;
+   }
+
    public Product(Long id, String productCode, String name, String description, List<Batch> batches) {
 	super();
 	this.id = id;
@@ -0,0 +1,117 @@
+package com.yash.inventory.entity;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OrderColumn;
+import jakarta.persistence.Table;
+
+@Entity
+
+@Table(name = "reservations")
+public class Reservation {
+
+	@Id
+
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+
+	private Long id;
+
+	@Column(nullable = false, unique = true)
+
+	private String reservationId;
+
+	@Enumerated(EnumType.STRING)
+
+	@Column(nullable = false)
+
+	private ReservationStatus status;
+
+	@Column(nullable = false)
+
+	private Instant createdAt;
+
+	@Column(nullable = false)
+
+	private Instant expiresAt;
+
+	@ElementCollection(fetch = FetchType.EAGER)
+
+	@CollectionTable(name = "reservation_lines", joinColumns = @JoinColumn(name = "reservation_id"))
+
+	@OrderColumn(name = "line_index")
+
+	private List<ReservationLine> lines = new ArrayList<>();
+
+	public enum ReservationStatus {
+
+		HELD, CONFIRMED, RELEASED, EXPIRED
+
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getReservationId() {
+		return reservationId;
+	}
+
+	public void setReservationId(String reservationId) {
+		this.reservationId = reservationId;
+	}
+
+	public ReservationStatus getStatus() {
+		return status;
+	}
+
+	public void setStatus(ReservationStatus status) {
+		this.status = status;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Instant createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public Instant getExpiresAt() {
+		return expiresAt;
+	}
+
+	public void setExpiresAt(Instant expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+
+	public List<ReservationLine> getLines() {
+		return lines;
+	}
+
+	public void setLines(List<ReservationLine> lines) {
+		this.lines = lines;
+	}
+
+	public Reservation() {
+		super();
+		// TODO Auto-generated constructor stub
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.yash.inventory.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+
+ * Quantity a reservation holds in one batch
+
+ */
+
+@Embeddable
+public class ReservationLine {
+
+	@Column(nullable = false)
+
+	private Long productId;
+
+	@Column(nullable = false)
+
+	private String productCode;
+
+	@Column(nullable = false)
+
+	private Long batchId;
+
+	@Column(nullable = false)
+
+	private String batchNumber;
+
+	@Column(nullable = false)
+
+	private Integer quantity;
+
+	public Long getProductId() {
+		return productId;
+	}
+
+	public void setProductId(Long productId) {
+		this.productId = productId;
+	}
+
+	public String getProductCode() {
+		return productCode;
+	}
+
+	public void setProductCode(String productCode) {
+		this.productCode = productCode;
+	}
+
+	public Long getBatchId() {
+		return batchId;
+	}
+
+	public void setBatchId(Long batchId) {
+		this.batchId = batchId;
+	}
+
+	public String getBatchNumber() {
+		return batchNumber;
+	}
+
+	public void setBatchNumber(String batchNumber) {
+		this.batchNumber = batchNumber;
+	}
+
+	public Integer getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(Integer quantity) {
+		this.quantity = quantity;
+	}
+
+	public ReservationLine() {
+		super();
+		// TODO Auto-generated constructor stub
+	}
+
+	public ReservationLine(Long productId, String productCode, Long batchId, String batchNumber, Integer quantity) {
+		super();
+		this.productId = productId;
+		this.productCode = productCode;
+		this.batchId = batchId;
+		this.batchNumber = batchNumber;
+		this.quantity = quantity;
+	}
+
+}
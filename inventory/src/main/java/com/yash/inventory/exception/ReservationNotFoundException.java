@@ -0,0 +1,11 @@
+ package com.yash.inventory.exception;
+
+ public class ReservationNotFoundException extends RuntimeException {
+
+   public ReservationNotFoundException(String message) {
+
+     super(message);
+
+   }
+
+ }
@@ -0,0 +1,617 @@
+ package com.yash.inventory.index;
+
+ import java.time.LocalDate;
+ import java.util.ArrayList;
+ import java.util.Collections;
+ import java.util.Comparator;
+ import java.util.HashMap;
+ import java.util.List;
+ import java.util.Map;
+ import java.util.Optional;
+ import java.util.concurrent.ConcurrentHashMap;
+ import java.util.function.Supplier;
+
+ import org.slf4j.Logger;
+ import org.slf4j.LoggerFactory;
+ import org.springframework.beans.factory.SmartInitializingSingleton;
+ import org.springframework.beans.factory.annotation.Autowired;
+ import org.springframework.stereotype.Component;
+
+ import com.yash.inventory.entity.Batch;
+ import com.yash.inventory.entity.Product;
+ import com.yash.inventory.repository.BatchRepository;
+ import com.yash.inventory.repository.ProductRepository;
+ import com.yash.inventory.strategy.BatchOrder;
+ import com.yash.inventory.support.TransactionCallbacks;
+
+ /**
+
+  * In-memory per-product index of live batches (quantity > 0 and not yet expired)
+
+  * Loaded once at startup and kept consistent by {@link BatchIndexListener} on every committed write
+
+  * Batches that expire while indexed are dropped on the first read after their expiry date
+
+  */
+
+ @Component
+
+ public class BatchIndex implements SmartInitializingSingleton {
+
+   private static final Logger logger = LoggerFactory.getLogger(BatchIndex.class);
+
+   private static final Comparator < Batch > BY_EXPIRY_DATE =
+     Comparator.comparing(Batch::getExpiryDate).thenComparing(Batch::getId);
+
+   private static final Comparator < Batch > BY_RECEIVED_DATE =
+     Comparator.comparing(Batch::getReceivedDate).thenComparing(Batch::getId);
+
+   private final ProductRepository productRepository;
+
+   private final BatchRepository batchRepository;
+
+   private final Map < Long, ProductBatches > productsById = new ConcurrentHashMap < > ();
+
+   private final Map < String, Long > productIdsByCode = new ConcurrentHashMap < > ();
+
+   private final Supplier < LocalDate > today;
+
+   @Autowired
+
+   public BatchIndex(ProductRepository productRepository, BatchRepository batchRepository) {
+
+     this(productRepository, batchRepository, LocalDate::now);
+
+   }
+
+   public BatchIndex(ProductRepository productRepository, BatchRepository batchRepository, Supplier < LocalDate > today) {
+
+     this.productRepository = productRepository;
+
+     this.batchRepository = batchRepository;
+
+     this.today = today;
+
+   }
+
+   @Override
+
+   public void afterSingletonsInstantiated() {
+
+     reload();
+
+   }
+
+   /**
+
+    * Rebuild the whole index from the database
+
+    */
+
+   public void reload() {
+
+     int repaired = batchRepository.recalculateOnHandQuantities();
+
+     if (repaired > 0) {
+
+       logger.info("Recalculated persisted on-hand quantity of {} products", repaired);
+
+     }
+
+     productsById.clear();
+
+     productIdsByCode.clear();
+
+     for (Product product: productRepository.findAll()) {
+
+       applyProductSaved(product.getId(), product.getProductCode(), product.getName());
+
+     }
+
+     for (Batch batch: batchRepository.findLiveBatches(today.get())) {
+
+       applyBatchSaved(copyOf(batch, batch.getProduct().getId()));
+
+     }
+
+     // A fully reserved batch has no stock left, so reservations are summed separately from the live batches
+
+     for (Batch batch: batchRepository.findByReservedQuantityGreaterThan(0)) {
+
+       applyReservedChanged(batch.getProduct().getId(), batch.getReservedQuantity());
+
+     }
+
+     logger.info("Batch index loaded: {} products", productsById.size());
+
+   }
+
+   /**
+
+    * Get the indexed view of a product
+
+    *
+
+    * @param productCode Product code
+
+    * @return Indexed product, empty if the product does not exist
+
+    */
+
+   public Optional < ProductBatches > getProduct(String productCode) {
+
+     Long productId = productIdsByCode.get(productCode);
+
+     if (productId == null) {
+
+       return Optional.empty();
+
+     }
+
+     ProductBatches product = productsById.get(productId);
+
+     LocalDate day = today.get();
+
+     if (product != null && product.hasExpiredBatches(day)) {
+
+       product = productsById.computeIfPresent(productId, (id, current) -> current.withoutExpired(day));
+
+     }
+
+     return Optional.ofNullable(product);
+
+   }
+
+   /**
+
+    * Record a persisted product; applied once the surrounding transaction commits
+
+    */
+
+   public void onProductSaved(Product product) {
+
+     Long productId = product.getId();
+
+     String productCode = product.getProductCode();
+
+     String name = product.getName();
+
+     TransactionCallbacks.afterCommit(() -> applyProductSaved(productId, productCode, name));
+
+   }
+
+   /**
+
+    * Record a removed product; applied once the surrounding transaction commits
+
+    */
+
+   public void onProductRemoved(Product product) {
+
+     Long productId = product.getId();
+
+     TransactionCallbacks.afterCommit(() -> {
+
+       ProductBatches removed = productsById.remove(productId);
+
+       if (removed != null) {
+
+         productIdsByCode.remove(removed.getProductCode(), productId);
+
+       }
+
+     });
+
+   }
+
+   /**
+
+    * Record a persisted batch; applied once the surrounding transaction commits
+
+    */
+
+   public void onBatchSaved(Batch batch) {
+
+     Batch snapshot = copyOf(batch, batch.getProduct().getId());
+
+     TransactionCallbacks.afterCommit(() -> applyBatchSaved(snapshot));
+
+   }
+
+   /**
+
+    * Record a removed batch; applied once the surrounding transaction commits
+
+    */
+
+   public void onBatchRemoved(Batch batch) {
+
+     Long productId = batch.getProduct().getId();
+
+     Long batchId = batch.getId();
+
+     TransactionCallbacks.afterCommit(() ->
+
+       productsById.computeIfPresent(productId, (id, current) -> current.without(batchId)));
+
+   }
+
+   /** 
+
+    * Record quantities deducted by a set-based update that bypassed the entity listener 
+
+    * Applied once the surrounding transaction commits 
+
+    * 
+
+    * @param productId Product the batches belong to 
+
+    * @param allocations Batches carrying the id and the quantity deducted 
+
+    */
+
+   public void onBatchesDecremented(Long productId, List < Batch > allocations) {
+
+     Map < Long, Integer > deducted = new HashMap < > ();
+
+     for (Batch allocation: allocations) {
+
+       deducted.merge(allocation.getId(), allocation.getQuantity(), Integer::sum);
+
+     }
+
+     TransactionCallbacks.afterCommit(() ->
+
+       productsById.computeIfPresent(productId, (id, current) -> current.decremented(deducted)));
+
+   }
+
+   /**
+
+    * Record a change in the quantity held by reservations for a product
+
+    * Applied once the surrounding transaction commits
+
+    *
+
+    * @param productId Product the reservation belongs to
+
+    * @param delta Units newly reserved, or negative for units confirmed or released
+
+    */
+
+   public void onReservedChanged(Long productId, long delta) {
+
+     TransactionCallbacks.afterCommit(() -> applyReservedChanged(productId, delta));
+
+   }
+
+   private void applyReservedChanged(Long productId, long delta) {
+
+     productsById.computeIfPresent(productId, (id, current) -> current.reserved(current.reservedQuantity + delta));
+
+   }
+
+   private void applyProductSaved(Long productId, String productCode, String name) {
+
+     ProductBatches updated = productsById.compute(productId, (id, current) -> current == null ?
+
+       new ProductBatches(productId, productCode, name, List.of(), List.of(), 0, 0) :
+
+       current.renamed(productCode, name));
+
+     productIdsByCode.values().remove(productId);
+
+     productIdsByCode.put(updated.getProductCode(), productId);
+
+   }
+
+   private void applyBatchSaved(Batch snapshot) {
+
+     Long productId = snapshot.getProduct().getId();
+
+     if (snapshot.getExpiryDate().isBefore(today.get())) {
+
+       productsById.computeIfPresent(productId, (id, current) -> current.without(snapshot.getId()));
+
+       return;
+
+     }
+
+     productsById.computeIfPresent(productId, (id, current) -> current.with(snapshot));
+
+   }
+
+   private static Batch copyOf(Batch batch, Long productId) {
+
+     Product productRef = new Product();
+
+     productRef.setId(productId);
+
+     return new Batch(batch.getId(), batch.getBatchNumber(), productRef, batch.getQuantity(),
+
+       batch.getExpiryDate(), batch.getReceivedDate());
+
+   }
+
+   /**
+
+    * Immutable snapshot of one product's live batches in both allocation orders
+
+    * The available total is carried from snapshot to snapshot by the change each write makes, never re-summed
+
+    */
+
+   public static final class ProductBatches {
+
+     private final Long productId;
+
+     private final String productCode;
+
+     private final String productName;
+
+     private final List < Batch > byExpiryDate;
+
+     private final List < Batch > byReceivedDate;
+
+     private final long availableQuantity;
+
+     private final long reservedQuantity;
+
+     private ProductBatches(Long productId, String productCode, String productName,
+
+       List < Batch > byExpiryDate, List < Batch > byReceivedDate, long availableQuantity, long reservedQuantity) {
+
+       this.productId = productId;
+
+       this.productCode = productCode;
+
+       this.productName = productName;
+
+       this.byExpiryDate = byExpiryDate;
+
+       this.byReceivedDate = byReceivedDate;
+
+       this.availableQuantity = availableQuantity;
+
+       this.reservedQuantity = reservedQuantity;
+
+     }
+
+     public Long getProductId() {
+
+       return productId;
+
+     }
+
+     public String getProductCode() {
+
+       return productCode;
+
+     }
+
+     public String getProductName() {
+
+       return productName;
+
+     }
+
+     /**
+
+      * Total quantity across the live batches, kept incrementally so reading it is O(1)
+
+      */
+
+     public long getAvailableQuantity() {
+
+       return availableQuantity;
+
+     }
+
+     /**
+
+      * Total quantity held by open reservations; not part of the available quantity
+
+      */
+
+     public long getReservedQuantity() {
+
+       return reservedQuantity;
+
+     }
+
+     /**
+
+      * Get the live batches of this product in the given order
+
+      *
+
+      * @param order Batch ordering
+
+      * @return Unmodifiable list of batches
+
+      */
+
+     public List < Batch > getBatches(BatchOrder order) {
+
+       return order == BatchOrder.RECEIVED_DATE ? byReceivedDate : byExpiryDate;
+
+     }
+
+     private boolean hasExpiredBatches(LocalDate day) {
+
+       return !byExpiryDate.isEmpty() && byExpiryDate.get(0).getExpiryDate().isBefore(day);
+
+     }
+
+     /**
+
+      * Drop the batches that expired before the given day; they form a prefix of the expiry order
+
+      */
+
+     private ProductBatches withoutExpired(LocalDate day) {
+
+       int expired = 0;
+
+       long expiredQuantity = 0;
+
+       while (expired < byExpiryDate.size() && byExpiryDate.get(expired).getExpiryDate().isBefore(day)) {
+
+         expiredQuantity += byExpiryDate.get(expired).getQuantity();
+
+         expired++;
+
+       }
+
+       if (expired == 0) {
+
+         return this;
+
+       }
+
+       List < Batch > live = Collections.unmodifiableList(new ArrayList < > (byExpiryDate.subList(expired, byExpiryDate.size())));
+
+       List < Batch > byReceived = new ArrayList < > (byReceivedDate);
+
+       byReceived.removeIf(batch -> batch.getExpiryDate().isBefore(day));
+
+       return new ProductBatches(productId, productCode, productName, live, Collections.unmodifiableList(byReceived),
+
+         availableQuantity - expiredQuantity, reservedQuantity);
+
+     }
+
+     private ProductBatches renamed(String code, String name) {
+
+       return new ProductBatches(productId, code, name, byExpiryDate, byReceivedDate, availableQuantity, reservedQuantity);
+
+     }
+
+     private ProductBatches reserved(long quantity) {
+
+       return new ProductBatches(productId, productCode, productName, byExpiryDate, byReceivedDate, availableQuantity,
+
+         quantity);
+
+     }
+
+     private ProductBatches with(Batch snapshot) {
+
+       ProductBatches base = without(snapshot.getId());
+
+       if (snapshot.getQuantity() == null || snapshot.getQuantity() <= 0) {
+
+         return base;
+
+       }
+
+       return new ProductBatches(productId, productCode, productName,
+
+         inserted(base.byExpiryDate, snapshot, BY_EXPIRY_DATE),
+
+         inserted(base.byReceivedDate, snapshot, BY_RECEIVED_DATE), base.availableQuantity + snapshot.getQuantity(),
+
+         reservedQuantity);
+
+     }
+
+     private ProductBatches decremented(Map < Long, Integer > deducted) {
+
+       Map < Long, Batch > replacements = new HashMap < > ();
+
+       long deductedQuantity = 0;
+
+       for (Batch batch: byExpiryDate) {
+
+         Integer quantity = deducted.get(batch.getId());
+
+         if (quantity != null) {
+
+           deductedQuantity += quantity;
+
+           replacements.put(batch.getId(), new Batch(batch.getId(), batch.getBatchNumber(), batch.getProduct(),
+
+             batch.getQuantity() - quantity, batch.getExpiryDate(), batch.getReceivedDate()));
+
+         }
+
+       }
+
+       if (replacements.isEmpty()) {
+
+         return this;
+
+       }
+
+       return new ProductBatches(productId, productCode, productName,
+
+         replaced(byExpiryDate, replacements), replaced(byReceivedDate, replacements), availableQuantity - deductedQuantity,
+
+         reservedQuantity);
+
+     }
+
+     private ProductBatches without(Long batchId) {
+
+       Optional < Batch > existing = byExpiryDate.stream().filter(batch -> batch.getId().equals(batchId)).findFirst();
+
+       if (existing.isEmpty()) {
+
+         return this;
+
+       }
+
+       return new ProductBatches(productId, productCode, productName, removed(byExpiryDate, batchId),
+
+         removed(byReceivedDate, batchId), availableQuantity - existing.get().getQuantity(), reservedQuantity);
+
+     }
+
+     private static List < Batch > inserted(List < Batch > batches, Batch batch, Comparator < Batch > order) {
+
+       List < Batch > copy = new ArrayList < > (batches.size() + 1);
+
+       copy.addAll(batches);
+
+       int position = Collections.binarySearch(copy, batch, order);
+
+       copy.add(position < 0 ? -position - 1 : position, batch);
+
+       return Collections.unmodifiableList(copy);
+
+     }
+
+     private static List < Batch > replaced(List < Batch > batches, Map < Long, Batch > replacements) {
+
+       List < Batch > copy = new ArrayList < > (batches.size());
+
+       for (Batch batch: batches) {
+
+         Batch replacement = replacements.getOrDefault(batch.getId(), batch);
+
+         if (replacement.getQuantity() > 0) {
+
+           copy.add(replacement);
+
+         }
+
+       }
+
+       return Collections.unmodifiableList(copy);
+
+     }
+
+     private static List < Batch > removed(List < Batch > batches, Long batchId) {
+
+       List < Batch > copy = new ArrayList < > (batches);
+
+       copy.removeIf(batch -> batch.getId().equals(batchId));
+
+       return Collections.unmodifiableList(copy);
+
+     }
+
+   }
+
+ }
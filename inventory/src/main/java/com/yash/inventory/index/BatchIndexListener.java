@@ -0,0 +1,216 @@
+ package com.yash.inventory.index;
+
+ import org.springframework.beans.factory.ObjectProvider;
+
+ import com.yash.inventory.cache.BatchResponseCache;
+ import com.yash.inventory.entity.Batch;
+ import com.yash.inventory.entity.Product;
+import com.yash.inventory.ledger.MovementRecorder;
+import com.yash.inventory.ledger.MovementType;
+
+ import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+ import jakarta.persistence.PostRemove;
+ import jakarta.persistence.PostUpdate;
+
+ /**
+
+  * JPA entity listener that forwards product and batch writes to the {@link BatchIndex} and the {@link BatchResponseCache}
+
+  * Batch writes also count the change in batch quantity towards the owning product's on-hand quantity
+
+  * and are recorded in the movement ledger as receipts and adjustments
+
+  * Every hook only registers in-memory work for after the commit; none of them touches the database
+
+  * The quantity before the write is the one last loaded or written; a set-based update in between bumps the
+
+  * batch version, so an entity write based on a stale quantity fails its version check and is never counted
+
+  * The index is resolved lazily because Hibernate builds listeners while the repositories are still being created
+
+  */
+
+ public class BatchIndexListener {
+
+   private final ObjectProvider < BatchIndex > batchIndex;
+
+   private final ObjectProvider < BatchResponseCache > batchCache;
+
+   private final ObjectProvider < OnHandCounters > onHandCounters;
+
+   private final ObjectProvider < MovementRecorder > movementRecorder;
+
+   public BatchIndexListener(ObjectProvider < BatchIndex > batchIndex, ObjectProvider < BatchResponseCache > batchCache,
+
+     ObjectProvider < OnHandCounters > onHandCounters, ObjectProvider < MovementRecorder > movementRecorder) {
+
+     this.batchIndex = batchIndex;
+
+     this.batchCache = batchCache;
+
+     this.onHandCounters = onHandCounters;
+
+     this.movementRecorder = movementRecorder;
+
+   }
+
+   @PostLoad
+
+   public void afterLoad(Object entity) {
+
+     if (entity instanceof Batch batch) {
+
+       batch.setPersistedQuantity(batch.getQuantity());
+
+     }
+
+   }
+
+   @PostPersist
+
+   @PostUpdate
+
+   public void afterSave(Object entity) {
+
+     invalidateCache(entity);
+
+     if (entity instanceof Batch batch) {
+
+       countOnHand(batch, batch.getQuantity());
+
+       recordMovement(batch, batch.getQuantity());
+
+       batch.setPersistedQuantity(batch.getQuantity());
+
+     }
+
+     BatchIndex index = batchIndex.getIfAvailable();
+
+     if (index == null) {
+
+       return;
+
+     }
+
+     if (entity instanceof Batch batch) {
+
+       index.onBatchSaved(batch);
+
+     } else if (entity instanceof Product product) {
+
+       index.onProductSaved(product);
+
+     }
+
+   }
+
+   @PostRemove
+
+   public void afterRemove(Object entity) {
+
+     invalidateCache(entity);
+
+     if (entity instanceof Batch batch) {
+
+       countOnHand(batch, 0);
+
+       recordMovement(batch, 0);
+
+     } else if (entity instanceof Product product) {
+
+       forgetOnHand(product);
+
+     }
+
+     BatchIndex index = batchIndex.getIfAvailable();
+
+     if (index == null) {
+
+       return;
+
+     }
+
+     if (entity instanceof Batch batch) {
+
+       index.onBatchRemoved(batch);
+
+     } else if (entity instanceof Product product) {
+
+       index.onProductRemoved(product);
+
+     }
+
+   }
+
+   private void countOnHand(Batch batch, int newQuantity) {
+
+     OnHandCounters counters = onHandCounters.getIfAvailable();
+
+     if (counters == null) {
+
+       return;
+
+     }
+
+     int previous = batch.getPersistedQuantity() == null ? 0 : batch.getPersistedQuantity();
+
+     counters.adjust(batch.getProduct().getId(), (long) newQuantity - previous);
+
+   }
+
+   private void forgetOnHand(Product product) {
+
+     OnHandCounters counters = onHandCounters.getIfAvailable();
+
+     if (counters != null) {
+
+       counters.forget(product.getId());
+
+     }
+
+   }
+
+   private void recordMovement(Batch batch, int newQuantity) {
+
+     MovementRecorder recorder = movementRecorder.getIfAvailable();
+
+     if (recorder == null) {
+
+       return;
+
+     }
+
+     Integer previous = batch.getPersistedQuantity();
+
+     // A batch's first write is its receipt; anything after it is a correction 
+
+     MovementType type = previous == null ? MovementType.RECEIPT : MovementType.ADJUSTMENT;
+
+     recorder.record(type, batch.getId(), newQuantity - (previous == null ? 0 : previous));
+
+   }
+
+   private void invalidateCache(Object entity) {
+
+     BatchResponseCache cache = batchCache.getIfAvailable();
+
+     if (cache == null) {
+
+       return;
+
+     }
+
+     if (entity instanceof Batch batch) {
+
+       cache.invalidate(batch.getProduct().getProductCode());
+
+     } else if (entity instanceof Product product) {
+
+       cache.invalidate(product.getProductCode());
+
+     }
+
+   }
+
+ }
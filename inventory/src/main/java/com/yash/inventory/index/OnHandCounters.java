@@ -0,0 +1,135 @@
+ package com.yash.inventory.index;
+
+ import java.util.Map;
+ import java.util.concurrent.ConcurrentHashMap;
+ import java.util.concurrent.atomic.LongAdder;
+
+ import org.slf4j.Logger;
+ import org.slf4j.LoggerFactory;
+ import org.springframework.scheduling.annotation.Scheduled;
+ import org.springframework.stereotype.Component;
+
+ import com.yash.inventory.repository.BatchRepository;
+ import com.yash.inventory.support.TransactionCallbacks;
+
+ import jakarta.annotation.PreDestroy;
+
+ /**
+
+  * Keeps the products' persisted on-hand quantities in step with their batches off the write path
+
+  * Writers count committed changes in memory and a periodic flush applies each product's sum in one update,
+
+  * so concurrent writers of one product never queue on its products row
+
+  */
+
+ @Component
+
+ public class OnHandCounters {
+
+   private static final Logger logger = LoggerFactory.getLogger(OnHandCounters.class);
+
+   private final BatchRepository batchRepository;
+
+   private final Map < Long, LongAdder > unflushed = new ConcurrentHashMap < > ();
+
+   public OnHandCounters(BatchRepository batchRepository) {
+
+     this.batchRepository = batchRepository;
+
+   }
+
+   /**
+
+    * Count a change in a product's on-hand units, once the surrounding transaction commits
+
+    *
+
+    * @param productId Product whose batches changed
+
+    * @param delta Units received or returned, or negative for units taken away
+
+    */
+
+   public void adjust(Long productId, long delta) {
+
+     if (delta != 0) {
+
+       TransactionCallbacks.afterCommit(() -> unflushed.computeIfAbsent(productId, id -> new LongAdder()).add(delta));
+
+     }
+
+   }
+
+   /**
+
+    * Drop the uncounted changes of a product once its removal commits; there is no row left to apply them to
+
+    */
+
+   public void forget(Long productId) {
+
+     TransactionCallbacks.afterCommit(() -> unflushed.remove(productId));
+
+   }
+
+   /**
+
+    * Get the committed change in a product's on-hand units that its persisted quantity does not show yet
+
+    */
+
+   public long getUnflushed(Long productId) {
+
+     LongAdder pending = unflushed.get(productId);
+
+     return pending == null ? 0 : pending.sum();
+
+   }
+
+   /**
+
+    * Apply the changes counted so far to the products' persisted on-hand quantities
+
+    * After a crash the counts are lost, but the batch index reload recalculates the products from their batches
+
+    */
+
+   @Scheduled(fixedDelayString = "${inventory.on-hand.flush-millis:200}")
+
+   @PreDestroy
+
+   public void flush() {
+
+     unflushed.forEach((productId, pending) -> {
+
+       // Subtracting the sum read, instead of resetting, keeps changes counted meanwhile for the next flush
+
+       long delta = pending.sum();
+
+       if (delta == 0) {
+
+         return;
+
+       }
+
+       pending.add(-delta);
+
+       try {
+
+         batchRepository.adjustOnHandQuantity(productId, delta);
+
+       } catch (RuntimeException e) {
+
+         pending.add(delta);
+
+         logger.warn("Could not flush an on-hand change of {} units for product {}", delta, productId, e);
+
+       }
+
+     });
+
+   }
+
+ }
@@ -0,0 +1,25 @@
+ package com.yash.inventory.ledger;
+
+ /** 
+
+  * Point-in-time state of the movement ledger 
+
+  *  
+
+  * @param enabled Whether movements are being recorded 
+
+  * @param healthy False once a committed movement could not be appended, or if the ledger disagreed with the batches 
+
+  * table on startup 
+
+  * @param movements Movements in the ledger, including buffered ones 
+
+  * @param failedAppends Committed movements that could not be appended since startup 
+
+  * @param driftedBatches Batches whose ledger quantity differed from the batches table on startup 
+
+  */
+
+ public record LedgerHealth(boolean enabled, boolean healthy, long movements, long failedAppends, int driftedBatches) {
+
+ }
@@ -0,0 +1,231 @@
+ package com.yash.inventory.ledger;
+
+ import java.util.Arrays;
+
+ /** 
+
+  * Open-addressing map from long keys to long values, with no boxing and no per-entry objects 
+
+  * Holds the ledger's materialized quantities, which replay updates once per movement. Not thread-safe 
+
+  */
+
+ final class LongLongHashMap {
+
+   private static final long EMPTY = Long.MIN_VALUE;
+
+   private long[] keys;
+
+   private long[] values;
+
+   private int size;
+
+   LongLongHashMap(int expectedSize) {
+
+     int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+
+     allocate(capacity);
+
+   }
+
+   /** 
+
+    * Add a delta to a key's value, starting from 0 for a new key 
+
+    * 
+
+    * @return New value 
+
+    */
+
+   long add(long key, long delta) {
+
+     checkKey(key);
+
+     int slot = slotOf(key);
+
+     if (keys[slot] == EMPTY) {
+
+       keys[slot] = key;
+
+       values[slot] = delta;
+
+       if (++size * 2 > keys.length) {
+
+         resize();
+
+       }
+
+       return delta;
+
+     }
+
+     return values[slot] += delta;
+
+   }
+
+   /** 
+
+    * Set a key's value 
+
+    */
+
+   void put(long key, long value) {
+
+     checkKey(key);
+
+     int slot = slotOf(key);
+
+     boolean added = keys[slot] == EMPTY;
+
+     keys[slot] = key;
+
+     values[slot] = value;
+
+     if (added && ++size * 2 > keys.length) {
+
+       resize();
+
+     }
+
+   }
+
+   /** 
+
+    * Get a key's value, or 0 if absent 
+
+    */
+
+   long get(long key) {
+
+     checkKey(key);
+
+     int slot = slotOf(key);
+
+     return keys[slot] == EMPTY ? 0 : values[slot];
+
+   }
+
+   int size() {
+
+     return size;
+
+   }
+
+   /** 
+
+    * Copy the map, so it can be read while this one keeps changing 
+
+    */
+
+   LongLongHashMap copy() {
+
+     LongLongHashMap copy = new LongLongHashMap(1);
+
+     copy.keys = keys.clone();
+
+     copy.values = values.clone();
+
+     copy.size = size;
+
+     return copy;
+
+   }
+
+   /** 
+
+    * Visit every entry, in no particular order 
+
+    */
+
+   void forEach(EntryVisitor visitor) {
+
+     for (int i = 0; i < keys.length; i++) {
+
+       if (keys[i] != EMPTY) {
+
+         visitor.visit(keys[i], values[i]);
+
+       }
+
+     }
+
+   }
+
+   @FunctionalInterface
+
+   interface EntryVisitor {
+
+     void visit(long key, long value);
+
+   }
+
+   private int slotOf(long key) {
+
+     int mask = keys.length - 1;
+
+     int slot = (int) mix(key) & mask;
+
+     while (keys[slot] != EMPTY && keys[slot] != key) {
+
+       slot = (slot + 1) & mask;
+
+     }
+
+     return slot;
+
+   }
+
+   private void resize() {
+
+     long[] oldKeys = keys;
+
+     long[] oldValues = values;
+
+     allocate(oldKeys.length << 1);
+
+     for (int i = 0; i < oldKeys.length; i++) {
+
+       if (oldKeys[i] != EMPTY) {
+
+         int slot = slotOf(oldKeys[i]);
+
+         keys[slot] = oldKeys[i];
+
+         values[slot] = oldValues[i];
+
+       }
+
+     }
+
+   }
+
+   private void allocate(int capacity) {
+
+     keys = new long[capacity];
+
+     values = new long[capacity];
+
+     Arrays.fill(keys, EMPTY);
+
+   }
+
+   private static long mix(long key) {
+
+     long hash = key * 0x9E3779B97F4A7C15L;
+
+     return hash ^ (hash >>> 32);
+
+   }
+
+   private static void checkKey(long key) {
+
+     if (key == EMPTY) {
+
+       throw new IllegalArgumentException("Reserved key: " + key);
+
+     }
+
+   }
+
+ }
@@ -0,0 +1,881 @@
+ package com.yash.inventory.ledger;
+
+ import java.io.BufferedInputStream;
+ import java.io.BufferedOutputStream;
+ import java.io.Closeable;
+ import java.io.DataInputStream;
+ import java.io.DataOutputStream;
+ import java.io.IOException;
+ import java.io.OutputStream;
+ import java.nio.ByteBuffer;
+ import java.nio.channels.Channels;
+ import java.nio.channels.FileChannel;
+ import java.nio.file.Files;
+ import java.nio.file.Path;
+ import java.nio.file.StandardCopyOption;
+ import java.nio.file.StandardOpenOption;
+ import java.util.concurrent.ExecutionException;
+ import java.util.concurrent.ExecutorService;
+ import java.util.concurrent.Executors;
+ import java.util.concurrent.Future;
+ import java.util.concurrent.TimeUnit;
+ import java.util.concurrent.atomic.AtomicLong;
+ import java.util.concurrent.locks.ReentrantLock;
+ import java.util.zip.CRC32;
+ import java.util.zip.CheckedInputStream;
+ import java.util.zip.CheckedOutputStream;
+
+ import org.slf4j.Logger;
+ import org.slf4j.LoggerFactory;
+
+ /** 
+
+  * Append-only ledger of stock movements in a fixed-size binary record format, with batch quantities kept as a 
+
+  * materialized view over it 
+
+  * 
+
+  * Each record is 25 bytes: type code (1), batch id (8), signed quantity delta (4), epoch millis (8) and a CRC32 of 
+
+  * the first 21 bytes (4). Records are buffered and written on {@link #flush()}; the view only shows movements that 
+
+  * reached the file. Every snapshotEvery movements written, a background thread brings its own copy of the view up 
+
+  * to date from the file and writes it to a snapshot file with the ledger offset it covers, so opening the ledger 
+
+  * only replays the movements appended since; appending just hands it the offset. 
+
+  * A torn or corrupt tail left by a crash is cut off on open 
+
+  */
+
+ public class MovementLedger implements Closeable {
+
+   private static final Logger logger = LoggerFactory.getLogger(MovementLedger.class);
+
+   public static final int RECORD_SIZE = 25;
+
+   static final String LEDGER_FILE = "movements.ledger";
+
+   static final String SNAPSHOT_FILE = "quantities.snapshot";
+
+   private static final long LEDGER_MAGIC = 0x494E564C45444731L;
+
+   private static final long SNAPSHOT_MAGIC = 0x494E56534E415031L;
+
+   private static final int HEADER_SIZE = Long.BYTES;
+
+   private static final int PAYLOAD_SIZE = RECORD_SIZE - Integer.BYTES;
+
+   private static final int BUFFERED_RECORDS = 4096;
+
+   private final Path directory;
+
+   private final FileChannel channel;
+
+   private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * BUFFERED_RECORDS);
+
+   private final byte[] record = new byte[RECORD_SIZE];
+
+   private final CRC32 crc = new CRC32();
+
+   private final long snapshotEvery;
+
+   private final boolean fsync;
+
+   // Movements buffered but not yet written, applied to the quantities once they reach the file 
+
+   private final long[] pendingBatchIds = new long[BUFFERED_RECORDS];
+
+   private final int[] pendingDeltas = new int[BUFFERED_RECORDS];
+
+   private final LongLongHashMap quantities;
+
+   private final RecoveryReport recovery;
+
+   // A lock rather than synchronized, so file writes under it do not pin a virtual thread's carrier 
+
+   private final ReentrantLock lock = new ReentrantLock();
+
+   private final ExecutorService snapshotWriter = Executors.newSingleThreadExecutor(task -> {
+
+     Thread thread = new Thread(task, "movement-ledger-snapshot");
+
+     thread.setDaemon(true);
+
+     return thread;
+
+   });
+
+   // Ledger offset the next automatic snapshot should cover, or -1 if none is queued; a newer offset replaces it 
+
+   private final AtomicLong snapshotTarget = new AtomicLong(-1);
+
+   // Only touched on the snapshot writer thread: its copy of the view and the ledger offset the copy covers 
+
+   private final LongLongHashMap snapshotQuantities;
+
+   private long snapshotOffset;
+
+   // Offset after the last record written to the file, read by the snapshot writer 
+
+   private volatile long writtenOffset;
+
+   private int pendingCount;
+
+   private long movements;
+
+   private long sinceSnapshot;
+
+   private MovementLedger(Path directory, FileChannel channel, LongLongHashMap quantities, long movements,
+
+     long snapshotEvery, boolean fsync, RecoveryReport recovery) {
+
+     this.directory = directory;
+
+     this.channel = channel;
+
+     this.quantities = quantities;
+
+     this.movements = movements;
+
+     this.writtenOffset = HEADER_SIZE + movements * RECORD_SIZE;
+
+     this.snapshotOffset = writtenOffset;
+
+     this.snapshotQuantities = quantities.copy();
+
+     this.snapshotEvery = snapshotEvery;
+
+     this.fsync = fsync;
+
+     this.recovery = recovery;
+
+   }
+
+   /** 
+
+    * Open the ledger in a directory, creating it if needed, and rebuild the quantities from the latest snapshot 
+
+    * plus the movements appended after it 
+
+    * 
+
+    * @param directory Directory holding the ledger and snapshot files 
+
+    * @param snapshotEvery Movements between automatic snapshots; 0 or less turns them off 
+
+    * @param fsync Whether every flush forces the ledger to disk 
+
+    * @return Open ledger, positioned at the end of its last intact record 
+
+    */
+
+   public static MovementLedger open(Path directory, long snapshotEvery, boolean fsync) throws IOException {
+
+     long start = System.nanoTime();
+
+     Files.createDirectories(directory);
+
+     FileChannel channel = FileChannel.open(directory.resolve(LEDGER_FILE), StandardOpenOption.CREATE,
+
+       StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+     try {
+
+       if (channel.size() < HEADER_SIZE) {
+
+         channel.truncate(0);
+
+         channel.write(ByteBuffer.allocate(HEADER_SIZE).putLong(0, LEDGER_MAGIC), 0);
+
+         channel.force(true);
+
+       } else {
+
+         ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+         channel.read(header, 0);
+
+         if (header.getLong(0) != LEDGER_MAGIC) {
+
+           throw new IOException("Not a movement ledger: " + directory.resolve(LEDGER_FILE));
+
+         }
+
+       }
+
+       Snapshot snapshot = readSnapshot(directory.resolve(SNAPSHOT_FILE), channel.size());
+
+       long replayFrom = snapshot != null ? snapshot.ledgerOffset() : HEADER_SIZE;
+
+       LongLongHashMap quantities = snapshot != null ? snapshot.quantities() : new LongLongHashMap(1024);
+
+       long end = replay(channel, replayFrom, Long.MAX_VALUE, quantities);
+
+       if (end < channel.size()) {
+
+         logger.warn("Cut {} bytes of torn or corrupt records off the movement ledger", channel.size() - end);
+
+         channel.truncate(end);
+
+       }
+
+       channel.position(end);
+
+       long replayed = (end - replayFrom) / RECORD_SIZE;
+
+       RecoveryReport recovery = new RecoveryReport(snapshot != null, replayed, System.nanoTime() - start);
+
+       return new MovementLedger(directory, channel, quantities, (end - HEADER_SIZE) / RECORD_SIZE, snapshotEvery,
+
+         fsync, recovery);
+
+     } catch (IOException | RuntimeException e) {
+
+       channel.close();
+
+       throw e;
+
+     }
+
+   }
+
+   /** 
+
+    * Append one movement; it reaches the file, and the quantities, on the next flush 
+
+    * 
+
+    * @param type Kind of movement 
+
+    * @param batchId Batch the stock moved in or out of 
+
+    * @param delta Signed quantity change of the batch, recorded but left out of the quantities for a type that 
+
+    * does not change them 
+
+    * @param timestampMillis When the movement happened, in epoch millis 
+
+    */
+
+   public void append(MovementType type, long batchId, int delta, long timestampMillis) throws IOException {
+
+     lock.lock();
+
+     try {
+
+       record[0] = type.getCode();
+
+       putLong(record, 1, batchId);
+
+       putInt(record, 9, delta);
+
+       putLong(record, 13, timestampMillis);
+
+       crc.reset();
+
+       crc.update(record, 0, PAYLOAD_SIZE);
+
+       putInt(record, PAYLOAD_SIZE, (int) crc.getValue());
+
+       if (buffer.remaining() < RECORD_SIZE) {
+
+         writeBuffer();
+
+       }
+
+       buffer.put(record);
+
+       pendingBatchIds[pendingCount] = batchId;
+
+       pendingDeltas[pendingCount] = type.changesQuantity() ? delta : 0;
+
+       pendingCount++;
+
+       movements++;
+
+     } finally {
+
+       lock.unlock();
+
+     }
+
+   }
+
+   /** 
+
+    * Write buffered movements to the ledger file, forcing them to disk when fsync is on 
+
+    */
+
+   public void flush() throws IOException {
+
+     lock.lock();
+
+     try {
+
+       writeBuffer();
+
+       if (fsync) {
+
+         channel.force(false);
+
+       }
+
+     } finally {
+
+       lock.unlock();
+
+     }
+
+   }
+
+   /** 
+
+    * Flush, then write the quantities and the ledger offset they cover to the snapshot file, replacing the last one, 
+
+    * and wait until it is written 
+
+    */
+
+   public void snapshot() throws IOException {
+
+     flush();
+
+     long offset = writtenOffset;
+
+     Future < ? > written = snapshotWriter.submit(() -> {
+
+       writeSnapshot(offset);
+
+       return null;
+
+     });
+
+     try {
+
+       written.get();
+
+     } catch (InterruptedException e) {
+
+       Thread.currentThread().interrupt();
+
+       throw new IOException("Interrupted while writing the snapshot", e);
+
+     } catch (ExecutionException e) {
+
+       throw e.getCause() instanceof IOException cause ? cause : new IOException(e.getCause());
+
+     }
+
+   }
+
+   /** 
+
+    * Get a batch's quantity as the sum of its movements 
+
+    */
+
+   public long quantityOf(long batchId) {
+
+     lock.lock();
+
+     try {
+
+       return quantities.get(batchId);
+
+     } finally {
+
+       lock.unlock();
+
+     }
+
+   }
+
+   /** 
+
+    * Visit every batch's quantity, in no particular order 
+
+    */
+
+   void forEachQuantity(LongLongHashMap.EntryVisitor visitor) {
+
+     lock.lock();
+
+     try {
+
+       quantities.forEach(visitor);
+
+     } finally {
+
+       lock.unlock();
+
+     }
+
+   }
+
+   /** 
+
+    * Get the number of movements in the ledger, including buffered ones 
+
+    */
+
+   public long getMovementCount() {
+
+     lock.lock();
+
+     try {
+
+       return movements;
+
+     } finally {
+
+       lock.unlock();
+
+     }
+
+   }
+
+   /** 
+
+    * Get the number of batches that have had a movement 
+
+    */
+
+   public int getBatchCount() {
+
+     lock.lock();
+
+     try {
+
+       return quantities.size();
+
+     } finally {
+
+       lock.unlock();
+
+     }
+
+   }
+
+   /** 
+
+    * Get how the quantities were rebuilt when the ledger was opened 
+
+    */
+
+   public RecoveryReport getRecovery() {
+
+     return recovery;
+
+   }
+
+   @Override
+
+   public void close() throws IOException {
+
+     lock.lock();
+
+     try {
+
+       if (!channel.isOpen()) {
+
+         return;
+
+       }
+
+       try {
+
+         flush();
+
+       } finally {
+
+         // Queued snapshots force the channel, so they finish before it closes 
+
+         snapshotWriter.shutdown();
+
+         try {
+
+           snapshotWriter.awaitTermination(1, TimeUnit.MINUTES);
+
+         } catch (InterruptedException e) {
+
+           Thread.currentThread().interrupt();
+
+         }
+
+         channel.close();
+
+       }
+
+     } finally {
+
+       lock.unlock();
+
+     }
+
+   }
+
+   /** 
+
+    * Write the buffer to the file, then apply its movements to the quantities 
+
+    * On failure the unwritten part stays buffered for the next attempt and the quantities are left as they were 
+
+    */
+
+   private void writeBuffer() throws IOException {
+
+     buffer.flip();
+
+     try {
+
+       while (buffer.hasRemaining()) {
+
+         channel.write(buffer);
+
+       }
+
+     } catch (IOException e) {
+
+       buffer.compact();
+
+       throw e;
+
+     }
+
+     buffer.clear();
+
+     writtenOffset = channel.position();
+
+     for (int i = 0; i < pendingCount; i++) {
+
+       quantities.add(pendingBatchIds[i], pendingDeltas[i]);
+
+     }
+
+     sinceSnapshot += pendingCount;
+
+     pendingCount = 0;
+
+     if (snapshotEvery > 0 && sinceSnapshot >= snapshotEvery) {
+
+       sinceSnapshot = 0;
+
+       if (snapshotTarget.getAndSet(writtenOffset) < 0) {
+
+         snapshotWriter.execute(this::writeQueuedSnapshot);
+
+       }
+
+     }
+
+   }
+
+   /** 
+
+    * Write the newest automatic snapshot, on the snapshot writer thread 
+
+    */
+
+   private void writeQueuedSnapshot() {
+
+     long offset = snapshotTarget.getAndSet(-1);
+
+     try {
+
+       writeSnapshot(offset);
+
+     } catch (IOException e) {
+
+       // The ledger itself is intact; the next restart just replays more of it 
+
+       logger.warn("Could not write the movement ledger snapshot at offset {}", offset, e);
+
+     }
+
+   }
+
+   /** 
+
+    * Bring the writer's copy of the view up to a ledger offset by replaying the file, then write it and the offset 
+
+    * it covers to the snapshot file, replacing the last one; runs on the snapshot writer thread 
+
+    * The ledger is forced to disk first, so a snapshot never covers movements the ledger could lose 
+
+    */
+
+   private void writeSnapshot(long offset) throws IOException {
+
+     channel.force(false);
+
+     if (offset > snapshotOffset) {
+
+       long reached = replay(channel, snapshotOffset, offset, snapshotQuantities);
+
+       snapshotOffset = reached;
+
+       if (reached < offset) {
+
+         throw new IOException("Corrupt movement ledger record at offset " + reached);
+
+       }
+
+     }
+
+     LongLongHashMap quantities = snapshotQuantities;
+
+     Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+
+     try (OutputStream file = Files.newOutputStream(temporary)) {
+
+       CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), new CRC32());
+
+       DataOutputStream out = new DataOutputStream(checked);
+
+       out.writeLong(SNAPSHOT_MAGIC);
+
+       out.writeLong(snapshotOffset);
+
+       out.writeInt(quantities.size());
+
+       IOException[] failure = new IOException[1];
+
+       quantities.forEach((batchId, quantity) -> {
+
+         try {
+
+           out.writeLong(batchId);
+
+           out.writeLong(quantity);
+
+         } catch (IOException e) {
+
+           failure[0] = e;
+
+         }
+
+       });
+
+       if (failure[0] != null) {
+
+         throw failure[0];
+
+       }
+
+       out.flush();
+
+       out.writeLong(checked.getChecksum().getValue());
+
+       out.flush();
+
+     }
+
+     try (FileChannel written = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+
+       written.force(true);
+
+     }
+
+     Files.move(temporary, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE,
+
+       StandardCopyOption.REPLACE_EXISTING);
+
+   }
+
+   /** 
+
+    * Apply every intact record between two offsets to the quantities 
+
+    * 
+
+    * @return Offset after the last intact record 
+
+    */
+
+   private static long replay(FileChannel channel, long from, long to, LongLongHashMap quantities) throws IOException {
+
+     ByteBuffer chunk = ByteBuffer.allocateDirect(RECORD_SIZE * 40_960);
+
+     byte[] record = new byte[RECORD_SIZE];
+
+     CRC32 crc = new CRC32();
+
+     long position = from;
+
+     while (true) {
+
+       chunk.clear();
+
+       chunk.limit((int) Math.min(chunk.capacity(), to - position));
+
+       int read = channel.read(chunk, position);
+
+       if (read < RECORD_SIZE) {
+
+         return position;
+
+       }
+
+       chunk.flip();
+
+       while (chunk.remaining() >= RECORD_SIZE) {
+
+         chunk.get(record);
+
+         crc.reset();
+
+         crc.update(record, 0, PAYLOAD_SIZE);
+
+         if ((int) crc.getValue() != getInt(record, PAYLOAD_SIZE)) {
+
+           return position;
+
+         }
+
+         int delta = MovementType.fromCode(record[0]).changesQuantity() ? getInt(record, 9) : 0;
+
+         quantities.add(getLong(record, 1), delta);
+
+         position += RECORD_SIZE;
+
+       }
+
+     }
+
+   }
+
+   /** 
+
+    * Read the snapshot file, or return null if it is missing, corrupt or covers more than the ledger holds 
+
+    */
+
+   private static Snapshot readSnapshot(Path file, long ledgerSize) throws IOException {
+
+     if (!Files.exists(file)) {
+
+       return null;
+
+     }
+
+     try (CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16),
+
+       new CRC32())) {
+
+       DataInputStream in = new DataInputStream(checked);
+
+       if (in.readLong() != SNAPSHOT_MAGIC) {
+
+         return null;
+
+       }
+
+       long ledgerOffset = in.readLong();
+
+       int entries = in.readInt();
+
+       LongLongHashMap quantities = new LongLongHashMap(Math.max(entries, 1024));
+
+       for (int i = 0; i < entries; i++) {
+
+         quantities.put(in.readLong(), in.readLong());
+
+       }
+
+       long expected = checked.getChecksum().getValue();
+
+       if (in.readLong() != expected || ledgerOffset > ledgerSize || ledgerOffset < HEADER_SIZE) {
+
+         logger.warn("Ignoring snapshot {} that does not match the movement ledger", file);
+
+         return null;
+
+       }
+
+       return new Snapshot(ledgerOffset, quantities);
+
+     } catch (IOException | RuntimeException e) {
+
+       logger.warn("Ignoring unreadable snapshot {}", file, e);
+
+       return null;
+
+     }
+
+   }
+
+   private static void putLong(byte[] bytes, int offset, long value) {
+
+     for (int i = 7; i >= 0; i--) {
+
+       bytes[offset + i] = (byte) value;
+
+       value >>>= 8;
+
+     }
+
+   }
+
+   private static void putInt(byte[] bytes, int offset, int value) {
+
+     for (int i = 3; i >= 0; i--) {
+
+       bytes[offset + i] = (byte) value;
+
+       value >>>= 8;
+
+     }
+
+   }
+
+   private static long getLong(byte[] bytes, int offset) {
+
+     long value = 0;
+
+     for (int i = 0; i < 8; i++) {
+
+       value = (value << 8) | (bytes[offset + i] & 0xFF);
+
+     }
+
+     return value;
+
+   }
+
+   private static int getInt(byte[] bytes, int offset) {
+
+     int value = 0;
+
+     for (int i = 0; i < 4; i++) {
+
+       value = (value << 8) | (bytes[offset + i] & 0xFF);
+
+     }
+
+     return value;
+
+   }
+
+   private record Snapshot(long ledgerOffset, LongLongHashMap quantities) {}
+
+   /** 
+
+    * How the quantities were rebuilt on open 
+
+    * 
+
+    * @param fromSnapshot Whether a snapshot was loaded 
+
+    * @param replayedMovements Movements replayed from the ledger on top of it 
+
+    * @param elapsedNanos Time taken to open the ledger 
+
+    */
+
+   public record RecoveryReport(boolean fromSnapshot, long replayedMovements, long elapsedNanos) {}
+
+ }
@@ -0,0 +1,293 @@
+ package com.yash.inventory.ledger;
+
+ import java.io.IOException;
+ import java.io.UncheckedIOException;
+ import java.nio.file.Path;
+ import java.util.ArrayList;
+ import java.util.List;
+ import java.util.concurrent.atomic.AtomicLong;
+
+ import org.slf4j.Logger;
+ import org.slf4j.LoggerFactory;
+ import org.springframework.beans.factory.ObjectProvider;
+ import org.springframework.beans.factory.SmartInitializingSingleton;
+ import org.springframework.beans.factory.annotation.Value;
+ import org.springframework.jdbc.core.JdbcTemplate;
+ import org.springframework.stereotype.Component;
+
+ import com.yash.inventory.entity.Batch;
+ import com.yash.inventory.support.TransactionCallbacks;
+
+ import jakarta.annotation.PreDestroy;
+
+ /** 
+
+  * Records committed batch quantity changes in the {@link MovementLedger} 
+
+  * Movements are appended once the surrounding transaction commits, so a rolled-back write leaves no trace. 
+
+  * An empty ledger is seeded with the opening balances of the batches table on startup; a ledger that already holds 
+
+  * movements is only compared with it, and batches whose quantities differ are reported as drift rather than adjusted 
+
+  * away, since a lost or duplicated movement is exactly what the ledger exists to show. An append that fails after 
+
+  * commit leaves a movement missing, so it is counted and reported unhealthy 
+
+  */
+
+ @Component
+
+ public class MovementRecorder implements SmartInitializingSingleton {
+
+   private static final Logger logger = LoggerFactory.getLogger(MovementRecorder.class);
+
+   private final ObjectProvider < JdbcTemplate > jdbcTemplate;
+
+   private final MovementLedger ledger;
+
+   private final AtomicLong failedAppends = new AtomicLong();
+
+   private volatile int driftedBatches;
+
+   public MovementRecorder(ObjectProvider < JdbcTemplate > jdbcTemplate,
+
+     @Value("${inventory.ledger.enabled:false}") boolean enabled,
+
+     @Value("${inventory.ledger.directory:./data/ledger}") Path directory,
+
+     @Value("${inventory.ledger.snapshot-every:1000000}") long snapshotEvery,
+
+     @Value("${inventory.ledger.fsync:false}") boolean fsync) {
+
+     this.jdbcTemplate = jdbcTemplate;
+
+     try {
+
+       this.ledger = enabled ? MovementLedger.open(directory, snapshotEvery, fsync) : null;
+
+     } catch (IOException e) {
+
+       throw new UncheckedIOException("Could not open the movement ledger in " + directory, e);
+
+     }
+
+     if (ledger != null) {
+
+       MovementLedger.RecoveryReport recovery = ledger.getRecovery();
+
+       logger.info("Movement ledger opened with {} movements ({} replayed{}) in {} ms", ledger.getMovementCount(),
+
+         recovery.replayedMovements(), recovery.fromSnapshot() ? " after the snapshot" : "",
+
+         recovery.elapsedNanos() / 1_000_000);
+
+     }
+
+   }
+
+   /** 
+
+    * Recorder that records nothing, for code paths run without the ledger 
+
+    */
+
+   public static MovementRecorder disabled() {
+
+     return new MovementRecorder(null, false, null, 0, false);
+
+   }
+
+   @Override
+
+   public void afterSingletonsInstantiated() {
+
+     if (ledger == null) {
+
+       return;
+
+     }
+
+     LongLongHashMap stored = new LongLongHashMap(1024);
+
+     jdbcTemplate.getObject().query("SELECT id, quantity FROM batches WHERE quantity <> 0 ORDER BY id",
+
+       row -> {
+
+         stored.put(row.getLong(1), row.getInt(2));
+
+       });
+
+     if (ledger.getMovementCount() == 0) {
+
+       List < Batch > openingBalances = new ArrayList < > ();
+
+       stored.forEach((batchId, quantity) -> openingBalances.add(
+
+         new Batch(batchId, null, null, Math.toIntExact(quantity), null, null)));
+
+       append(MovementType.ADJUSTMENT, openingBalances, 1);
+
+       logger.info("Movement ledger started from the opening balances of {} batches", openingBalances.size());
+
+       return;
+
+     }
+
+     int[] drifted = new int[1];
+
+     stored.forEach((batchId, quantity) -> {
+
+       if (ledger.quantityOf(batchId) != quantity) {
+
+         drifted[0]++;
+
+       }
+
+     });
+
+     // Batches the ledger still holds stock for but the table no longer has, or holds at 0 
+
+     ledger.forEachQuantity((batchId, quantity) -> {
+
+       if (quantity != 0 && stored.get(batchId) == 0) {
+
+         drifted[0]++;
+
+       }
+
+     });
+
+     driftedBatches = drifted[0];
+
+     if (driftedBatches > 0) {
+
+       logger.error("Movement ledger disagrees with the batches table on {} batches; reporting it unhealthy",
+
+         driftedBatches);
+
+     }
+
+   }
+
+   /** 
+
+    * Record movements of several batches once the current transaction commits, or now if none is active 
+
+    * 
+
+    * @param type Kind of movement 
+
+    * @param batches Batches carrying the id and the quantity moved 
+
+    * @param sign 1 for stock coming in, -1 for stock going out 
+
+    */
+
+   public void record(MovementType type, List < Batch > batches, int sign) {
+
+     if (ledger == null || batches.isEmpty()) {
+
+       return;
+
+     }
+
+     List < Batch > moved = List.copyOf(batches);
+
+     TransactionCallbacks.afterCommit(() -> append(type, moved, sign));
+
+   }
+
+   /** 
+
+    * Record one batch's movement once the current transaction commits, or now if none is active 
+
+    */
+
+   public void record(MovementType type, long batchId, int delta) {
+
+     if (ledger == null || delta == 0) {
+
+       return;
+
+     }
+
+     TransactionCallbacks.afterCommit(() -> append(type, batchId, delta));
+
+   }
+
+   /** 
+
+    * Get whether the ledger holds every committed movement 
+
+    */
+
+   public LedgerHealth getHealth() {
+
+     long failed = failedAppends.get();
+
+     int drifted = driftedBatches;
+
+     return new LedgerHealth(ledger != null, failed == 0 && drifted == 0,
+
+       ledger == null ? 0 : ledger.getMovementCount(), failed, drifted);
+
+   }
+
+   @PreDestroy
+
+   public void close() throws IOException {
+
+     if (ledger != null) {
+
+       ledger.close();
+
+     }
+
+   }
+
+   private void append(MovementType type, List < Batch > batches, int sign) {
+
+     try {
+
+       long now = System.currentTimeMillis();
+
+       for (Batch batch: batches) {
+
+         ledger.append(type, batch.getId(), sign * batch.getQuantity(), now);
+
+       }
+
+       ledger.flush();
+
+     } catch (IOException e) {
+
+       // The database already committed; the ledger now misses these movements, which the next startup reports 
+
+       failedAppends.incrementAndGet();
+
+       logger.error("Could not append {} {} movements to the ledger", batches.size(), type, e);
+
+     }
+
+   }
+
+   private void append(MovementType type, long batchId, int delta) {
+
+     try {
+
+       ledger.append(type, batchId, delta, System.currentTimeMillis());
+
+       ledger.flush();
+
+     } catch (IOException e) {
+
+       failedAppends.incrementAndGet();
+
+       logger.error("Could not append a {} movement of batch {} to the ledger", type, batchId, e);
+
+     }
+
+   }
+
+ }
@@ -0,0 +1,125 @@
+ package com.yash.inventory.ledger;
+
+ /** 
+
+  * Kind of stock movement recorded in the {@link MovementLedger} 
+
+  * The code is what the binary record stores, so existing codes must never change 
+
+  */
+
+ public enum MovementType {
+
+   /** 
+
+    * Stock received into a batch 
+
+    */
+
+   RECEIPT(1),
+
+   /** 
+
+    * Stock taken from a batch by an update or a reservation 
+
+    */
+
+   ALLOCATION(2),
+
+   /** 
+
+    * Reserved stock returned to a batch 
+
+    */
+
+   RELEASE(3),
+
+   /** 
+
+    * Stock written off when an expired batch is archived 
+
+    */
+
+   EXPIRY(4),
+
+   /** 
+
+    * Any other correction of a batch quantity, including opening balances 
+
+    */
+
+   ADJUSTMENT(5),
+
+   /** 
+
+    * Reserved stock sold when its reservation is confirmed 
+
+    * The units already left the batch quantity when they were reserved, so the movement does not change it 
+
+    */
+
+   SALE(6);
+
+   private static final MovementType[] BY_CODE = new MovementType[7];
+
+   static {
+
+     for (MovementType type: values()) {
+
+       BY_CODE[type.code] = type;
+
+     }
+
+   }
+
+   private final byte code;
+
+   MovementType(int code) {
+
+     this.code = (byte) code;
+
+   }
+
+   public byte getCode() {
+
+     return code;
+
+   }
+
+   /** 
+
+    * Get whether the movement changes the batch quantity the ledger materializes 
+
+    */
+
+   public boolean changesQuantity() {
+
+     return this != SALE;
+
+   }
+
+   /** 
+
+    * Get the type stored under a code 
+
+    * 
+
+    * @throws IllegalArgumentException if no type has the code 
+
+    */
+
+   public static MovementType fromCode(byte code) {
+
+     MovementType type = code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+
+     if (type == null) {
+
+       throw new IllegalArgumentException("Unknown movement type code: " + code);
+
+     }
+
+     return type;
+
+   }
+
+ }
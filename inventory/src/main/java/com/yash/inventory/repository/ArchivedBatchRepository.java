@@ -0,0 +1,17 @@
+package com.yash.inventory.repository;
+
+import com.yash.inventory.entity.ArchivedBatch;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+
+public interface ArchivedBatchRepository extends JpaRepository < ArchivedBatch, Long > {
+
+  List < ArchivedBatch > findByProductIdOrderByExpiryDateAsc(Long productId);
+
+}
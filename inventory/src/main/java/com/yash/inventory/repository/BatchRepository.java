@@ -1,16 +1,26 @@
 package com.yash.inventory.repository;
 
+import com.yash.inventory.dto.BatchResponse;
+
 import com.yash.inventory.entity.Batch;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import org.springframework.data.jpa.repository.Query;
+
+import org.springframework.data.repository.query.Param;
+
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+
+import java.util.Collection;
+
 import java.util.List;
 
 @Repository
 
-public interface BatchRepository extends JpaRepository < Batch, Long > {
+public interface BatchRepository extends JpaRepository < Batch, Long >, BatchRepositoryCustom {
 
   List < Batch > findByProductIdOrderByExpiryDateAsc(Long productId);
 
@@ -18,4 +28,70 @@ public interface BatchRepository extends JpaRepository < Batch, Long > {
 
   List < Batch > findByProductIdOrderByReceivedDateAsc(Long productId);
 
-}
\ No newline at end of file
+  /** 
+
+   * Batches that can still be allocated: stock left and not expired on the given day 
+
+   */
+
+  @Query("select b from Batch b where b.quantity > 0 and b.expiryDate >= :today")
+
+  List < Batch > findLiveBatches(@Param("today") LocalDate today);
+
+  /** 
+
+   * Batches with units held by open reservations, whatever their remaining stock 
+
+   */
+
+  List < Batch > findByReservedQuantityGreaterThan(Integer reservedQuantity);
+
+  /** 
+
+   * Read a product's live batches straight into response rows with one joined query, sorted by expiry date 
+
+   * Depleted and expired batches are filtered in the join, so they never leave the database 
+
+   * Starts from the product, so an existing product without live batches yields a single row with a null batch id, 
+
+   * and an unknown product yields no rows 
+
+   */
+
+  @Query("select new com.yash.inventory.dto.BatchResponse(b.id, b.batchNumber, b.quantity, b.expiryDate, " +
+
+    "b.receivedDate, p.productCode, p.name) " +
+
+    "from Product p left join p.batches b on b.quantity > 0 and b.expiryDate >= :today " +
+
+    "where p.productCode = :productCode " +
+
+    "order by b.expiryDate asc")
+
+  List < BatchResponse > findBatchResponsesByProductCode(@Param("productCode") String productCode,
+
+    @Param("today") LocalDate today);
+
+  /** 
+
+   * Read the live batches of several products as response rows with one joined query 
+
+   * Sorted by product code, then expiry date 
+
+   */
+
+  @Query("select new com.yash.inventory.dto.BatchResponse(b.id, b.batchNumber, b.quantity, b.expiryDate, " +
+
+    "b.receivedDate, p.productCode, p.name) " +
+
+    "from Batch b join b.product p " +
+
+    "where p.productCode in :productCodes and b.quantity > 0 and b.expiryDate >= :today " +
+
+    "order by p.productCode, b.expiryDate, b.id")
+
+  List < BatchResponse > findBatchResponsesByProductCodeIn(@Param("productCodes") Collection < String > productCodes,
+
+    @Param("today") LocalDate today);
+
+}
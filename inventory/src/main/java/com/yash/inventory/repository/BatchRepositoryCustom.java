@@ -0,0 +1,165 @@
+package com.yash.inventory.repository;
+
+import com.yash.inventory.entity.Batch;
+
+import com.yash.inventory.strategy.BatchOrder;
+
+import java.time.Instant;
+
+import java.time.LocalDate;
+
+import java.util.List;
+
+/** 
+
+ * Set-based batch operations that bypass entity loading 
+
+ */
+
+public interface BatchRepositoryCustom {
+
+  /** 
+
+   * Decrement batch quantities in a single JDBC batch 
+
+   * Each row is only updated if it still holds at least the requested quantity 
+
+   * Concurrent writers are handled as inventory.concurrency.mode says: conditional update (CAS), version check 
+
+   * (OPTIMISTIC, throws an OptimisticLockingFailureException on a conflict) or id-ordered row locks (PESSIMISTIC) 
+
+   *  
+
+   * @param allocations Batches carrying the id and the quantity to deduct 
+
+   * @return Per-allocation success flags, in the same order as the input 
+
+   */
+
+  boolean[] decrementQuantities(List < Batch > allocations);
+
+  /** 
+
+   * Move quantities from available to reserved in a single JDBC batch 
+
+   * Each row is only updated if it still holds at least the requested quantity 
+
+   *  
+
+   * @param allocations Batches carrying the id and the quantity to reserve 
+
+   * @return Per-allocation success flags, in the same order as the input 
+
+   */
+
+  boolean[] reserveQuantities(List < Batch > allocations);
+
+  /** 
+
+   * Drop reserved quantities that have been sold 
+
+   *  
+
+   * @param allocations Batches carrying the id and the reserved quantity to consume 
+
+   * @return Per-allocation success flags, in the same order as the input 
+
+   */
+
+  boolean[] consumeReservedQuantities(List < Batch > allocations);
+
+  /** 
+
+   * Return reserved quantities to available stock 
+
+   *  
+
+   * @param allocations Batches carrying the id and the reserved quantity to give back 
+
+   * @return Per-allocation success flags, in the same order as the input 
+
+   */
+
+  boolean[] releaseReservedQuantities(List < Batch > allocations);
+
+  /** 
+
+   * Read the shortest run of a product's live batches, in allocation order, that covers a quantity 
+
+   * The database orders the batches and keeps a running SUM over them, so rows past the covering batch are never sent 
+
+   * Returned batches carry id, batch number, quantity and dates, but no product 
+
+   *  
+
+   * @param productId Product to allocate from 
+
+   * @param order Allocation order of the strategy that will consume the batches 
+
+   * @param today Batches expiring before this day are not live 
+
+   * @param quantityNeeded Quantity the batches should cover 
+
+   * @return Live batches in allocation order; all of them if together they hold less than the quantity needed 
+
+   */
+
+  List < Batch > findAllocationPrefix(Long productId, BatchOrder order, LocalDate today, int quantityNeeded);
+
+  /** 
+
+   * Move one chunk of dead batches into the batches_archive table 
+
+   * A batch is dead when nothing is reserved from it and it is either empty or expired before the given day 
+
+   * The chunk's rows are locked, copied and deleted in the caller's transaction; live batches are never touched 
+
+   * Expired stock leaves the owning products' on-hand quantities as it is archived 
+
+   *  
+
+   * @param today Batches expiring before this day count as expired 
+
+   * @param archivedAt Archive timestamp written to every moved row 
+
+   * @param limit Maximum number of batches to move 
+
+   * @return Batches moved, carrying their id and the quantity archived with them; fewer than the limit once no 
+
+   * dead batches are left 
+
+   */
+
+  List < Batch > archiveDeadBatches(LocalDate today, Instant archivedAt, int limit);
+
+  /** 
+
+   * Add to a product's persisted on-hand quantity 
+
+   *  
+
+   * @param productId Product to adjust 
+
+   * @param delta Units received, or negative for units taken away 
+
+   */
+
+  void adjustOnHandQuantity(Long productId, long delta);
+
+  /** 
+
+   * Recompute every product's persisted on-hand quantity from its batches 
+
+   * On-hand counts every unit in the batches table, expired or not, until compaction archives it 
+
+   * Repairs counters after writes that bypassed the incremental updates, such as seed data loaded with plain SQL 
+
+   *  
+
+   * @return Number of products whose counter changed 
+
+   */
+
+  int recalculateOnHandQuantities();
+
+}
@@ -0,0 +1,453 @@
+package com.yash.inventory.repository;
+
+import com.yash.inventory.engine.ConcurrencyMode;
+
+import com.yash.inventory.entity.Batch;
+
+import com.yash.inventory.strategy.BatchOrder;
+
+import jakarta.persistence.EntityManager;
+
+import jakarta.persistence.LockModeType;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.sql.PreparedStatement;
+
+import java.sql.SQLException;
+
+import java.sql.Timestamp;
+
+import java.time.Instant;
+
+import java.time.LocalDate;
+
+import java.util.ArrayList;
+
+import java.util.Collections;
+
+import java.util.HashMap;
+
+import java.util.List;
+
+import java.util.Map;
+
+/** 
+
+ * JDBC implementation of {@link BatchRepositoryCustom} 
+
+ * Runs inside the caller's JPA transaction, which exposes its connection to JdbcTemplate 
+
+ * Every batch update bumps the row version, so optimistic readers also notice the set-based writes 
+
+ */
+
+public class BatchRepositoryCustomImpl implements BatchRepositoryCustom {
+
+  private static final String DECREMENT_SQL =
+
+    "UPDATE batches SET quantity = quantity - ?, version = version + 1 WHERE id = ? AND quantity >= ?";
+
+  private static final String READ_VERSIONS_SQL = "SELECT id, quantity, version FROM batches WHERE id IN (%s)";
+
+  private static final String VERSIONED_DECREMENT_SQL =
+
+    "UPDATE batches SET quantity = quantity - ?, version = version + 1 WHERE id = ? AND version = ?";
+
+  private static final String LOCK_BATCHES_JPQL = "select b from Batch b where b.id in :ids order by b.id";
+
+  private static final String RESERVE_SQL =
+
+    "UPDATE batches SET quantity = quantity - ?, reserved_quantity = reserved_quantity + ?, version = version + 1 " +
+
+    "WHERE id = ? AND quantity >= ?";
+
+  private static final String CONSUME_RESERVED_SQL =
+
+    "UPDATE batches SET reserved_quantity = reserved_quantity - ?, version = version + 1 " +
+
+    "WHERE id = ? AND reserved_quantity >= ?";
+
+  private static final String RELEASE_RESERVED_SQL =
+
+    "UPDATE batches SET quantity = quantity + ?, reserved_quantity = reserved_quantity - ?, version = version + 1 " +
+
+    "WHERE id = ? AND reserved_quantity >= ?";
+
+  private static final String ADJUST_PRODUCT_SQL =
+
+    "UPDATE products SET on_hand_quantity = on_hand_quantity + ? WHERE id = ?";
+
+  private static final String PRODUCT_ON_HAND_SQL =
+
+    "SELECT COALESCE(SUM(b.quantity), 0) FROM batches b WHERE b.product_id = products.id";
+
+  private static final String RECALCULATE_PRODUCTS_SQL =
+
+    "UPDATE products SET on_hand_quantity = (" + PRODUCT_ON_HAND_SQL + ") " +
+
+    "WHERE on_hand_quantity <> (" + PRODUCT_ON_HAND_SQL + ")";
+
+  // A batch is needed while the stock ahead of it is still short of the quantity; ids break date ties as in the index 
+
+  private static final String ALLOCATION_PREFIX_SQL =
+
+    "SELECT id, batch_number, quantity, expiry_date, received_date FROM (" +
+
+    "SELECT id, batch_number, quantity, expiry_date, received_date, " +
+
+    "SUM(quantity) OVER (ORDER BY %1$s ROWS UNBOUNDED PRECEDING) AS covered " +
+
+    "FROM batches WHERE product_id = ? AND quantity > 0 AND expiry_date >= ?) live " +
+
+    "WHERE covered - quantity < ? ORDER BY %1$s";
+
+  private static final String SELECT_DEAD_SQL =
+
+    "SELECT id, quantity FROM batches WHERE reserved_quantity = 0 AND (quantity = 0 OR expiry_date < ?) " +
+
+    "ORDER BY id LIMIT ? FOR UPDATE";
+
+  private static final String ARCHIVE_SQL =
+
+    "INSERT INTO batches_archive (id, batch_number, product_id, quantity, expiry_date, received_date, archived_at) " +
+
+    "SELECT id, batch_number, product_id, quantity, expiry_date, received_date, ? FROM batches WHERE id IN (%s)";
+
+  private static final String UNCOUNT_ARCHIVED_SQL =
+
+    "UPDATE products SET on_hand_quantity = on_hand_quantity - " +
+
+    "(SELECT SUM(b.quantity) FROM batches b WHERE b.product_id = products.id AND b.id IN (%1$s)) " +
+
+    "WHERE id IN (SELECT product_id FROM batches WHERE id IN (%1$s) AND quantity > 0)";
+
+  private static final String DELETE_SQL = "DELETE FROM batches WHERE id IN (%s)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final EntityManager entityManager;
+
+  private final ConcurrencyMode concurrencyMode;
+
+  public BatchRepositoryCustomImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+
+    @Value("${inventory.concurrency.mode:CAS}") ConcurrencyMode concurrencyMode) {
+
+    this.jdbcTemplate = jdbcTemplate;
+
+    this.entityManager = entityManager;
+
+    this.concurrencyMode = concurrencyMode;
+
+  }
+
+  @Override
+
+  public boolean[] decrementQuantities(List < Batch > allocations) {
+
+    return switch (concurrencyMode) {
+
+      case CAS -> updateEach(DECREMENT_SQL, allocations, false);
+
+      case OPTIMISTIC -> decrementVersioned(allocations);
+
+      case PESSIMISTIC -> {
+
+        lockInIdOrder(allocations);
+
+        yield updateEach(DECREMENT_SQL, allocations, false);
+
+      }
+
+    };
+
+  }
+
+  @Override
+
+  public boolean[] reserveQuantities(List < Batch > allocations) {
+
+    return updateEach(RESERVE_SQL, allocations, true);
+
+  }
+
+  @Override
+
+  public boolean[] consumeReservedQuantities(List < Batch > allocations) {
+
+    return updateEach(CONSUME_RESERVED_SQL, allocations, false);
+
+  }
+
+  @Override
+
+  public boolean[] releaseReservedQuantities(List < Batch > allocations) {
+
+    return updateEach(RELEASE_RESERVED_SQL, allocations, true);
+
+  }
+
+  @Override
+
+  public List < Batch > findAllocationPrefix(Long productId, BatchOrder order, LocalDate today, int quantityNeeded) {
+
+    String orderBy = switch (order) {
+
+      case EXPIRY_DATE -> "expiry_date, id";
+
+      case RECEIVED_DATE -> "received_date, id";
+
+    };
+
+    return jdbcTemplate.query(String.format(ALLOCATION_PREFIX_SQL, orderBy),
+
+      (rs, rowNum) -> new Batch(rs.getLong("id"), rs.getString("batch_number"), null, rs.getInt("quantity"),
+
+        rs.getObject("expiry_date", LocalDate.class), rs.getObject("received_date", LocalDate.class)),
+
+      productId, today, quantityNeeded);
+
+  }
+
+  @Override
+
+  public List < Batch > archiveDeadBatches(LocalDate today, Instant archivedAt, int limit) {
+
+    List < Batch > dead = jdbcTemplate.query(SELECT_DEAD_SQL,
+
+      (row, rowNum) -> new Batch(row.getLong(1), null, null, row.getInt(2), null, null), today, limit);
+
+    if (dead.isEmpty()) {
+
+      return dead;
+
+    }
+
+    List < Long > ids = dead.stream().map(Batch::getId).toList();
+
+    String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+
+    Object[] archiveArgs = new Object[ids.size() + 1];
+
+    archiveArgs[0] = Timestamp.from(archivedAt);
+
+    for (int i = 0; i < ids.size(); i++) {
+
+      archiveArgs[i + 1] = ids.get(i);
+
+    }
+
+    jdbcTemplate.update(String.format(ARCHIVE_SQL, placeholders), archiveArgs);
+
+    Object[] uncountArgs = new Object[ids.size() * 2];
+
+    for (int i = 0; i < ids.size(); i++) {
+
+      uncountArgs[i] = ids.get(i);
+
+      uncountArgs[ids.size() + i] = ids.get(i);
+
+    }
+
+    jdbcTemplate.update(String.format(UNCOUNT_ARCHIVED_SQL, placeholders), uncountArgs);
+
+    jdbcTemplate.update(String.format(DELETE_SQL, placeholders), ids.toArray());
+
+    return dead;
+
+  }
+
+  @Override
+
+  public void adjustOnHandQuantity(Long productId, long delta) {
+
+    if (delta != 0) {
+
+      jdbcTemplate.update(ADJUST_PRODUCT_SQL, delta, productId);
+
+    }
+
+  }
+
+  @Override
+
+  public int recalculateOnHandQuantities() {
+
+    return jdbcTemplate.update(RECALCULATE_PRODUCTS_SQL);
+
+  }
+
+  /** 
+
+   * Take PESSIMISTIC_WRITE locks on the allocated batches, lowest id first, held until the transaction ends 
+
+   */
+
+  private void lockInIdOrder(List < Batch > allocations) {
+
+    if (allocations.isEmpty()) {
+
+      return;
+
+    }
+
+    List < Long > ids = allocations.stream().map(Batch::getId).distinct().toList();
+
+    entityManager.createQuery(LOCK_BATCHES_JPQL, Batch.class)
+
+      .setParameter("ids", ids)
+
+      .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+
+      .getResultList();
+
+  }
+
+  /** 
+
+   * Read each batch's quantity and version, then decrement only the rows whose version is still the one read 
+
+   * A batch without enough stock is reported as not applied; a batch written in between aborts the transaction 
+
+   */
+
+  private boolean[] decrementVersioned(List < Batch > allocations) {
+
+    boolean[] applied = new boolean[allocations.size()];
+
+    if (allocations.isEmpty()) {
+
+      return applied;
+
+    }
+
+    Map < Long, long[] > current = new HashMap < > ();
+
+    jdbcTemplate.query(String.format(READ_VERSIONS_SQL, String.join(",", Collections.nCopies(allocations.size(), "?"))),
+
+      rs -> {
+
+        current.put(rs.getLong("id"), new long[] { rs.getInt("quantity"), rs.getLong("version") });
+
+      }, allocations.stream().map(Batch::getId).toArray());
+
+    List < Batch > appliedAllocations = new ArrayList < > (allocations.size());
+
+    List < Long > versions = new ArrayList < > (allocations.size());
+
+    for (int i = 0; i < applied.length; i++) {
+
+      long[] row = current.get(allocations.get(i).getId());
+
+      applied[i] = row != null && row[0] >= allocations.get(i).getQuantity();
+
+      if (applied[i]) {
+
+        appliedAllocations.add(allocations.get(i));
+
+        versions.add(row[1]);
+
+      }
+
+    }
+
+    if (appliedAllocations.isEmpty()) {
+
+      return applied;
+
+    }
+
+    int[] updateCounts = jdbcTemplate.batchUpdate(VERSIONED_DECREMENT_SQL, new BatchPreparedStatementSetter() {
+
+      @Override
+
+      public void setValues(PreparedStatement statement, int i) throws SQLException {
+
+        statement.setInt(1, appliedAllocations.get(i).getQuantity());
+
+        statement.setLong(2, appliedAllocations.get(i).getId());
+
+        statement.setLong(3, versions.get(i));
+
+      }
+
+      @Override
+
+      public int getBatchSize() {
+
+        return appliedAllocations.size();
+
+      }
+
+    });
+
+    for (int i = 0; i < updateCounts.length; i++) {
+
+      if (updateCounts[i] != 1) {
+
+        throw new ObjectOptimisticLockingFailureException(Batch.class, appliedAllocations.get(i).getId());
+
+      }
+
+    }
+
+    return applied;
+
+  }
+
+  /** 
+
+   * Run one conditional update per allocation in a single JDBC batch 
+
+   * The statement binds the quantity (twice when it moves between two columns), then the id, then the guard quantity 
+
+   */
+
+  private boolean[] updateEach(String sql, List < Batch > allocations, boolean movesQuantity) {
+
+    boolean[] applied = new boolean[allocations.size()];
+
+    if (allocations.isEmpty()) {
+
+      return applied;
+
+    }
+
+    int[] updateCounts = jdbcTemplate.batchUpdate(sql, allocations, allocations.size(),
+
+      (statement, allocation) -> {
+
+        int index = 1;
+
+        statement.setInt(index++, allocation.getQuantity());
+
+        if (movesQuantity) {
+
+          statement.setInt(index++, allocation.getQuantity());
+
+        }
+
+        statement.setLong(index++, allocation.getId());
+
+        statement.setInt(index, allocation.getQuantity());
+
+      })[0];
+
+    for (int i = 0; i < applied.length; i++) {
+
+      applied[i] = updateCounts[i] == 1;
+
+    }
+
+    return applied;
+
+  }
+
+}
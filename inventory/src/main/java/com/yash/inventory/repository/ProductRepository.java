@@ -1,19 +1,49 @@
 package com.yash.inventory.repository;
 
+import com.yash.inventory.dto.ProductInventoryResponse;
+
 import com.yash.inventory.entity.Product;
 
+import org.springframework.data.domain.Pageable;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import org.springframework.data.jpa.repository.Query;
+
+import org.springframework.data.repository.query.Param;
+
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 import java.util.Optional;
 
 @Repository
 
-public interface ProductRepository extends JpaRepository < Product, Long > {
+public interface ProductRepository extends JpaRepository < Product, Long >, ProductRepositoryCustom {
 
   Optional < Product > findByProductCode(String productCode);
 
   boolean existsByProductCode(String productCode);
 
-}
\ No newline at end of file
+  /** 
+
+   * Keyset page of products after the given product code, without their batches 
+
+   *  
+
+   * @param afterProductCode Last product code of the previous page, empty for the first page 
+
+   * @param page Page size; only the first page of the request is ever read 
+
+   * @return Products sorted by product code 
+
+   */
+
+  @Query("select new com.yash.inventory.dto.ProductInventoryResponse(p.productCode, p.name, p.description) " +
+
+    "from Product p where p.productCode > :afterProductCode order by p.productCode")
+
+  List < ProductInventoryResponse > findPageAfter(@Param("afterProductCode") String afterProductCode, Pageable page);
+
+}
@@ -0,0 +1,33 @@
+package com.yash.inventory.repository;
+
+import com.yash.inventory.dto.ProductInventoryResponse;
+
+import java.time.LocalDate;
+
+import java.util.function.Consumer;
+
+/** 
+
+ * Catalog reads that stream rows instead of loading entities 
+
+ */
+
+public interface ProductRepositoryCustom {
+
+  /** 
+
+   * Walk every product with its live batches over one forward-only JDBC cursor, sorted by product code 
+
+   * Only the current product's batches are held in memory 
+
+   *  
+
+   * @param today Batches expiring before this day are left out, as are depleted ones 
+
+   * @param sink Receives each product once all of its batches have been read 
+
+   */
+
+  void streamProductInventory(LocalDate today, Consumer < ProductInventoryResponse > sink);
+
+}
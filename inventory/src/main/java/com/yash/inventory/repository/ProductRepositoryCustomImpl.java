@@ -0,0 +1,93 @@
+package com.yash.inventory.repository;
+
+import com.yash.inventory.dto.BatchResponse;
+
+import com.yash.inventory.dto.ProductInventoryResponse;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+import java.util.function.Consumer;
+
+/** 
+
+ * JDBC implementation of {@link ProductRepositoryCustom} 
+
+ * Uses its own JdbcTemplate with a fetch size, so the driver pages the cursor instead of buffering the catalog 
+
+ */
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+  private static final int STREAM_FETCH_SIZE = 500;
+
+  private static final String STREAM_SQL =
+
+    "SELECT p.id, p.product_code, p.name, p.description, " +
+
+    "b.id AS batch_id, b.batch_number, b.quantity, b.expiry_date, b.received_date " +
+
+    "FROM products p LEFT JOIN batches b " +
+
+    "ON b.product_id = p.id AND b.quantity > 0 AND b.expiry_date >= ? " +
+
+    "ORDER BY p.product_code, b.expiry_date, b.id";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ProductRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+
+    this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+
+    this.jdbcTemplate.setFetchSize(STREAM_FETCH_SIZE);
+
+  }
+
+  @Override
+
+  public void streamProductInventory(LocalDate today, Consumer < ProductInventoryResponse > sink) {
+
+    ProductInventoryResponse[] current = new ProductInventoryResponse[1];
+
+    jdbcTemplate.query(STREAM_SQL, resultSet -> {
+
+      String productCode = resultSet.getString("product_code");
+
+      if (current[0] == null || !current[0].getProductCode().equals(productCode)) {
+
+        if (current[0] != null) {
+
+          sink.accept(current[0]);
+
+        }
+
+        current[0] = new ProductInventoryResponse(productCode, resultSet.getString("name"),
+
+          resultSet.getString("description"));
+
+      }
+
+      long batchId = resultSet.getLong("batch_id");
+
+      if (!resultSet.wasNull()) {
+
+        current[0].getBatches().add(new BatchResponse(batchId, resultSet.getString("batch_number"),
+
+          resultSet.getInt("quantity"), resultSet.getObject("expiry_date", LocalDate.class),
+
+          resultSet.getObject("received_date", LocalDate.class), productCode, current[0].getProductName()));
+
+      }
+
+    }, today);
+
+    if (current[0] != null) {
+
+      sink.accept(current[0]);
+
+    }
+
+  }
+
+}
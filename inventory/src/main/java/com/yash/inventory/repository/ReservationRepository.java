@@ -0,0 +1,21 @@
+package com.yash.inventory.repository;
+
+import com.yash.inventory.entity.Reservation;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+import java.util.Optional;
+
+@Repository
+
+public interface ReservationRepository extends JpaRepository < Reservation, Long > {
+
+  Optional < Reservation > findByReservationId(String reservationId);
+
+  List < Reservation > findByStatus(Reservation.ReservationStatus status);
+
+}
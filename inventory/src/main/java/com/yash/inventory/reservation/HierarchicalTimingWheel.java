@@ -0,0 +1,464 @@
+ package com.yash.inventory.reservation;
+
+ import java.util.ArrayDeque;
+ import java.util.ArrayList;
+ import java.util.List;
+ import java.util.concurrent.locks.ReentrantLock;
+
+ /** 
+
+  * Hierarchical timing wheel: schedule and cancel are O(1), and time advances one tick at a time 
+
+  * Each level is a ring of buckets; a deadline beyond a level's span goes to a coarser overflow level 
+
+  * and cascades down as its bucket comes due, so long and short timeouts cost the same to hold 
+
+  * Deadlines are rounded up to the tick, so a task never fires before its deadline 
+
+  *  
+
+  * @param <T> Task type returned when a timeout fires 
+
+  */
+
+ public class HierarchicalTimingWheel < T > {
+
+   private final ReentrantLock lock = new ReentrantLock();
+
+   private final long tickMillis;
+
+   private final Level root;
+
+   // Timeouts whose deadline had already passed when scheduled; returned by the next advance 
+
+   private final ArrayDeque < Timeout > due = new ArrayDeque < > ();
+
+   private int size;
+
+   public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+
+     if (tickMillis <= 0 || wheelSize <= 1) {
+
+       throw new IllegalArgumentException("Tick must be positive and wheel size greater than one");
+
+     }
+
+     this.tickMillis = tickMillis;
+
+     this.root = new Level(tickMillis, wheelSize, startMillis);
+
+   }
+
+   /** 
+
+    * Schedule a task 
+
+    *  
+
+    * @param task Task returned by {@link #advance(long)} once due 
+
+    * @param deadlineMillis Epoch millis at which the task becomes due 
+
+    * @return Handle to cancel the timeout 
+
+    */
+
+   public Timeout schedule(T task, long deadlineMillis) {
+
+     Timeout timeout = new Timeout(task, ceilToTick(deadlineMillis));
+
+     lock.lock();
+
+     try {
+
+       size++;
+
+       if (!root.add(timeout)) {
+
+         due.add(timeout);
+
+       }
+
+     } finally {
+
+       lock.unlock();
+
+     }
+
+     return timeout;
+
+   }
+
+   /** 
+
+    * Advance the wheel to the given time and collect every task that came due 
+
+    *  
+
+    * @param nowMillis Current epoch millis 
+
+    * @return Due tasks in deadline order, at tick granularity 
+
+    */
+
+   public List < T > advance(long nowMillis) {
+
+     List < T > expired = new ArrayList < > ();
+
+     lock.lock();
+
+     try {
+
+       while (!due.isEmpty()) {
+
+         expire(due.poll(), expired);
+
+       }
+
+       if (size == 0) {
+
+         // Nothing to cascade: jump straight to the current tick 
+
+         root.advanceClock(nowMillis - Math.floorMod(nowMillis, tickMillis));
+
+         return expired;
+
+       }
+
+       while (root.currentTime + tickMillis <= nowMillis) {
+
+         long time = root.currentTime + tickMillis;
+
+         root.advanceClock(time);
+
+         for (Level level = root; level != null; level = level.overflow) {
+
+           Bucket bucket = level.bucketAt(time);
+
+           if (bucket.expiration != -1 && bucket.expiration <= time) {
+
+             flush(bucket, expired);
+
+           }
+
+         }
+
+       }
+
+     } finally {
+
+       lock.unlock();
+
+     }
+
+     return expired;
+
+   }
+
+   /** 
+
+    * Number of scheduled timeouts that have neither fired nor been cancelled 
+
+    */
+
+   public int size() {
+
+     lock.lock();
+
+     try {
+
+       return size;
+
+     } finally {
+
+       lock.unlock();
+
+     }
+
+   }
+
+   private void flush(Bucket bucket, List < T > expired) {
+
+     bucket.expiration = -1;
+
+     Timeout timeout = bucket.head.next;
+
+     while (timeout != bucket.head) {
+
+       Timeout next = timeout.next;
+
+       bucket.remove(timeout);
+
+       // Re-insert into a finer level, or fire if it is due within the current tick 
+
+       if (!root.add(timeout)) {
+
+         expire(timeout, expired);
+
+       }
+
+       timeout = next;
+
+     }
+
+   }
+
+   private void expire(Timeout timeout, List < T > expired) {
+
+     if (timeout.state == State.PENDING) {
+
+       timeout.state = State.FIRED;
+
+       size--;
+
+       expired.add(timeout.task);
+
+     }
+
+   }
+
+   private long ceilToTick(long millis) {
+
+     return Math.floorDiv(millis + tickMillis - 1, tickMillis) * tickMillis;
+
+   }
+
+   private enum State {
+
+     PENDING, FIRED, CANCELLED
+
+   }
+
+   /** 
+
+    * Scheduled task, linked into exactly one bucket while pending 
+
+    */
+
+   public final class Timeout {
+
+     private final T task;
+
+     private final long deadline;
+
+     private State state = State.PENDING;
+
+     private Bucket bucket;
+
+     private Timeout prev;
+
+     private Timeout next;
+
+     private Timeout(T task, long deadline) {
+
+       this.task = task;
+
+       this.deadline = deadline;
+
+     }
+
+     /** 
+
+      * Cancel the timeout 
+
+      *  
+
+      * @return True if it was still pending 
+
+      */
+
+     public boolean cancel() {
+
+       lock.lock();
+
+       try {
+
+         if (state != State.PENDING) {
+
+           return false;
+
+         }
+
+         state = State.CANCELLED;
+
+         size--;
+
+         if (bucket != null) {
+
+           bucket.remove(this);
+
+         } else {
+
+           due.remove(this);
+
+         }
+
+         return true;
+
+       } finally {
+
+         lock.unlock();
+
+       }
+
+     }
+
+   }
+
+   /** 
+
+    * Doubly linked list of timeouts sharing one slot of a level 
+
+    */
+
+   private final class Bucket {
+
+     private final Timeout head = new Timeout(null, -1);
+
+     private long expiration = -1;
+
+     private Bucket() {
+
+       head.prev = head;
+
+       head.next = head;
+
+     }
+
+     private void add(Timeout timeout) {
+
+       timeout.bucket = this;
+
+       timeout.prev = head.prev;
+
+       timeout.next = head;
+
+       head.prev.next = timeout;
+
+       head.prev = timeout;
+
+     }
+
+     private void remove(Timeout timeout) {
+
+       timeout.prev.next = timeout.next;
+
+       timeout.next.prev = timeout.prev;
+
+       timeout.prev = null;
+
+       timeout.next = null;
+
+       timeout.bucket = null;
+
+     }
+
+   }
+
+   /** 
+
+    * One ring of the wheel; its span is tick * wheel size, and the next level's tick is that span 
+
+    */
+
+   private final class Level {
+
+     private final long tick;
+
+     private final int wheelSize;
+
+     private final long interval;
+
+     private final List < Bucket > buckets;
+
+     private long currentTime;
+
+     private Level overflow;
+
+     private Level(long tick, int wheelSize, long startMillis) {
+
+       this.tick = tick;
+
+       this.wheelSize = wheelSize;
+
+       this.interval = tick * wheelSize;
+
+       this.buckets = new ArrayList < > (wheelSize);
+
+       for (int i = 0; i < wheelSize; i++) {
+
+         buckets.add(new Bucket());
+
+       }
+
+       this.currentTime = startMillis - Math.floorMod(startMillis, tick);
+
+     }
+
+     /** 
+
+      * Place a timeout in this level or an overflow level 
+
+      *  
+
+      * @return False if the timeout is already due 
+
+      */
+
+     private boolean add(Timeout timeout) {
+
+       if (timeout.deadline < currentTime + tick) {
+
+         return false;
+
+       }
+
+       if (timeout.deadline < currentTime + interval) {
+
+         long virtualId = timeout.deadline / tick;
+
+         Bucket bucket = buckets.get((int) (virtualId % wheelSize));
+
+         bucket.add(timeout);
+
+         bucket.expiration = virtualId * tick;
+
+         return true;
+
+       }
+
+       if (overflow == null) {
+
+         overflow = new Level(interval, wheelSize, currentTime);
+
+       }
+
+       return overflow.add(timeout);
+
+     }
+
+     private Bucket bucketAt(long time) {
+
+       return buckets.get((int) ((time / tick) % wheelSize));
+
+     }
+
+     private void advanceClock(long time) {
+
+       if (time >= currentTime + tick) {
+
+         currentTime = time - Math.floorMod(time, tick);
+
+         if (overflow != null) {
+
+           overflow.advanceClock(currentTime);
+
+         }
+
+       }
+
+     }
+
+   }
+
+ }
@@ -0,0 +1,163 @@
+ package com.yash.inventory.reservation;
+
+ import java.time.Instant;
+ import java.util.Map;
+ import java.util.concurrent.ConcurrentHashMap;
+
+ import org.slf4j.Logger;
+ import org.slf4j.LoggerFactory;
+ import org.springframework.beans.factory.ObjectProvider;
+ import org.springframework.beans.factory.SmartInitializingSingleton;
+ import org.springframework.beans.factory.annotation.Value;
+ import org.springframework.scheduling.annotation.Scheduled;
+ import org.springframework.stereotype.Component;
+
+ import com.yash.inventory.engine.AllocationEngine;
+ import com.yash.inventory.entity.Reservation;
+ import com.yash.inventory.repository.ReservationRepository;
+
+ /** 
+
+  * Expires held reservations on time using a {@link HierarchicalTimingWheel} 
+
+  * Each hold costs one wheel slot; no query polls for expired rows. Held reservations are re-armed at startup 
+
+  */
+
+ @Component
+
+ public class ReservationExpiryScheduler implements SmartInitializingSingleton {
+
+   private static final Logger logger = LoggerFactory.getLogger(ReservationExpiryScheduler.class);
+
+   private static final long RETRY_DELAY_MILLIS = 1000;
+
+   private final HierarchicalTimingWheel < String > wheel;
+
+   private final Map < String, HierarchicalTimingWheel < String > .Timeout > timeouts = new ConcurrentHashMap < > ();
+
+   private final ReservationRepository reservationRepository;
+
+   private final ObjectProvider < AllocationEngine > allocationEngine;
+
+   public ReservationExpiryScheduler(ReservationRepository reservationRepository,
+
+     ObjectProvider < AllocationEngine > allocationEngine,
+
+     @Value("${inventory.reservation.tick-millis:100}") long tickMillis,
+
+     @Value("${inventory.reservation.wheel-size:64}") int wheelSize) {
+
+     this.reservationRepository = reservationRepository;
+
+     this.allocationEngine = allocationEngine;
+
+     this.wheel = new HierarchicalTimingWheel < > (tickMillis, wheelSize, System.currentTimeMillis());
+
+   }
+
+   @Override
+
+   public void afterSingletonsInstantiated() {
+
+     int rearmed = 0;
+
+     for (Reservation reservation: reservationRepository.findByStatus(Reservation.ReservationStatus.HELD)) {
+
+       schedule(reservation.getReservationId(), reservation.getExpiresAt());
+
+       rearmed++;
+
+     }
+
+     logger.info("Reservation expiry armed for {} held reservations", rearmed);
+
+   }
+
+   /** 
+
+    * Arm the expiry of a reservation, replacing any earlier deadline 
+
+    *  
+
+    * @param reservationId Reservation id 
+
+    * @param expiresAt When the hold lapses 
+
+    */
+
+   public void schedule(String reservationId, Instant expiresAt) {
+
+     HierarchicalTimingWheel < String > .Timeout previous =
+
+       timeouts.put(reservationId, wheel.schedule(reservationId, expiresAt.toEpochMilli()));
+
+     if (previous != null) {
+
+       previous.cancel();
+
+     }
+
+   }
+
+   /** 
+
+    * Disarm the expiry of a reservation that was confirmed or released 
+
+    */
+
+   public void cancel(String reservationId) {
+
+     HierarchicalTimingWheel < String > .Timeout timeout = timeouts.remove(reservationId);
+
+     if (timeout != null) {
+
+       timeout.cancel();
+
+     }
+
+   }
+
+   /** 
+
+    * Number of reservations waiting to expire 
+
+    */
+
+   public int pendingCount() {
+
+     return wheel.size();
+
+   }
+
+   /** 
+
+    * Advance the wheel and expire every reservation that came due 
+
+    */
+
+   @Scheduled(fixedDelayString = "${inventory.reservation.tick-millis:100}")
+
+   public void tick() {
+
+     for (String reservationId: wheel.advance(System.currentTimeMillis())) {
+
+       timeouts.remove(reservationId);
+
+       try {
+
+         allocationEngine.getObject().expire(reservationId);
+
+       } catch (RuntimeException e) {
+
+         logger.warn("Expiring reservation {} failed, retrying: {}", reservationId, e.getMessage());
+
+         schedule(reservationId, Instant.now().plusMillis(RETRY_DELAY_MILLIS));
+
+       }
+
+     }
+
+   }
+
+ }
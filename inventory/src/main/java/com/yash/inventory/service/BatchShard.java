@@ -0,0 +1,70 @@
+ package com.yash.inventory.service;
+
+ import java.util.ArrayList;
+ import java.util.List;
+
+ import com.yash.inventory.entity.Batch;
+
+ /** 
+
+  * One of count disjoint slices of a product's batches, chosen by batch id 
+
+  * Writers holding different shards of a flash-sale product never touch the same batch rows 
+
+  *  
+
+  * @param index Shard number, from 0 to count - 1 
+
+  * @param count Number of shards the product is split into 
+
+  */
+
+ public record BatchShard(int index, int count) {
+
+   public BatchShard {
+
+     if (count <= 0 || index < 0 || index >= count) {
+
+       throw new IllegalArgumentException("Invalid shard " + index + " of " + count);
+
+     }
+
+   }
+
+   /** 
+
+    * Check whether a batch belongs to this shard 
+
+    */
+
+   public boolean owns(Long batchId) {
+
+     return Math.floorMod(batchId, count) == index;
+
+   }
+
+   /** 
+
+    * Keep the batches this shard owns, in their original order 
+
+    */
+
+   public List < Batch > select(List < Batch > batches) {
+
+     List < Batch > owned = new ArrayList < > ();
+
+     for (Batch batch: batches) {
+
+       if (owns(batch.getId())) {
+
+         owned.add(batch);
+
+       }
+
+     }
+
+     return owned;
+
+   }
+
+ }
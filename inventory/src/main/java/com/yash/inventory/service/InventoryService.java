@@ -1,20 +1,37 @@
  package com.yash.inventory.service;
 
+ import java.time.LocalDate;
  import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+ import java.util.function.Consumer;
  import java.util.stream.Collectors;
 
+ import org.springframework.data.domain.PageRequest;
  import org.springframework.stereotype.Service;
 
+ import com.yash.inventory.cache.BatchResponseCache;
+ import com.yash.inventory.cache.CacheStats;
+ import com.yash.inventory.dto.AvailabilityResponse;
  import com.yash.inventory.dto.BatchResponse;
+ import com.yash.inventory.dto.BulkInventoryUpdateRequest;
+ import com.yash.inventory.dto.BulkInventoryUpdateResponse;
  import com.yash.inventory.dto.InventoryUpdateRequest;
  import com.yash.inventory.dto.InventoryUpdateResponse;
+ import com.yash.inventory.dto.ProductInventoryResponse;
  import com.yash.inventory.entity.Batch;
- import com.yash.inventory.entity.Product;
 import com.yash.inventory.exception.InsufficientInventoryException;
 import com.yash.inventory.exception.ProductNotFoundException;
+import com.yash.inventory.index.BatchIndex;
+import com.yash.inventory.index.OnHandCounters;
+import com.yash.inventory.ledger.MovementRecorder;
+import com.yash.inventory.ledger.MovementType;
 import com.yash.inventory.repository.BatchRepository;
  import com.yash.inventory.repository.ProductRepository;
+import com.yash.inventory.strategy.AllocationBuffer;
 import com.yash.inventory.strategy.InventoryStrategy;
 import com.yash.inventory.strategy.InventoryStrategyFactory;
 
@@ -24,17 +41,39 @@ import com.yash.inventory.strategy.InventoryStrategyFactory;
 
  public class InventoryService {
 
+   private static final int MAX_PRODUCT_PAGE_SIZE = 1000;
+
+   // Allocation scratch space, reused by every allocation a thread runs; results are copied out before it is refilled 
+
+   private static final ThreadLocal < AllocationBuffer > ALLOCATION_BUFFER = ThreadLocal.withInitial(AllocationBuffer::new);
+
    private final ProductRepository productRepository;
 
    private final BatchRepository batchRepository;
 
    private final InventoryStrategyFactory strategyFactory;
 
+   private final BatchIndex batchIndex;
+
+   private final BatchResponseCache batchCache;
+
+   private final MovementRecorder movementRecorder;
+
+   private final OnHandCounters onHandCounters;
+
    public InventoryService(ProductRepository productRepository,
 
      BatchRepository batchRepository,
 
-     InventoryStrategyFactory strategyFactory) {
+     InventoryStrategyFactory strategyFactory,
+
+     BatchIndex batchIndex,
+
+     BatchResponseCache batchCache,
+
+     MovementRecorder movementRecorder,
+
+     OnHandCounters onHandCounters) {
 
      this.productRepository = productRepository;
 
@@ -42,11 +81,19 @@ import com.yash.inventory.strategy.InventoryStrategyFactory;
 
      this.strategyFactory = strategyFactory;
 
+     this.batchIndex = batchIndex;
+
+     this.batchCache = batchCache;
+
+     this.movementRecorder = movementRecorder;
+
+     this.onHandCounters = onHandCounters;
+
    }
 
    /** 
 
-    * Get all batches for a product sorted by expiry date 
+    * Get the live batches of a product (stock left, not expired) sorted by expiry date 
 
     *  
 
@@ -58,20 +105,108 @@ import com.yash.inventory.strategy.InventoryStrategyFactory;
 
    public List < BatchResponse > getBatchesByProduct(String productCode) {
 
-     Product product = productRepository.findByProductCode(productCode)
+     return batchCache.get(productCode, this::loadBatchesByProduct);
+
+   }
+
+   private List < BatchResponse > loadBatchesByProduct(String productCode) {
+
+     List < BatchResponse > rows = batchRepository.findBatchResponsesByProductCode(productCode, LocalDate.now());
+
+     if (rows.isEmpty()) {
+
+       throw new ProductNotFoundException("Product not found: " + productCode);
+
+     }
+
+     // A product without batches comes back as one row with no batch 
+
+     return rows.stream()
+
+       .filter(row -> row.getId() != null)
+
+       .collect(Collectors.toList());
+
+   }
+
+   /** 
+
+    * Get the hit, miss and eviction counters of the batch cache 
+
+    */
+
+   public CacheStats getBatchCacheStats() {
+
+     return batchCache.stats();
+
+   }
+
+   /** 
+
+    * Get the allocatable quantity of a product 
+
+    *  
+
+    * @param productCode Product code 
+
+    * @return Available quantity summed over live batches 
+
+    */
+
+   public AvailabilityResponse getAvailability(String productCode) {
+
+     BatchIndex.ProductBatches product = batchIndex.getProduct(productCode)
 
        .orElseThrow(() -> new ProductNotFoundException("Product not found: " + productCode));
 
-     List < Batch > batches = batchRepository.findByProductProductCodeOrderByExpiryDateAsc(productCode);
+     return availabilityOf(product);
+
+   }
+
+   /** 
+
+    * Get the allocatable quantity of several products 
+
+    * Unknown product codes are left out, so callers treat a missing entry as a product that does not exist 
+
+    *  
+
+    * @param productCodes Product codes 
+
+    * @return Available quantities, one per distinct known product code in request order 
+
+    */
+
+   public List < AvailabilityResponse > getAvailability(List < String > productCodes) {
+
+     if (productCodes == null || productCodes.isEmpty()) {
+
+       throw new IllegalArgumentException("Invalid request: at least one product code is required");
 
-     return batches.stream()
+     }
+
+     return productCodes.stream()
+
+       .distinct()
 
-       .map(this::convertToBatchResponse)
+       .map(batchIndex::getProduct)
+
+       .flatMap(Optional::stream)
+
+       .map(InventoryService::availabilityOf)
 
        .collect(Collectors.toList());
 
    }
 
+   private static AvailabilityResponse availabilityOf(BatchIndex.ProductBatches product) {
+
+     return new AvailabilityResponse(product.getProductCode(), product.getProductName(), product.getAvailableQuantity(),
+
+       product.getReservedQuantity());
+
+   }
+
    /** 
 
     * Update inventory by deducting quantity using the specified strategy 
@@ -88,69 +223,153 @@ import com.yash.inventory.strategy.InventoryStrategyFactory;
 
    public InventoryUpdateResponse updateInventory(InventoryUpdateRequest request) {
 
+     return allocateLine(request, new HashMap < > (), null);
+
+   }
+
+   /** 
+
+    * Update inventory from one shard of a flash-sale product's batches 
+
+    * Only the batches the shard owns are taken, so writers holding different shards share no row 
+
+    *  
+
+    * @param request Inventory update request 
+
+    * @param shard Shard whose batches may be taken 
+
+    * @return Update response with allocation details 
+
+    * @throws InsufficientInventoryException if the shard alone cannot cover the quantity 
+
+    */
+
+   @Transactional
+
+   public InventoryUpdateResponse updateInventory(InventoryUpdateRequest request, BatchShard shard) {
+
+     return allocateLine(request, new HashMap < > (), shard);
+
+   }
+
+   /** 
+
+    * Update inventory for many product lines in one transaction (all-or-nothing) 
+
+    *  
+
+    * @param request Bulk request with one line per product and quantity 
+
+    * @return Per-line update responses, in request order 
+
+    */
+
+   @Transactional
+
+   public BulkInventoryUpdateResponse updateInventoryBulk(BulkInventoryUpdateRequest request) {
+
      // Validate request 
 
-     if (request.getProductCode() == null || request.getQuantity() == null || request.getQuantity() <= 0) {
+     if (request.getItems() == null || request.getItems().isEmpty() || request.getItems().contains(null)) {
 
-       throw new IllegalArgumentException("Invalid request: product code and positive quantity are required");
+       throw new IllegalArgumentException("Invalid request: at least one item is required");
 
      }
 
-     // Find product 
+     // Quantities already deducted by earlier lines, which the batch index only sees after commit 
 
-     Product product = productRepository.findByProductCode(request.getProductCode())
+     Map < Long, Integer > pendingDeductions = new HashMap < > ();
 
-       .orElseThrow(() -> new ProductNotFoundException("Product not found: " + request.getProductCode()));
+     List < InventoryUpdateResponse > results = new ArrayList < > ();
 
-     // Get all available batches 
+     for (InventoryUpdateRequest line: request.getItems()) {
 
-     List < Batch > batches = batchRepository.findByProductProductCodeOrderByExpiryDateAsc(request.getProductCode());
+       results.add(allocateLine(line, pendingDeductions, null));
 
-     if (batches.isEmpty()) {
+     }
 
-       throw new InsufficientInventoryException("No inventory available for product: " + request.getProductCode());
+     return new BulkInventoryUpdateResponse(true,
 
-     }
+       "Inventory updated successfully for " + results.size() + " items", results);
 
-     // Get strategy (use requested strategy or default) 
+   }
 
-     String strategyName = request.getStrategy() != null ? request.getStrategy() : null;
+   /** 
 
-     InventoryStrategy strategy = strategyName != null ?
+    * Allocate and deduct one product line inside the current transaction 
 
-       strategyFactory.getStrategy(strategyName) :
+    * With a shard, only its batches are taken and the product counter is not touched 
 
-       strategyFactory.getStrategy();
+    */
 
-     // Allocate inventory using strategy 
+   private InventoryUpdateResponse allocateLine(InventoryUpdateRequest request, Map < Long, Integer > pendingDeductions,
 
-     List < Batch > allocatedBatches = strategy.allocate(batches, request.getQuantity());
+     BatchShard shard) {
 
-     // Update database 
+     AllocationPlan plan = planAllocation(request, pendingDeductions, shard);
 
-     List < InventoryUpdateResponse.BatchAllocation > allocations = new ArrayList<>();
+     BatchIndex.ProductBatches product = plan.product();
+
+     InventoryStrategy strategy = plan.strategy();
+
+     List < Batch > allocatedBatches = plan.batches();
+
+     // Deduct all allocated quantities in one conditional batch update 
+
+     boolean[] applied = batchRepository.decrementQuantities(allocatedBatches);
+
+     List < Batch > deductedBatches = new ArrayList < > (allocatedBatches.size());
+
+     Batch rejected = null;
 
-     for (Batch allocatedBatch: allocatedBatches) {
+     int shortfall = 0;
 
-       // Find the actual batch in database 
+     for (int i = 0; i < allocatedBatches.size(); i++) {
 
-       Batch dbBatch = batchRepository.findById(allocatedBatch.getId())
+       if (applied[i]) {
 
-         .orElseThrow(() -> new IllegalStateException("Batch not found: " + allocatedBatch.getId()));
+         deductedBatches.add(allocatedBatches.get(i));
 
-       // Deduct quantity 
+       } else {
 
-       int newQuantity = dbBatch.getQuantity() - allocatedBatch.getQuantity();
+         rejected = rejected != null ? rejected : allocatedBatches.get(i);
 
-       dbBatch.setQuantity(newQuantity);
+         shortfall += allocatedBatches.get(i).getQuantity();
 
-       batchRepository.save(dbBatch);
+       }
+
+     }
+
+     if (shortfall > 0 && shard != null) {
+
+       // Other shards' batches are not ours to top up from; the caller moves on to the next shard 
+
+       throw new InsufficientInventoryException("Batch " + rejected.getBatchNumber() +
+
+         " no longer holds " + rejected.getQuantity() + " units for product: " + request.getProductCode());
+
+     }
+
+     if (shortfall > 0) {
+
+       // A concurrent writer got ahead of the index snapshot; take the rest from what the database holds now 
+
+       deductedBatches.addAll(deductFromDatabase(product, strategy, shortfall, rejected, request.getProductCode()));
+
+     }
+
+     List < InventoryUpdateResponse.BatchAllocation > allocations = new ArrayList<>();
+
+     for (Batch allocatedBatch: deductedBatches) {
+
+       pendingDeductions.merge(allocatedBatch.getId(), allocatedBatch.getQuantity(), Integer::sum);
 
        // Track allocation 
 
        allocations.add(new InventoryUpdateResponse.BatchAllocation(
 
-         dbBatch.getBatchNumber(),
+         allocatedBatch.getBatchNumber(),
 
          allocatedBatch.getQuantity()
 
@@ -158,7 +377,179 @@ import com.yash.inventory.strategy.InventoryStrategyFactory;
 
      }
 
-     // Build response 
+     batchIndex.onBatchesDecremented(product.getProductId(), deductedBatches);
+
+     onHandCounters.adjust(product.getProductId(), -totalQuantity(deductedBatches));
+
+     movementRecorder.record(MovementType.ALLOCATION, deductedBatches, -1);
+
+     batchCache.invalidate(request.getProductCode());
+
+     return updated(request, strategy, allocations);
+
+   }
+
+   /** 
+
+    * Update inventory for independent lines in one transaction, so they share a single commit 
+
+    * Unlike a bulk update, a line that cannot be allocated fails alone and the others are still deducted. 
+
+    * Lines taking from the same batch are coalesced into one decrement of that batch 
+
+    *  
+
+    * @param requests Independent product lines, allocated in list order 
+
+    * @return Per-line outcomes, in request order 
+
+    * @throws InsufficientInventoryException if the database rejected a planned decrement; nothing is deducted then 
+
+    */
+
+   @Transactional
+
+   public List < LineOutcome > updateInventoryGroup(List < InventoryUpdateRequest > requests) {
+
+     // Quantities planned by earlier lines, which the batch index only sees after commit 
+
+     Map < Long, Integer > pendingDeductions = new HashMap < > ();
+
+     List < AllocationPlan > plans = new ArrayList < > (requests.size());
+
+     List < RuntimeException > failures = new ArrayList < > (requests.size());
+
+     List < Batch > allocatedBatches = new ArrayList < > ();
+
+     for (InventoryUpdateRequest request: requests) {
+
+       try {
+
+         AllocationPlan plan = planAllocation(request, pendingDeductions);
+
+         for (Batch batch: plan.batches()) {
+
+           pendingDeductions.merge(batch.getId(), batch.getQuantity(), Integer::sum);
+
+         }
+
+         allocatedBatches.addAll(plan.batches());
+
+         plans.add(plan);
+
+         failures.add(null);
+
+       } catch (IllegalArgumentException | ProductNotFoundException | InsufficientInventoryException e) {
+
+         plans.add(null);
+
+         failures.add(e);
+
+       }
+
+     }
+
+     // Deduct every planned line in one conditional batch update, one row per distinct batch 
+
+     List < Batch > coalescedBatches = coalesce(allocatedBatches);
+
+     boolean[] applied = batchRepository.decrementQuantities(coalescedBatches);
+
+     for (int i = 0; i < applied.length; i++) {
+
+       if (!applied[i]) {
+
+         // A writer outside this group got ahead of the index snapshot; roll the whole group back 
+
+         throw new InsufficientInventoryException("Batch " + coalescedBatches.get(i).getBatchNumber() +
+
+           " no longer holds " + coalescedBatches.get(i).getQuantity() + " units");
+
+       }
+
+     }
+
+     Map < Long, List < Batch >> deductedByProduct = new LinkedHashMap < > ();
+
+     List < LineOutcome > outcomes = new ArrayList < > (requests.size());
+
+     for (int i = 0; i < requests.size(); i++) {
+
+       InventoryUpdateRequest request = requests.get(i);
+
+       AllocationPlan plan = plans.get(i);
+
+       if (plan == null) {
+
+         outcomes.add(LineOutcome.failed(failures.get(i)));
+
+         continue;
+
+       }
+
+       List < InventoryUpdateResponse.BatchAllocation > allocations = new ArrayList < > ();
+
+       for (Batch batch: plan.batches()) {
+
+         allocations.add(new InventoryUpdateResponse.BatchAllocation(batch.getBatchNumber(), batch.getQuantity()));
+
+       }
+
+       deductedByProduct.computeIfAbsent(plan.product().getProductId(), id -> new ArrayList < > ()).addAll(plan.batches());
+
+       batchCache.invalidate(request.getProductCode());
+
+       outcomes.add(LineOutcome.succeeded(updated(request, plan.strategy(), allocations)));
+
+     }
+
+     deductedByProduct.forEach(batchIndex::onBatchesDecremented);
+
+     deductedByProduct.forEach((productId, batches) -> onHandCounters.adjust(productId, -totalQuantity(batches)));
+
+     movementRecorder.record(MovementType.ALLOCATION, coalescedBatches, -1);
+
+     return outcomes;
+
+   }
+
+   /** 
+
+    * Merge allocations of the same batch into one, summing their quantities, in first-seen order 
+
+    */
+
+   private static List < Batch > coalesce(List < Batch > allocations) {
+
+     Map < Long, Batch > byBatch = new LinkedHashMap < > ();
+
+     for (Batch allocation: allocations) {
+
+       byBatch.merge(allocation.getId(), allocation, (merged, next) -> new Batch(merged.getId(), merged.getBatchNumber(),
+
+         merged.getProduct(), merged.getQuantity() + next.getQuantity(), merged.getExpiryDate(), merged.getReceivedDate()));
+
+     }
+
+     return new ArrayList < > (byBatch.values());
+
+   }
+
+   private static long totalQuantity(List < Batch > allocations) {
+
+     return allocations.stream().mapToLong(Batch::getQuantity).sum();
+
+   }
+
+   /** 
+
+    * Build the response of a successfully deducted line 
+
+    */
+
+   private InventoryUpdateResponse updated(InventoryUpdateRequest request, InventoryStrategy strategy,
+
+     List < InventoryUpdateResponse.BatchAllocation > allocations) {
 
      InventoryUpdateResponse response = new InventoryUpdateResponse();
 
@@ -178,70 +569,286 @@ import com.yash.inventory.strategy.InventoryStrategyFactory;
 
    /** 
 
-    * Convert Batch entity to BatchResponse DTO 
+    * Pick the batches a line would take, without touching the database 
 
-    */
+    * Shared by deductions and reservations 
 
-   private BatchResponse convertToBatchResponse(Batch batch) {
+    *  
 
-     BatchResponse response = new BatchResponse();
+    * @param request Product line with quantity and optional strategy 
 
-     response.setId(batch.getId());
+    * @param pendingDeductions Quantities already taken earlier in this transaction, by batch id 
 
-     response.setBatchNumber(batch.getBatchNumber());
+    * @return Product, strategy and the batches with the quantity to take from each 
 
-     response.setQuantity(batch.getQuantity());
+    */
 
-     response.setExpiryDate(batch.getExpiryDate());
+   AllocationPlan planAllocation(InventoryUpdateRequest request, Map < Long, Integer > pendingDeductions) {
 
-     response.setReceivedDate(batch.getReceivedDate());
+     return planAllocation(request, pendingDeductions, null);
 
-     response.setProductCode(batch.getProduct().getProductCode());
+   }
 
-     response.setProductName(batch.getProduct().getName());
+   private AllocationPlan planAllocation(InventoryUpdateRequest request, Map < Long, Integer > pendingDeductions,
 
-     return response;
+     BatchShard shard) {
+
+     // Validate request 
+
+     if (request.getProductCode() == null || request.getQuantity() == null || request.getQuantity() <= 0) {
+
+       throw new IllegalArgumentException("Invalid request: product code and positive quantity are required");
+
+     }
+
+     // Find product in the batch index 
+
+     BatchIndex.ProductBatches product = batchIndex.getProduct(request.getProductCode())
+
+       .orElseThrow(() -> new ProductNotFoundException("Product not found: " + request.getProductCode()));
+
+     // Get strategy (use requested strategy or default) 
+
+     String strategyName = request.getStrategy() != null ? request.getStrategy() : null;
+
+     InventoryStrategy strategy = strategyName != null ?
+
+       strategyFactory.getStrategy(strategyName) :
+
+       strategyFactory.getStrategy();
+
+     // Get live batches in the order the strategy allocates in 
+
+     List < Batch > ordered = product.getBatches(strategy.getBatchOrder());
+
+     List < Batch > batches = withoutPendingDeductions(shard == null ? ordered : shard.select(ordered), pendingDeductions);
+
+     if (batches.isEmpty()) {
+
+       throw new InsufficientInventoryException("No inventory available for product: " + request.getProductCode());
+
+     }
+
+     // The snapshot total is exact unless earlier lines of this request already took from the product, or only a shard is used 
+
+     long available = pendingDeductions.isEmpty() && shard == null ?
+
+       product.getAvailableQuantity() :
+
+       batches.stream().mapToLong(Batch::getQuantity).sum();
+
+     // Allocate over the index's already ordered batches, then copy out only the batches touched 
+
+     return new AllocationPlan(product, strategy, allocate(strategy, batches, request.getQuantity(), available));
 
    }
 
    /** 
 
-    * Get all products with their batches (for testing/viewing data) 
+    * Deduct a line's shortfall straight from the database, once the index snapshot proved stale 
 
-    */
+    * Reads only the batches that cover the shortfall, already in the strategy's order 
 
-   public List < Object > getAllProducts() {
+    *  
 
-     return productRepository.findAll().stream()
+    * @param product Product being allocated 
 
-       .map(product -> {
+    * @param strategy Strategy of the line 
 
-         List < BatchResponse > productBatches = batchRepository
+    * @param quantity Units the conditional update could not take 
 
-         .findByProductProductCodeOrderByExpiryDateAsc(product.getProductCode())
+    * @param rejected First batch that no longer held its planned quantity, reported if the database cannot cover 
 
-         .stream()
+    * @param productCode Product code of the line 
 
-         .map(this::convertToBatchResponse)
+    * @return Batches with the quantity deducted from each 
 
-         .collect(Collectors.toList());
+    */
 
-         return new Object() {
+   private List < Batch > deductFromDatabase(BatchIndex.ProductBatches product, InventoryStrategy strategy, int quantity,
 
-           public final String productCode = product.getProductCode();
+     Batch rejected, String productCode) {
 
-           public final String productName = product.getName();
+     List < Batch > batches = batchRepository.findAllocationPrefix(product.getProductId(), strategy.getBatchOrder(),
 
-           public final String description = product.getDescription();
+       LocalDate.now(), quantity);
 
-           public final List < BatchResponse > batches = productBatches;
+     long available = batches.stream().mapToLong(Batch::getQuantity).sum();
 
-         };
+     if (available < quantity) {
 
-       })
+       throw new InsufficientInventoryException("Batch " + rejected.getBatchNumber() +
 
-       .collect(Collectors.toList());
+         " no longer holds " + rejected.getQuantity() + " units for product: " + productCode);
+
+     }
+
+     List < Batch > deductedBatches = allocate(strategy, batches, quantity, available);
+
+     boolean[] applied = batchRepository.decrementQuantities(deductedBatches);
+
+     for (int i = 0; i < deductedBatches.size(); i++) {
+
+       if (!applied[i]) {
+
+         throw new InsufficientInventoryException("Batch " + deductedBatches.get(i).getBatchNumber() +
+
+           " no longer holds " + deductedBatches.get(i).getQuantity() + " units for product: " + productCode);
+
+       }
+
+     }
+
+     return deductedBatches;
+
+   }
+
+   /** 
+
+    * Allocate into this thread's buffer, then copy out only the batches touched 
+
+    */
+
+   private static List < Batch > allocate(InventoryStrategy strategy, List < Batch > batches, int quantity, long available) {
+
+     AllocationBuffer allocation = ALLOCATION_BUFFER.get();
+
+     strategy.allocateInto(batches, quantity, available, allocation);
+
+     return slices(batches, allocation);
+
+   }
+
+   /** 
+
+    * Copy out only the batches an allocation touched, each carrying the quantity taken from it 
+
+    */
+
+   private static List < Batch > slices(List < Batch > batches, AllocationBuffer allocation) {
+
+     List < Batch > allocatedBatches = new ArrayList < > (allocation.size());
+
+     for (int i = 0; i < allocation.size(); i++) {
+
+       Batch batch = batches.get(allocation.position(i));
+
+       allocatedBatches.add(new Batch(batch.getId(), batch.getBatchNumber(), batch.getProduct(), allocation.quantity(i),
+
+         batch.getExpiryDate(), batch.getReceivedDate()));
+
+     }
+
+     return allocatedBatches;
+
+   }
+
+   /** 
+
+    * Batches chosen for one product line 
+
+    */
+
+   record AllocationPlan(BatchIndex.ProductBatches product, InventoryStrategy strategy, List < Batch > batches) {}
+
+   /** 
+
+    * Reduce indexed batches by quantities already deducted earlier in this transaction 
+
+    */
+
+   private List < Batch > withoutPendingDeductions(List < Batch > batches, Map < Long, Integer > pendingDeductions) {
+
+     if (pendingDeductions.isEmpty()) {
+
+       return batches;
+
+     }
+
+     List < Batch > remaining = new ArrayList < > (batches.size());
+
+     for (Batch batch: batches) {
+
+       int quantity = batch.getQuantity() - pendingDeductions.getOrDefault(batch.getId(), 0);
+
+       if (quantity > 0) {
+
+         remaining.add(quantity == batch.getQuantity() ? batch : new Batch(batch.getId(), batch.getBatchNumber(),
+
+           batch.getProduct(), quantity, batch.getExpiryDate(), batch.getReceivedDate()));
+
+       }
+
+     }
+
+     return remaining;
+
+   }
+
+   /** 
+
+    * Get one keyset page of products with their batches, in two queries 
+
+    *  
+
+    * @param afterProductCode Last product code of the previous page, null for the first page 
+
+    * @param limit Maximum number of products in the page 
+
+    * @return Products sorted by product code 
+
+    */
+
+   public List < ProductInventoryResponse > getAllProducts(String afterProductCode, int limit) {
+
+     if (limit <= 0 || limit > MAX_PRODUCT_PAGE_SIZE) {
+
+       throw new IllegalArgumentException("Invalid request: limit must be between 1 and " + MAX_PRODUCT_PAGE_SIZE);
+
+     }
+
+     List < ProductInventoryResponse > products = productRepository.findPageAfter(
+
+       afterProductCode != null ? afterProductCode : "", PageRequest.of(0, limit));
+
+     if (products.isEmpty()) {
+
+       return products;
+
+     }
+
+     Map < String, ProductInventoryResponse > productsByCode = new HashMap < > ();
+
+     for (ProductInventoryResponse product: products) {
+
+       productsByCode.put(product.getProductCode(), product);
+
+     }
+
+     for (BatchResponse batch: batchRepository.findBatchResponsesByProductCodeIn(productsByCode.keySet(), LocalDate.now())) {
+
+       productsByCode.get(batch.getProductCode()).getBatches().add(batch);
+
+     }
+
+     return products;
+
+   }
+
+   /** 
+
+    * Stream every product with its batches, one at a time, straight off a database cursor 
+
+    *  
+
+    * @param sink Receives each product in product code order 
+
+    */
+
+   public void streamAllProducts(Consumer < ProductInventoryResponse > sink) {
+
+     productRepository.streamProductInventory(LocalDate.now(), sink);
 
    }
 
- }
\ No newline at end of file
+ }
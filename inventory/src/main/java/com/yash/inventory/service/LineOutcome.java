@@ -0,0 +1,37 @@
+ package com.yash.inventory.service;
+
+ import com.yash.inventory.dto.InventoryUpdateResponse;
+
+ /** 
+
+  * Result of one independent line of a group update: either its response or why it failed 
+
+  *  
+
+  * @param response Update response, or null if the line failed 
+
+  * @param failure Why the line failed, or null if it succeeded 
+
+  */
+
+ public record LineOutcome(InventoryUpdateResponse response, RuntimeException failure) {
+
+   public static LineOutcome succeeded(InventoryUpdateResponse response) {
+
+     return new LineOutcome(response, null);
+
+   }
+
+   public static LineOutcome failed(RuntimeException failure) {
+
+     return new LineOutcome(null, failure);
+
+   }
+
+   public boolean isSuccess() {
+
+     return failure == null;
+
+   }
+
+ }
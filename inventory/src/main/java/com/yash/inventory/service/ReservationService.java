@@ -0,0 +1,461 @@
+ package com.yash.inventory.service;
+
+ import java.time.Duration;
+ import java.time.Instant;
+ import java.util.ArrayList;
+ import java.util.HashMap;
+ import java.util.LinkedHashMap;
+ import java.util.List;
+ import java.util.Map;
+ import java.util.UUID;
+ import java.util.stream.Collectors;
+
+ import org.springframework.beans.factory.annotation.Value;
+ import org.springframework.stereotype.Service;
+
+ import com.yash.inventory.cache.BatchResponseCache;
+ import com.yash.inventory.dto.InventoryUpdateRequest;
+ import com.yash.inventory.dto.InventoryUpdateResponse;
+ import com.yash.inventory.dto.ReservationRequest;
+ import com.yash.inventory.dto.ReservationResponse;
+ import com.yash.inventory.entity.Batch;
+ import com.yash.inventory.entity.Reservation;
+ import com.yash.inventory.entity.ReservationLine;
+ import com.yash.inventory.exception.InsufficientInventoryException;
+ import com.yash.inventory.exception.ReservationNotFoundException;
+ import com.yash.inventory.index.BatchIndex;
+ import com.yash.inventory.index.OnHandCounters;
+import com.yash.inventory.ledger.MovementRecorder;
+import com.yash.inventory.ledger.MovementType;
+ import com.yash.inventory.repository.BatchRepository;
+ import com.yash.inventory.repository.ReservationRepository;
+ import com.yash.inventory.reservation.ReservationExpiryScheduler;
+ import com.yash.inventory.support.TransactionCallbacks;
+
+ import jakarta.transaction.Transactional;
+
+ /** 
+
+  * Holds stock for an in-progress checkout 
+
+  * Reserving moves units from a batch's quantity to its reserved quantity; confirming drops them for good, 
+
+  * releasing or expiring moves them back. Callers serialize per product through the allocation engine 
+
+  */
+
+ @Service
+
+ public class ReservationService {
+
+   private final ReservationRepository reservationRepository;
+
+   private final BatchRepository batchRepository;
+
+   private final InventoryService inventoryService;
+
+   private final BatchIndex batchIndex;
+
+   private final BatchResponseCache batchCache;
+
+   private final ReservationExpiryScheduler expiryScheduler;
+
+   private final MovementRecorder movementRecorder;
+
+   private final OnHandCounters onHandCounters;
+
+   private final Duration defaultTtl;
+
+   private final Duration maxTtl;
+
+   public ReservationService(ReservationRepository reservationRepository,
+
+     BatchRepository batchRepository,
+
+     InventoryService inventoryService,
+
+     BatchIndex batchIndex,
+
+     BatchResponseCache batchCache,
+
+     ReservationExpiryScheduler expiryScheduler,
+
+     MovementRecorder movementRecorder,
+
+     OnHandCounters onHandCounters,
+
+     @Value("${inventory.reservation.default-ttl:15m}") Duration defaultTtl,
+
+     @Value("${inventory.reservation.max-ttl:24h}") Duration maxTtl) {
+
+     this.reservationRepository = reservationRepository;
+
+     this.batchRepository = batchRepository;
+
+     this.inventoryService = inventoryService;
+
+     this.batchIndex = batchIndex;
+
+     this.batchCache = batchCache;
+
+     this.expiryScheduler = expiryScheduler;
+
+     this.movementRecorder = movementRecorder;
+
+     this.onHandCounters = onHandCounters;
+
+     this.defaultTtl = defaultTtl;
+
+     this.maxTtl = maxTtl;
+
+   }
+
+   /** 
+
+    * Reserve stock for every line, all-or-nothing 
+
+    *  
+
+    * @param request Lines to hold and an optional time-to-live 
+
+    * @return Held reservation with the batches each line holds 
+
+    */
+
+   @Transactional
+
+   public ReservationResponse reserve(ReservationRequest request) {
+
+     // Validate request 
+
+     if (request.getItems() == null || request.getItems().isEmpty() || request.getItems().contains(null)) {
+
+       throw new IllegalArgumentException("Invalid request: at least one item is required");
+
+     }
+
+     Duration ttl = request.getTtlSeconds() != null ? Duration.ofSeconds(request.getTtlSeconds()) : defaultTtl;
+
+     if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(maxTtl) > 0) {
+
+       throw new IllegalArgumentException("Invalid request: ttlSeconds must be between 1 and " + maxTtl.toSeconds());
+
+     }
+
+     Map < Long, Integer > pendingDeductions = new HashMap < > ();
+
+     List < ReservationLine > lines = new ArrayList < > ();
+
+     for (InventoryUpdateRequest item: request.getItems()) {
+
+       InventoryService.AllocationPlan plan = inventoryService.planAllocation(item, pendingDeductions);
+
+       List < Batch > allocatedBatches = plan.batches();
+
+       boolean[] applied = batchRepository.reserveQuantities(allocatedBatches);
+
+       for (int i = 0; i < allocatedBatches.size(); i++) {
+
+         Batch allocatedBatch = allocatedBatches.get(i);
+
+         if (!applied[i]) {
+
+           throw new InsufficientInventoryException("Batch " + allocatedBatch.getBatchNumber() +
+
+             " no longer holds " + allocatedBatch.getQuantity() + " units for product: " + item.getProductCode());
+
+         }
+
+         pendingDeductions.merge(allocatedBatch.getId(), allocatedBatch.getQuantity(), Integer::sum);
+
+         lines.add(new ReservationLine(plan.product().getProductId(), item.getProductCode(),
+
+           allocatedBatch.getId(), allocatedBatch.getBatchNumber(), allocatedBatch.getQuantity()));
+
+       }
+
+       batchIndex.onBatchesDecremented(plan.product().getProductId(), allocatedBatches);
+
+       movementRecorder.record(MovementType.ALLOCATION, allocatedBatches, -1);
+
+       batchIndex.onReservedChanged(plan.product().getProductId(), item.getQuantity());
+
+       onHandCounters.adjust(plan.product().getProductId(), -item.getQuantity());
+
+       batchCache.invalidate(item.getProductCode());
+
+     }
+
+     Instant now = Instant.now();
+
+     Reservation reservation = new Reservation();
+
+     reservation.setReservationId(UUID.randomUUID().toString());
+
+     reservation.setStatus(Reservation.ReservationStatus.HELD);
+
+     reservation.setCreatedAt(now);
+
+     reservation.setExpiresAt(now.plus(ttl));
+
+     reservation.setLines(lines);
+
+     Reservation saved = reservationRepository.save(reservation);
+
+     TransactionCallbacks.afterCommit(() -> expiryScheduler.schedule(saved.getReservationId(), saved.getExpiresAt()));
+
+     return toResponse(saved);
+
+   }
+
+   /** 
+
+    * Turn a held reservation into a sale; the held units leave stock for good 
+
+    *  
+
+    * @param reservationId Reservation id 
+
+    * @return Confirmed reservation 
+
+    */
+
+   @Transactional
+
+   public ReservationResponse confirm(String reservationId) {
+
+     Reservation reservation = findHeld(reservationId);
+
+     if (!reservation.getExpiresAt().isAfter(Instant.now())) {
+
+       throw new IllegalStateException("Reservation expired: " + reservationId);
+
+     }
+
+     List < Batch > batches = toBatches(reservation);
+
+     applyToBatches(reservation, batchRepository.consumeReservedQuantities(batches));
+
+     movementRecorder.record(MovementType.SALE, batches, -1);
+
+     for (Map.Entry < Long, Integer > held: heldByProduct(reservation).entrySet()) {
+
+       batchIndex.onReservedChanged(held.getKey(), -held.getValue());
+
+     }
+
+     return finish(reservation, Reservation.ReservationStatus.CONFIRMED);
+
+   }
+
+   /** 
+
+    * Give the held units back to available stock 
+
+    *  
+
+    * @param reservationId Reservation id 
+
+    * @return Released reservation 
+
+    */
+
+   @Transactional
+
+   public ReservationResponse release(String reservationId) {
+
+     return returnToStock(findHeld(reservationId), Reservation.ReservationStatus.RELEASED);
+
+   }
+
+   /** 
+
+    * Release a reservation whose hold lapsed; does nothing if it was already confirmed or released 
+
+    *  
+
+    * @param reservationId Reservation id 
+
+    */
+
+   @Transactional
+
+   public void expire(String reservationId) {
+
+     reservationRepository.findByReservationId(reservationId)
+
+       .filter(reservation -> reservation.getStatus() == Reservation.ReservationStatus.HELD)
+
+       .ifPresent(reservation -> returnToStock(reservation, Reservation.ReservationStatus.EXPIRED));
+
+   }
+
+   /** 
+
+    * Get the products a reservation holds, so callers can lock them before changing it 
+
+    *  
+
+    * @param reservationId Reservation id 
+
+    * @return Distinct product codes 
+
+    */
+
+   public List < String > getProductCodes(String reservationId) {
+
+     return reservationRepository.findByReservationId(reservationId)
+
+       .map(reservation -> reservation.getLines().stream()
+
+         .map(ReservationLine::getProductCode)
+
+         .distinct()
+
+         .collect(Collectors.toList()))
+
+       .orElseThrow(() -> new ReservationNotFoundException("Reservation not found: " + reservationId));
+
+   }
+
+   private ReservationResponse returnToStock(Reservation reservation, Reservation.ReservationStatus status) {
+
+     List < Batch > batches = toBatches(reservation);
+
+     applyToBatches(reservation, batchRepository.releaseReservedQuantities(batches));
+
+     movementRecorder.record(MovementType.RELEASE, batches, 1);
+
+     // Batches may have dropped out of the index at zero quantity: re-read them whole 
+
+     for (Batch batch: batchRepository.findAllById(batches.stream().map(Batch::getId).distinct().toList())) {
+
+       batchIndex.onBatchSaved(batch);
+
+     }
+
+     for (Map.Entry < Long, Integer > held: heldByProduct(reservation).entrySet()) {
+
+       batchIndex.onReservedChanged(held.getKey(), -held.getValue());
+
+       onHandCounters.adjust(held.getKey(), held.getValue());
+
+     }
+
+     reservation.getLines().stream()
+
+       .map(ReservationLine::getProductCode)
+
+       .distinct()
+
+       .forEach(batchCache::invalidate);
+
+     return finish(reservation, status);
+
+   }
+
+   private ReservationResponse finish(Reservation reservation, Reservation.ReservationStatus status) {
+
+     reservation.setStatus(status);
+
+     Reservation saved = reservationRepository.save(reservation);
+
+     TransactionCallbacks.afterCommit(() -> expiryScheduler.cancel(saved.getReservationId()));
+
+     return toResponse(saved);
+
+   }
+
+   private Reservation findHeld(String reservationId) {
+
+     Reservation reservation = reservationRepository.findByReservationId(reservationId)
+
+       .orElseThrow(() -> new ReservationNotFoundException("Reservation not found: " + reservationId));
+
+     if (reservation.getStatus() != Reservation.ReservationStatus.HELD) {
+
+       throw new IllegalStateException("Reservation " + reservationId + " is already " + reservation.getStatus());
+
+     }
+
+     return reservation;
+
+   }
+
+   private static void applyToBatches(Reservation reservation, boolean[] applied) {
+
+     for (int i = 0; i < applied.length; i++) {
+
+       if (!applied[i]) {
+
+         ReservationLine line = reservation.getLines().get(i);
+
+         throw new IllegalStateException("Batch " + line.getBatchNumber() + " no longer holds " +
+
+           line.getQuantity() + " reserved units for reservation: " + reservation.getReservationId());
+
+       }
+
+     }
+
+   }
+
+   private static List < Batch > toBatches(Reservation reservation) {
+
+     return reservation.getLines().stream()
+
+       .map(line -> new Batch(line.getBatchId(), line.getBatchNumber(), null, line.getQuantity(), null, null))
+
+       .collect(Collectors.toList());
+
+   }
+
+   private static Map < Long, Integer > heldByProduct(Reservation reservation) {
+
+     Map < Long, Integer > held = new HashMap < > ();
+
+     for (ReservationLine line: reservation.getLines()) {
+
+       held.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+
+     }
+
+     return held;
+
+   }
+
+   private static ReservationResponse toResponse(Reservation reservation) {
+
+     Map < String, List < ReservationLine >> linesByProduct = new LinkedHashMap < > ();
+
+     for (ReservationLine line: reservation.getLines()) {
+
+       linesByProduct.computeIfAbsent(line.getProductCode(), code -> new ArrayList < > ()).add(line);
+
+     }
+
+     List < InventoryUpdateResponse > results = new ArrayList < > ();
+
+     for (Map.Entry < String, List < ReservationLine >> product: linesByProduct.entrySet()) {
+
+       List < InventoryUpdateResponse.BatchAllocation > allocations = product.getValue().stream()
+
+         .map(line -> new InventoryUpdateResponse.BatchAllocation(line.getBatchNumber(), line.getQuantity()))
+
+         .collect(Collectors.toList());
+
+       int quantity = product.getValue().stream().mapToInt(ReservationLine::getQuantity).sum();
+
+       results.add(new InventoryUpdateResponse(true, "Reservation " + reservation.getStatus().name().toLowerCase(),
+
+         product.getKey(), quantity, allocations));
+
+     }
+
+     return new ReservationResponse(reservation.getReservationId(), reservation.getStatus().name(),
+
+       reservation.getExpiresAt(), results);
+
+   }
+
+ }
@@ -0,0 +1,139 @@
+ package com.yash.inventory.strategy;
+
+ import java.util.Arrays;
+
+ /** 
+
+  * Reusable result of an allocation: one entry per batch touched, kept in primitive arrays 
+
+  * Cleared and refilled by every {@link InventoryStrategy#allocateInto} call; it only grows, so steady-state use allocates nothing 
+
+  * Not thread-safe; keep one buffer per thread 
+
+  */
+
+ public final class AllocationBuffer {
+
+   private static final int DEFAULT_CAPACITY = 8;
+
+   private int[] positions;
+
+   private long[] batchIds;
+
+   private int[] quantities;
+
+   private int size;
+
+   public AllocationBuffer() {
+
+     this(DEFAULT_CAPACITY);
+
+   }
+
+   public AllocationBuffer(int initialCapacity) {
+
+     if (initialCapacity <= 0) {
+
+       throw new IllegalArgumentException("initialCapacity must be positive");
+
+     }
+
+     this.positions = new int[initialCapacity];
+
+     this.batchIds = new long[initialCapacity];
+
+     this.quantities = new int[initialCapacity];
+
+   }
+
+   /** 
+
+    * Drop all entries, keeping the arrays 
+
+    */
+
+   public void clear() {
+
+     size = 0;
+
+   }
+
+   /** 
+
+    * Append one allocated slice 
+
+    *  
+
+    * @param position Index of the batch in the list the strategy was given 
+
+    * @param batchId Id of the batch 
+
+    * @param quantity Units taken from the batch 
+
+    */
+
+   public void add(int position, long batchId, int quantity) {
+
+     if (size == batchIds.length) {
+
+       int capacity = size * 2;
+
+       positions = Arrays.copyOf(positions, capacity);
+
+       batchIds = Arrays.copyOf(batchIds, capacity);
+
+       quantities = Arrays.copyOf(quantities, capacity);
+
+     }
+
+     positions[size] = position;
+
+     batchIds[size] = batchId;
+
+     quantities[size] = quantity;
+
+     size++;
+
+   }
+
+   public int size() {
+
+     return size;
+
+   }
+
+   public int position(int index) {
+
+     checkIndex(index);
+
+     return positions[index];
+
+   }
+
+   public long batchId(int index) {
+
+     checkIndex(index);
+
+     return batchIds[index];
+
+   }
+
+   public int quantity(int index) {
+
+     checkIndex(index);
+
+     return quantities[index];
+
+   }
+
+   private void checkIndex(int index) {
+
+     if (index < 0 || index >= size) {
+
+       throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+
+     }
+
+   }
+
+ }
@@ -0,0 +1,15 @@
+package com.yash.inventory.strategy;
+
+/** 
+
+ * Batch ordering an allocation strategy consumes batches in 
+
+ */
+
+public enum BatchOrder {
+
+  EXPIRY_DATE,
+
+  RECEIVED_DATE
+
+}
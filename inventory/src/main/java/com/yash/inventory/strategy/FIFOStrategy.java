@@ -26,7 +26,15 @@
 
    @Override
 
-   public List < Batch > allocate(List < Batch > batches, int quantityNeeded) {
+   public List < Batch > allocate(List < Batch > batches, int quantityNeeded, long availableQuantity) {
+
+     if (availableQuantity < quantityNeeded) {
+
+       throw new InsufficientInventoryException(
+
+         "Insufficient stock. Available: " + availableQuantity + ", Needed: " + quantityNeeded);
+
+     }
 
      // Sort batches by received date (ascending - earliest received first) 
 
@@ -38,27 +46,21 @@
 
    }
 
-   private List < Batch > allocateFromSortedBatches(List < Batch > sortedBatches, int quantityNeeded) {
-
-     List < Batch > allocatedBatches = new ArrayList < > ();
-
-     int remainingQuantity = quantityNeeded;
-
-     // Calculate total available quantity 
+   @Override
 
-     int totalAvailable = sortedBatches.stream()
+   public void allocateInto(List < Batch > orderedBatches, int quantityNeeded, long availableQuantity,
 
-       .mapToInt(Batch::getQuantity)
+     AllocationBuffer result) {
 
-       .sum();
+     OrderedAllocation.allocateInto(orderedBatches, quantityNeeded, availableQuantity, result);
 
-     if (totalAvailable < quantityNeeded) {
+   }
 
-       throw new InsufficientInventoryException(
+   private List < Batch > allocateFromSortedBatches(List < Batch > sortedBatches, int quantityNeeded) {
 
-         "Insufficient stock. Available: " + totalAvailable + ", Needed: " + quantityNeeded);
+     List < Batch > allocatedBatches = new ArrayList < > ();
 
-     }
+     int remainingQuantity = quantityNeeded;
 
      // Allocate from batches in order 
 
@@ -110,4 +112,12 @@
 
    }
 
+   @Override
+
+   public BatchOrder getBatchOrder() {
+
+     return BatchOrder.RECEIVED_DATE;
+
+   }
+
  }
\ No newline at end of file
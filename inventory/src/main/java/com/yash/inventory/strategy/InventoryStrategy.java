@@ -2,6 +2,8 @@
 
  import com.yash.inventory.entity.Batch;
 
+ import com.yash.inventory.exception.InsufficientInventoryException;
+
  import java.util.List;
 
  /** 
@@ -30,7 +32,57 @@
 
     */
 
-   List < Batch > allocate(List < Batch > batches, int quantityNeeded);
+   default List < Batch > allocate(List < Batch > batches, int quantityNeeded) {
+
+     return allocate(batches, quantityNeeded, batches.stream().mapToLong(Batch::getQuantity).sum());
+
+   }
+
+   /** 
+
+    * Allocate quantity when the caller already knows the total across the batches 
+
+    * The stock check then costs O(1) instead of a pass over every batch 
+
+    *  
+
+    * @param batches Available batches for the product 
+
+    * @param quantityNeeded Quantity to allocate 
+
+    * @param availableQuantity Sum of the batch quantities 
+
+    * @return List of batches with allocated quantities 
+
+    * @throws InsufficientInventoryException if availableQuantity is below the quantity needed 
+
+    */
+
+   List < Batch > allocate(List < Batch > batches, int quantityNeeded, long availableQuantity);
+
+   /** 
+
+    * Allocate into a caller-owned buffer without creating any objects 
+
+    * The batches must already be in this strategy's {@link #getBatchOrder()}, as the batch index hands them out, 
+
+    * and should support fast random access; nothing is copied or sorted 
+
+    *  
+
+    * @param orderedBatches Available batches in allocation order 
+
+    * @param quantityNeeded Quantity to allocate 
+
+    * @param availableQuantity Sum of the batch quantities 
+
+    * @param result Cleared, then filled with one entry per batch touched, in allocation order 
+
+    * @throws InsufficientInventoryException if the batches cannot cover the quantity needed 
+
+    */
+
+   void allocateInto(List < Batch > orderedBatches, int quantityNeeded, long availableQuantity, AllocationBuffer result);
 
    /** 
 
@@ -44,4 +96,16 @@
 
    String getStrategyName();
 
+   /** 
+
+    * Get the batch ordering this strategy allocates in 
+
+    *  
+
+    * @return Batch ordering 
+
+    */
+
+   BatchOrder getBatchOrder();
+
  }
\ No newline at end of file
@@ -0,0 +1,85 @@
+ package com.yash.inventory.strategy;
+
+ import com.yash.inventory.entity.Batch;
+
+ import com.yash.inventory.exception.InsufficientInventoryException;
+
+ import java.util.List;
+
+ /** 
+
+  * Allocation over batches that are already in a strategy's order, shared by the strategies' allocateInto 
+
+  */
+
+ final class OrderedAllocation {
+
+   private OrderedAllocation() {
+
+   }
+
+   /** 
+
+    * Take the quantity from the batches front to back, skipping empty ones 
+
+    * The batch index already hands batches out in allocation order, so nothing is copied or sorted 
+
+    *  
+
+    * @param orderedBatches Available batches in allocation order 
+
+    * @param quantityNeeded Quantity to allocate 
+
+    * @param availableQuantity Sum of the batch quantities 
+
+    * @param result Cleared, then filled with one entry per batch touched, in allocation order 
+
+    * @throws InsufficientInventoryException if the batches cannot cover the quantity needed 
+
+    */
+
+   static void allocateInto(List < Batch > orderedBatches, int quantityNeeded, long availableQuantity,
+
+     AllocationBuffer result) {
+
+     if (availableQuantity < quantityNeeded) {
+
+       throw new InsufficientInventoryException(
+
+         "Insufficient stock. Available: " + availableQuantity + ", Needed: " + quantityNeeded);
+
+     }
+
+     result.clear();
+
+     int remainingQuantity = quantityNeeded;
+
+     for (int i = 0; i < orderedBatches.size() && remainingQuantity > 0; i++) {
+
+       Batch batch = orderedBatches.get(i);
+
+       int quantity = batch.getQuantity();
+
+       if (quantity > 0) {
+
+         int allocatedFromBatch = Math.min(quantity, remainingQuantity);
+
+         result.add(i, batch.getId(), allocatedFromBatch);
+
+         remainingQuantity -= allocatedFromBatch;
+
+       }
+
+     }
+
+     if (remainingQuantity > 0) {
+
+       throw new InsufficientInventoryException(
+
+         "Insufficient stock. Available: " + (quantityNeeded - remainingQuantity) + ", Needed: " + quantityNeeded);
+
+     }
+
+   }
+
+ }
@@ -0,0 +1,80 @@
+ package com.yash.inventory.support;
+
+ import org.springframework.transaction.support.TransactionSynchronization;
+ import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+ /** 
+
+  * Run work once the surrounding transaction ends, or straight away when there is none 
+
+  * Shared by the in-memory views (index, cache, ledger, expiry timers) that must only see committed writes 
+
+  */
+
+ public final class TransactionCallbacks {
+
+   private TransactionCallbacks() {
+
+   }
+
+   /** 
+
+    * Run an action after the current transaction commits; a rollback drops it 
+
+    */
+
+   public static void afterCommit(Runnable action) {
+
+     if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+
+       action.run();
+
+       return;
+
+     }
+
+     TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+       @Override
+
+       public void afterCommit() {
+
+         action.run();
+
+       }
+
+     });
+
+   }
+
+   /** 
+
+    * Run an action after the current transaction ends, whether it committed or rolled back 
+
+    */
+
+   public static void afterCompletion(Runnable action) {
+
+     if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+
+       action.run();
+
+       return;
+
+     }
+
+     TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+       @Override
+
+       public void afterCompletion(int status) {
+
+         action.run();
+
+       }
+
+     });
+
+   }
+
+ }
@@ -14,28 +14,28 @@ INSERT INTO products (id, product_code, name, description) VALUES (3, 'PROD-003'
 
 INSERT INTO batches (id, batch_number, product_id, quantity, expiry_date, received_date)  
 
-VALUES (1, 'BATCH-001-A', 1, 100, '2025-12-31', '2025-01-15'); 
+VALUES (1, 'BATCH-001-A', 1, 100, '2027-12-31', '2026-01-15'); 
 
 INSERT INTO batches (id, batch_number, product_id, quantity, expiry_date, received_date)  
 
-VALUES (2, 'BATCH-001-B', 1, 150, '2026-06-30', '2025-02-20'); 
+VALUES (2, 'BATCH-001-B', 1, 150, '2028-06-30', '2026-02-20'); 
 
 INSERT INTO batches (id, batch_number, product_id, quantity, expiry_date, received_date)  
 
-VALUES (3, 'BATCH-001-C', 1, 200, '2025-09-15', '2025-03-10'); 
+VALUES (3, 'BATCH-001-C', 1, 200, '2027-09-15', '2026-03-10'); 
 
 -- Insert Batches for PROD-002 
 
 INSERT INTO batches (id, batch_number, product_id, quantity, expiry_date, received_date)  
 
-VALUES (4, 'BATCH-002-A', 2, 75, '2025-11-30', '2025-01-20'); 
+VALUES (4, 'BATCH-002-A', 2, 75, '2027-11-30', '2026-01-20'); 
 
 INSERT INTO batches (id, batch_number, product_id, quantity, expiry_date, received_date)  
 
-VALUES (5, 'BATCH-002-B', 2, 125, '2026-03-31', '2025-02-15'); 
+VALUES (5, 'BATCH-002-B', 2, 125, '2028-03-31', '2026-02-15'); 
 
 -- Insert Batches for PROD-003 
 
 INSERT INTO batches (id, batch_number, product_id, quantity, expiry_date, received_date)  
 
-VALUES (6, 'BATCH-003-A', 3, 50, '2025-08-31', '2025-01-10'); 
\ No newline at end of file
+VALUES (6, 'BATCH-003-A', 3, 50, '2027-08-31', '2026-01-10'); 
\ No newline at end of file
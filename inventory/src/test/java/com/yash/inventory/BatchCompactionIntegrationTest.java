@@ -0,0 +1,169 @@
+package com.yash.inventory;
+
+import com.yash.inventory.compaction.BatchCompactionJob;
+
+import com.yash.inventory.compaction.CompactionReport;
+
+import com.yash.inventory.entity.ArchivedBatch;
+
+import com.yash.inventory.entity.Batch;
+
+import com.yash.inventory.entity.Product;
+
+import com.yash.inventory.index.OnHandCounters;
+
+import com.yash.inventory.repository.ArchivedBatchRepository;
+
+import com.yash.inventory.repository.BatchRepository;
+
+import com.yash.inventory.repository.ProductRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** 
+
+ * Compaction moves dead batches to the archive in chunks and leaves live or reserved ones alone 
+
+ */
+
+@SpringBootTest(properties = {
+
+  "inventory.compaction.chunk-size=1",
+
+  "inventory.compaction.pause-millis=0"
+
+})
+
+@ActiveProfiles("test")
+
+class BatchCompactionIntegrationTest {
+
+  @Autowired
+
+  private BatchCompactionJob compactionJob;
+
+  @Autowired
+
+  private ProductRepository productRepository;
+
+  @Autowired
+
+  private OnHandCounters onHandCounters;
+
+  @Autowired
+
+  private BatchRepository batchRepository;
+
+  @Autowired
+
+  private ArchivedBatchRepository archivedBatchRepository;
+
+  private Product product;
+
+  @BeforeEach
+
+  void setUp() {
+
+    archivedBatchRepository.deleteAll();
+
+    batchRepository.deleteAll();
+
+    productRepository.deleteAll();
+
+    product = new Product();
+
+    product.setProductCode("PROD-COMPACT-001");
+
+    product.setName("Compacted Product");
+
+    product = productRepository.save(product);
+
+  }
+
+  @Test
+
+  void testCompact_ArchivesDepletedAndExpiredBatchesOnly() {
+
+    // Arrange 
+
+    batchRepository.save(batch("BATCH-LIVE", 10, 0, LocalDate.now().plusDays(10)));
+
+    batchRepository.save(batch("BATCH-EMPTY", 0, 0, LocalDate.now().plusDays(10)));
+
+    batchRepository.save(batch("BATCH-EXPIRED", 5, 0, LocalDate.now().minusDays(1)));
+
+    batchRepository.save(batch("BATCH-HELD", 0, 3, LocalDate.now().minusDays(1)));
+
+    onHandCounters.flush();
+
+    assertEquals(15L, productRepository.findById(product.getId()).orElseThrow().getOnHandQuantity());
+
+    // Act 
+
+    CompactionReport report = compactionJob.compact().orElseThrow();
+
+    CompactionReport again = compactionJob.compact().orElseThrow();
+
+    // Assert 
+
+    assertEquals(2, report.archivedRows());
+
+    assertEquals(2, report.chunks());
+
+    assertEquals(0, again.archivedRows());
+
+    assertEquals(again, compactionJob.getLastReport().orElseThrow());
+
+    assertEquals(List.of("BATCH-HELD", "BATCH-LIVE"), batchRepository.findAll().stream()
+
+      .map(Batch::getBatchNumber).sorted().toList());
+
+    List < ArchivedBatch > archived = archivedBatchRepository.findByProductIdOrderByExpiryDateAsc(product.getId());
+
+    assertEquals(List.of("BATCH-EXPIRED", "BATCH-EMPTY"), archived.stream().map(ArchivedBatch::getBatchNumber).toList());
+
+    assertEquals(5, archived.get(0).getQuantity());
+
+    assertNotNull(archived.get(0).getArchivedAt());
+
+    onHandCounters.flush();
+
+    assertEquals(10L, productRepository.findById(product.getId()).orElseThrow().getOnHandQuantity());
+
+  }
+
+  private Batch batch(String batchNumber, int quantity, int reservedQuantity, LocalDate expiryDate) {
+
+    Batch batch = new Batch();
+
+    batch.setBatchNumber(batchNumber);
+
+    batch.setProduct(product);
+
+    batch.setQuantity(quantity);
+
+    batch.setReservedQuantity(reservedQuantity);
+
+    batch.setExpiryDate(expiryDate);
+
+    batch.setReceivedDate(LocalDate.now().minusDays(30));
+
+    return batch;
+
+  }
+
+}
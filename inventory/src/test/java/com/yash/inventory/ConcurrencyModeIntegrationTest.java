@@ -0,0 +1,251 @@
+package com.yash.inventory;
+
+import com.yash.inventory.dto.InventoryUpdateRequest;
+
+import com.yash.inventory.dto.InventoryUpdateResponse;
+
+import com.yash.inventory.engine.AllocationEngine;
+
+import com.yash.inventory.engine.ConcurrencyMode;
+
+import com.yash.inventory.entity.Batch;
+
+import com.yash.inventory.entity.Product;
+
+import com.yash.inventory.index.OnHandCounters;
+
+import com.yash.inventory.repository.BatchRepository;
+
+import com.yash.inventory.repository.BatchRepositoryCustomImpl;
+
+import com.yash.inventory.repository.ProductRepository;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.params.ParameterizedTest;
+
+import org.junit.jupiter.params.provider.EnumSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import org.springframework.test.context.ActiveProfiles;
+
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import java.util.ArrayList;
+
+import java.util.List;
+
+import java.util.concurrent.ExecutorService;
+
+import java.util.concurrent.Executors;
+
+import java.util.concurrent.Future;
+
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+
+ * Every concurrency mode must keep batch decrements exact on one hot product with the in-process locks off,
+
+ * as when several instances share one database
+
+ */
+
+@SpringBootTest(properties = "inventory.allocation.in-process-locks=false")
+
+@ActiveProfiles("test")
+
+class ConcurrencyModeIntegrationTest {
+
+  private static final int WRITERS = 16;
+
+  private static final int REQUESTS = 400;
+
+  private static final int STOCK = 600;
+
+  @Autowired
+
+  private AllocationEngine allocationEngine;
+
+  @Autowired
+
+  private ProductRepository productRepository;
+
+  @Autowired
+
+  private OnHandCounters onHandCounters;
+
+  @Autowired
+
+  private BatchRepository batchRepository;
+
+  @Autowired
+
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+
+  private EntityManager entityManager;
+
+  @Autowired
+
+  private TransactionTemplate transactionTemplate;
+
+  private Product product;
+
+  @BeforeEach
+
+  void setUp() {
+
+    batchRepository.deleteAll();
+
+    productRepository.deleteAll();
+
+    product = new Product();
+
+    product.setProductCode("PROD-HOT-001");
+
+    product.setName("Hot Product");
+
+    product = productRepository.save(product);
+
+    for (int i = 0; i < 3; i++) {
+
+      Batch batch = new Batch();
+
+      batch.setBatchNumber("BATCH-HOT-" + i);
+
+      batch.setProduct(product);
+
+      batch.setQuantity(STOCK / 3);
+
+      batch.setExpiryDate(LocalDate.now().plusDays(10L + i));
+
+      batch.setReceivedDate(LocalDate.now().minusDays(10L - i));
+
+      batchRepository.save(batch);
+
+    }
+
+  }
+
+  @ParameterizedTest
+
+  @EnumSource(ConcurrencyMode.class)
+
+  void testHotProduct_NeverOversellsOrLosesUpdates(ConcurrencyMode mode) throws Exception {
+
+    // Arrange - the service's repository is configured once, so each mode runs on its own repository here
+
+    BatchRepositoryCustomImpl decrements = new BatchRepositoryCustomImpl(jdbcTemplate, entityManager, mode);
+
+    AtomicInteger deducted = new AtomicInteger();
+
+    ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+
+    List < Future < ? >> calls = new ArrayList < > ();
+
+    List < Batch > batches = batchRepository.findByProductIdOrderByExpiryDateAsc(product.getId());
+
+    // Act
+
+    for (int i = 0; i < REQUESTS; i++) {
+
+      Batch target = batches.get(i % batches.size());
+
+      int quantity = 1 + (i % 3);
+
+      calls.add(writers.submit(() -> {
+
+        Batch allocation = new Batch(target.getId(), target.getBatchNumber(), null, quantity,
+
+          target.getExpiryDate(), target.getReceivedDate());
+
+        try {
+
+          boolean[] applied = transactionTemplate.execute(status -> decrements.decrementQuantities(List.of(allocation)));
+
+          if (applied[0]) {
+
+            deducted.addAndGet(quantity);
+
+          }
+
+        } catch (ObjectOptimisticLockingFailureException e) {
+
+          // Aborted and rolled back; nothing was deducted
+
+        }
+
+      }));
+
+    }
+
+    for (Future < ? > call: calls) {
+
+      call.get();
+
+    }
+
+    writers.shutdown();
+
+    assertTrue(writers.awaitTermination(1, TimeUnit.MINUTES));
+
+    // Assert
+
+    List < Batch > after = batchRepository.findByProductIdOrderByExpiryDateAsc(product.getId());
+
+    int remaining = after.stream().mapToInt(Batch::getQuantity).sum();
+
+    assertTrue(after.stream().allMatch(batch -> batch.getQuantity() >= 0), "negative batch in " + mode);
+
+    assertEquals(STOCK, remaining + deducted.get(), "lost update in " + mode);
+
+    // Batch decrements leave the products row alone; the on-hand counter is the service's to move
+
+    onHandCounters.flush();
+
+    assertEquals(STOCK, productRepository.findById(product.getId()).orElseThrow().getOnHandQuantity());
+
+    assertTrue(after.stream().allMatch(batch -> batch.getVersion() > 0));
+
+  }
+
+  @Test
+
+  void testEngine_AllocatesWithInProcessLocksOff() {
+
+    // Act
+
+    InventoryUpdateResponse response = allocationEngine.allocate(new InventoryUpdateRequest("PROD-HOT-001", 250, null));
+
+    // Assert
+
+    assertTrue(response.isSuccess());
+
+    assertEquals(2, response.getAllocations().size());
+
+    onHandCounters.flush();
+
+    assertEquals(STOCK - 250, productRepository.findById(product.getId()).orElseThrow().getOnHandQuantity());
+
+  }
+
+}
@@ -0,0 +1,215 @@
+package com.yash.inventory;
+
+import com.yash.inventory.dto.InventoryUpdateRequest;
+
+import com.yash.inventory.engine.AllocationEngine;
+
+import com.yash.inventory.entity.Batch;
+
+import com.yash.inventory.entity.Product;
+
+import com.yash.inventory.exception.InsufficientInventoryException;
+
+import com.yash.inventory.index.OnHandCounters;
+
+import com.yash.inventory.repository.BatchRepository;
+
+import com.yash.inventory.repository.ProductRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import java.util.ArrayList;
+
+import java.util.List;
+
+import java.util.concurrent.ExecutorService;
+
+import java.util.concurrent.Executors;
+
+import java.util.concurrent.Future;
+
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+
+ * A flash-sale product split into shards must sell exactly its stock under concurrent writers,
+
+ * and its on-hand quantity must catch up once the counters are flushed
+
+ */
+
+@SpringBootTest(properties = {
+
+  "inventory.flash-sale.products=PROD-FLASH-001",
+
+  "inventory.flash-sale.shards=4"
+
+})
+
+@ActiveProfiles("test")
+
+class FlashSaleIntegrationTest {
+
+  private static final int WRITERS = 16;
+
+  private static final int REQUESTS = 500;
+
+  private static final int BATCHES = 8;
+
+  private static final int BATCH_QUANTITY = 50;
+
+  @Autowired
+
+  private AllocationEngine allocationEngine;
+
+  @Autowired
+
+  private OnHandCounters onHandCounters;
+
+  @Autowired
+
+  private ProductRepository productRepository;
+
+  @Autowired
+
+  private BatchRepository batchRepository;
+
+  private Product product;
+
+  @BeforeEach
+
+  void setUp() {
+
+    batchRepository.deleteAll();
+
+    productRepository.deleteAll();
+
+    product = new Product();
+
+    product.setProductCode("PROD-FLASH-001");
+
+    product.setName("Flash Sale Product");
+
+    product = productRepository.save(product);
+
+    for (int i = 0; i < BATCHES; i++) {
+
+      Batch batch = new Batch();
+
+      batch.setBatchNumber("BATCH-FLASH-" + i);
+
+      batch.setProduct(product);
+
+      batch.setQuantity(BATCH_QUANTITY);
+
+      batch.setExpiryDate(LocalDate.now().plusDays(10L + i));
+
+      batch.setReceivedDate(LocalDate.now().minusDays(10L - i));
+
+      batchRepository.save(batch);
+
+    }
+
+  }
+
+  @Test
+
+  void testHotProduct_SellsExactlyItsStockAcrossShards() throws Exception {
+
+    // Arrange
+
+    AtomicInteger sold = new AtomicInteger();
+
+    AtomicInteger rejected = new AtomicInteger();
+
+    ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+
+    List < Future < ? >> calls = new ArrayList < > ();
+
+    // Act
+
+    for (int i = 0; i < REQUESTS; i++) {
+
+      calls.add(writers.submit(() -> {
+
+        try {
+
+          allocationEngine.allocate(new InventoryUpdateRequest("PROD-FLASH-001", 1, null));
+
+          sold.incrementAndGet();
+
+        } catch (InsufficientInventoryException e) {
+
+          rejected.incrementAndGet();
+
+        }
+
+      }));
+
+    }
+
+    for (Future < ? > call: calls) {
+
+      call.get();
+
+    }
+
+    writers.shutdown();
+
+    assertTrue(writers.awaitTermination(1, TimeUnit.MINUTES));
+
+    onHandCounters.flush();
+
+    // Assert
+
+    List < Batch > after = batchRepository.findByProductIdOrderByExpiryDateAsc(product.getId());
+
+    assertTrue(after.stream().allMatch(batch -> batch.getQuantity() == 0));
+
+    assertEquals(BATCHES * BATCH_QUANTITY, sold.get());
+
+    assertEquals(REQUESTS - BATCHES * BATCH_QUANTITY, rejected.get());
+
+    assertEquals(0, onHandCounters.getUnflushed(product.getId()));
+
+    assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getOnHandQuantity());
+
+  }
+
+  @Test
+
+  void testHotProduct_LineLargerThanAnyShardTakesWholeProduct() {
+
+    // Act
+
+    allocationEngine.allocate(new InventoryUpdateRequest("PROD-FLASH-001", 3 * BATCH_QUANTITY, null));
+
+    onHandCounters.flush();
+
+    // Assert - no shard holds more than two batches, so this ran across the whole product in FEFO order
+
+    List < Batch > after = batchRepository.findByProductIdOrderByExpiryDateAsc(product.getId());
+
+    assertEquals(List.of(0, 0, 0), after.subList(0, 3).stream().map(Batch::getQuantity).toList());
+
+    assertEquals((BATCHES - 3) * BATCH_QUANTITY,
+
+      productRepository.findById(product.getId()).orElseThrow().getOnHandQuantity());
+
+  }
+
+}
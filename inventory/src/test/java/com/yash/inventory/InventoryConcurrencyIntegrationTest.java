@@ -0,0 +1,211 @@
+package com.yash.inventory;
+
+import com.yash.inventory.dto.InventoryUpdateRequest;
+
+import com.yash.inventory.dto.InventoryUpdateResponse;
+
+import com.yash.inventory.entity.Batch;
+
+import com.yash.inventory.entity.Product;
+
+import com.yash.inventory.repository.BatchRepository;
+
+import com.yash.inventory.repository.ProductRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import org.springframework.boot.test.web.client.TestRestTemplate;
+
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import org.springframework.http.ResponseEntity;
+
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import java.util.ArrayList;
+
+import java.util.List;
+
+import java.util.concurrent.ExecutorService;
+
+import java.util.concurrent.Executors;
+
+import java.util.concurrent.Future;
+
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** 
+
+ * Stress test for the lock-striped allocation engine: thousands of concurrent 
+
+ * /inventory/update calls must never deduct more stock than exists 
+
+ */
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+
+@ActiveProfiles("test")
+
+class InventoryConcurrencyIntegrationTest {
+
+  private static final int CLIENT_THREADS = 64;
+
+  private static final int REQUESTS_PER_PRODUCT = 1500;
+
+  private static final int STOCK_PER_PRODUCT = 1000;
+
+  @LocalServerPort
+
+  private int port;
+
+  @Autowired
+
+  private TestRestTemplate restTemplate;
+
+  @Autowired
+
+  private ProductRepository productRepository;
+
+  @Autowired
+
+  private BatchRepository batchRepository;
+
+  private String baseUrl;
+
+  @BeforeEach
+
+  void setUp() {
+
+    baseUrl = "http://localhost:" + port + "/inventory";
+
+    batchRepository.deleteAll();
+
+    productRepository.deleteAll();
+
+  }
+
+  private Product createProductWithStock(String productCode) {
+
+    Product product = new Product();
+
+    product.setProductCode(productCode);
+
+    product.setName("Stress " + productCode);
+
+    product = productRepository.save(product);
+
+    // Spread the stock over several batches so allocations cross batch boundaries 
+
+    int[] quantities = { 150, 250, 350, 250 };
+
+    for (int i = 0; i < quantities.length; i++) {
+
+      Batch batch = new Batch();
+
+      batch.setBatchNumber(productCode + "-B" + i);
+
+      batch.setProduct(product);
+
+      batch.setQuantity(quantities[i]);
+
+      batch.setExpiryDate(LocalDate.now().plusDays(10L + i));
+
+      batch.setReceivedDate(LocalDate.now().minusDays(10L - i));
+
+      batchRepository.save(batch);
+
+    }
+
+    return product;
+
+  }
+
+  @Test
+
+  void testConcurrentUpdates_NeverOversell() throws Exception {
+
+    List < String > productCodes = List.of("PROD-STRESS-A", "PROD-STRESS-B");
+
+    productCodes.forEach(this::createProductWithStock);
+
+    AtomicInteger[] deducted = { new AtomicInteger(), new AtomicInteger() };
+
+    AtomicInteger[] allocated = { new AtomicInteger(), new AtomicInteger() };
+
+    ExecutorService clients = Executors.newFixedThreadPool(CLIENT_THREADS);
+
+    List < Future < ? >> calls = new ArrayList < > ();
+
+    for (int i = 0; i < REQUESTS_PER_PRODUCT * productCodes.size(); i++) {
+
+      int product = i % productCodes.size();
+
+      int quantity = 1 + (i % 3);
+
+      calls.add(clients.submit(() -> {
+
+        InventoryUpdateRequest request = new InventoryUpdateRequest(productCodes.get(product), quantity, null);
+
+        ResponseEntity < InventoryUpdateResponse > response = restTemplate.postForEntity(
+
+          baseUrl + "/update", request, InventoryUpdateResponse.class);
+
+        if (response.getStatusCode().is2xxSuccessful()) {
+
+          deducted[product].addAndGet(response.getBody().getQuantityDeducted());
+
+          response.getBody().getAllocations()
+
+            .forEach(allocation -> allocated[product].addAndGet(allocation.getQuantityAllocated()));
+
+        }
+
+      }));
+
+    }
+
+    for (Future < ? > call: calls) {
+
+      call.get();
+
+    }
+
+    clients.shutdown();
+
+    assertTrue(clients.awaitTermination(1, TimeUnit.MINUTES));
+
+    for (int product = 0; product < productCodes.size(); product++) {
+
+      String productCode = productCodes.get(product);
+
+      List < Batch > batches = batchRepository.findByProductProductCodeOrderByExpiryDateAsc(productCode);
+
+      int remaining = batches.stream().mapToInt(Batch::getQuantity).sum();
+
+      assertTrue(batches.stream().allMatch(batch -> batch.getQuantity() >= 0), "negative batch for " + productCode);
+
+      assertEquals(STOCK_PER_PRODUCT, remaining + deducted[product].get(), "stock leaked for " + productCode);
+
+      assertEquals(deducted[product].get(), allocated[product].get());
+
+      // 1500 requests of 1-3 units ask for ~3000 units, so every product must sell out completely 
+
+      assertTrue(remaining < 3, "stock left unsold for " + productCode + ": " + remaining);
+
+    }
+
+  }
+
+}
@@ -1,19 +1,31 @@
 package com.yash.inventory;
 
+import com.yash.inventory.dto.AvailabilityResponse;
+
 import com.yash.inventory.dto.BatchResponse;
 
+import com.yash.inventory.dto.BulkInventoryUpdateRequest;
+
+import com.yash.inventory.dto.BulkInventoryUpdateResponse;
+
 import com.yash.inventory.dto.InventoryUpdateRequest;
 
 import com.yash.inventory.dto.InventoryUpdateResponse;
 
+import com.yash.inventory.dto.ProductInventoryResponse;
+
 import com.yash.inventory.entity.Batch;
 
 import com.yash.inventory.entity.Product;
 
+import com.yash.inventory.index.OnHandCounters;
+
 import com.yash.inventory.repository.BatchRepository;
 
 import com.yash.inventory.repository.ProductRepository;
 
+import com.yash.inventory.strategy.BatchOrder;
+
 import org.junit.jupiter.api.BeforeEach;
 
 import org.junit.jupiter.api.Test;
@@ -28,10 +40,16 @@ import org.springframework.boot.test.web.server.LocalServerPort;
 
 import org.springframework.core.ParameterizedTypeReference;
 
+import org.springframework.http.HttpEntity;
+
+import org.springframework.http.HttpHeaders;
+
 import org.springframework.http.HttpMethod;
 
 import org.springframework.http.HttpStatus;
 
+import org.springframework.http.MediaType;
+
 import org.springframework.http.ResponseEntity;
 
 import org.springframework.test.context.ActiveProfiles;
@@ -40,6 +58,8 @@ import java.time.LocalDate;
 
 import java.util.List;
 
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -62,6 +82,10 @@ class InventoryIntegrationTest {
 
   @Autowired
 
+  private OnHandCounters onHandCounters;
+
+  @Autowired
+
   private BatchRepository batchRepository;
 
   private String baseUrl;
@@ -536,6 +560,194 @@ class InventoryIntegrationTest {
 
   @Test
 
+  void testUpdateInventoryBatch_MultipleProducts_Success() {
+
+    saveProductWithBatch("PROD-BULK-001", "BATCH-BULK-001", 40);
+
+    saveProductWithBatch("PROD-BULK-002", "BATCH-BULK-002", 25);
+
+    BulkInventoryUpdateRequest request = new BulkInventoryUpdateRequest(List.of(
+
+      new InventoryUpdateRequest("PROD-BULK-001", 15, null),
+
+      new InventoryUpdateRequest("PROD-BULK-002", 25, null)));
+
+    ResponseEntity < BulkInventoryUpdateResponse > response = restTemplate.postForEntity(
+
+      baseUrl + "/update/batch",
+
+      request,
+
+      BulkInventoryUpdateResponse.class
+
+    );
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+
+    assertTrue(response.getBody().isSuccess());
+
+    assertEquals(2, response.getBody().getResults().size());
+
+    assertEquals("PROD-BULK-002", response.getBody().getResults().get(1).getProductCode());
+
+    assertEquals("BATCH-BULK-002", response.getBody().getResults().get(1).getAllocations().get(0).getBatchNumber());
+
+    assertEquals(25, batchQuantity("BATCH-BULK-001"));
+
+    assertEquals(0, batchQuantity("BATCH-BULK-002"));
+
+  }
+
+  @Test
+
+  void testUpdateInventoryBatch_InsufficientLine_RollsBackAllLines() {
+
+    saveProductWithBatch("PROD-BULK-003", "BATCH-BULK-003", 40);
+
+    saveProductWithBatch("PROD-BULK-004", "BATCH-BULK-004", 5);
+
+    BulkInventoryUpdateRequest request = new BulkInventoryUpdateRequest(List.of(
+
+      new InventoryUpdateRequest("PROD-BULK-003", 15, null),
+
+      new InventoryUpdateRequest("PROD-BULK-004", 10, null)));
+
+    ResponseEntity < String > response = restTemplate.postForEntity(
+
+      baseUrl + "/update/batch",
+
+      request,
+
+      String.class
+
+    );
+
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+
+    assertEquals(40, batchQuantity("BATCH-BULK-003"));
+
+    assertEquals(5, batchQuantity("BATCH-BULK-004"));
+
+    // The index was not touched by the rolled back line either 
+
+    ResponseEntity < InventoryUpdateResponse > retry = restTemplate.postForEntity(
+
+      baseUrl + "/update",
+
+      new InventoryUpdateRequest("PROD-BULK-003", 40, null),
+
+      InventoryUpdateResponse.class
+
+    );
+
+    assertEquals(HttpStatus.OK, retry.getStatusCode());
+
+  }
+
+  @Test
+
+  void testGetAvailability_ReflectsUpdates() {
+
+    saveProductWithBatch("PROD-AVAIL-001", "BATCH-AVAIL-001", 40);
+
+    saveProductWithBatch("PROD-AVAIL-002", "BATCH-AVAIL-002", 25);
+
+    restTemplate.postForEntity(baseUrl + "/update", new InventoryUpdateRequest("PROD-AVAIL-001", 15, null), String.class);
+
+    ResponseEntity < AvailabilityResponse > single = restTemplate.getForEntity(
+
+      baseUrl + "/PROD-AVAIL-001/available",
+
+      AvailabilityResponse.class
+
+    );
+
+    assertEquals(HttpStatus.OK, single.getStatusCode());
+
+    assertEquals(25L, single.getBody().getAvailableQuantity());
+
+    ResponseEntity < AvailabilityResponse[] > multiple = restTemplate.getForEntity(
+
+      baseUrl + "/available?productCodes=PROD-AVAIL-001,PROD-AVAIL-002",
+
+      AvailabilityResponse[].class
+
+    );
+
+    assertEquals(HttpStatus.OK, multiple.getStatusCode());
+
+    assertEquals(2, multiple.getBody().length);
+
+    assertEquals(25L, multiple.getBody()[1].getAvailableQuantity());
+
+  }
+
+  @Test
+
+  void testGetAvailability_UnknownCodeLeftOut() {
+
+    saveProductWithBatch("PROD-AVAIL-003", "BATCH-AVAIL-003", 30);
+
+    ResponseEntity < AvailabilityResponse[] > response = restTemplate.getForEntity(
+
+      baseUrl + "/available?productCodes=PROD-AVAIL-UNKNOWN,PROD-AVAIL-003",
+
+      AvailabilityResponse[].class
+
+    );
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+
+    assertEquals(1, response.getBody().length);
+
+    assertEquals("PROD-AVAIL-003", response.getBody()[0].getProductCode());
+
+    assertEquals(30L, response.getBody()[0].getAvailableQuantity());
+
+  }
+
+  private void saveProductWithBatch(String productCode, String batchNumber, int quantity) {
+
+    Product product = new Product();
+
+    product.setProductCode(productCode);
+
+    product.setName(productCode);
+
+    product = productRepository.save(product);
+
+    Batch batch = new Batch();
+
+    batch.setBatchNumber(batchNumber);
+
+    batch.setProduct(product);
+
+    batch.setQuantity(quantity);
+
+    batch.setExpiryDate(LocalDate.now().plusDays(30));
+
+    batch.setReceivedDate(LocalDate.now());
+
+    batchRepository.save(batch);
+
+  }
+
+  private int batchQuantity(String batchNumber) {
+
+    return batchRepository.findAll().stream()
+
+      .filter(batch -> batchNumber.equals(batch.getBatchNumber()))
+
+      .findFirst()
+
+      .orElseThrow()
+
+      .getQuantity();
+
+  }
+
+  @Test
+
   void testUpdateInventory_ProductNotFound_Returns500() {
 
     InventoryUpdateRequest request = new InventoryUpdateRequest();
@@ -696,4 +908,272 @@ class InventoryIntegrationTest {
 
   }
 
-}
\ No newline at end of file
+  @Test
+
+  void testGetAllProducts_KeysetPagesAndNdjsonStream() {
+
+    for (int i = 1; i <= 3; i++) {
+
+      Product product = new Product();
+
+      product.setProductCode("PROD-PAGE-00" + i);
+
+      product.setName("Page Test Product " + i);
+
+      product = productRepository.save(product);
+
+      Batch batch = new Batch();
+
+      batch.setBatchNumber("BATCH-PAGE-00" + i);
+
+      batch.setProduct(product);
+
+      batch.setQuantity(10 * i);
+
+      batch.setExpiryDate(LocalDate.now().plusDays(30));
+
+      batch.setReceivedDate(LocalDate.now());
+
+      batchRepository.save(batch);
+
+    }
+
+    ResponseEntity < ProductInventoryResponse[] > firstPage = restTemplate.getForEntity(
+
+      baseUrl + "/products?limit=2",
+
+      ProductInventoryResponse[].class
+
+    );
+
+    assertEquals(HttpStatus.OK, firstPage.getStatusCode());
+
+    assertEquals(2, firstPage.getBody().length);
+
+    assertEquals("PROD-PAGE-002", firstPage.getHeaders().getFirst("X-Next-After"));
+
+    ResponseEntity < ProductInventoryResponse[] > secondPage = restTemplate.getForEntity(
+
+      baseUrl + "/products?limit=2&after=PROD-PAGE-002",
+
+      ProductInventoryResponse[].class
+
+    );
+
+    assertEquals(1, secondPage.getBody().length);
+
+    assertEquals("PROD-PAGE-003", secondPage.getBody()[0].getProductCode());
+
+    assertEquals(30, secondPage.getBody()[0].getBatches().get(0).getQuantity());
+
+    assertNull(secondPage.getHeaders().getFirst("X-Next-After"));
+
+    HttpHeaders headers = new HttpHeaders();
+
+    headers.setAccept(List.of(MediaType.parseMediaType("application/x-ndjson")));
+
+    ResponseEntity < String > stream = restTemplate.exchange(
+
+      baseUrl + "/products",
+
+      HttpMethod.GET,
+
+      new HttpEntity < > (headers),
+
+      String.class
+
+    );
+
+    assertEquals(HttpStatus.OK, stream.getStatusCode());
+
+    String[] lines = stream.getBody().split("\n");
+
+    assertEquals(3, lines.length);
+
+    assertTrue(lines[0].contains("PROD-PAGE-001") && lines[0].contains("BATCH-PAGE-001"));
+
+    assertTrue(lines[2].contains("PROD-PAGE-003") && lines[2].contains("BATCH-PAGE-003"));
+
+  }
+
+  @Test
+
+  void testExpiredAndEmptyBatches_HiddenFromReadsAndAllocation() {
+
+    Product product = new Product();
+
+    product.setProductCode("PROD-LIVE-001");
+
+    product.setName("Aging Product");
+
+    product = productRepository.save(product);
+
+    batchRepository.save(newBatch("BATCH-LIVE-001", product, 40, LocalDate.now().plusDays(10)));
+
+    batchRepository.save(newBatch("BATCH-EMPTY-001", product, 0, LocalDate.now().plusDays(5)));
+
+    batchRepository.save(newBatch("BATCH-EXPIRED-001", product, 100, LocalDate.now().minusDays(1)));
+
+    ResponseEntity < BatchResponse[] > batches = restTemplate.getForEntity(
+
+      baseUrl + "/PROD-LIVE-001", BatchResponse[].class);
+
+    AvailabilityResponse availability = restTemplate.getForObject(
+
+      baseUrl + "/PROD-LIVE-001/available", AvailabilityResponse.class);
+
+    ResponseEntity < InventoryUpdateResponse > tooMuch = restTemplate.postForEntity(
+
+      baseUrl + "/update", new InventoryUpdateRequest("PROD-LIVE-001", 41, "FEFO"), InventoryUpdateResponse.class);
+
+    ResponseEntity < InventoryUpdateResponse > allLive = restTemplate.postForEntity(
+
+      baseUrl + "/update", new InventoryUpdateRequest("PROD-LIVE-001", 40, "FEFO"), InventoryUpdateResponse.class);
+
+    assertEquals(1, batches.getBody().length);
+
+    assertEquals("BATCH-LIVE-001", batches.getBody()[0].getBatchNumber());
+
+    assertEquals(40L, availability.getAvailableQuantity());
+
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, tooMuch.getStatusCode());
+
+    assertEquals(HttpStatus.OK, allLive.getStatusCode());
+
+    assertEquals(1, allLive.getBody().getAllocations().size());
+
+    assertEquals(100, batchRepository.findAll().stream()
+
+      .filter(batch -> batch.getBatchNumber().equals("BATCH-EXPIRED-001"))
+
+      .findFirst().orElseThrow().getQuantity());
+
+  }
+
+  @Test
+
+  void testProductOnHandQuantity_FollowsEveryBatchWrite() {
+
+    Product product = new Product();
+
+    product.setProductCode("PROD-COUNT-001");
+
+    product.setName("Counted Product");
+
+    product = productRepository.save(product);
+
+    Batch first = batchRepository.save(newBatch("BATCH-COUNT-001", product, 40, LocalDate.now().plusDays(10)));
+
+    batchRepository.save(newBatch("BATCH-COUNT-002", product, 60, LocalDate.now().plusDays(20)));
+
+    assertEquals(100L, persistedOnHand("PROD-COUNT-001"));
+
+    restTemplate.postForEntity(baseUrl + "/update", new InventoryUpdateRequest("PROD-COUNT-001", 50, "FEFO"),
+
+      InventoryUpdateResponse.class);
+
+    assertEquals(50L, persistedOnHand("PROD-COUNT-001"));
+
+    Batch restocked = batchRepository.findById(first.getId()).orElseThrow();
+
+    restocked.setQuantity(25);
+
+    batchRepository.save(restocked);
+
+    assertEquals(75L, persistedOnHand("PROD-COUNT-001"));
+
+    batchRepository.delete(batchRepository.findById(first.getId()).orElseThrow());
+
+    assertEquals(50L, persistedOnHand("PROD-COUNT-001"));
+
+    assertEquals(50L, restTemplate.getForObject(baseUrl + "/PROD-COUNT-001/available", AvailabilityResponse.class)
+
+      .getAvailableQuantity());
+
+  }
+
+  @Test
+
+  void testFindAllocationPrefix_StopsAtCoveringBatchInStrategyOrder() {
+
+    Product product = new Product();
+
+    product.setProductCode("PROD-PREFIX-001");
+
+    product.setName("Prefix Product");
+
+    product = productRepository.save(product);
+
+    Batch oldest = newBatch("BATCH-PREFIX-A", product, 30, LocalDate.now().plusDays(30));
+
+    oldest.setReceivedDate(LocalDate.now().minusDays(60));
+
+    batchRepository.save(oldest);
+
+    batchRepository.save(newBatch("BATCH-PREFIX-B", product, 0, LocalDate.now().plusDays(5)));
+
+    batchRepository.save(newBatch("BATCH-PREFIX-C", product, 40, LocalDate.now().plusDays(10)));
+
+    batchRepository.save(newBatch("BATCH-PREFIX-D", product, 50, LocalDate.now().plusDays(20)));
+
+    batchRepository.save(newBatch("BATCH-PREFIX-E", product, 70, LocalDate.now().minusDays(1)));
+
+    Long productId = product.getId();
+
+    LocalDate today = LocalDate.now();
+
+    assertEquals(List.of("BATCH-PREFIX-C"), batchNumbers(
+
+      batchRepository.findAllocationPrefix(productId, BatchOrder.EXPIRY_DATE, today, 40)));
+
+    assertEquals(List.of("BATCH-PREFIX-C", "BATCH-PREFIX-D"), batchNumbers(
+
+      batchRepository.findAllocationPrefix(productId, BatchOrder.EXPIRY_DATE, today, 41)));
+
+    assertEquals(List.of("BATCH-PREFIX-C", "BATCH-PREFIX-D", "BATCH-PREFIX-A"), batchNumbers(
+
+      batchRepository.findAllocationPrefix(productId, BatchOrder.EXPIRY_DATE, today, 500)));
+
+    assertEquals(List.of("BATCH-PREFIX-A"), batchNumbers(
+
+      batchRepository.findAllocationPrefix(productId, BatchOrder.RECEIVED_DATE, today, 30)));
+
+    assertEquals(List.of("BATCH-PREFIX-A", "BATCH-PREFIX-C"), batchNumbers(
+
+      batchRepository.findAllocationPrefix(productId, BatchOrder.RECEIVED_DATE, today, 31)));
+
+  }
+
+  private List < String > batchNumbers(List < Batch > batches) {
+
+    return batches.stream().map(Batch::getBatchNumber).collect(Collectors.toList());
+
+  }
+
+  private long persistedOnHand(String productCode) {
+
+    onHandCounters.flush();
+
+    return productRepository.findByProductCode(productCode).orElseThrow().getOnHandQuantity();
+
+  }
+
+  private Batch newBatch(String batchNumber, Product product, int quantity, LocalDate expiryDate) {
+
+    Batch batch = new Batch();
+
+    batch.setBatchNumber(batchNumber);
+
+    batch.setProduct(product);
+
+    batch.setQuantity(quantity);
+
+    batch.setExpiryDate(expiryDate);
+
+    batch.setReceivedDate(LocalDate.now().minusDays(30));
+
+    return batch;
+
+  }
+
+}
@@ -0,0 +1,385 @@
+package com.yash.inventory;
+
+import com.yash.inventory.compaction.BatchCompactionJob;
+
+import com.yash.inventory.dto.InventoryUpdateRequest;
+
+import com.yash.inventory.dto.ReservationRequest;
+
+import com.yash.inventory.dto.ReservationResponse;
+
+import com.yash.inventory.entity.Batch;
+
+import com.yash.inventory.entity.Product;
+
+import com.yash.inventory.ledger.LedgerHealth;
+
+import com.yash.inventory.ledger.MovementLedger;
+
+import com.yash.inventory.ledger.MovementRecorder;
+
+import com.yash.inventory.ledger.MovementType;
+
+import com.yash.inventory.repository.BatchRepository;
+
+import com.yash.inventory.repository.ProductRepository;
+
+import com.yash.inventory.repository.ReservationRepository;
+
+import com.yash.inventory.service.InventoryService;
+
+import com.yash.inventory.service.ReservationService;
+
+import org.junit.jupiter.api.BeforeEach;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import org.springframework.test.context.ActiveProfiles;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+
+import java.io.UncheckedIOException;
+
+import java.nio.file.Files;
+
+import java.nio.file.Path;
+
+import java.time.LocalDate;
+
+import java.util.ArrayList;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+
+ * With the ledger on, every committed stock movement lands in the movement ledger, so replaying the ledger from
+
+ * disk gives the quantities in the batches table
+
+ */
+
+@SpringBootTest(properties = {
+
+  "inventory.ledger.enabled=true",
+
+  "inventory.ledger.snapshot-every=5",
+
+  "inventory.compaction.pause-millis=0"
+
+})
+
+@ActiveProfiles("test")
+
+class MovementLedgerIntegrationTest {
+
+  private static final Path LEDGER_DIRECTORY = createLedgerDirectory();
+
+  @Autowired
+
+  private InventoryService inventoryService;
+
+  @Autowired
+
+  private ReservationService reservationService;
+
+  @Autowired
+
+  private BatchCompactionJob compactionJob;
+
+  @Autowired
+
+  private ProductRepository productRepository;
+
+  @Autowired
+
+  private BatchRepository batchRepository;
+
+  @Autowired
+
+  private ReservationRepository reservationRepository;
+
+  @Autowired
+
+  private ObjectProvider < JdbcTemplate > jdbcTemplate;
+
+  private Product product;
+
+  @DynamicPropertySource
+
+  static void ledgerDirectory(DynamicPropertyRegistry registry) {
+
+    registry.add("inventory.ledger.directory", LEDGER_DIRECTORY::toString);
+
+  }
+
+  @BeforeEach
+
+  void setUp() {
+
+    reservationRepository.deleteAll();
+
+    batchRepository.deleteAll();
+
+    productRepository.deleteAll();
+
+    product = new Product();
+
+    product.setProductCode("PROD-LEDGER-001");
+
+    product.setName("Ledgered Product");
+
+    product = productRepository.save(product);
+
+  }
+
+  @Test
+
+  void testUpdateReserveAndRelease_LedgerMatchesBatches() throws IOException {
+
+    // Arrange
+
+    Batch first = batchRepository.save(batch("BATCH-LEDGER-1", 50, LocalDate.now().plusDays(10)));
+
+    Batch second = batchRepository.save(batch("BATCH-LEDGER-2", 50, LocalDate.now().plusDays(20)));
+
+    assertEquals(50, ledgerQuantity(first));
+
+    // Act
+
+    inventoryService.updateInventory(new InventoryUpdateRequest(product.getProductCode(), 30, null));
+
+    ReservationResponse reservation = reserve(40);
+
+    ReservationResponse kept = reserve(5);
+
+    reservationService.release(reservation.getReservationId());
+
+    long beforeConfirm = ledgerMovements();
+
+    reservationService.confirm(kept.getReservationId());
+
+    // Assert - the sale is recorded without moving the quantity again
+
+    assertEquals(beforeConfirm + 1, ledgerMovements());
+
+    assertLedgerMatches(first, second);
+
+    assertEquals(65, ledgerQuantity(first) + ledgerQuantity(second));
+
+  }
+
+  @Test
+
+  void testAdjustmentAndExpiry_LedgerMatchesBatches() {
+
+    // Arrange
+
+    Batch live = batchRepository.save(batch("BATCH-LEDGER-LIVE", 20, LocalDate.now().plusDays(10)));
+
+    Batch expired = batchRepository.save(batch("BATCH-LEDGER-EXPIRED", 7, LocalDate.now().minusDays(1)));
+
+    // Act
+
+    live.setQuantity(12);
+
+    live = batchRepository.save(live);
+
+    compactionJob.compact();
+
+    // Assert
+
+    assertLedgerMatches(live);
+
+    assertEquals(12, ledgerQuantity(live));
+
+    assertEquals(0, ledgerQuantity(expired));
+
+  }
+
+  @Test
+
+  void testRemovedBatch_LeavesNothingInLedger() {
+
+    // Arrange
+
+    Batch batch = batchRepository.save(batch("BATCH-LEDGER-GONE", 15, LocalDate.now().plusDays(10)));
+
+    // Act
+
+    batchRepository.delete(batchRepository.findById(batch.getId()).orElseThrow());
+
+    // Assert
+
+    assertEquals(0, ledgerQuantity(batch));
+
+  }
+
+  @Test
+
+  void testStartup_ReportsDriftWithoutRewritingLedger() throws IOException {
+
+    // Arrange - a ledger seeded from the batches, then left behind by a change it never saw
+
+    Path directory = Files.createTempDirectory("movement-ledger-reconcile");
+
+    Batch batch = batchRepository.save(batch("BATCH-LEDGER-DRIFT", 40, LocalDate.now().plusDays(10)));
+
+    MovementRecorder first = recorder(directory);
+
+    first.afterSingletonsInstantiated();
+
+    first.close();
+
+    jdbcTemplate.getObject().update("UPDATE batches SET quantity = 25 WHERE id = ?", batch.getId());
+
+    // Act
+
+    MovementRecorder reopened = recorder(directory);
+
+    reopened.afterSingletonsInstantiated();
+
+    LedgerHealth health = reopened.getHealth();
+
+    reopened.close();
+
+    // Assert - the drift is reported and the ledger keeps only the movements it saw
+
+    assertFalse(health.healthy());
+
+    assertEquals(1, health.driftedBatches());
+
+    try (MovementLedger ledger = MovementLedger.open(directory, 0, false)) {
+
+      assertEquals(40, ledger.quantityOf(batch.getId()));
+
+      assertEquals(1, ledger.getMovementCount());
+
+    }
+
+  }
+
+  @Test
+
+  void testFailedAppend_ReportedUnhealthy() throws IOException {
+
+    // Arrange - a closed ledger fails every write
+
+    MovementRecorder recorder = recorder(Files.createTempDirectory("movement-ledger-failing"));
+
+    recorder.close();
+
+    // Act
+
+    recorder.record(MovementType.ADJUSTMENT, 1L, 5);
+
+    // Assert
+
+    LedgerHealth health = recorder.getHealth();
+
+    assertFalse(health.healthy());
+
+    assertEquals(1, health.failedAppends());
+
+  }
+
+  private MovementRecorder recorder(Path directory) {
+
+    return new MovementRecorder(jdbcTemplate, true, directory, 0, false);
+
+  }
+
+  private ReservationResponse reserve(int quantity) {
+
+    return reservationService.reserve(new ReservationRequest(
+
+      new ArrayList < > (List.of(new InventoryUpdateRequest(product.getProductCode(), quantity, null))), null));
+
+  }
+
+  private void assertLedgerMatches(Batch...batches) {
+
+    for (Batch batch: batches) {
+
+      int quantity = batchRepository.findById(batch.getId()).orElseThrow().getQuantity();
+
+      assertEquals(quantity, ledgerQuantity(batch), "Ledger quantity of " + batch.getBatchNumber());
+
+    }
+
+  }
+
+  private long ledgerQuantity(Batch batch) {
+
+    try (MovementLedger ledger = MovementLedger.open(LEDGER_DIRECTORY, 0, false)) {
+
+      return ledger.quantityOf(batch.getId());
+
+    } catch (IOException e) {
+
+      throw new UncheckedIOException(e);
+
+    }
+
+  }
+
+  private long ledgerMovements() {
+
+    try (MovementLedger ledger = MovementLedger.open(LEDGER_DIRECTORY, 0, false)) {
+
+      return ledger.getMovementCount();
+
+    } catch (IOException e) {
+
+      throw new UncheckedIOException(e);
+
+    }
+
+  }
+
+  private Batch batch(String batchNumber, int quantity, LocalDate expiryDate) {
+
+    Batch batch = new Batch();
+
+    batch.setBatchNumber(batchNumber);
+
+    batch.setProduct(product);
+
+    batch.setQuantity(quantity);
+
+    batch.setExpiryDate(expiryDate);
+
+    batch.setReceivedDate(LocalDate.now().minusDays(30));
+
+    return batch;
+
+  }
+
+  private static Path createLedgerDirectory() {
+
+    try {
+
+      return Files.createTempDirectory("movement-ledger");
+
+    } catch (IOException e) {
+
+      throw new UncheckedIOException(e);
+
+    }
+
+  }
+
+}
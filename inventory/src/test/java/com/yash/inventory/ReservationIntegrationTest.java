@@ -0,0 +1,297 @@
+package com.yash.inventory;
+
+import com.yash.inventory.dto.AvailabilityResponse;
+
+import com.yash.inventory.dto.InventoryUpdateRequest;
+
+import com.yash.inventory.dto.ReservationRequest;
+
+import com.yash.inventory.dto.ReservationResponse;
+
+import com.yash.inventory.entity.Batch;
+
+import com.yash.inventory.entity.Product;
+
+import com.yash.inventory.index.OnHandCounters;
+
+import com.yash.inventory.repository.BatchRepository;
+
+import com.yash.inventory.repository.ProductRepository;
+
+import com.yash.inventory.repository.ReservationRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import org.springframework.boot.test.web.client.TestRestTemplate;
+
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import org.springframework.http.HttpStatus;
+
+import org.springframework.http.ResponseEntity;
+
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+
+ * End-to-end reservation lifecycle: reserve, confirm, release and timed expiry
+
+ */
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+
+@ActiveProfiles("test")
+
+class ReservationIntegrationTest {
+
+  private static final String PRODUCT_CODE = "PROD-RES-001";
+
+  @LocalServerPort
+
+  private int port;
+
+  @Autowired
+
+  private TestRestTemplate restTemplate;
+
+  @Autowired
+
+  private ProductRepository productRepository;
+
+  @Autowired
+
+  private OnHandCounters onHandCounters;
+
+  @Autowired
+
+  private BatchRepository batchRepository;
+
+  @Autowired
+
+  private ReservationRepository reservationRepository;
+
+  private String baseUrl;
+
+  @BeforeEach
+
+  void setUp() {
+
+    baseUrl = "http://localhost:" + port + "/inventory";
+
+    reservationRepository.deleteAll();
+
+    batchRepository.deleteAll();
+
+    productRepository.deleteAll();
+
+    Product product = new Product();
+
+    product.setProductCode(PRODUCT_CODE);
+
+    product.setName("Reservable Product");
+
+    product = productRepository.save(product);
+
+    Batch batch = new Batch();
+
+    batch.setBatchNumber("BATCH-RES-001");
+
+    batch.setProduct(product);
+
+    batch.setQuantity(100);
+
+    batch.setExpiryDate(LocalDate.now().plusDays(30));
+
+    batch.setReceivedDate(LocalDate.now().minusDays(1));
+
+    batchRepository.save(batch);
+
+  }
+
+  @Test
+
+  void testReserveThenRelease_RestoresStock() {
+
+    // Act
+
+    ReservationResponse reservation = reserve(40, null);
+
+    AvailabilityResponse held = availability();
+
+    onHandCounters.flush();
+
+    long heldOnHand = productRepository.findByProductCode(PRODUCT_CODE).orElseThrow().getOnHandQuantity();
+
+    ResponseEntity < ReservationResponse > released = restTemplate.postForEntity(
+
+      baseUrl + "/reservations/" + reservation.getReservationId() + "/release", null, ReservationResponse.class);
+
+    // Assert
+
+    assertEquals("HELD", reservation.getStatus());
+
+    assertEquals(60L, held.getAvailableQuantity());
+
+    assertEquals(40L, held.getReservedQuantity());
+
+    assertEquals(60L, heldOnHand);
+
+    assertEquals(HttpStatus.OK, released.getStatusCode());
+
+    assertEquals("RELEASED", released.getBody().getStatus());
+
+    AvailabilityResponse after = availability();
+
+    assertEquals(100L, after.getAvailableQuantity());
+
+    assertEquals(0L, after.getReservedQuantity());
+
+    onHandCounters.flush();
+
+    assertEquals(100L, productRepository.findByProductCode(PRODUCT_CODE).orElseThrow().getOnHandQuantity());
+
+  }
+
+  @Test
+
+  void testReserveThenConfirm_ConsumesStock() {
+
+    // Act
+
+    ReservationResponse reservation = reserve(25, null);
+
+    ResponseEntity < ReservationResponse > confirmed = restTemplate.postForEntity(
+
+      baseUrl + "/reservations/" + reservation.getReservationId() + "/confirm", null, ReservationResponse.class);
+
+    ResponseEntity < String > releaseAfterConfirm = restTemplate.postForEntity(
+
+      baseUrl + "/reservations/" + reservation.getReservationId() + "/release", null, String.class);
+
+    // Assert
+
+    assertEquals(HttpStatus.OK, confirmed.getStatusCode());
+
+    assertEquals("CONFIRMED", confirmed.getBody().getStatus());
+
+    assertEquals(HttpStatus.CONFLICT, releaseAfterConfirm.getStatusCode());
+
+    AvailabilityResponse after = availability();
+
+    assertEquals(75L, after.getAvailableQuantity());
+
+    assertEquals(0L, after.getReservedQuantity());
+
+    assertEquals(75, batchRepository.findAll().get(0).getQuantity());
+
+    assertEquals(0, batchRepository.findAll().get(0).getReservedQuantity());
+
+  }
+
+  @Test
+
+  void testReserve_InsufficientStock_Returns500() {
+
+    // Arrange
+
+    ReservationRequest request = new ReservationRequest(List.of(new InventoryUpdateRequest(PRODUCT_CODE, 500, null)), null);
+
+    // Act
+
+    ResponseEntity < String > response = restTemplate.postForEntity(baseUrl + "/reserve", request, String.class);
+
+    // Assert
+
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+
+    assertEquals(100L, availability().getAvailableQuantity());
+
+  }
+
+  @Test
+
+  void testConfirm_UnknownReservation_Returns404() {
+
+    // Act
+
+    ResponseEntity < String > response = restTemplate.postForEntity(
+
+      baseUrl + "/reservations/does-not-exist/confirm", null, String.class);
+
+    // Assert
+
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+
+  }
+
+  @Test
+
+  void testReservation_ExpiresAfterTtl() throws InterruptedException {
+
+    // Arrange
+
+    ReservationResponse reservation = reserve(30, 1L);
+
+    assertEquals(70L, availability().getAvailableQuantity());
+
+    // Act
+
+    long deadline = System.currentTimeMillis() + 5000;
+
+    AvailabilityResponse after = availability();
+
+    while (after.getAvailableQuantity() != 100L && System.currentTimeMillis() < deadline) {
+
+      Thread.sleep(100);
+
+      after = availability();
+
+    }
+
+    // Assert
+
+    assertEquals(100L, after.getAvailableQuantity());
+
+    assertEquals(0L, after.getReservedQuantity());
+
+    assertEquals("EXPIRED", reservationRepository.findByReservationId(reservation.getReservationId())
+
+      .orElseThrow().getStatus().name());
+
+  }
+
+  private ReservationResponse reserve(int quantity, Long ttlSeconds) {
+
+    ReservationRequest request = new ReservationRequest(
+
+      List.of(new InventoryUpdateRequest(PRODUCT_CODE, quantity, null)), ttlSeconds);
+
+    ResponseEntity < ReservationResponse > response = restTemplate.postForEntity(
+
+      baseUrl + "/reserve", request, ReservationResponse.class);
+
+    assertEquals(HttpStatus.CREATED, response.getStatusCode());
+
+    return response.getBody();
+
+  }
+
+  private AvailabilityResponse availability() {
+
+    return restTemplate.getForObject(baseUrl + "/" + PRODUCT_CODE + "/available", AvailabilityResponse.class);
+
+  }
+
+}
@@ -0,0 +1,193 @@
+package com.yash.inventory;
+
+import com.yash.inventory.dto.InventoryUpdateRequest;
+
+import com.yash.inventory.dto.InventoryUpdateResponse;
+
+import com.yash.inventory.engine.AllocationEngine;
+
+import com.yash.inventory.engine.SingleWriterAllocationEngine;
+
+import com.yash.inventory.entity.Batch;
+
+import com.yash.inventory.entity.Product;
+
+import com.yash.inventory.exception.InsufficientInventoryException;
+
+import com.yash.inventory.index.OnHandCounters;
+
+import com.yash.inventory.repository.BatchRepository;
+
+import com.yash.inventory.repository.ProductRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import java.util.ArrayList;
+
+import java.util.List;
+
+import java.util.concurrent.CompletableFuture;
+
+import java.util.concurrent.CompletionException;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+
+ * Single-product updates handed to the per-partition writer threads must sell exactly the stock on hand,
+
+ * with many concurrent lines sharing each group commit
+
+ */
+
+@SpringBootTest(properties = "inventory.allocation.engine=single-writer")
+
+@ActiveProfiles("test")
+
+class SingleWriterEngineIntegrationTest {
+
+  private static final int REQUESTS = 500;
+
+  private static final int BATCHES = 4;
+
+  private static final int BATCH_QUANTITY = 100;
+
+  @Autowired
+
+  private AllocationEngine allocationEngine;
+
+  @Autowired
+
+  private ProductRepository productRepository;
+
+  @Autowired
+
+  private OnHandCounters onHandCounters;
+
+  @Autowired
+
+  private BatchRepository batchRepository;
+
+  private Product product;
+
+  @BeforeEach
+
+  void setUp() {
+
+    batchRepository.deleteAll();
+
+    productRepository.deleteAll();
+
+    product = new Product();
+
+    product.setProductCode("PROD-PIPE-001");
+
+    product.setName("Pipelined Product");
+
+    product = productRepository.save(product);
+
+    for (int i = 0; i < BATCHES; i++) {
+
+      Batch batch = new Batch();
+
+      batch.setBatchNumber("BATCH-PIPE-" + i);
+
+      batch.setProduct(product);
+
+      batch.setQuantity(BATCH_QUANTITY);
+
+      batch.setExpiryDate(LocalDate.now().plusDays(10L + i));
+
+      batch.setReceivedDate(LocalDate.now().minusDays(10L - i));
+
+      batchRepository.save(batch);
+
+    }
+
+  }
+
+  @Test
+
+  void testSingleWriterEngine_IsTheActiveEngine() {
+
+    assertInstanceOf(SingleWriterAllocationEngine.class, allocationEngine);
+
+  }
+
+  @Test
+
+  void testConcurrentUpdates_SellExactlyTheStock() {
+
+    // Arrange
+
+    SingleWriterAllocationEngine engine = (SingleWriterAllocationEngine) allocationEngine;
+
+    long linesBefore = engine.getCommittedLineCount();
+
+    long groupsBefore = engine.getGroupCommitCount();
+
+    List < CompletableFuture < InventoryUpdateResponse >> futures = new ArrayList < > ();
+
+    // Act - all futures are submitted before any is awaited
+
+    for (int i = 0; i < REQUESTS; i++) {
+
+      futures.add(engine.allocateAsync(new InventoryUpdateRequest("PROD-PIPE-001", 1, null)));
+
+    }
+
+    int sold = 0;
+
+    int rejected = 0;
+
+    for (CompletableFuture < InventoryUpdateResponse > future: futures) {
+
+      try {
+
+        assertTrue(future.orTimeout(30, TimeUnit.SECONDS).join().isSuccess());
+
+        sold++;
+
+      } catch (CompletionException e) {
+
+        assertInstanceOf(InsufficientInventoryException.class, e.getCause());
+
+        rejected++;
+
+      }
+
+    }
+
+    // Assert - FEFO drained the batches in expiry order and every group committed several lines
+
+    List < Batch > after = batchRepository.findByProductIdOrderByExpiryDateAsc(product.getId());
+
+    assertEquals(BATCHES * BATCH_QUANTITY, sold);
+
+    assertEquals(REQUESTS - BATCHES * BATCH_QUANTITY, rejected);
+
+    assertTrue(after.stream().allMatch(batch -> batch.getQuantity() == 0));
+
+    onHandCounters.flush();
+
+    assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getOnHandQuantity());
+
+    assertEquals(REQUESTS, engine.getCommittedLineCount() - linesBefore);
+
+    assertTrue(engine.getGroupCommitCount() - groupsBefore < REQUESTS);
+
+  }
+
+}
@@ -0,0 +1,97 @@
+package com.yash.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+
+import org.junit.jupiter.api.condition.JRE;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import org.springframework.scheduling.TaskScheduler;
+
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+
+import java.util.concurrent.CompletableFuture;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+
+ * The virtual profile runs @Async and @Scheduled work on virtual threads
+
+ * Only runs on a JDK 21+ runtime, e.g. with mvn -Pjdk21 test; on JDK 17 the profile is inert and the test is skipped
+
+ */
+
+@SpringBootTest
+
+@ActiveProfiles({ "test", "virtual" })
+
+@EnabledForJreRange(min = JRE.JAVA_21)
+
+class VirtualThreadModeIntegrationTest {
+
+  @Autowired
+
+  @Qualifier("applicationTaskExecutor")
+
+  private AsyncTaskExecutor taskExecutor;
+
+  @Autowired
+
+  private TaskScheduler taskScheduler;
+
+  @Test
+
+  void testAsyncTasks_RunOnVirtualThreads() throws Exception {
+
+    // Act
+
+    Thread worker = taskExecutor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+    // Assert
+
+    assertTrue(isVirtual(worker), "Expected a virtual thread but ran on " + worker);
+
+  }
+
+  @Test
+
+  void testScheduledTasks_RunOnVirtualThreads() throws Exception {
+
+    // Arrange
+
+    CompletableFuture < Thread > ranOn = new CompletableFuture < > ();
+
+    // Act
+
+    taskScheduler.schedule(() -> ranOn.complete(Thread.currentThread()), Instant.now());
+
+    Thread worker = ranOn.get(5, TimeUnit.SECONDS);
+
+    // Assert
+
+    assertTrue(isVirtual(worker), "Expected a virtual thread but ran on " + worker);
+
+  }
+
+  private static boolean isVirtual(Thread thread) throws ReflectiveOperationException {
+
+    // Thread.isVirtual() does not exist in the JDK 17 API the default build compiles against
+
+    return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+
+  }
+
+}
@@ -0,0 +1,151 @@
+package com.yash.inventory;
+
+import com.yash.inventory.dto.InventoryUpdateRequest;
+
+import com.yash.inventory.dto.InventoryUpdateResponse;
+
+import com.yash.inventory.engine.AllocationEngine;
+
+import com.yash.inventory.engine.SingleWriterAllocationEngine;
+
+import com.yash.inventory.entity.Batch;
+
+import com.yash.inventory.exception.InsufficientInventoryException;
+
+import com.yash.inventory.repository.BatchRepository;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+
+import java.util.List;
+
+import java.util.concurrent.CompletableFuture;
+
+import java.util.concurrent.CompletionException;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+
+ * The single-writer engine's tests, rerun in write-behind mode: updates linger up to the flush interval
+
+ * and are acknowledged only once the group commit covering them is done
+
+ */
+
+@SpringBootTest(properties = {
+
+  "inventory.allocation.engine=single-writer",
+
+  "inventory.pipeline.flush-millis=5"
+
+})
+
+@ActiveProfiles("test")
+
+class WriteBehindIntegrationTest extends SingleWriterEngineIntegrationTest {
+
+  private static final int GROUPED_REQUESTS = 20;
+
+  @Autowired
+
+  private AllocationEngine allocationEngine;
+
+  @Autowired
+
+  private BatchRepository batchRepository;
+
+  @Autowired
+
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+
+  void testWriteBehind_UpdatesWithinFlushIntervalShareCommits() {
+
+    // Arrange
+
+    SingleWriterAllocationEngine engine = (SingleWriterAllocationEngine) allocationEngine;
+
+    long linesBefore = engine.getCommittedLineCount();
+
+    long groupsBefore = engine.getGroupCommitCount();
+
+    List < CompletableFuture < InventoryUpdateResponse >> futures = new ArrayList < > ();
+
+    // Act
+
+    for (int i = 0; i < GROUPED_REQUESTS; i++) {
+
+      futures.add(engine.allocateAsync(new InventoryUpdateRequest("PROD-PIPE-001", 1, null)));
+
+    }
+
+    for (CompletableFuture < InventoryUpdateResponse > future: futures) {
+
+      assertTrue(future.orTimeout(30, TimeUnit.SECONDS).join().isSuccess());
+
+    }
+
+    // Assert - every line committed, in fewer commits than there were updates
+
+    long groups = engine.getGroupCommitCount() - groupsBefore;
+
+    assertEquals(GROUPED_REQUESTS, engine.getCommittedLineCount() - linesBefore);
+
+    assertTrue(groups >= 1 && groups < GROUPED_REQUESTS, "Expected grouped commits but got " + groups);
+
+    assertEquals(4 * 100 - GROUPED_REQUESTS, totalQuantity());
+
+  }
+
+  @Test
+
+  void testWriteBehind_RejectedRowFailsOnlyItsOwnUpdate() {
+
+    // Arrange - empty a batch behind the index's back, so a group planned against it is rejected on that row
+
+    SingleWriterAllocationEngine engine = (SingleWriterAllocationEngine) allocationEngine;
+
+    jdbcTemplate.update("UPDATE batches SET quantity = 0 WHERE batch_number = 'BATCH-PIPE-0'");
+
+    // Act - the whole group rolls back and its lines are retried one by one against the database
+
+    CompletableFuture < InventoryUpdateResponse > first = engine.allocateAsync(new InventoryUpdateRequest("PROD-PIPE-001", 1, null));
+
+    CompletableFuture < InventoryUpdateResponse > tooLarge = engine.allocateAsync(new InventoryUpdateRequest("PROD-PIPE-001", 350, null));
+
+    CompletableFuture < InventoryUpdateResponse > second = engine.allocateAsync(new InventoryUpdateRequest("PROD-PIPE-001", 1, null));
+
+    // Assert - only the update the remaining 300 units cannot cover fails
+
+    assertTrue(first.orTimeout(30, TimeUnit.SECONDS).join().isSuccess());
+
+    assertTrue(second.orTimeout(30, TimeUnit.SECONDS).join().isSuccess());
+
+    CompletionException exception = assertThrows(CompletionException.class, () -> tooLarge.orTimeout(30, TimeUnit.SECONDS).join());
+
+    assertInstanceOf(InsufficientInventoryException.class, exception.getCause());
+
+    assertEquals(3 * 100 - 2, totalQuantity());
+
+  }
+
+  private int totalQuantity() {
+
+    return batchRepository.findAll().stream().mapToInt(Batch::getQuantity).sum();
+
+  }
+
+}
@@ -0,0 +1,148 @@
+ package com.yash.inventory.benchmark;
+
+ import java.util.ArrayList;
+ import java.util.Arrays;
+ import java.util.List;
+
+ import org.junit.jupiter.api.Tag;
+ import org.junit.jupiter.api.Test;
+ import org.springframework.context.ConfigurableApplicationContext;
+
+ import com.yash.inventory.engine.ConcurrencyMode;
+ import com.yash.inventory.engine.LockStripedAllocationEngine;
+
+ import static com.yash.inventory.benchmark.HotProductBenchmarks.*;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ /**
+
+  * Contention benchmark of the batch decrement concurrency modes on one hot SKU
+
+  *
+
+  * Each mode boots the service with the in-process locks off, as several instances sharing one database would run,
+
+  * so only the database guards the rows. A growing number of writers then deduct one unit at a time from the same
+
+  * product through the allocation engine; FEFO sends every writer to the same batch row.
+
+  * Every run reports throughput, the abort rate (transactions rolled back by a concurrency conflict, over all
+
+  * transactions started) and the requests that still failed after the engine's bounded retries.
+
+  *
+
+  * Run with: mvn -Pbenchmark test -Dtest=ConcurrencyModeContentionBenchmark
+
+  * Tune with: -Dbenchmark.modes=CAS,OPTIMISTIC,PESSIMISTIC -Dbenchmark.writers=1,2,4,8,16,32,64
+
+  *            -Dbenchmark.updates-per-writer=500 -Dbenchmark.max-attempts=5
+
+  * Results are printed and written to target/benchmark/concurrency-mode-contention.csv
+
+  */
+
+ @Tag("benchmark")
+
+ class ConcurrencyModeContentionBenchmark {
+
+   @Test
+
+   void compareConcurrencyModes() throws Exception {
+
+     ConcurrencyMode[] modes = Arrays.stream(listProperty("benchmark.modes", "CAS,OPTIMISTIC,PESSIMISTIC"))
+
+       .map(ConcurrencyMode::valueOf)
+
+       .toArray(ConcurrencyMode[]::new);
+
+     int[] writerLevels = writerLevels();
+
+     int updatesPerWriter = Integer.getInteger("benchmark.updates-per-writer", 500);
+
+     int maxAttempts = Integer.getInteger("benchmark.max-attempts", 5);
+
+     int maxWriters = Arrays.stream(writerLevels).max().orElse(1);
+
+     List < Result > results = new ArrayList < > ();
+
+     for (ConcurrencyMode mode: modes) {
+
+       try (ConfigurableApplicationContext context = startService("contention-" + mode, maxWriters,
+
+         "--inventory.concurrency.mode=" + mode,
+
+         "--inventory.concurrency.max-attempts=" + maxAttempts,
+
+         "--inventory.allocation.in-process-locks=false")) {
+
+         LockStripedAllocationEngine engine = context.getBean(LockStripedAllocationEngine.class);
+
+         HotProductBenchmarks.run(engine, 1, WARMUP_UPDATES);
+
+         for (int writers: writerLevels) {
+
+           Result result = run(mode, engine, writers, updatesPerWriter);
+
+           System.out.println(result);
+
+           results.add(result);
+
+         }
+
+       }
+
+     }
+
+     writeCsv("concurrency-mode-contention.csv", "mode,writers,completed,failed,throughput_ups,abort_rate",
+
+       results.stream().map(Result::toCsv).toList());
+
+     assertTrue(results.stream().allMatch(result -> result.completed() > 0));
+
+   }
+
+   private Result run(ConcurrencyMode mode, LockStripedAllocationEngine engine, int writers, int updatesPerWriter)
+
+     throws Exception {
+
+     long conflictsBefore = engine.getConflictCount();
+
+     Run run = HotProductBenchmarks.run(engine, writers, updatesPerWriter);
+
+     long aborts = engine.getConflictCount() - conflictsBefore;
+
+     // Every request started one transaction, plus one more per retried abort
+
+     long transactions = (long) writers * updatesPerWriter + aborts - run.failed();
+
+     return new Result(mode, writers, run.completed(), run.failed(), run.throughput(),
+
+       transactions == 0 ? 0 : (double) aborts / transactions);
+
+   }
+
+   private record Result(ConcurrencyMode mode, int writers, int completed, int failed, double throughput,
+
+     double abortRate) {
+
+     String toCsv() {
+
+       return String.format("%s,%d,%d,%d,%.1f,%.4f", mode, writers, completed, failed, throughput, abortRate);
+
+     }
+
+     @Override
+
+     public String toString() {
+
+       return String.format("%-11s writers=%-3d completed=%-6d failed=%-5d throughput=%9.1f upd/s abort-rate=%6.2f%%",
+
+         mode, writers, completed, failed, throughput, abortRate * 100);
+
+     }
+
+   }
+
+ }
@@ -0,0 +1,118 @@
+ package com.yash.inventory.benchmark;
+
+ import java.util.ArrayList;
+ import java.util.Arrays;
+ import java.util.List;
+
+ import org.junit.jupiter.api.Tag;
+ import org.junit.jupiter.api.Test;
+ import org.springframework.context.ConfigurableApplicationContext;
+
+ import com.yash.inventory.engine.LockStripedAllocationEngine;
+ import com.yash.inventory.index.OnHandCounters;
+
+ import static com.yash.inventory.benchmark.HotProductBenchmarks.*;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ /**
+
+  * Single-SKU throughput with and without flash-sale sharding
+
+  *
+
+  * One hot product holds 100 batches. Without sharding every writer queues on the product's lock and FEFO sends it
+
+  * to the same batch row; with sharding the batches are split by id into independently locked shards, each writer
+
+  * starts on its own shard.
+
+  * Every configuration boots its own service and reports throughput and failed requests per writer count.
+
+  *
+
+  * Run with: mvn -Pbenchmark test -Dtest=FlashSaleShardingBenchmark
+
+  * Tune with: -Dbenchmark.shards=off,4,16 -Dbenchmark.writers=1,2,4,8,16,32,64 -Dbenchmark.updates-per-writer=500
+
+  * Results are printed and written to target/benchmark/flash-sale-sharding.csv
+
+  */
+
+ @Tag("benchmark")
+
+ class FlashSaleShardingBenchmark {
+
+   @Test
+
+   void compareShardedAndUnsharded() throws Exception {
+
+     String[] shardCounts = listProperty("benchmark.shards", "off,4,16");
+
+     int[] writerLevels = writerLevels();
+
+     int updatesPerWriter = Integer.getInteger("benchmark.updates-per-writer", 500);
+
+     int maxWriters = Arrays.stream(writerLevels).max().orElse(1);
+
+     List < Result > results = new ArrayList < > ();
+
+     for (String shards: shardCounts) {
+
+       try (ConfigurableApplicationContext context = startService("flash-sale-" + shards, maxWriters,
+
+         "--inventory.flash-sale.products=" + ("off".equals(shards) ? "" : PRODUCT_CODE),
+
+         "--inventory.flash-sale.shards=" + ("off".equals(shards) ? "0" : shards))) {
+
+         LockStripedAllocationEngine engine = context.getBean(LockStripedAllocationEngine.class);
+
+         run(engine, 1, WARMUP_UPDATES);
+
+         for (int writers: writerLevels) {
+
+           Run run = run(engine, writers, updatesPerWriter);
+
+           Result result = new Result(shards, writers, run.completed(), run.failed(), run.throughput());
+
+           System.out.println(result);
+
+           results.add(result);
+
+         }
+
+         context.getBean(OnHandCounters.class).flush();
+
+       }
+
+     }
+
+     writeCsv("flash-sale-sharding.csv", "shards,writers,completed,failed,throughput_ups",
+
+       results.stream().map(Result::toCsv).toList());
+
+     assertTrue(results.stream().allMatch(result -> result.completed() > 0));
+
+   }
+
+   private record Result(String shards, int writers, int completed, int failed, double throughput) {
+
+     String toCsv() {
+
+       return String.format("%s,%d,%d,%d,%.1f", shards, writers, completed, failed, throughput);
+
+     }
+
+     @Override
+
+     public String toString() {
+
+       return String.format("shards=%-4s writers=%-3d completed=%-6d failed=%-5d throughput=%9.1f upd/s",
+
+         shards, writers, completed, failed, throughput);
+
+     }
+
+   }
+
+ }
@@ -0,0 +1,267 @@
+ package com.yash.inventory.benchmark;
+
+ import java.io.IOException;
+ import java.nio.file.Files;
+ import java.nio.file.Path;
+ import java.util.ArrayList;
+ import java.util.Arrays;
+ import java.util.List;
+ import java.util.concurrent.CountDownLatch;
+ import java.util.concurrent.ExecutorService;
+ import java.util.concurrent.Executors;
+ import java.util.concurrent.Future;
+ import java.util.concurrent.atomic.AtomicInteger;
+ import java.util.stream.Stream;
+
+ import org.springframework.boot.builder.SpringApplicationBuilder;
+ import org.springframework.context.ConfigurableApplicationContext;
+ import org.springframework.jdbc.core.JdbcTemplate;
+
+ import com.yash.inventory.InventoryApplication;
+ import com.yash.inventory.dto.InventoryUpdateRequest;
+ import com.yash.inventory.engine.AllocationEngine;
+ import com.yash.inventory.index.BatchIndex;
+
+ /**
+
+  * Shared fixture of the single-SKU contention benchmarks
+
+  *
+
+  * Boots the service on its own in-memory database with one hot product of 100 batches, runs a number of writers
+
+  * deducting one unit at a time from it, and writes the results to target/benchmark
+
+  */
+
+ final class HotProductBenchmarks {
+
+   static final String PRODUCT_CODE = "HOT-001";
+
+   static final int WARMUP_UPDATES = 500;
+
+   private static final int BATCHES = 100;
+
+   private static final int BATCH_QUANTITY = 1_000_000;
+
+   private HotProductBenchmarks() {}
+
+   /**
+
+    * Get a comma-separated system property as a list of trimmed values
+
+    */
+
+   static String[] listProperty(String name, String defaultValue) {
+
+     return Arrays.stream(System.getProperty(name, defaultValue).split(","))
+
+       .map(String::trim)
+
+       .toArray(String[]::new);
+
+   }
+
+   /**
+
+    * Get the writer counts to run from benchmark.writers
+
+    */
+
+   static int[] writerLevels() {
+
+     return Arrays.stream(listProperty("benchmark.writers", "1,2,4,8,16,32,64"))
+
+       .mapToInt(Integer::parseInt)
+
+       .toArray();
+
+   }
+
+   /**
+
+    * Boot the service with a connection per writer and load the hot product into its batch index
+
+    *
+
+    * @param database Name of the in-memory database, distinct per configuration
+
+    * @param maxWriters Largest writer count the run will use
+
+    * @param properties The configuration under test, as --name=value arguments
+
+    */
+
+   static ConfigurableApplicationContext startService(String database, int maxWriters, String...properties) {
+
+     String[] common = {
+
+       "--spring.main.web-application-type=none",
+
+       "--spring.datasource.url=jdbc:h2:mem:" + database,
+
+       "--spring.datasource.hikari.maximum-pool-size=" + maxWriters,
+
+       "--spring.sql.init.mode=never",
+
+       "--spring.jpa.show-sql=false",
+
+       "--spring.h2.console.enabled=false",
+
+       "--logging.level.root=WARN",
+
+       "--logging.level.com.yash.inventory=WARN",
+
+       "--logging.level.org.hibernate.SQL=WARN",
+
+       "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+
+     };
+
+     // Passed as command-line arguments so they take precedence over application.properties
+
+     ConfigurableApplicationContext context = new SpringApplicationBuilder(InventoryApplication.class)
+
+       .run(Stream.concat(Arrays.stream(common), Arrays.stream(properties)).toArray(String[]::new));
+
+     createHotProduct(context.getBean(JdbcTemplate.class));
+
+     context.getBean(BatchIndex.class).reload();
+
+     return context;
+
+   }
+
+   /**
+
+    * Start the writers together and wait until each has sent its updates
+
+    */
+
+   static Run run(AllocationEngine engine, int writers, int updatesPerWriter) throws Exception {
+
+     ExecutorService executor = Executors.newFixedThreadPool(writers);
+
+     CountDownLatch start = new CountDownLatch(1);
+
+     AtomicInteger completed = new AtomicInteger();
+
+     AtomicInteger failed = new AtomicInteger();
+
+     List < Future < ? >> running = new ArrayList < > ();
+
+     for (int w = 0; w < writers; w++) {
+
+       running.add(executor.submit(() -> {
+
+         start.await();
+
+         InventoryUpdateRequest request = new InventoryUpdateRequest(PRODUCT_CODE, 1, null);
+
+         for (int i = 0; i < updatesPerWriter; i++) {
+
+           try {
+
+             engine.allocate(request);
+
+             completed.incrementAndGet();
+
+           } catch (RuntimeException e) {
+
+             failed.incrementAndGet();
+
+           }
+
+         }
+
+         return null;
+
+       }));
+
+     }
+
+     long began = System.nanoTime();
+
+     start.countDown();
+
+     for (Future < ? > writer: running) {
+
+       writer.get();
+
+     }
+
+     long elapsed = System.nanoTime() - began;
+
+     executor.shutdownNow();
+
+     return new Run(completed.get(), failed.get(), elapsed);
+
+   }
+
+   /**
+
+    * Write a header and one line per result to target/benchmark
+
+    */
+
+   static void writeCsv(String fileName, String header, List < String > rows) throws IOException {
+
+     Path file = Path.of("target", "benchmark", fileName);
+
+     Files.createDirectories(file.getParent());
+
+     List < String > lines = new ArrayList < > ();
+
+     lines.add(header);
+
+     lines.addAll(rows);
+
+     Files.write(file, lines);
+
+   }
+
+   private static void createHotProduct(JdbcTemplate jdbcTemplate) {
+
+     jdbcTemplate.update("INSERT INTO products (product_code, name) VALUES (?, 'Hot product')", PRODUCT_CODE);
+
+     Long productId = jdbcTemplate.queryForObject("SELECT id FROM products WHERE product_code = ?", Long.class, PRODUCT_CODE);
+
+     jdbcTemplate.update("INSERT INTO batches (batch_number, product_id, quantity, reserved_quantity, expiry_date, received_date) " +
+
+       "SELECT 'HOT-B-' || X, ?, ?, 0, DATEADD(DAY, 30 + X, CURRENT_DATE), DATEADD(DAY, -X, CURRENT_DATE) " +
+
+       "FROM SYSTEM_RANGE(1, ?)", productId, BATCH_QUANTITY, BATCHES);
+
+   }
+
+   /**
+
+    * Outcome of one writer count
+
+    *
+
+    * @param completed Updates that succeeded
+
+    * @param failed Updates that threw
+
+    * @param elapsedNanos Time from the start signal until the last writer finished
+
+    */
+
+   record Run(int completed, int failed, long elapsedNanos) {
+
+     double seconds() {
+
+       return elapsedNanos / 1_000_000_000.0;
+
+     }
+
+     double throughput() {
+
+       return completed / seconds();
+
+     }
+
+   }
+
+ }
@@ -0,0 +1,212 @@
+ package com.yash.inventory.benchmark;
+
+ import java.io.IOException;
+ import java.nio.file.Files;
+ import java.nio.file.Path;
+ import java.util.ArrayList;
+ import java.util.Comparator;
+ import java.util.List;
+ import java.util.SplittableRandom;
+ import java.util.stream.Stream;
+
+ import org.junit.jupiter.api.Tag;
+ import org.junit.jupiter.api.Test;
+
+ import com.yash.inventory.ledger.MovementLedger;
+ import com.yash.inventory.ledger.MovementType;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ /**
+
+  * Append throughput of the movement ledger and the time to rebuild quantities on restart
+
+  *
+
+  * Appends the given number of movements spread over a fixed set of batches, flushing every few hundred movements
+
+  * as the recorder would after each commit, with a snapshot every snapshot-every movements. The ledger is then
+
+  * reopened twice: once from the latest snapshot, replaying only the movements after it, and once with the snapshot
+
+  * removed, replaying the whole ledger. The ledger directory is deleted afterwards.
+
+  *
+
+  * Run with: mvn -Pbenchmark test -Dtest=MovementLedgerBenchmark
+
+  * Tune with: -Dbenchmark.movements=100000000 -Dbenchmark.batches=100000 -Dbenchmark.snapshot-every=1000000
+
+  *            -Dbenchmark.flush-every=256 -Dbenchmark.fsync=false
+
+  * Results are printed and written to target/benchmark/movement-ledger.csv
+
+  */
+
+ @Tag("benchmark")
+
+ class MovementLedgerBenchmark {
+
+   private static final MovementType[] TYPES = MovementType.values();
+
+   @Test
+
+   void appendAndRestart() throws IOException {
+
+     long movements = Long.getLong("benchmark.movements", 100_000_000L);
+
+     int batches = Integer.getInteger("benchmark.batches", 100_000);
+
+     long snapshotEvery = Long.getLong("benchmark.snapshot-every", 1_000_000L);
+
+     int flushEvery = Integer.getInteger("benchmark.flush-every", 256);
+
+     boolean fsync = Boolean.getBoolean("benchmark.fsync");
+
+     Path directory = Path.of("target", "benchmark", "movement-ledger");
+
+     deleteDirectory(directory);
+
+     try {
+
+       long appendNanos;
+
+       long expected;
+
+       try (MovementLedger ledger = MovementLedger.open(directory, snapshotEvery, fsync)) {
+
+         SplittableRandom random = new SplittableRandom(42);
+
+         long now = System.currentTimeMillis();
+
+         long began = System.nanoTime();
+
+         for (long i = 0; i < movements; i++) {
+
+           ledger.append(TYPES[(int)(i % TYPES.length)], random.nextInt(batches), random.nextInt(-50, 51), now);
+
+           if ((i + 1) % flushEvery == 0) {
+
+             ledger.flush();
+
+           }
+
+         }
+
+         ledger.flush();
+
+         appendNanos = System.nanoTime() - began;
+
+         expected = ledger.quantityOf(batches / 2);
+
+       }
+
+       long ledgerBytes = Files.size(directory.resolve("movements.ledger"));
+
+       MovementLedger.RecoveryReport fromSnapshot = reopen(directory, movements, expected, batches);
+
+       Files.delete(directory.resolve("quantities.snapshot"));
+
+       MovementLedger.RecoveryReport fullReplay = reopen(directory, movements, expected, batches);
+
+       Result result = new Result(movements, batches, snapshotEvery, ledgerBytes,
+
+         movements / (appendNanos / 1_000_000_000.0), fromSnapshot, fullReplay);
+
+       System.out.println(result);
+
+       writeCsv(result);
+
+       assertTrue(fromSnapshot.fromSnapshot() || snapshotEvery <= 0);
+
+       assertFalse(fullReplay.fromSnapshot());
+
+       assertEquals(movements, fullReplay.replayedMovements());
+
+     } finally {
+
+       deleteDirectory(directory);
+
+     }
+
+   }
+
+   private static MovementLedger.RecoveryReport reopen(Path directory, long movements, long expected, int batches)
+
+     throws IOException {
+
+     try (MovementLedger ledger = MovementLedger.open(directory, 0, false)) {
+
+       assertEquals(movements, ledger.getMovementCount());
+
+       assertEquals(expected, ledger.quantityOf(batches / 2));
+
+       return ledger.getRecovery();
+
+     }
+
+   }
+
+   private static void deleteDirectory(Path directory) throws IOException {
+
+     if (!Files.exists(directory)) {
+
+       return;
+
+     }
+
+     try (Stream < Path > paths = Files.walk(directory)) {
+
+       for (Path path: paths.sorted(Comparator.reverseOrder()).toList()) {
+
+         Files.delete(path);
+
+       }
+
+     }
+
+   }
+
+   private static void writeCsv(Result result) throws IOException {
+
+     Path file = Path.of("target", "benchmark", "movement-ledger.csv");
+
+     Files.createDirectories(file.getParent());
+
+     List < String > lines = new ArrayList < > ();
+
+     lines.add("movements,batches,snapshot_every,ledger_mb,append_mps,snapshot_restart_ms,snapshot_replayed," +
+
+       "full_replay_ms");
+
+     lines.add(String.format("%d,%d,%d,%.1f,%.1f,%d,%d,%d", result.movements(), result.batches(), result.snapshotEvery(),
+
+       result.ledgerBytes() / 1_048_576.0, result.appendThroughput(), result.fromSnapshot().elapsedNanos() / 1_000_000,
+
+       result.fromSnapshot().replayedMovements(), result.fullReplay().elapsedNanos() / 1_000_000));
+
+     Files.write(file, lines);
+
+   }
+
+   private record Result(long movements, int batches, long snapshotEvery, long ledgerBytes, double appendThroughput,
+
+     MovementLedger.RecoveryReport fromSnapshot, MovementLedger.RecoveryReport fullReplay) {
+
+     @Override
+
+     public String toString() {
+
+       return String.format("movements=%d batches=%d ledger=%.1f MB append=%.1f movements/s " +
+
+         "restart from snapshot=%d ms (%d replayed) full replay=%d ms", movements, batches, ledgerBytes / 1_048_576.0,
+
+         appendThroughput, fromSnapshot.elapsedNanos() / 1_000_000, fromSnapshot.replayedMovements(),
+
+         fullReplay.elapsedNanos() / 1_000_000);
+
+     }
+
+   }
+
+ }
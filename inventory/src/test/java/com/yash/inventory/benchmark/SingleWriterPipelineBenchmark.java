@@ -0,0 +1,158 @@
+ package com.yash.inventory.benchmark;
+
+ import java.util.ArrayList;
+ import java.util.Arrays;
+ import java.util.List;
+
+ import org.junit.jupiter.api.Tag;
+ import org.junit.jupiter.api.Test;
+ import org.springframework.context.ConfigurableApplicationContext;
+
+ import com.yash.inventory.engine.AllocationEngine;
+ import com.yash.inventory.engine.SingleWriterAllocationEngine;
+
+ import static com.yash.inventory.benchmark.HotProductBenchmarks.*;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ /**
+
+  * Single-SKU throughput of the locking engine against the single-writer pipeline
+
+  *
+
+  * One hot product holds 100 batches. The locking engine runs each update in its own transaction under the
+
+  * product's lock; the single-writer engine hands updates to the product's partition worker through a ring buffer
+
+  * and commits whatever has queued up in one transaction; write-behind is the same pipeline lingering up to a flush
+
+  * interval so more updates share each commit. Every engine boots its own service and reports throughput, failed
+
+  * requests, commits per second and the average number of updates per commit.
+
+  *
+
+  * Run with: mvn -Pbenchmark test -Dtest=SingleWriterPipelineBenchmark
+
+  * Tune with: -Dbenchmark.engines=locking,single-writer,write-behind -Dbenchmark.writers=1,2,4,8,16,32,64
+
+  *            -Dbenchmark.updates-per-writer=500 -Dbenchmark.flush-millis=5
+
+  * Results are printed and written to target/benchmark/single-writer-pipeline.csv
+
+  */
+
+ @Tag("benchmark")
+
+ class SingleWriterPipelineBenchmark {
+
+   @Test
+
+   void compareLockingAndSingleWriter() throws Exception {
+
+     String[] engines = listProperty("benchmark.engines", "locking,single-writer,write-behind");
+
+     int[] writerLevels = writerLevels();
+
+     int updatesPerWriter = Integer.getInteger("benchmark.updates-per-writer", 500);
+
+     int maxWriters = Arrays.stream(writerLevels).max().orElse(1);
+
+     List < Result > results = new ArrayList < > ();
+
+     for (String engineName: engines) {
+
+       try (ConfigurableApplicationContext context = startService("pipeline-" + engineName, maxWriters,
+
+         "--inventory.allocation.engine=" + ("locking".equals(engineName) ? "locking" : "single-writer"),
+
+         "--inventory.pipeline.flush-millis=" + ("write-behind".equals(engineName) ?
+
+           Integer.getInteger("benchmark.flush-millis", 5) : 0))) {
+
+         AllocationEngine engine = context.getBean(AllocationEngine.class);
+
+         HotProductBenchmarks.run(engine, 1, WARMUP_UPDATES);
+
+         for (int writers: writerLevels) {
+
+           Result result = run(engineName, engine, writers, updatesPerWriter);
+
+           System.out.println(result);
+
+           results.add(result);
+
+         }
+
+       }
+
+     }
+
+     writeCsv("single-writer-pipeline.csv", "engine,writers,completed,failed,throughput_ups,commits_per_second,updates_per_commit",
+
+       results.stream().map(Result::toCsv).toList());
+
+     assertTrue(results.stream().allMatch(result -> result.completed() > 0));
+
+   }
+
+   private Result run(String engineName, AllocationEngine engine, int writers, int updatesPerWriter)
+
+     throws Exception {
+
+     long linesBefore = committedLines(engine);
+
+     long groupsBefore = groupCommits(engine);
+
+     Run run = HotProductBenchmarks.run(engine, writers, updatesPerWriter);
+
+     // The locking engine commits one transaction per successful update
+
+     long commits = engine instanceof SingleWriterAllocationEngine ? groupCommits(engine) - groupsBefore : run.completed();
+
+     long committed = engine instanceof SingleWriterAllocationEngine ? committedLines(engine) - linesBefore : run.completed();
+
+     return new Result(engineName, writers, run.completed(), run.failed(), run.throughput(), commits / run.seconds(),
+
+       commits == 0 ? 0 : (double) committed / commits);
+
+   }
+
+   private static long committedLines(AllocationEngine engine) {
+
+     return engine instanceof SingleWriterAllocationEngine pipeline ? pipeline.getCommittedLineCount() : 0;
+
+   }
+
+   private static long groupCommits(AllocationEngine engine) {
+
+     return engine instanceof SingleWriterAllocationEngine pipeline ? pipeline.getGroupCommitCount() : 0;
+
+   }
+
+   private record Result(String engine, int writers, int completed, int failed, double throughput,
+
+     double commitsPerSecond, double updatesPerCommit) {
+
+     String toCsv() {
+
+       return String.format("%s,%d,%d,%d,%.1f,%.1f,%.2f", engine, writers, completed, failed, throughput,
+
+         commitsPerSecond, updatesPerCommit);
+
+     }
+
+     @Override
+
+     public String toString() {
+
+       return String.format("%-13s writers=%-3d completed=%-6d failed=%-5d throughput=%9.1f upd/s commits=%8.1f/s " +
+
+         "updates/commit=%6.2f", engine, writers, completed, failed, throughput, commitsPerSecond, updatesPerCommit);
+
+     }
+
+   }
+
+ }
@@ -0,0 +1,292 @@
+ package com.yash.inventory.benchmark;
+
+ import java.io.IOException;
+ import java.net.URI;
+ import java.net.http.HttpClient;
+ import java.net.http.HttpRequest;
+ import java.net.http.HttpResponse;
+ import java.nio.file.Files;
+ import java.nio.file.Path;
+ import java.time.Duration;
+ import java.util.ArrayList;
+ import java.util.Arrays;
+ import java.util.List;
+ import java.util.concurrent.CompletableFuture;
+ import java.util.concurrent.ExecutorService;
+ import java.util.concurrent.Executors;
+ import java.util.concurrent.atomic.AtomicInteger;
+ import java.util.concurrent.atomic.AtomicLongArray;
+
+ import org.junit.jupiter.api.Tag;
+ import org.junit.jupiter.api.Test;
+ import org.springframework.boot.builder.SpringApplicationBuilder;
+ import org.springframework.boot.web.context.WebServerApplicationContext;
+ import org.springframework.context.ConfigurableApplicationContext;
+
+ import com.yash.inventory.InventoryApplication;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ /**
+
+  * Load benchmark comparing platform-thread and virtual-thread execution of the inventory service
+
+  *
+
+  * Each mode boots the service on a random port, then N concurrent clients each issue a fixed number of
+
+  * GET /inventory/{productCode} calls, which run blocking JPA/JDBC reads on the request thread.
+
+  * The client side uses the asynchronous JDK HttpClient, so thousands of clients need only a few threads.
+
+  *
+
+  * Run with: mvn -Pbenchmark test
+
+  * Tune with: -Dbenchmark.clients=1000,5000,10000 -Dbenchmark.requests-per-client=10
+
+  * Virtual-thread mode needs a JDK 21+ runtime and is skipped on older JDKs.
+
+  * Results are printed and written to target/benchmark/thread-mode-load.csv
+
+  */
+
+ @Tag("benchmark")
+
+ class ThreadModeLoadBenchmark {
+
+   private static final String PRODUCT_CODE = "PROD-001";
+
+   private static final int WARMUP_CLIENTS = 100;
+
+   @Test
+
+   void compareThreadModes() throws Exception {
+
+     int[] clientLevels = Arrays.stream(System.getProperty("benchmark.clients", "1000,5000,10000").split(","))
+
+       .map(String::trim)
+
+       .mapToInt(Integer::parseInt)
+
+       .toArray();
+
+     int requestsPerClient = Integer.getInteger("benchmark.requests-per-client", 10);
+
+     List < String > modes = new ArrayList < > (List.of("platform"));
+
+     if (Runtime.version().feature() >= 21) {
+
+       modes.add("virtual");
+
+     } else {
+
+       System.out.println("Virtual-thread mode skipped: running on JDK " + Runtime.version().feature());
+
+     }
+
+     List < Result > results = new ArrayList < > ();
+
+     for (String mode: modes) {
+
+       try (ConfigurableApplicationContext context = startService(mode)) {
+
+         int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+         URI uri = URI.create("http://localhost:" + port + "/inventory/" + PRODUCT_CODE);
+
+         run(mode, uri, WARMUP_CLIENTS, requestsPerClient);
+
+         for (int clients: clientLevels) {
+
+           Result result = run(mode, uri, clients, requestsPerClient);
+
+           System.out.println(result);
+
+           results.add(result);
+
+         }
+
+       }
+
+     }
+
+     writeCsv(results);
+
+     assertTrue(results.stream().allMatch(result -> result.completed() > 0));
+
+   }
+
+   private ConfigurableApplicationContext startService(String mode) {
+
+     return new SpringApplicationBuilder(InventoryApplication.class)
+
+       .profiles("virtual".equals(mode) ? new String[] { "virtual" } : new String[0])
+
+       .properties(
+
+         "server.port=0",
+
+         "server.tomcat.max-connections=20000",
+
+         "server.tomcat.accept-count=1000",
+
+         "spring.datasource.url=jdbc:h2:mem:benchmark-" + mode,
+
+         "spring.jpa.show-sql=false",
+
+         "spring.h2.console.enabled=false",
+
+         "logging.level.root=WARN",
+
+         "logging.level.com.yash.inventory=WARN",
+
+         "logging.level.org.hibernate.SQL=WARN",
+
+         "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+
+       .run();
+
+   }
+
+   private Result run(String mode, URI uri, int clients, int requestsPerClient) {
+
+     ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+
+     HttpClient httpClient = HttpClient.newBuilder()
+
+       .version(HttpClient.Version.HTTP_1_1)
+
+       .connectTimeout(Duration.ofSeconds(30))
+
+       .executor(clientExecutor)
+
+       .build();
+
+     HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+     AtomicLongArray latencies = new AtomicLongArray(clients * requestsPerClient);
+
+     AtomicInteger completed = new AtomicInteger();
+
+     AtomicInteger errors = new AtomicInteger();
+
+     long start = System.nanoTime();
+
+     CompletableFuture < ? > [] running = new CompletableFuture < ? > [clients];
+
+     for (int i = 0; i < clients; i++) {
+
+       running[i] = runClient(httpClient, request, requestsPerClient, latencies, completed, errors);
+
+     }
+
+     CompletableFuture.allOf(running).join();
+
+     long elapsed = System.nanoTime() - start;
+
+     clientExecutor.shutdownNow();
+
+     long[] sorted = new long[completed.get()];
+
+     for (int i = 0; i < sorted.length; i++) {
+
+       sorted[i] = latencies.get(i);
+
+     }
+
+     Arrays.sort(sorted);
+
+     return new Result(mode, clients, sorted.length, errors.get(),
+
+       sorted.length / (elapsed / 1_000_000_000.0), percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99));
+
+   }
+
+   private CompletableFuture < Void > runClient(HttpClient httpClient, HttpRequest request, int remaining,
+
+     AtomicLongArray latencies, AtomicInteger completed, AtomicInteger errors) {
+
+     if (remaining == 0) {
+
+       return CompletableFuture.completedFuture(null);
+
+     }
+
+     long sentAt = System.nanoTime();
+
+     return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+
+       .handle((response, failure) -> {
+
+         if (failure == null && response.statusCode() == 200) {
+
+           latencies.set(completed.getAndIncrement(), System.nanoTime() - sentAt);
+
+         } else {
+
+           errors.incrementAndGet();
+
+         }
+
+         return null;
+
+       })
+
+       .thenCompose(ignored -> runClient(httpClient, request, remaining - 1, latencies, completed, errors));
+
+   }
+
+   private static double percentileMillis(long[] sortedNanos, double percentile) {
+
+     if (sortedNanos.length == 0) {
+
+       return Double.NaN;
+
+     }
+
+     int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+
+     return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+
+   }
+
+   private static void writeCsv(List < Result > results) throws IOException {
+
+     Path file = Path.of("target", "benchmark", "thread-mode-load.csv");
+
+     Files.createDirectories(file.getParent());
+
+     List < String > lines = new ArrayList < > ();
+
+     lines.add("mode,clients,completed,errors,throughput_rps,p50_ms,p99_ms");
+
+     for (Result result: results) {
+
+       lines.add(String.format("%s,%d,%d,%d,%.1f,%.2f,%.2f", result.mode(), result.clients(), result.completed(),
+
+         result.errors(), result.throughput(), result.p50Millis(), result.p99Millis()));
+
+     }
+
+     Files.write(file, lines);
+
+   }
+
+   private record Result(String mode, int clients, int completed, int errors, double throughput,
+
+     double p50Millis, double p99Millis) {
+
+     @Override
+
+     public String toString() {
+
+       return String.format("%-8s clients=%-6d completed=%-7d errors=%-5d throughput=%8.1f req/s p50=%8.2f ms p99=%8.2f ms",
+
+         mode, clients, completed, errors, throughput, p50Millis, p99Millis);
+
+     }
+
+   }
+
+ }
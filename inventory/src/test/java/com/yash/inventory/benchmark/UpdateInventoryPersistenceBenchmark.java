@@ -0,0 +1,364 @@
+ package com.yash.inventory.benchmark;
+
+ import java.io.IOException;
+ import java.nio.file.Files;
+ import java.nio.file.Path;
+ import java.util.ArrayList;
+ import java.util.Arrays;
+ import java.util.List;
+ import java.util.Random;
+ import java.util.concurrent.CountDownLatch;
+ import java.util.concurrent.ExecutorService;
+ import java.util.concurrent.Executors;
+ import java.util.concurrent.Future;
+
+ import org.hibernate.SessionFactory;
+ import org.hibernate.stat.Statistics;
+ import org.junit.jupiter.api.Tag;
+ import org.junit.jupiter.api.Test;
+ import org.springframework.boot.builder.SpringApplicationBuilder;
+ import org.springframework.context.ConfigurableApplicationContext;
+ import org.springframework.jdbc.core.JdbcTemplate;
+
+ import com.yash.inventory.InventoryApplication;
+ import com.yash.inventory.dto.InventoryUpdateRequest;
+ import com.yash.inventory.index.BatchIndex;
+ import com.yash.inventory.service.InventoryService;
+
+ import jakarta.persistence.EntityManagerFactory;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ /**
+
+  * Persistence benchmark of InventoryService.updateInventory against H2
+
+  *
+
+  * Boots the service without its sample data, generates products and batches with set-based SQL, rebuilds the
+
+  * batch index, then runs 1, 8 and 64 concurrent writers that each deduct small quantities from random products.
+
+  * Every run reports throughput, latency percentiles and the statements executed per update, counted twice:
+
+  * from Hibernate statistics (statements Hibernate prepares) and from H2 query statistics (every statement the
+
+  * database executes, including the JdbcTemplate batch updates that bypass Hibernate).
+
+  *
+
+  * Run with: mvn -Pbenchmark test -Dtest=UpdateInventoryPersistenceBenchmark -DargLine=-Xmx8g
+
+  * Tune with: -Dbenchmark.products=100000 -Dbenchmark.batches=10000000 -Dbenchmark.writers=1,8,64
+
+  *            -Dbenchmark.updates-per-writer=2000
+
+  * The full dataset is held by the in-memory database and the batch index, hence the large heap.
+
+  * Results are printed and written to target/benchmark/update-inventory-persistence.csv
+
+  */
+
+ @Tag("benchmark")
+
+ class UpdateInventoryPersistenceBenchmark {
+
+   private static final int BATCH_QUANTITY = 1000;
+
+   private static final int INSERT_CHUNK = 1_000_000;
+
+   private static final int WARMUP_UPDATES = 2000;
+
+   private static final long SEED = 42L;
+
+   @Test
+
+   void measureUpdateInventory() throws Exception {
+
+     int products = Integer.getInteger("benchmark.products", 100_000);
+
+     long batches = Long.getLong("benchmark.batches", 10_000_000L);
+
+     int[] writerLevels = Arrays.stream(System.getProperty("benchmark.writers", "1,8,64").split(","))
+
+       .map(String::trim)
+
+       .mapToInt(Integer::parseInt)
+
+       .toArray();
+
+     int updatesPerWriter = Integer.getInteger("benchmark.updates-per-writer", 2000);
+
+     int maxWriters = Arrays.stream(writerLevels).max().orElse(1);
+
+     List < Result > results = new ArrayList < > ();
+
+     try (ConfigurableApplicationContext context = startService(maxWriters)) {
+
+       JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+       long started = System.nanoTime();
+
+       generateDataset(jdbcTemplate, products, batches);
+
+       long generated = System.nanoTime();
+
+       context.getBean(BatchIndex.class).reload();
+
+       System.out.printf("Dataset ready: %d products, %d batches generated in %.1f s, indexed in %.1f s%n", products,
+
+         batches, (generated - started) / 1_000_000_000.0, (System.nanoTime() - generated) / 1_000_000_000.0);
+
+       InventoryService service = context.getBean(InventoryService.class);
+
+       Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+       jdbcTemplate.execute("SET QUERY_STATISTICS_MAX_ENTRIES 1000");
+
+       run(service, statistics, jdbcTemplate, products, 1, WARMUP_UPDATES);
+
+       for (int writers: writerLevels) {
+
+         Result result = run(service, statistics, jdbcTemplate, products, writers, updatesPerWriter);
+
+         System.out.println(result);
+
+         results.add(result);
+
+       }
+
+     }
+
+     writeCsv(results);
+
+     assertTrue(results.stream().allMatch(result -> result.completed() > 0));
+
+   }
+
+   private ConfigurableApplicationContext startService(int maxWriters) {
+
+     // Passed as command-line arguments so they take precedence over application.properties
+
+     return new SpringApplicationBuilder(InventoryApplication.class)
+
+       .run(
+
+         "--spring.main.web-application-type=none",
+
+         "--spring.datasource.url=jdbc:h2:mem:persistence-benchmark",
+
+         "--spring.datasource.hikari.maximum-pool-size=" + maxWriters,
+
+         "--spring.sql.init.mode=never",
+
+         "--spring.jpa.show-sql=false",
+
+         "--spring.jpa.properties.hibernate.generate_statistics=true",
+
+         "--spring.h2.console.enabled=false",
+
+         "--logging.level.root=WARN",
+
+         "--logging.level.com.yash.inventory=WARN",
+
+         "--logging.level.org.hibernate.SQL=WARN",
+
+         "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+
+   }
+
+   /**
+
+    * Products BENCH-000001 onwards, with their batches spread round-robin and expiring over the next two years
+
+    */
+
+   private void generateDataset(JdbcTemplate jdbcTemplate, int products, long batches) {
+
+     jdbcTemplate.update("INSERT INTO products (product_code, name) " +
+
+       "SELECT 'BENCH-' || LPAD(X, 6, '0'), 'Benchmark product ' || X FROM SYSTEM_RANGE(1, ?)", products);
+
+     long firstProductId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM products", Long.class);
+
+     for (long from = 0; from < batches; from += INSERT_CHUNK) {
+
+       long to = Math.min(from + INSERT_CHUNK, batches) - 1;
+
+       jdbcTemplate.update("INSERT INTO batches (batch_number, product_id, quantity, reserved_quantity, expiry_date, received_date) " +
+
+         "SELECT 'BENCH-B-' || X, ? + MOD(X, ?), ?, 0, DATEADD(DAY, 30 + MOD(X * 7, 700), CURRENT_DATE), " +
+
+         "DATEADD(DAY, -MOD(X * 3, 365), CURRENT_DATE) FROM SYSTEM_RANGE(?, ?)",
+
+         firstProductId, products, BATCH_QUANTITY, from, to);
+
+     }
+
+   }
+
+   private Result run(InventoryService service, Statistics statistics, JdbcTemplate jdbcTemplate, int products,
+
+     int writers, int updatesPerWriter) throws Exception {
+
+     ExecutorService executor = Executors.newFixedThreadPool(writers);
+
+     CountDownLatch start = new CountDownLatch(1);
+
+     List < Future < long[] >> running = new ArrayList < > ();
+
+     for (int w = 0; w < writers; w++) {
+
+       Random random = new Random(SEED + writers * 1000L + w);
+
+       running.add(executor.submit(() -> {
+
+         start.await();
+
+         return write(service, random, products, updatesPerWriter);
+
+       }));
+
+     }
+
+     statistics.clear();
+
+     jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+
+     jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+
+     long began = System.nanoTime();
+
+     start.countDown();
+
+     List < long[] > latencies = new ArrayList < > ();
+
+     for (Future < long[] > writer: running) {
+
+       latencies.add(writer.get());
+
+     }
+
+     long elapsed = System.nanoTime() - began;
+
+     long databaseStatements = jdbcTemplate.queryForObject(
+
+       "SELECT COALESCE(SUM(EXECUTION_COUNT), 0) FROM INFORMATION_SCHEMA.QUERY_STATISTICS", Long.class);
+
+     long hibernateStatements = statistics.getPrepareStatementCount();
+
+     long entityLoads = statistics.getEntityLoadCount();
+
+     executor.shutdownNow();
+
+     long[] sorted = latencies.stream().flatMapToLong(Arrays::stream).filter(nanos -> nanos >= 0).sorted().toArray();
+
+     int failed = writers * updatesPerWriter - sorted.length;
+
+     int updates = Math.max(sorted.length, 1);
+
+     return new Result(writers, sorted.length, failed, sorted.length / (elapsed / 1_000_000_000.0),
+
+       percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99), (double) hibernateStatements / updates,
+
+       (double) databaseStatements / updates, (double) entityLoads / updates);
+
+   }
+
+   /**
+
+    * Latency of each update in nanoseconds, -1 for updates that failed
+
+    */
+
+   private long[] write(InventoryService service, Random random, int products, int updates) {
+
+     long[] latencies = new long[updates];
+
+     for (int i = 0; i < updates; i++) {
+
+       String productCode = String.format("BENCH-%06d", 1 + random.nextInt(products));
+
+       InventoryUpdateRequest request = new InventoryUpdateRequest(productCode, 1 + random.nextInt(5), null);
+
+       long sentAt = System.nanoTime();
+
+       try {
+
+         service.updateInventory(request);
+
+         latencies[i] = System.nanoTime() - sentAt;
+
+       } catch (RuntimeException e) {
+
+         // Two writers drained the same batch; the losing update rolls back
+
+         latencies[i] = -1;
+
+       }
+
+     }
+
+     return latencies;
+
+   }
+
+   private static double percentileMillis(long[] sortedNanos, double percentile) {
+
+     if (sortedNanos.length == 0) {
+
+       return Double.NaN;
+
+     }
+
+     int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+
+     return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+
+   }
+
+   private static void writeCsv(List < Result > results) throws IOException {
+
+     Path file = Path.of("target", "benchmark", "update-inventory-persistence.csv");
+
+     Files.createDirectories(file.getParent());
+
+     List < String > lines = new ArrayList < > ();
+
+     lines.add("writers,completed,failed,throughput_ups,p50_ms,p99_ms,hibernate_statements_per_update," +
+
+       "db_statements_per_update,entity_loads_per_update");
+
+     for (Result result: results) {
+
+       lines.add(String.format("%d,%d,%d,%.1f,%.3f,%.3f,%.2f,%.2f,%.2f", result.writers(), result.completed(),
+
+         result.failed(), result.throughput(), result.p50Millis(), result.p99Millis(),
+
+         result.hibernateStatementsPerUpdate(), result.databaseStatementsPerUpdate(), result.entityLoadsPerUpdate()));
+
+     }
+
+     Files.write(file, lines);
+
+   }
+
+   private record Result(int writers, int completed, int failed, double throughput, double p50Millis, double p99Millis,
+
+     double hibernateStatementsPerUpdate, double databaseStatementsPerUpdate, double entityLoadsPerUpdate) {
+
+     @Override
+
+     public String toString() {
+
+       return String.format("writers=%-3d completed=%-7d failed=%-4d throughput=%9.1f upd/s p50=%7.3f ms p99=%7.3f ms " +
+
+         "statements/update hibernate=%.2f db=%.2f entity-loads/update=%.2f", writers, completed, failed, throughput,
+
+         p50Millis, p99Millis, hibernateStatementsPerUpdate, databaseStatementsPerUpdate, entityLoadsPerUpdate);
+
+     }
+
+   }
+
+ }
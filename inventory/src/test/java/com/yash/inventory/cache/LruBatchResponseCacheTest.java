@@ -0,0 +1,241 @@
+ package com.yash.inventory.cache;
+
+ import com.yash.inventory.dto.BatchResponse;
+
+ import org.junit.jupiter.api.BeforeEach;
+
+ import org.junit.jupiter.api.Test;
+
+ import java.time.Duration;
+
+ import java.util.List;
+
+ import java.util.concurrent.atomic.AtomicInteger;
+
+ import java.util.concurrent.atomic.AtomicLong;
+
+ import java.util.function.Function;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ class LruBatchResponseCacheTest {
+
+   private final AtomicLong now = new AtomicLong();
+
+   private final AtomicInteger loads = new AtomicInteger();
+
+   private final Function < String, List < BatchResponse >> loader = productCode -> {
+
+     loads.incrementAndGet();
+
+     BatchResponse batch = new BatchResponse();
+
+     batch.setProductCode(productCode);
+
+     return List.of(batch);
+
+   };
+
+   private LruBatchResponseCache cache;
+
+   @BeforeEach
+
+   void setUp() {
+
+     cache = new LruBatchResponseCache(2, Duration.ofSeconds(10), now::get);
+
+   }
+
+   @Test
+
+   void testGet_SecondReadIsHit() {
+
+     // Act 
+
+     List < BatchResponse > first = cache.get("PROD-001", loader);
+
+     List < BatchResponse > second = cache.get("PROD-001", loader);
+
+     // Assert 
+
+     assertSame(first, second);
+
+     assertEquals(1, loads.get());
+
+     assertEquals(new CacheStats(1, 1, 0, 1), cache.stats());
+
+   }
+
+   @Test
+
+   void testGet_ExpiredEntryReloaded() {
+
+     // Arrange 
+
+     cache.get("PROD-001", loader);
+
+     now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+     // Act 
+
+     cache.get("PROD-001", loader);
+
+     // Assert 
+
+     assertEquals(2, loads.get());
+
+     assertEquals(new CacheStats(0, 2, 1, 1), cache.stats());
+
+   }
+
+   @Test
+
+   void testGet_LeastRecentlyUsedEvictedOverMaxSize() {
+
+     // Arrange 
+
+     cache.get("PROD-001", loader);
+
+     cache.get("PROD-002", loader);
+
+     cache.get("PROD-001", loader);
+
+     // Act 
+
+     cache.get("PROD-003", loader);
+
+     // Assert - PROD-002 was the least recently read 
+
+     cache.get("PROD-001", loader);
+
+     assertEquals(3, loads.get());
+
+     cache.get("PROD-002", loader);
+
+     assertEquals(4, loads.get());
+
+     assertEquals(2, cache.stats().evictions());
+
+   }
+
+   @Test
+
+   void testGet_BypassedWhileUpdateInFlight() {
+
+     // Arrange 
+
+     cache.get("PROD-001", loader);
+
+     // Act 
+
+     cache.beginUpdate("PROD-001");
+
+     cache.get("PROD-001", loader);
+
+     cache.get("PROD-001", loader);
+
+     cache.endUpdate("PROD-001");
+
+     cache.get("PROD-001", loader);
+
+     cache.get("PROD-001", loader);
+
+     // Assert 
+
+     assertEquals(4, loads.get());
+
+     assertEquals(1, cache.stats().hits());
+
+   }
+
+   @Test
+
+   void testGet_LoadOverlappingUpdateNotStored() {
+
+     // Arrange - an update begins and commits while the first read is still loading 
+
+     Function < String, List < BatchResponse >> racingLoader = productCode -> {
+
+       cache.beginUpdate(productCode);
+
+       cache.endUpdate(productCode);
+
+       return loader.apply(productCode);
+
+     };
+
+     // Act 
+
+     cache.get("PROD-001", racingLoader);
+
+     cache.get("PROD-001", loader);
+
+     // Assert 
+
+     assertEquals(2, loads.get());
+
+     assertEquals(1, cache.stats().size());
+
+   }
+
+   @Test
+
+   void testGet_UpdateOfOtherProductDuringLoadStillStored() {
+
+     // Arrange - another product is updated while the first read is still loading 
+
+     Function < String, List < BatchResponse >> racingLoader = productCode -> {
+
+       cache.beginUpdate("PROD-002");
+
+       cache.endUpdate("PROD-002");
+
+       return loader.apply(productCode);
+
+     };
+
+     // Act 
+
+     cache.get("PROD-001", racingLoader);
+
+     cache.get("PROD-001", loader);
+
+     // Assert 
+
+     assertEquals(1, loads.get());
+
+     assertEquals(1, cache.stats().hits());
+
+   }
+
+   @Test
+
+   void testGet_LoaderFailureNotCached() {
+
+     // Act & Assert 
+
+     assertThrows(IllegalStateException.class, () -> cache.get("PROD-001", productCode -> {
+
+       throw new IllegalStateException("database down");
+
+     }));
+
+     assertEquals(0, cache.stats().size());
+
+     cache.get("PROD-001", loader);
+
+     assertEquals(1, loads.get());
+
+   }
+
+   @Test
+
+   void testConstructor_RejectsInvalidBounds() {
+
+     assertThrows(IllegalArgumentException.class, () -> new LruBatchResponseCache(0, Duration.ofSeconds(1), now::get));
+
+     assertThrows(IllegalArgumentException.class, () -> new LruBatchResponseCache(1, Duration.ZERO, now::get));
+
+   }
+
+ }
@@ -1,17 +1,46 @@
  package com.yash.inventory.controller;
 
+ import com.yash.inventory.dto.AvailabilityResponse;
+
  import com.yash.inventory.dto.BatchResponse;
 
+ import com.yash.inventory.dto.BulkInventoryUpdateRequest;
+
+ import com.yash.inventory.dto.BulkInventoryUpdateResponse;
+
  import com.yash.inventory.dto.InventoryUpdateRequest;
 
  import com.yash.inventory.dto.InventoryUpdateResponse;
 
+ import com.yash.inventory.dto.ProductInventoryResponse;
+
+ import com.yash.inventory.dto.ReservationRequest;
+
+ import com.yash.inventory.dto.ReservationResponse;
+
+ import com.yash.inventory.engine.AllocationLockManager;
+ import com.yash.inventory.engine.HotProductShards;
+
+ import com.yash.inventory.engine.LockStripedAllocationEngine;
+
  import com.yash.inventory.exception.InsufficientInventoryException;
 
  import com.yash.inventory.exception.ProductNotFoundException;
 
+ import com.yash.inventory.exception.ReservationNotFoundException;
+
  import com.yash.inventory.service.InventoryService;
 
+ import com.yash.inventory.service.ReservationService;
+
+ import com.yash.inventory.compaction.BatchCompactionJob;
+
+ import com.yash.inventory.compaction.CompactionReport;
+
+ import com.yash.inventory.ledger.LedgerHealth;
+
+ import com.yash.inventory.ledger.MovementRecorder;
+
  import com.fasterxml.jackson.databind.ObjectMapper;
 
  import org.junit.jupiter.api.BeforeEach;
@@ -24,18 +53,34 @@
 
  import org.springframework.boot.test.mock.mockito.MockBean;
 
+ import org.springframework.context.annotation.Import;
+
  import org.springframework.http.MediaType;
 
  import org.springframework.test.web.servlet.MockMvc;
 
+ import org.springframework.test.web.servlet.MvcResult;
+
+ import java.time.Instant;
+
  import java.time.LocalDate;
 
  import java.util.Arrays;
 
  import java.util.List;
 
+ import java.util.Optional;
+
+ import java.util.function.Consumer;
+
+ import static org.junit.jupiter.api.Assertions.assertEquals;
+
+ import static org.junit.jupiter.api.Assertions.assertTrue;
+
  import static org.mockito.ArgumentMatchers.any;
 
+ import static org.mockito.ArgumentMatchers.anyInt;
+
  import static org.mockito.ArgumentMatchers.anyString;
 
  import static org.mockito.Mockito.*;
@@ -46,6 +91,7 @@
  
  
  @WebMvcTest(InventoryController.class)
+ @Import({LockStripedAllocationEngine.class, AllocationLockManager.class})
  class InventoryControllerTest {
 
    @Autowired
@@ -60,6 +106,22 @@
 
    private InventoryService inventoryService;
 
+   @MockBean
+
+   private ReservationService reservationService;
+
+   @MockBean
+
+   private BatchCompactionJob compactionJob;
+
+   @MockBean
+
+   private HotProductShards hotProductShards;
+
+   @MockBean
+
+   private MovementRecorder movementRecorder;
+
    private List < BatchResponse > batchResponses;
 
    private InventoryUpdateResponse updateResponse;
@@ -158,6 +220,84 @@
 
    @Test
 
+   void testGetAvailability_Success() throws Exception {
+
+     // Arrange 
+
+     when(inventoryService.getAvailability("PROD-001"))
+
+       .thenReturn(new AvailabilityResponse("PROD-001", "Test Product", 150L));
+
+     // Act & Assert 
+
+     mockMvc.perform(get("/inventory/PROD-001/available")
+
+         .contentType(MediaType.APPLICATION_JSON))
+
+       .andExpect(status().isOk())
+
+       .andExpect(jsonPath("$.productCode").value("PROD-001"))
+
+       .andExpect(jsonPath("$.availableQuantity").value(150));
+
+     verify(inventoryService, times(1)).getAvailability("PROD-001");
+
+   }
+
+   @Test
+
+   void testGetAvailability_UnknownProduct_Returns404() throws Exception {
+
+     // Arrange 
+
+     when(inventoryService.getAvailability("MISSING"))
+
+       .thenThrow(new ProductNotFoundException("Product not found: MISSING"));
+
+     // Act & Assert 
+
+     mockMvc.perform(get("/inventory/MISSING/available")
+
+         .contentType(MediaType.APPLICATION_JSON))
+
+       .andExpect(status().isNotFound())
+
+       .andExpect(jsonPath("$.error").value("Product not found: MISSING"));
+
+   }
+
+   @Test
+
+   void testGetAvailability_MultipleProducts() throws Exception {
+
+     // Arrange 
+
+     when(inventoryService.getAvailability(List.of("PROD-001", "PROD-002"))).thenReturn(List.of(
+
+       new AvailabilityResponse("PROD-001", "Test Product", 150L),
+
+       new AvailabilityResponse("PROD-002", "Other Product", 0L)));
+
+     // Act & Assert 
+
+     mockMvc.perform(get("/inventory/available")
+
+         .param("productCodes", "PROD-001", "PROD-002")
+
+         .contentType(MediaType.APPLICATION_JSON))
+
+       .andExpect(status().isOk())
+
+       .andExpect(jsonPath("$.length()").value(2))
+
+       .andExpect(jsonPath("$[1].productCode").value("PROD-002"))
+
+       .andExpect(jsonPath("$[1].availableQuantity").value(0));
+
+   }
+
+   @Test
+
    void testUpdateInventory_Success() throws Exception {
 
      // Arrange 
@@ -260,21 +400,95 @@
 
    @Test
 
-   void testGetAllProducts_Success() throws Exception {
+   void testUpdateInventoryBatch_Success() throws Exception {
+
+     // Arrange 
+
+     InventoryUpdateRequest line = new InventoryUpdateRequest();
+
+     line.setProductCode("PROD-001");
+
+     line.setQuantity(30);
+
+     BulkInventoryUpdateRequest request = new BulkInventoryUpdateRequest(List.of(line));
+
+     when(inventoryService.updateInventoryBulk(any(BulkInventoryUpdateRequest.class)))
+
+       .thenReturn(new BulkInventoryUpdateResponse(true, "Inventory updated successfully for 1 items", List.of(updateResponse)));
+
+     // Act & Assert 
+
+     mockMvc.perform(post("/inventory/update/batch")
+
+         .contentType(MediaType.APPLICATION_JSON)
+
+         .content(objectMapper.writeValueAsString(request)))
+
+       .andExpect(status().isOk())
+
+       .andExpect(jsonPath("$.success").value(true))
+
+       .andExpect(jsonPath("$.results[0].productCode").value("PROD-001"))
+
+       .andExpect(jsonPath("$.results[0].quantityDeducted").value(30));
+
+     verify(inventoryService, times(1)).updateInventoryBulk(any(BulkInventoryUpdateRequest.class));
+
+   }
+
+   @Test
+
+   void testUpdateInventoryBatch_InvalidRequest() throws Exception {
 
      // Arrange 
 
-     when(inventoryService.getAllProducts()).thenReturn(Arrays.asList());
+     when(inventoryService.updateInventoryBulk(any(BulkInventoryUpdateRequest.class)))
+
+       .thenThrow(new IllegalArgumentException("Invalid request: at least one item is required"));
 
      // Act & Assert 
 
+     mockMvc.perform(post("/inventory/update/batch")
+
+         .contentType(MediaType.APPLICATION_JSON)
+
+         .content("{}"))
+
+       .andExpect(status().isBadRequest())
+
+       .andExpect(jsonPath("$.error").value("Invalid request: at least one item is required"));
+
+   }
+
+   @Test
+
+   void testGetAllProducts_Success() throws Exception {
+
+     // Arrange 
+
+     ProductInventoryResponse product = new ProductInventoryResponse("PROD-001", "Widget A", "Test Product");
+
+     product.setBatches(batchResponses);
+
+     when(inventoryService.getAllProducts(null, 1)).thenReturn(List.of(product));
+
+     // Act & Assert - a full page carries the cursor for the next one 
+
      mockMvc.perform(get("/inventory/products")
 
-         .contentType(MediaType.APPLICATION_JSON))
+         .param("limit", "1")
+
+         .accept(MediaType.APPLICATION_JSON))
+
+       .andExpect(status().isOk())
+
+       .andExpect(header().string("X-Next-After", "PROD-001"))
 
-       .andExpect(status().isOk());
+       .andExpect(jsonPath("$[0].productCode").value("PROD-001"))
 
-     verify(inventoryService, times(1)).getAllProducts();
+       .andExpect(jsonPath("$[0].batches[0].batchNumber").value("BATCH-001"));
+
+     verify(inventoryService, times(1)).getAllProducts(null, 1);
 
    }
 
@@ -284,22 +498,252 @@
 
      // Arrange 
 
-     when(inventoryService.getAllProducts()).thenReturn(Arrays.asList());
+     when(inventoryService.getAllProducts("PROD-999", 100)).thenReturn(Arrays.asList());
 
      // Act & Assert 
 
      mockMvc.perform(get("/inventory/products")
 
+         .param("after", "PROD-999")
+
          .contentType(MediaType.APPLICATION_JSON))
 
        .andExpect(status().isOk())
 
+       .andExpect(header().doesNotExist("X-Next-After"))
+
        .andExpect(jsonPath("$").isArray())
 
        .andExpect(jsonPath("$").isEmpty());
 
-     verify(inventoryService, times(1)).getAllProducts();
+     verify(inventoryService, times(1)).getAllProducts("PROD-999", 100);
+
+   }
+
+   @Test
+
+   void testGetAllProducts_InvalidLimit_Returns400() throws Exception {
+
+     // Arrange 
+
+     when(inventoryService.getAllProducts(null, 0))
+
+       .thenThrow(new IllegalArgumentException("Invalid request: limit must be between 1 and 1000"));
+
+     // Act & Assert 
+
+     mockMvc.perform(get("/inventory/products")
+
+         .param("limit", "0"))
+
+       .andExpect(status().isBadRequest());
+
+   }
+
+   @Test
+
+   void testStreamAllProducts_Ndjson() throws Exception {
+
+     // Arrange 
+
+     doAnswer(invocation -> {
+
+       Consumer < ProductInventoryResponse > sink = invocation.getArgument(0);
+
+       sink.accept(new ProductInventoryResponse("PROD-001", "Widget A", null));
+
+       sink.accept(new ProductInventoryResponse("PROD-002", "Widget B", null));
+
+       return null;
+
+     }).when(inventoryService).streamAllProducts(any());
+
+     // Act 
+
+     MvcResult asyncResult = mockMvc.perform(get("/inventory/products")
+
+         .accept("application/x-ndjson"))
+
+       .andExpect(request().asyncStarted())
+
+       .andReturn();
+
+     // Assert 
+
+     String body = mockMvc.perform(asyncDispatch(asyncResult))
+
+       .andExpect(status().isOk())
+
+       .andExpect(content().contentType("application/x-ndjson"))
+
+       .andReturn().getResponse().getContentAsString();
+
+     String[] lines = body.split("\n");
+
+     assertEquals(2, lines.length);
+
+     assertTrue(lines[0].contains("\"productCode\":\"PROD-001\""));
+
+     assertTrue(lines[1].contains("\"productCode\":\"PROD-002\""));
+
+     verify(inventoryService, never()).getAllProducts(any(), anyInt());
+
+   }
+
+   @Test
+
+   void testReserve_Created() throws Exception {
+
+     // Arrange 
+
+     ReservationRequest request = new ReservationRequest(List.of(new InventoryUpdateRequest("PROD-001", 10, null)), 60L);
+
+     when(reservationService.reserve(any(ReservationRequest.class))).thenReturn(
+
+       new ReservationResponse("res-1", "HELD", Instant.now().plusSeconds(60), List.of(updateResponse)));
+
+     // Act & Assert 
+
+     mockMvc.perform(post("/inventory/reserve")
+
+         .contentType(MediaType.APPLICATION_JSON)
+
+         .content(objectMapper.writeValueAsString(request)))
+
+       .andExpect(status().isCreated())
+
+       .andExpect(jsonPath("$.reservationId").value("res-1"))
+
+       .andExpect(jsonPath("$.status").value("HELD"));
+
+   }
+
+   @Test
+
+   void testConfirmReservation_NotFound_Returns404() throws Exception {
+
+     // Arrange 
+
+     when(reservationService.getProductCodes("missing"))
+
+       .thenThrow(new ReservationNotFoundException("Reservation not found: missing"));
+
+     // Act & Assert 
+
+     mockMvc.perform(post("/inventory/reservations/missing/confirm"))
+
+       .andExpect(status().isNotFound())
+
+       .andExpect(jsonPath("$.error").value("Reservation not found: missing"));
+
+   }
+
+   @Test
+
+   void testReleaseReservation_AlreadyConfirmed_Returns409() throws Exception {
+
+     // Arrange 
+
+     when(reservationService.getProductCodes("res-1")).thenReturn(List.of("PROD-001"));
+
+     when(reservationService.release("res-1")).thenThrow(new IllegalStateException("Reservation res-1 is already CONFIRMED"));
+
+     // Act & Assert 
+
+     mockMvc.perform(post("/inventory/reservations/res-1/release"))
+
+       .andExpect(status().isConflict());
+
+   }
+
+   @Test
+
+   void testRunCompaction_ReturnsReport() throws Exception {
+
+     // Arrange 
+
+     when(compactionJob.compact()).thenReturn(Optional.of(new CompactionReport(1200, 3, 85, Instant.now())));
+
+     // Act & Assert 
+
+     mockMvc.perform(post("/inventory/compaction/run"))
+
+       .andExpect(status().isOk())
+
+       .andExpect(jsonPath("$.archivedRows").value(1200))
+
+       .andExpect(jsonPath("$.chunks").value(3));
+
+   }
+
+   @Test
+
+   void testRunCompaction_AlreadyRunning_Returns409() throws Exception {
+
+     // Arrange 
+
+     when(compactionJob.compact()).thenReturn(Optional.empty());
+
+     // Act & Assert 
+
+     mockMvc.perform(post("/inventory/compaction/run"))
+
+       .andExpect(status().isConflict());
+
+   }
+
+   @Test
+
+   void testGetLedgerHealth_Healthy_Returns200() throws Exception {
+
+     // Arrange 
+
+     when(movementRecorder.getHealth()).thenReturn(new LedgerHealth(true, true, 120, 0, 0));
+
+     // Act & Assert 
+
+     mockMvc.perform(get("/inventory/ledger/health"))
+
+       .andExpect(status().isOk())
+
+       .andExpect(jsonPath("$.movements").value(120));
+
+   }
+
+   @Test
+
+   void testGetLedgerHealth_FailedAppend_Returns503() throws Exception {
+
+     // Arrange 
+
+     when(movementRecorder.getHealth()).thenReturn(new LedgerHealth(true, false, 120, 2, 0));
+
+     // Act & Assert 
+
+     mockMvc.perform(get("/inventory/ledger/health"))
+
+       .andExpect(status().isServiceUnavailable())
+
+       .andExpect(jsonPath("$.failedAppends").value(2));
+
+   }
+
+   @Test
+
+   void testGetLedgerHealth_DriftedBatches_Returns503() throws Exception {
+
+     // Arrange 
+
+     when(movementRecorder.getHealth()).thenReturn(new LedgerHealth(true, false, 120, 0, 3));
+
+     // Act & Assert 
+
+     mockMvc.perform(get("/inventory/ledger/health"))
+
+       .andExpect(status().isServiceUnavailable())
+
+       .andExpect(jsonPath("$.driftedBatches").value(3));
 
    }
 
- }
\ No newline at end of file
+ }
@@ -0,0 +1,85 @@
+ package com.yash.inventory.engine;
+
+ import java.util.Collections;
+ import java.util.List;
+ import java.util.concurrent.locks.ReentrantLock;
+
+ import org.junit.jupiter.api.Test;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ class AllocationLockManagerTest {
+
+   @Test
+
+   void testStripeCount_RoundedUpToPowerOfTwo() {
+
+     assertEquals(128, new AllocationLockManager(100).getStripeCount());
+
+     assertEquals(64, new AllocationLockManager(64).getStripeCount());
+
+   }
+
+   @Test
+
+   void testInvalidStripeCount() {
+
+     assertThrows(IllegalArgumentException.class, () -> new AllocationLockManager(0));
+
+   }
+
+   @Test
+
+   void testSameProduct_SameLock() {
+
+     AllocationLockManager lockManager = new AllocationLockManager(16);
+
+     assertSame(lockManager.lockFor("PROD-001"), lockManager.lockFor(new String("PROD-001")));
+
+   }
+
+   @Test
+
+   void testProducts_SpreadAcrossStripes() {
+
+     AllocationLockManager lockManager = new AllocationLockManager(16);
+
+     long usedStripes = java.util.stream.IntStream.range(0, 200)
+
+       .map(i -> lockManager.stripeFor("PROD-" + i))
+
+       .distinct()
+
+       .count();
+
+     assertEquals(16, usedStripes);
+
+   }
+
+   @Test
+
+   void testLocksFor_DistinctAndInStripeOrder() {
+
+     AllocationLockManager lockManager = new AllocationLockManager(16);
+
+     List < String > productCodes = java.util.stream.IntStream.range(0, 200)
+
+       .mapToObj(i -> "PROD-" + i)
+
+       .collect(java.util.stream.Collectors.toList());
+
+     productCodes.add(null);
+
+     List < ReentrantLock > forward = lockManager.locksFor(productCodes);
+
+     Collections.reverse(productCodes);
+
+     List < ReentrantLock > backward = lockManager.locksFor(productCodes);
+
+     assertEquals(16, forward.size());
+
+     assertEquals(forward, backward);
+
+   }
+
+ }
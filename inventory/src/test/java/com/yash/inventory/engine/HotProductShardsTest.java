@@ -0,0 +1,60 @@
+ package com.yash.inventory.engine;
+
+ import java.util.List;
+ import java.util.concurrent.locks.ReentrantLock;
+
+ import org.junit.jupiter.api.Test;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ class HotProductShardsTest {
+
+   @Test
+
+   void testHotProducts_ParsedFromCommaList() {
+
+     HotProductShards shards = new HotProductShards(" HOT-001, HOT-002 ,", 4);
+
+     assertTrue(shards.isHot("HOT-001"));
+
+     assertTrue(shards.isHot("HOT-002"));
+
+     assertFalse(shards.isHot("PROD-001"));
+
+     assertFalse(shards.isHot(null));
+
+   }
+
+   @Test
+
+   void testShardCount_DefaultsToProcessors() {
+
+     HotProductShards shards = new HotProductShards("", 0);
+
+     assertEquals(Runtime.getRuntime().availableProcessors(), shards.getShardCount());
+
+   }
+
+   @Test
+
+   void testInvalidShardCount() {
+
+     assertThrows(IllegalArgumentException.class, () -> new HotProductShards("", -1));
+
+   }
+
+   @Test
+
+   void testAllLocksFor_OnlyHotProductsInCodeOrder() {
+
+     HotProductShards shards = new HotProductShards("HOT-001,HOT-002", 2);
+
+     List < ReentrantLock > locks = shards.allLocksFor(List.of("HOT-002", "PROD-001", "HOT-001"));
+
+     assertEquals(List.of(shards.lockFor("HOT-001", 0), shards.lockFor("HOT-001", 1),
+
+       shards.lockFor("HOT-002", 0), shards.lockFor("HOT-002", 1)), locks);
+
+   }
+
+ }
@@ -0,0 +1,185 @@
+ package com.yash.inventory.engine;
+
+ import org.junit.jupiter.api.Test;
+ import org.junit.jupiter.api.extension.ExtendWith;
+ import org.mockito.Mock;
+ import org.mockito.junit.jupiter.MockitoExtension;
+ import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+ import com.yash.inventory.dto.InventoryUpdateRequest;
+ import com.yash.inventory.dto.InventoryUpdateResponse;
+ import com.yash.inventory.entity.Batch;
+ import com.yash.inventory.exception.InsufficientInventoryException;
+ import com.yash.inventory.service.BatchShard;
+ import com.yash.inventory.service.InventoryService;
+ import com.yash.inventory.service.ReservationService;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ import static org.mockito.Mockito.*;
+
+ @ExtendWith(MockitoExtension.class)
+
+ class LockStripedAllocationEngineTest {
+
+   @Mock
+
+   private InventoryService inventoryService;
+
+   @Mock
+
+   private ReservationService reservationService;
+
+   private HotProductShards noHotProducts() {
+
+     return new HotProductShards("", 4);
+
+   }
+
+   @Test
+
+   void testAllocate_RetriesConcurrencyConflicts() {
+
+     // Arrange
+
+     LockStripedAllocationEngine engine = new LockStripedAllocationEngine(inventoryService, reservationService,
+
+       new AllocationLockManager(16), noHotProducts(), false, 3);
+
+     InventoryUpdateRequest request = new InventoryUpdateRequest("PROD-001", 5, null);
+
+     InventoryUpdateResponse response = new InventoryUpdateResponse();
+
+     when(inventoryService.updateInventory(request))
+
+       .thenThrow(new ObjectOptimisticLockingFailureException(Batch.class, 1L))
+
+       .thenThrow(new ObjectOptimisticLockingFailureException(Batch.class, 1L))
+
+       .thenReturn(response);
+
+     // Act
+
+     InventoryUpdateResponse result = engine.allocate(request);
+
+     // Assert
+
+     assertSame(response, result);
+
+     assertEquals(2, engine.getConflictCount());
+
+     verify(inventoryService, times(3)).updateInventory(request);
+
+   }
+
+   @Test
+
+   void testAllocate_GivesUpAfterMaxAttempts() {
+
+     // Arrange
+
+     LockStripedAllocationEngine engine = new LockStripedAllocationEngine(inventoryService, reservationService,
+
+       new AllocationLockManager(16), noHotProducts(), true, 2);
+
+     InventoryUpdateRequest request = new InventoryUpdateRequest("PROD-001", 5, null);
+
+     when(inventoryService.updateInventory(request)).thenThrow(new ObjectOptimisticLockingFailureException(Batch.class, 1L));
+
+     // Act & Assert
+
+     assertThrows(ObjectOptimisticLockingFailureException.class, () -> engine.allocate(request));
+
+     assertEquals(2, engine.getConflictCount());
+
+     verify(inventoryService, times(2)).updateInventory(request);
+
+   }
+
+   @Test
+
+   void testInvalidMaxAttempts() {
+
+     assertThrows(IllegalArgumentException.class, () -> new LockStripedAllocationEngine(inventoryService,
+
+       reservationService, new AllocationLockManager(16), noHotProducts(), true, 0));
+
+   }
+
+   @Test
+
+   void testAllocate_HotProduct_StealsFromNextShard() {
+
+     // Arrange - the home shard runs dry, the next one covers the line 
+
+     HotProductShards hotProducts = new HotProductShards("HOT-001", 4);
+
+     LockStripedAllocationEngine engine = new LockStripedAllocationEngine(inventoryService, reservationService,
+
+       new AllocationLockManager(16), hotProducts, true, 3);
+
+     InventoryUpdateRequest request = new InventoryUpdateRequest("HOT-001", 5, null);
+
+     InventoryUpdateResponse response = new InventoryUpdateResponse();
+
+     when(inventoryService.updateInventory(eq(request), any(BatchShard.class)))
+
+       .thenThrow(new InsufficientInventoryException("No inventory available for product: HOT-001"))
+
+       .thenReturn(response);
+
+     // Act 
+
+     InventoryUpdateResponse result = engine.allocate(request);
+
+     // Assert 
+
+     assertSame(response, result);
+
+     int home = hotProducts.homeShard();
+
+     verify(inventoryService).updateInventory(request, new BatchShard(home, 4));
+
+     verify(inventoryService).updateInventory(request, new BatchShard((home + 1) % 4, 4));
+
+     verify(inventoryService, never()).updateInventory(request);
+
+   }
+
+   @Test
+
+   void testAllocate_HotProduct_NoShardCovers_AllocatesAcrossWholeProduct() {
+
+     // Arrange 
+
+     HotProductShards hotProducts = new HotProductShards("HOT-001", 4);
+
+     LockStripedAllocationEngine engine = new LockStripedAllocationEngine(inventoryService, reservationService,
+
+       new AllocationLockManager(16), hotProducts, true, 3);
+
+     InventoryUpdateRequest request = new InventoryUpdateRequest("HOT-001", 500, null);
+
+     InventoryUpdateResponse response = new InventoryUpdateResponse();
+
+     when(inventoryService.updateInventory(eq(request), any(BatchShard.class)))
+
+       .thenThrow(new InsufficientInventoryException("No inventory available for product: HOT-001"));
+
+     when(inventoryService.updateInventory(request)).thenReturn(response);
+
+     // Act 
+
+     InventoryUpdateResponse result = engine.allocate(request);
+
+     // Assert 
+
+     assertSame(response, result);
+
+     verify(inventoryService, times(4)).updateInventory(eq(request), any(BatchShard.class));
+
+     verify(inventoryService).updateInventory(request);
+
+   }
+
+ }
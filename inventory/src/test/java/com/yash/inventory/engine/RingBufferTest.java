@@ -0,0 +1,147 @@
+ package com.yash.inventory.engine;
+
+ import java.util.ArrayList;
+ import java.util.List;
+ import java.util.concurrent.ExecutorService;
+ import java.util.concurrent.Executors;
+ import java.util.concurrent.Future;
+
+ import org.junit.jupiter.api.Test;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ class RingBufferTest {
+
+   private static final class Entry {
+
+     private long value;
+
+   }
+
+   @Test
+
+   void testInvalidSize() {
+
+     assertThrows(IllegalArgumentException.class, () -> new RingBuffer < > (0, Entry::new));
+
+     assertThrows(IllegalArgumentException.class, () -> new RingBuffer < > (6, Entry::new));
+
+   }
+
+   @Test
+
+   void testEntriesPreAllocatedAndReused() {
+
+     RingBuffer < Entry > ring = new RingBuffer < > (4, Entry::new);
+
+     Entry first = ring.get(0);
+
+     assertSame(first, ring.get(4));
+
+     assertNotSame(first, ring.get(1));
+
+   }
+
+   @Test
+
+   void testUnpublishedSequence_NotAvailable() {
+
+     // Arrange
+
+     RingBuffer < Entry > ring = new RingBuffer < > (8, Entry::new);
+
+     long first = ring.next();
+
+     long second = ring.next();
+
+     // Act - the second producer finishes first
+
+     ring.publish(second);
+
+     long beforeFirst = ring.availableFrom(0, 8);
+
+     ring.publish(first);
+
+     long afterFirst = ring.availableFrom(0, 8);
+
+     // Assert
+
+     assertEquals(0, beforeFirst);
+
+     assertEquals(2, afterFirst);
+
+     assertEquals(1, ring.availableFrom(0, 1));
+
+   }
+
+   @Test
+
+   void testManyProducers_ConsumerSeesEveryEntryOnce() throws Exception {
+
+     // Arrange - a small ring forces producers to wait for the consumer many times over
+
+     int producers = 8;
+
+     int perProducer = 20_000;
+
+     RingBuffer < Entry > ring = new RingBuffer < > (64, Entry::new);
+
+     ExecutorService executor = Executors.newFixedThreadPool(producers);
+
+     List < Future < ? >> running = new ArrayList < > ();
+
+     // Act
+
+     for (int p = 0; p < producers; p++) {
+
+       running.add(executor.submit(() -> {
+
+         for (int i = 1; i <= perProducer; i++) {
+
+           long sequence = ring.next();
+
+           ring.get(sequence).value = i;
+
+           ring.publish(sequence);
+
+         }
+
+       }));
+
+     }
+
+     long consumed = 0;
+
+     long sum = 0;
+
+     while (consumed < (long) producers * perProducer) {
+
+       long end = ring.availableFrom(consumed, 16);
+
+       for (long sequence = consumed; sequence < end; sequence++) {
+
+         sum += ring.get(sequence).value;
+
+       }
+
+       ring.release(end);
+
+       consumed = end;
+
+     }
+
+     for (Future < ? > producer: running) {
+
+       producer.get();
+
+     }
+
+     executor.shutdown();
+
+     // Assert
+
+     assertEquals((long) producers * perProducer * (perProducer + 1) / 2, sum);
+
+   }
+
+ }
@@ -0,0 +1,439 @@
+ package com.yash.inventory.engine;
+
+ import java.util.ArrayList;
+ import java.util.List;
+ import java.util.concurrent.CopyOnWriteArrayList;
+ import java.util.concurrent.CompletableFuture;
+ import java.util.concurrent.CountDownLatch;
+ import java.util.concurrent.ExecutionException;
+ import java.util.concurrent.TimeUnit;
+
+ import org.junit.jupiter.api.AfterEach;
+ import org.junit.jupiter.api.Test;
+ import org.junit.jupiter.api.extension.ExtendWith;
+ import org.mockito.Mock;
+ import org.mockito.junit.jupiter.MockitoExtension;
+
+ import com.yash.inventory.dto.InventoryUpdateRequest;
+ import com.yash.inventory.dto.InventoryUpdateResponse;
+ import com.yash.inventory.exception.InsufficientInventoryException;
+ import com.yash.inventory.exception.ProductNotFoundException;
+ import com.yash.inventory.service.InventoryService;
+ import com.yash.inventory.service.LineOutcome;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ import static org.mockito.ArgumentMatchers.anyList;
+ import static org.mockito.Mockito.*;
+
+ @ExtendWith(MockitoExtension.class)
+
+ class SingleWriterAllocationEngineTest {
+
+   @Mock
+
+   private InventoryService inventoryService;
+
+   @Mock
+
+   private LockStripedAllocationEngine lockingEngine;
+
+   private SingleWriterAllocationEngine engine;
+
+   @AfterEach
+
+   void tearDown() throws InterruptedException {
+
+     if (engine != null) {
+
+       engine.shutdown();
+
+     }
+
+   }
+
+   @Test
+
+   void testInvalidSettings() {
+
+     assertThrows(IllegalArgumentException.class, () -> new SingleWriterAllocationEngine(inventoryService, lockingEngine,
+
+       0, 64, 16, 0, 10_000));
+
+     assertThrows(IllegalArgumentException.class, () -> new SingleWriterAllocationEngine(inventoryService, lockingEngine,
+
+       1, 64, 16, -1, 10_000));
+
+     assertThrows(IllegalArgumentException.class, () -> new SingleWriterAllocationEngine(inventoryService, lockingEngine,
+
+       1, 64, 16, 0, 0));
+
+   }
+
+   @Test
+
+   void testAllocateAsync_CompletesWithGroupOutcome() throws Exception {
+
+     // Arrange
+
+     engine = new SingleWriterAllocationEngine(inventoryService, lockingEngine, 2, 64, 16, 0, 10_000);
+
+     InventoryUpdateRequest request = new InventoryUpdateRequest("PROD-001", 5, null);
+
+     InventoryUpdateResponse response = new InventoryUpdateResponse();
+
+     when(inventoryService.updateInventoryGroup(List.of(request))).thenReturn(List.of(LineOutcome.succeeded(response)));
+
+     // Act
+
+     InventoryUpdateResponse result = engine.allocateAsync(request).get(10, TimeUnit.SECONDS);
+
+     // Assert
+
+     assertSame(response, result);
+
+     assertEquals(1, engine.getGroupCommitCount());
+
+     assertEquals(1, engine.getCommittedLineCount());
+
+   }
+
+   @Test
+
+   void testAllocate_RethrowsLineFailure() {
+
+     // Arrange
+
+     engine = new SingleWriterAllocationEngine(inventoryService, lockingEngine, 1, 64, 16, 0, 10_000);
+
+     InventoryUpdateRequest request = new InventoryUpdateRequest("PROD-404", 5, null);
+
+     when(inventoryService.updateInventoryGroup(List.of(request)))
+
+       .thenReturn(List.of(LineOutcome.failed(new ProductNotFoundException("Product not found: PROD-404"))));
+
+     // Act & Assert
+
+     assertThrows(ProductNotFoundException.class, () -> engine.allocate(request));
+
+   }
+
+   @Test
+
+   void testAllocateAsync_RolledBackGroupRetriedThroughLockingEngine() throws Exception {
+
+     // Arrange
+
+     engine = new SingleWriterAllocationEngine(inventoryService, lockingEngine, 1, 64, 16, 0, 10_000);
+
+     InventoryUpdateRequest request = new InventoryUpdateRequest("PROD-001", 5, null);
+
+     InventoryUpdateResponse response = new InventoryUpdateResponse();
+
+     when(inventoryService.updateInventoryGroup(anyList()))
+
+       .thenThrow(new InsufficientInventoryException("Batch BATCH-001 no longer holds 5 units"));
+
+     when(lockingEngine.allocate(request)).thenReturn(response);
+
+     // Act
+
+     InventoryUpdateResponse result = engine.allocateAsync(request).get(10, TimeUnit.SECONDS);
+
+     // Assert
+
+     assertSame(response, result);
+
+     assertEquals(0, engine.getGroupCommitCount());
+
+   }
+
+   @Test
+
+   void testAllocateAsync_AfterShutdown_Fails() throws Exception {
+
+     // Arrange
+
+     engine = new SingleWriterAllocationEngine(inventoryService, lockingEngine, 1, 64, 16, 0, 10_000);
+
+     engine.shutdown();
+
+     // Act
+
+     CompletableFuture < InventoryUpdateResponse > future = engine.allocateAsync(new InventoryUpdateRequest("PROD-001", 5, null));
+
+     // Assert
+
+     ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+
+     assertInstanceOf(IllegalStateException.class, exception.getCause());
+
+     verifyNoInteractions(inventoryService);
+
+   }
+
+   @Test
+
+   void testAllocate_QueuedPastTimeout_AbandonedAndNeverApplied() throws Exception {
+
+     // Arrange - the worker is stuck committing a first update while the second waits in the ring
+
+     engine = new SingleWriterAllocationEngine(inventoryService, lockingEngine, 1, 64, 16, 0, 100);
+
+     InventoryUpdateRequest first = new InventoryUpdateRequest("PROD-001", 1, null);
+
+     InventoryUpdateRequest queued = new InventoryUpdateRequest("PROD-001", 2, null);
+
+     CountDownLatch committing = new CountDownLatch(1);
+
+     CountDownLatch release = new CountDownLatch(1);
+
+     when(inventoryService.updateInventoryGroup(List.of(first))).thenAnswer(invocation -> {
+
+       committing.countDown();
+
+       release.await(10, TimeUnit.SECONDS);
+
+       return List.of(LineOutcome.succeeded(new InventoryUpdateResponse()));
+
+     });
+
+     CompletableFuture < InventoryUpdateResponse > firstResult = engine.allocateAsync(first);
+
+     assertTrue(committing.await(10, TimeUnit.SECONDS));
+
+     // Act
+
+     IllegalStateException exception;
+
+     try {
+
+       exception = assertThrows(IllegalStateException.class, () -> engine.allocate(queued));
+
+     } finally {
+
+       release.countDown();
+
+     }
+
+     firstResult.get(10, TimeUnit.SECONDS);
+
+     engine.shutdown();
+
+     // Assert - the abandoned update never reached a group
+
+     assertTrue(exception.getMessage().contains("did not complete within 100 ms"));
+
+     verify(inventoryService, never()).updateInventoryGroup(List.of(queued));
+
+     verifyNoInteractions(lockingEngine);
+
+   }
+
+   @Test
+
+   void testAllocate_ClaimedPastTimeout_WaitsForGroupOutcome() {
+
+     // Arrange - the group commit outlasts the caller's timeout
+
+     engine = new SingleWriterAllocationEngine(inventoryService, lockingEngine, 1, 64, 16, 0, 50);
+
+     InventoryUpdateRequest request = new InventoryUpdateRequest("PROD-001", 5, null);
+
+     InventoryUpdateResponse response = new InventoryUpdateResponse();
+
+     when(inventoryService.updateInventoryGroup(List.of(request))).thenAnswer(invocation -> {
+
+       Thread.sleep(300);
+
+       return List.of(LineOutcome.succeeded(response));
+
+     });
+
+     // Act
+
+     InventoryUpdateResponse result = engine.allocate(request);
+
+     // Assert - the applied deduction is reported, not hidden behind a timeout
+
+     assertSame(response, result);
+
+   }
+
+   @Test
+
+   void testAllocateAsync_ErrorFailsOnlyItsUpdate_WorkerKeepsServing() throws Exception {
+
+     // Arrange
+
+     engine = new SingleWriterAllocationEngine(inventoryService, lockingEngine, 1, 64, 16, 0, 10_000);
+
+     InventoryUpdateRequest broken = new InventoryUpdateRequest("PROD-001", 5, null);
+
+     InventoryUpdateRequest next = new InventoryUpdateRequest("PROD-001", 6, null);
+
+     InventoryUpdateResponse response = new InventoryUpdateResponse();
+
+     when(inventoryService.updateInventoryGroup(List.of(broken))).thenThrow(new AssertionError("corrupt row"));
+
+     when(lockingEngine.allocate(broken)).thenThrow(new AssertionError("corrupt row"));
+
+     when(inventoryService.updateInventoryGroup(List.of(next))).thenReturn(List.of(LineOutcome.succeeded(response)));
+
+     // Act
+
+     CompletableFuture < InventoryUpdateResponse > failed = engine.allocateAsync(broken);
+
+     ExecutionException exception = assertThrows(ExecutionException.class, () -> failed.get(10, TimeUnit.SECONDS));
+
+     InventoryUpdateResponse result = engine.allocateAsync(next).get(10, TimeUnit.SECONDS);
+
+     // Assert
+
+     assertInstanceOf(AssertionError.class, exception.getCause());
+
+     assertSame(response, result);
+
+   }
+
+   @Test
+
+   void testShutdown_UpdatesSubmittedMeanwhileAllComplete() throws Exception {
+
+     // Arrange
+
+     engine = new SingleWriterAllocationEngine(inventoryService, lockingEngine, 1, 64, 16, 0, 10_000);
+
+     lenient().when(inventoryService.updateInventoryGroup(anyList()))
+
+       .thenAnswer(invocation -> invocation.getArgument(0, List.class).stream()
+
+         .map(request -> LineOutcome.succeeded(new InventoryUpdateResponse())).toList());
+
+     List < CompletableFuture < InventoryUpdateResponse >> futures = new CopyOnWriteArrayList < > ();
+
+     List < Thread > producers = new ArrayList < > ();
+
+     for (int i = 0; i < 4; i++) {
+
+       Thread producer = new Thread(() -> {
+
+         for (int j = 0; j < 500; j++) {
+
+           futures.add(engine.allocateAsync(new InventoryUpdateRequest("PROD-001", 1, null)));
+
+         }
+
+       });
+
+       producer.start();
+
+       producers.add(producer);
+
+     }
+
+     // Act
+
+     engine.shutdown();
+
+     for (Thread producer: producers) {
+
+       producer.join(TimeUnit.SECONDS.toMillis(10));
+
+     }
+
+     // Assert - each update was either committed or failed, none left waiting
+
+     for (CompletableFuture < InventoryUpdateResponse > future: futures) {
+
+       assertTrue(future.isDone());
+
+     }
+
+   }
+
+   @Test
+
+   void testWriteBehind_UpdatesWithinFlushIntervalShareOneCommit() throws Exception {
+
+     // Arrange
+
+     engine = new SingleWriterAllocationEngine(inventoryService, lockingEngine, 1, 64, 16, 500, 10_000);
+
+     List < Integer > groupSizes = stubGroupCommits();
+
+     // Act
+
+     List < CompletableFuture < InventoryUpdateResponse >> futures = List.of(
+
+       engine.allocateAsync(new InventoryUpdateRequest("PROD-001", 1, null)),
+
+       engine.allocateAsync(new InventoryUpdateRequest("PROD-001", 2, null)),
+
+       engine.allocateAsync(new InventoryUpdateRequest("PROD-001", 3, null)));
+
+     for (CompletableFuture < InventoryUpdateResponse > future: futures) {
+
+       future.get(10, TimeUnit.SECONDS);
+
+     }
+
+     // Assert
+
+     assertEquals(List.of(3), groupSizes);
+
+     assertEquals(1, engine.getGroupCommitCount());
+
+   }
+
+   @Test
+
+   void testWriteBehind_FullGroupCommitsBeforeFlushInterval() throws Exception {
+
+     // Arrange - the interval is far longer than the wait below
+
+     engine = new SingleWriterAllocationEngine(inventoryService, lockingEngine, 1, 64, 2, 60_000, 10_000);
+
+     List < Integer > groupSizes = stubGroupCommits();
+
+     // Act
+
+     CompletableFuture < InventoryUpdateResponse > first = engine.allocateAsync(new InventoryUpdateRequest("PROD-001", 1, null));
+
+     CompletableFuture < InventoryUpdateResponse > second = engine.allocateAsync(new InventoryUpdateRequest("PROD-001", 2, null));
+
+     second.get(10, TimeUnit.SECONDS);
+
+     // Assert - acknowledged only once their group committed
+
+     assertTrue(first.isDone());
+
+     assertEquals(List.of(2), groupSizes);
+
+   }
+
+   /**
+
+    * Make every group commit succeed, recording each group's size at the time it committed
+
+    */
+
+   private List < Integer > stubGroupCommits() {
+
+     List < Integer > groupSizes = new CopyOnWriteArrayList < > ();
+
+     when(inventoryService.updateInventoryGroup(anyList())).thenAnswer(invocation -> {
+
+       List < InventoryUpdateRequest > requests = invocation.getArgument(0);
+
+       groupSizes.add(requests.size());
+
+       return requests.stream().map(request -> LineOutcome.succeeded(new InventoryUpdateResponse())).toList();
+
+     });
+
+     return groupSizes;
+
+   }
+
+ }
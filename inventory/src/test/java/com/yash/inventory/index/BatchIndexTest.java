@@ -0,0 +1,259 @@
+ package com.yash.inventory.index;
+
+ import com.yash.inventory.entity.Batch;
+
+ import com.yash.inventory.entity.Product;
+
+ import com.yash.inventory.repository.BatchRepository;
+
+ import com.yash.inventory.repository.ProductRepository;
+
+ import com.yash.inventory.strategy.BatchOrder;
+
+ import org.junit.jupiter.api.BeforeEach;
+
+ import org.junit.jupiter.api.Test;
+
+ import org.junit.jupiter.api.extension.ExtendWith;
+
+ import org.mockito.Mock;
+
+ import org.mockito.junit.jupiter.MockitoExtension;
+
+ import java.time.LocalDate;
+
+ import java.util.Arrays;
+
+ import java.util.List;
+
+ import java.util.concurrent.atomic.AtomicReference;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ import static org.mockito.Mockito.when;
+
+ @ExtendWith(MockitoExtension.class)
+
+ class BatchIndexTest {
+
+   @Mock
+
+   private ProductRepository productRepository;
+
+   @Mock
+
+   private BatchRepository batchRepository;
+
+   private BatchIndex batchIndex;
+
+   private Product product;
+
+   @BeforeEach
+
+   void setUp() {
+
+     batchIndex = new BatchIndex(productRepository, batchRepository);
+
+     product = new Product();
+
+     product.setId(1L);
+
+     product.setProductCode("PROD-001");
+
+     product.setName("Widget A");
+
+   }
+
+   private Batch batch(Long id, int quantity, int expiresInDays, int receivedDaysAgo) {
+
+     return new Batch(id, "BATCH-00" + id, product, quantity,
+
+       LocalDate.now().plusDays(expiresInDays), LocalDate.now().minusDays(receivedDaysAgo));
+
+   }
+
+   @Test
+
+   void testReload_IndexesLiveBatchesInBothOrders() {
+
+     // Arrange 
+
+     when(productRepository.findAll()).thenReturn(List.of(product));
+
+     when(batchRepository.findLiveBatches(LocalDate.now())).thenReturn(Arrays.asList(
+
+       batch(1L, 10, 30, 1),
+
+       batch(2L, 20, 10, 5),
+
+       batch(3L, 0, 5, 9)));
+
+     // Act 
+
+     batchIndex.reload();
+
+     // Assert - the depleted batch is not indexed 
+
+     BatchIndex.ProductBatches indexed = batchIndex.getProduct("PROD-001").orElseThrow();
+
+     List < Batch > byExpiry = indexed.getBatches(BatchOrder.EXPIRY_DATE);
+
+     List < Batch > byReceived = indexed.getBatches(BatchOrder.RECEIVED_DATE);
+
+     assertEquals(2, byExpiry.size());
+
+     assertEquals("BATCH-002", byExpiry.get(0).getBatchNumber());
+
+     assertEquals("BATCH-001", byExpiry.get(1).getBatchNumber());
+
+     assertEquals("BATCH-002", byReceived.get(0).getBatchNumber());
+
+     assertEquals("Widget A", indexed.getProductName());
+
+   }
+
+   @Test
+
+   void testOnBatchSaved_ReplacesExistingSnapshot() {
+
+     // Arrange 
+
+     Batch batch = batch(1L, 10, 30, 1);
+
+     batchIndex.onProductSaved(product);
+
+     batchIndex.onBatchSaved(batch);
+
+     // Act 
+
+     batch.setQuantity(4);
+
+     batchIndex.onBatchSaved(batch);
+
+     // Assert 
+
+     List < Batch > indexed = batchIndex.getProduct("PROD-001").orElseThrow().getBatches(BatchOrder.EXPIRY_DATE);
+
+     assertEquals(1, indexed.size());
+
+     assertEquals(4, indexed.get(0).getQuantity());
+
+   }
+
+   @Test
+
+   void testOnBatchSaved_DepletedBatchLeavesIndex() {
+
+     // Arrange 
+
+     Batch batch = batch(1L, 10, 30, 1);
+
+     batchIndex.onProductSaved(product);
+
+     batchIndex.onBatchSaved(batch);
+
+     // Act 
+
+     batch.setQuantity(0);
+
+     batchIndex.onBatchSaved(batch);
+
+     // Assert 
+
+     assertTrue(batchIndex.getProduct("PROD-001").orElseThrow().getBatches(BatchOrder.EXPIRY_DATE).isEmpty());
+
+   }
+
+   @Test
+
+   void testSnapshotsAreDetachedFromEntities() {
+
+     // Arrange 
+
+     Batch batch = batch(1L, 10, 30, 1);
+
+     batchIndex.onProductSaved(product);
+
+     batchIndex.onBatchSaved(batch);
+
+     // Act - an unsaved change to the entity must not leak into the index 
+
+     batch.setQuantity(1);
+
+     // Assert 
+
+     assertEquals(10, batchIndex.getProduct("PROD-001").orElseThrow().getBatches(BatchOrder.EXPIRY_DATE).get(0).getQuantity());
+
+   }
+
+   @Test
+
+   void testGetProduct_DropsBatchesOnceExpired() {
+
+     // Arrange 
+
+     AtomicReference < LocalDate > today = new AtomicReference < > (LocalDate.now());
+
+     batchIndex = new BatchIndex(productRepository, batchRepository, today::get);
+
+     batchIndex.onProductSaved(product);
+
+     batchIndex.onBatchSaved(batch(1L, 10, 1, 9));
+
+     batchIndex.onBatchSaved(batch(2L, 20, 5, 5));
+
+     assertEquals(30, batchIndex.getProduct("PROD-001").orElseThrow().getAvailableQuantity());
+
+     // Act - two days later the first batch is past its expiry date 
+
+     today.set(LocalDate.now().plusDays(2));
+
+     BatchIndex.ProductBatches indexed = batchIndex.getProduct("PROD-001").orElseThrow();
+
+     // Assert 
+
+     assertEquals(20, indexed.getAvailableQuantity());
+
+     assertEquals(List.of(2L), indexed.getBatches(BatchOrder.EXPIRY_DATE).stream().map(Batch::getId).toList());
+
+     assertEquals(List.of(2L), indexed.getBatches(BatchOrder.RECEIVED_DATE).stream().map(Batch::getId).toList());
+
+   }
+
+   @Test
+
+   void testOnBatchSaved_ExpiredBatchIsNotIndexed() {
+
+     // Arrange 
+
+     batchIndex.onProductSaved(product);
+
+     // Act 
+
+     batchIndex.onBatchSaved(batch(1L, 10, -1, 30));
+
+     // Assert 
+
+     assertEquals(0, batchIndex.getProduct("PROD-001").orElseThrow().getAvailableQuantity());
+
+   }
+
+   @Test
+
+   void testOnProductRemoved_RemovesProduct() {
+
+     // Arrange 
+
+     batchIndex.onProductSaved(product);
+
+     // Act 
+
+     batchIndex.onProductRemoved(product);
+
+     // Assert 
+
+     assertTrue(batchIndex.getProduct("PROD-001").isEmpty());
+
+   }
+
+ }
@@ -0,0 +1,159 @@
+ package com.yash.inventory.index;
+
+ import org.junit.jupiter.api.AfterEach;
+ import org.junit.jupiter.api.Test;
+ import org.junit.jupiter.api.extension.ExtendWith;
+ import org.mockito.Mock;
+ import org.mockito.junit.jupiter.MockitoExtension;
+ import org.springframework.transaction.support.TransactionSynchronization;
+ import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+ import com.yash.inventory.repository.BatchRepository;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ import static org.mockito.Mockito.*;
+
+ @ExtendWith(MockitoExtension.class)
+
+ class OnHandCountersTest {
+
+   @Mock
+
+   private BatchRepository batchRepository;
+
+   @AfterEach
+
+   void tearDown() {
+
+     if (TransactionSynchronizationManager.isSynchronizationActive()) {
+
+       TransactionSynchronizationManager.clearSynchronization();
+
+     }
+
+   }
+
+   @Test
+
+   void testFlush_AppliesCountedChangesOnce() {
+
+     // Arrange
+
+     OnHandCounters counters = new OnHandCounters(batchRepository);
+
+     counters.adjust(7L, -3);
+
+     counters.adjust(7L, -4);
+
+     counters.adjust(8L, 10);
+
+     // Act
+
+     counters.flush();
+
+     counters.flush();
+
+     // Assert
+
+     verify(batchRepository, times(1)).adjustOnHandQuantity(7L, -7L);
+
+     verify(batchRepository, times(1)).adjustOnHandQuantity(8L, 10L);
+
+     assertEquals(0, counters.getUnflushed(7L));
+
+   }
+
+   @Test
+
+   void testFlush_FailedUpdateKeptForNextFlush() {
+
+     // Arrange
+
+     OnHandCounters counters = new OnHandCounters(batchRepository);
+
+     counters.adjust(7L, -5);
+
+     doThrow(new IllegalStateException("database down")).doNothing()
+
+       .when(batchRepository).adjustOnHandQuantity(7L, -5L);
+
+     // Act
+
+     counters.flush();
+
+     long afterFailure = counters.getUnflushed(7L);
+
+     counters.flush();
+
+     // Assert
+
+     assertEquals(-5, afterFailure);
+
+     assertEquals(0, counters.getUnflushed(7L));
+
+     verify(batchRepository, times(2)).adjustOnHandQuantity(7L, -5L);
+
+   }
+
+   @Test
+
+   void testAdjust_CountedOnlyAfterCommit() {
+
+     // Arrange
+
+     OnHandCounters counters = new OnHandCounters(batchRepository);
+
+     TransactionSynchronizationManager.initSynchronization();
+
+     // Act
+
+     counters.adjust(7L, -5);
+
+     long beforeCommit = counters.getUnflushed(7L);
+
+     for (TransactionSynchronization synchronization: TransactionSynchronizationManager.getSynchronizations()) {
+
+       synchronization.afterCommit();
+
+     }
+
+     // Assert
+
+     assertEquals(0, beforeCommit);
+
+     assertEquals(-5, counters.getUnflushed(7L));
+
+   }
+
+   @Test
+
+   void testAdjust_RolledBackChangeNeverCounted() {
+
+     // Arrange
+
+     OnHandCounters counters = new OnHandCounters(batchRepository);
+
+     TransactionSynchronizationManager.initSynchronization();
+
+     // Act
+
+     counters.adjust(7L, -5);
+
+     for (TransactionSynchronization synchronization: TransactionSynchronizationManager.getSynchronizations()) {
+
+       synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+     }
+
+     counters.flush();
+
+     // Assert
+
+     assertEquals(0, counters.getUnflushed(7L));
+
+     verifyNoInteractions(batchRepository);
+
+   }
+
+ }
@@ -0,0 +1,377 @@
+ package com.yash.inventory.ledger;
+
+ import java.io.IOException;
+ import java.nio.ByteBuffer;
+ import java.nio.channels.FileChannel;
+ import java.nio.file.Files;
+ import java.nio.file.Path;
+ import java.nio.file.StandardOpenOption;
+
+ import org.junit.jupiter.api.Test;
+ import org.junit.jupiter.api.io.TempDir;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ class MovementLedgerTest {
+
+   @TempDir
+
+   Path directory;
+
+   @Test
+
+   void testQuantitiesFollowMovements() throws IOException {
+
+     // Arrange
+
+     try (MovementLedger ledger = MovementLedger.open(directory, 0, false)) {
+
+       // Act
+
+       ledger.append(MovementType.RECEIPT, 1L, 100, 1L);
+
+       ledger.append(MovementType.ALLOCATION, 1L, -30, 2L);
+
+       ledger.append(MovementType.RELEASE, 1L, 10, 3L);
+
+       ledger.append(MovementType.RECEIPT, 2L, 5, 4L);
+
+       long beforeFlush = ledger.quantityOf(1L);
+
+       ledger.flush();
+
+       // Assert - the view only shows movements written to the file
+
+       assertEquals(0, beforeFlush);
+
+       assertEquals(80, ledger.quantityOf(1L));
+
+       assertEquals(5, ledger.quantityOf(2L));
+
+       assertEquals(0, ledger.quantityOf(3L));
+
+       assertEquals(4, ledger.getMovementCount());
+
+       assertEquals(2, ledger.getBatchCount());
+
+     }
+
+   }
+
+   @Test
+
+   void testReopen_ReplaysLedgerWithoutSnapshot() throws IOException {
+
+     // Arrange
+
+     try (MovementLedger ledger = MovementLedger.open(directory, 0, false)) {
+
+       ledger.append(MovementType.RECEIPT, 7L, 50, 1L);
+
+       ledger.append(MovementType.EXPIRY, 7L, -20, 2L);
+
+     }
+
+     // Act
+
+     try (MovementLedger reopened = MovementLedger.open(directory, 0, false)) {
+
+       // Assert
+
+       assertEquals(30, reopened.quantityOf(7L));
+
+       assertEquals(2, reopened.getMovementCount());
+
+       assertFalse(reopened.getRecovery().fromSnapshot());
+
+       assertEquals(2, reopened.getRecovery().replayedMovements());
+
+     }
+
+     assertEquals(8 + 2 * MovementLedger.RECORD_SIZE, Files.size(directory.resolve(MovementLedger.LEDGER_FILE)));
+
+   }
+
+   @Test
+
+   void testSale_RecordedWithoutChangingQuantity() throws IOException {
+
+     // Arrange
+
+     try (MovementLedger ledger = MovementLedger.open(directory, 0, false)) {
+
+       ledger.append(MovementType.RECEIPT, 4L, 20, 1L);
+
+       ledger.append(MovementType.ALLOCATION, 4L, -5, 2L);
+
+       // Act
+
+       ledger.append(MovementType.SALE, 4L, -5, 3L);
+
+       ledger.flush();
+
+       // Assert
+
+       assertEquals(15, ledger.quantityOf(4L));
+
+       assertEquals(3, ledger.getMovementCount());
+
+     }
+
+     try (MovementLedger reopened = MovementLedger.open(directory, 0, false)) {
+
+       assertEquals(15, reopened.quantityOf(4L));
+
+       assertEquals(3, reopened.getMovementCount());
+
+     }
+
+   }
+
+   @Test
+
+   void testReopen_ReplaysOnlyMovementsAfterSnapshot() throws IOException {
+
+     // Arrange - an automatic snapshot every 3 movements written
+
+     try (MovementLedger ledger = MovementLedger.open(directory, 3, false)) {
+
+       for (int i = 0; i < 7; i++) {
+
+         ledger.append(MovementType.RECEIPT, i % 2, 10, i);
+
+         ledger.flush();
+
+       }
+
+     }
+
+     // Act
+
+     try (MovementLedger reopened = MovementLedger.open(directory, 3, false)) {
+
+       // Assert
+
+       assertTrue(reopened.getRecovery().fromSnapshot());
+
+       assertEquals(1, reopened.getRecovery().replayedMovements());
+
+       assertEquals(40, reopened.quantityOf(0L));
+
+       assertEquals(30, reopened.quantityOf(1L));
+
+       assertEquals(7, reopened.getMovementCount());
+
+     }
+
+   }
+
+   @Test
+
+   void testSnapshot_CoversOnlyMovementsBeforeIt() throws IOException {
+
+     // Arrange - the snapshot after 2 movements are written is built while a third is appended
+
+     try (MovementLedger ledger = MovementLedger.open(directory, 2, false)) {
+
+       ledger.append(MovementType.RECEIPT, 1L, 100, 1L);
+
+       ledger.append(MovementType.RECEIPT, 2L, 50, 2L);
+
+       ledger.flush();
+
+       ledger.append(MovementType.ALLOCATION, 1L, -10, 3L);
+
+       ledger.flush();
+
+     }
+
+     // Act
+
+     try (MovementLedger reopened = MovementLedger.open(directory, 0, false)) {
+
+       // Assert
+
+       assertTrue(reopened.getRecovery().fromSnapshot());
+
+       assertEquals(1, reopened.getRecovery().replayedMovements());
+
+       assertEquals(90, reopened.quantityOf(1L));
+
+       assertEquals(50, reopened.quantityOf(2L));
+
+     }
+
+   }
+
+   @Test
+
+   void testFailedWrite_LeavesQuantitiesUnchanged() throws IOException {
+
+     // Arrange
+
+     MovementLedger ledger = MovementLedger.open(directory, 0, false);
+
+     ledger.append(MovementType.RECEIPT, 1L, 100, 1L);
+
+     ledger.close();
+
+     // Act - the channel is closed, so the write fails
+
+     ledger.append(MovementType.ALLOCATION, 1L, -40, 2L);
+
+     assertThrows(IOException.class, ledger::flush);
+
+     // Assert
+
+     assertEquals(100, ledger.quantityOf(1L));
+
+   }
+
+   @Test
+
+   void testTornTail_CutOffOnOpen() throws IOException {
+
+     // Arrange - a crash left half a record after two intact ones
+
+     try (MovementLedger ledger = MovementLedger.open(directory, 0, false)) {
+
+       ledger.append(MovementType.RECEIPT, 1L, 100, 1L);
+
+       ledger.append(MovementType.ALLOCATION, 1L, -40, 2L);
+
+     }
+
+     Path file = directory.resolve(MovementLedger.LEDGER_FILE);
+
+     long intact = Files.size(file);
+
+     Files.write(file, new byte[MovementLedger.RECORD_SIZE / 2], StandardOpenOption.APPEND);
+
+     // Act
+
+     try (MovementLedger reopened = MovementLedger.open(directory, 0, false)) {
+
+       reopened.append(MovementType.RELEASE, 1L, 5, 3L);
+
+       reopened.flush();
+
+       // Assert
+
+       assertEquals(65, reopened.quantityOf(1L));
+
+     }
+
+     assertEquals(intact + MovementLedger.RECORD_SIZE, Files.size(file));
+
+     try (MovementLedger reopened = MovementLedger.open(directory, 0, false)) {
+
+       assertEquals(65, reopened.quantityOf(1L));
+
+       assertEquals(3, reopened.getMovementCount());
+
+     }
+
+   }
+
+   @Test
+
+   void testCorruptRecord_CutsLedgerFromThere() throws IOException {
+
+     // Arrange
+
+     try (MovementLedger ledger = MovementLedger.open(directory, 0, false)) {
+
+       ledger.append(MovementType.RECEIPT, 1L, 100, 1L);
+
+       ledger.append(MovementType.ALLOCATION, 1L, -40, 2L);
+
+     }
+
+     Path file = directory.resolve(MovementLedger.LEDGER_FILE);
+
+     // Flip a bit in the second record's delta
+
+     try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+
+       channel.write(ByteBuffer.wrap(new byte[] { 1 }), 8 + MovementLedger.RECORD_SIZE + 10);
+
+     }
+
+     // Act
+
+     try (MovementLedger reopened = MovementLedger.open(directory, 0, false)) {
+
+       // Assert
+
+       assertEquals(100, reopened.quantityOf(1L));
+
+       assertEquals(1, reopened.getMovementCount());
+
+     }
+
+   }
+
+   @Test
+
+   void testCorruptSnapshot_IgnoredInFavourOfFullReplay() throws IOException {
+
+     // Arrange
+
+     try (MovementLedger ledger = MovementLedger.open(directory, 0, false)) {
+
+       ledger.append(MovementType.RECEIPT, 1L, 100, 1L);
+
+       ledger.snapshot();
+
+       ledger.append(MovementType.ALLOCATION, 1L, -25, 2L);
+
+     }
+
+     Path snapshot = directory.resolve(MovementLedger.SNAPSHOT_FILE);
+
+     byte[] bytes = Files.readAllBytes(snapshot);
+
+     bytes[bytes.length - 1] ^= 1;
+
+     Files.write(snapshot, bytes);
+
+     // Act
+
+     try (MovementLedger reopened = MovementLedger.open(directory, 0, false)) {
+
+       // Assert
+
+       assertFalse(reopened.getRecovery().fromSnapshot());
+
+       assertEquals(2, reopened.getRecovery().replayedMovements());
+
+       assertEquals(75, reopened.quantityOf(1L));
+
+     }
+
+   }
+
+   @Test
+
+   void testForeignFile_Rejected() throws IOException {
+
+     Files.write(directory.resolve(MovementLedger.LEDGER_FILE), new byte[64]);
+
+     assertThrows(IOException.class, () -> MovementLedger.open(directory, 0, false));
+
+   }
+
+   @Test
+
+   void testUnknownTypeCode_Rejected() {
+
+     assertEquals(MovementType.EXPIRY, MovementType.fromCode(MovementType.EXPIRY.getCode()));
+
+     assertThrows(IllegalArgumentException.class, () -> MovementType.fromCode((byte) 0));
+
+     assertThrows(IllegalArgumentException.class, () -> MovementType.fromCode((byte) 9));
+
+   }
+
+ }
@@ -0,0 +1,171 @@
+ package com.yash.inventory.reservation;
+
+ import org.junit.jupiter.api.BeforeEach;
+
+ import org.junit.jupiter.api.Test;
+
+ import java.util.ArrayList;
+
+ import java.util.List;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ class HierarchicalTimingWheelTest {
+
+   private static final long START = 1_000_000L;
+
+   private HierarchicalTimingWheel < String > wheel;
+
+   @BeforeEach
+
+   void setUp() {
+
+     // 10 ms ticks, 8 slots: level spans of 80 ms, 640 ms, 5120 ms ... 
+
+     wheel = new HierarchicalTimingWheel < > (10, 8, START);
+
+   }
+
+   @Test
+
+   void testAdvance_FiresAtDeadlineNeverBefore() {
+
+     // Arrange 
+
+     wheel.schedule("a", START + 35);
+
+     // Act & Assert - deadlines round up to the next tick 
+
+     assertTrue(wheel.advance(START + 39).isEmpty());
+
+     assertEquals(List.of("a"), wheel.advance(START + 40));
+
+     assertEquals(0, wheel.size());
+
+   }
+
+   @Test
+
+   void testAdvance_CascadesFromOverflowLevels() {
+
+     // Arrange - far beyond the first two levels 
+
+     wheel.schedule("late", START + 3_000);
+
+     wheel.schedule("early", START + 50);
+
+     // Act 
+
+     List < String > fired = new ArrayList < > ();
+
+     for (long now = START; now <= START + 3_000; now += 10) {
+
+       for (String task: wheel.advance(now)) {
+
+         assertTrue(now >= START + ("late".equals(task) ? 3_000 : 50), task + " fired early at " + now);
+
+         fired.add(task);
+
+       }
+
+     }
+
+     // Assert 
+
+     assertEquals(List.of("early", "late"), fired);
+
+   }
+
+   @Test
+
+   void testAdvance_LargeJumpFiresEverythingDue() {
+
+     // Arrange 
+
+     wheel.schedule("a", START + 100);
+
+     wheel.schedule("b", START + 10_000);
+
+     wheel.schedule("c", START + 100_000);
+
+     // Act 
+
+     List < String > fired = wheel.advance(START + 10_000);
+
+     // Assert 
+
+     assertEquals(List.of("a", "b"), fired);
+
+     assertEquals(1, wheel.size());
+
+   }
+
+   @Test
+
+   void testCancel_RemovesPendingTimeout() {
+
+     // Arrange 
+
+     HierarchicalTimingWheel < String > .Timeout timeout = wheel.schedule("a", START + 50);
+
+     // Act 
+
+     assertTrue(timeout.cancel());
+
+     // Assert 
+
+     assertFalse(timeout.cancel());
+
+     assertEquals(0, wheel.size());
+
+     assertTrue(wheel.advance(START + 1_000).isEmpty());
+
+   }
+
+   @Test
+
+   void testSchedule_PastDeadlineFiresOnNextAdvance() {
+
+     // Arrange 
+
+     wheel.advance(START + 500);
+
+     wheel.schedule("overdue", START + 100);
+
+     // Act & Assert 
+
+     assertEquals(List.of("overdue"), wheel.advance(START + 500));
+
+   }
+
+   @Test
+
+   void testSchedule_ManyTimeoutsAllFireOnce() {
+
+     // Arrange 
+
+     for (int i = 0; i < 10_000; i++) {
+
+       wheel.schedule("task-" + i, START + 1 + (i * 7L) % 20_000);
+
+     }
+
+     // Act 
+
+     int fired = 0;
+
+     for (long now = START; now <= START + 20_010; now += 10) {
+
+       fired += wheel.advance(now).size();
+
+     }
+
+     // Assert 
+
+     assertEquals(10_000, fired);
+
+     assertEquals(0, wheel.size());
+
+   }
+
+ }
@@ -1,11 +1,21 @@
  package com.yash.inventory.service;
 
+ import com.yash.inventory.cache.LruBatchResponseCache;
+
+ import com.yash.inventory.dto.AvailabilityResponse;
+
  import com.yash.inventory.dto.BatchResponse;
 
+ import com.yash.inventory.dto.BulkInventoryUpdateRequest;
+
+ import com.yash.inventory.dto.BulkInventoryUpdateResponse;
+
  import com.yash.inventory.dto.InventoryUpdateRequest;
 
  import com.yash.inventory.dto.InventoryUpdateResponse;
 
+ import com.yash.inventory.dto.ProductInventoryResponse;
+
  import com.yash.inventory.entity.Batch;
 
  import com.yash.inventory.entity.Product;
@@ -14,10 +24,18 @@
 
  import com.yash.inventory.exception.ProductNotFoundException;
 
+ import com.yash.inventory.index.BatchIndex;
+ import com.yash.inventory.index.OnHandCounters;
+import com.yash.inventory.ledger.MovementRecorder;
+
  import com.yash.inventory.repository.BatchRepository;
 
  import com.yash.inventory.repository.ProductRepository;
 
+ import com.yash.inventory.strategy.BatchOrder;
+
+ import com.yash.inventory.strategy.AllocationBuffer;
+
  import com.yash.inventory.strategy.InventoryStrategy;
 
  import com.yash.inventory.strategy.InventoryStrategyFactory;
@@ -28,24 +46,36 @@
 
  import org.junit.jupiter.api.extension.ExtendWith;
 
- import org.mockito.InjectMocks;
-
  import org.mockito.Mock;
 
  import org.mockito.junit.jupiter.MockitoExtension;
 
+ import org.springframework.data.domain.PageRequest;
+
+ import org.springframework.data.domain.Pageable;
+
+ import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+ import java.time.Duration;
+
  import java.time.LocalDate;
 
  import java.util.Arrays;
 
  import java.util.List;
 
- import java.util.Optional;
+ import java.util.stream.Collectors;
 
  import static org.junit.jupiter.api.Assertions.*;
 
  import static org.mockito.ArgumentMatchers.any;
 
+ import static org.mockito.ArgumentMatchers.anyCollection;
+
+ import static org.mockito.ArgumentMatchers.anyList;
+
+ import static org.mockito.ArgumentMatchers.anyLong;
+
  import static org.mockito.ArgumentMatchers.anyString;
 
  import static org.mockito.Mockito.*;
@@ -70,7 +100,9 @@
 
    private InventoryStrategy inventoryStrategy;
 
-   @InjectMocks
+   private BatchIndex batchIndex;
+
+   private OnHandCounters onHandCounters;
 
    private InventoryService inventoryService;
 
@@ -122,6 +154,72 @@
 
      batches = Arrays.asList(batch1, batch2);
 
+     batchIndex = new BatchIndex(productRepository, batchRepository);
+
+     onHandCounters = new OnHandCounters(batchRepository);
+
+     inventoryService = new InventoryService(productRepository, batchRepository, strategyFactory, batchIndex,
+
+       new LruBatchResponseCache(100, Duration.ofMinutes(1), System::nanoTime), MovementRecorder.disabled(),
+
+       onHandCounters);
+
+   }
+
+   private void indexProductWithBatches() {
+
+     batchIndex.onProductSaved(product);
+
+     batches.forEach(batchIndex::onBatchSaved);
+
+   }
+
+   /** 
+
+    * Make the mocked strategy allocate the given slices, which must refer to indexed batches 
+
+    */
+
+   private void stubAllocation(int quantity, Batch... slices) {
+
+     doAnswer(invocation -> {
+
+       List < Batch > batches = invocation.getArgument(0);
+
+       AllocationBuffer result = invocation.getArgument(3);
+
+       result.clear();
+
+       for (Batch slice: slices) {
+
+         int position = 0;
+
+         while (!batches.get(position).getId().equals(slice.getId())) {
+
+           position++;
+
+         }
+
+         result.add(position, slice.getId(), slice.getQuantity());
+
+       }
+
+       return null;
+
+     }).when(inventoryStrategy).allocateInto(anyList(), eq(quantity), anyLong(), any(AllocationBuffer.class));
+
+   }
+
+   private List < BatchResponse > batchRows() {
+
+     return batches.stream()
+
+       .map(batch -> new BatchResponse(batch.getId(), batch.getBatchNumber(), batch.getQuantity(),
+
+         batch.getExpiryDate(), batch.getReceivedDate(), "PROD-001", "Widget A"))
+
+       .collect(Collectors.toList());
+
    }
 
    @Test
@@ -130,9 +228,7 @@
 
      // Arrange 
 
-     when(productRepository.findByProductCode("PROD-001")).thenReturn(Optional.of(product));
-
-     when(batchRepository.findByProductProductCodeOrderByExpiryDateAsc("PROD-001")).thenReturn(batches);
+     when(batchRepository.findBatchResponsesByProductCode(eq("PROD-001"), any(LocalDate.class))).thenReturn(batchRows());
 
      // Act 
 
@@ -150,9 +246,55 @@
 
      assertEquals("PROD-001", result.get(0).getProductCode());
 
-     verify(productRepository, times(1)).findByProductCode("PROD-001");
+     verify(batchRepository, times(1)).findBatchResponsesByProductCode(eq("PROD-001"), any(LocalDate.class));
 
-     verify(batchRepository, times(1)).findByProductProductCodeOrderByExpiryDateAsc("PROD-001");
+     verifyNoInteractions(productRepository);
+
+   }
+
+   @Test
+
+   void testGetBatchesByProduct_CachedUntilInventoryUpdated() {
+
+     // Arrange 
+
+     when(batchRepository.findBatchResponsesByProductCode(eq("PROD-001"), any(LocalDate.class))).thenReturn(batchRows());
+
+     Batch allocatedBatch = new Batch(1L, "BATCH-001", product, 30, LocalDate.now().plusMonths(6), LocalDate.now());
+
+     indexProductWithBatches();
+
+     when(strategyFactory.getStrategy()).thenReturn(inventoryStrategy);
+
+     when(inventoryStrategy.getBatchOrder()).thenReturn(BatchOrder.EXPIRY_DATE);
+
+     stubAllocation(30, allocatedBatch);
+
+     when(inventoryStrategy.getStrategyName()).thenReturn("FEFO");
+
+     when(batchRepository.decrementQuantities(argThat(list -> list.size() == 1 &&
+
+       list.get(0).getId().equals(allocatedBatch.getId()) &&
+
+       list.get(0).getQuantity().equals(allocatedBatch.getQuantity())))).thenReturn(new boolean[] { true });
+
+     // Act 
+
+     inventoryService.getBatchesByProduct("PROD-001");
+
+     inventoryService.getBatchesByProduct("PROD-001");
+
+     inventoryService.updateInventory(new InventoryUpdateRequest("PROD-001", 30, null));
+
+     inventoryService.getBatchesByProduct("PROD-001");
+
+     // Assert - one load before the update, one after 
+
+     verify(batchRepository, times(2)).findBatchResponsesByProductCode(eq("PROD-001"), any(LocalDate.class));
+
+     assertEquals(1, inventoryService.getBatchCacheStats().hits());
+
+     assertEquals(2, inventoryService.getBatchCacheStats().misses());
 
    }
 
@@ -162,7 +304,7 @@
 
      // Arrange 
 
-     when(productRepository.findByProductCode(anyString())).thenReturn(Optional.empty());
+     when(batchRepository.findBatchResponsesByProductCode(anyString(), any(LocalDate.class))).thenReturn(List.of());
 
      // Act & Assert 
 
@@ -172,7 +314,103 @@
 
      });
 
-     verify(productRepository, times(1)).findByProductCode("INVALID-CODE");
+     verify(batchRepository, times(1)).findBatchResponsesByProductCode(eq("INVALID-CODE"), any(LocalDate.class));
+
+   }
+
+   @Test
+
+   void testGetBatchesByProduct_ProductWithoutBatches_EmptyList() {
+
+     // Arrange - the left join returns the product alone 
+
+     when(batchRepository.findBatchResponsesByProductCode(eq("PROD-001"), any(LocalDate.class))).thenReturn(List.of(
+
+       new BatchResponse(null, null, null, null, null, "PROD-001", "Widget A")));
+
+     // Act 
+
+     List < BatchResponse > result = inventoryService.getBatchesByProduct("PROD-001");
+
+     // Assert 
+
+     assertTrue(result.isEmpty());
+
+   }
+
+   @Test
+
+   void testGetAvailability_SumsIndexedBatches() {
+
+     // Arrange 
+
+     indexProductWithBatches();
+
+     // Act 
+
+     AvailabilityResponse availability = inventoryService.getAvailability("PROD-001");
+
+     // Assert 
+
+     assertEquals("PROD-001", availability.getProductCode());
+
+     assertEquals("Widget A", availability.getProductName());
+
+     assertEquals(150L, availability.getAvailableQuantity());
+
+     verifyNoInteractions(batchRepository);
+
+   }
+
+   @Test
+
+   void testGetAvailability_ProductNotFound() {
+
+     // Act & Assert 
+
+     assertThrows(ProductNotFoundException.class, () -> inventoryService.getAvailability("INVALID-CODE"));
+
+   }
+
+   @Test
+
+   void testGetAvailability_MultipleProducts_DistinctCodes() {
+
+     // Arrange 
+
+     indexProductWithBatches();
+
+     // Act 
+
+     List < AvailabilityResponse > availability = inventoryService.getAvailability(List.of("PROD-001", "PROD-001"));
+
+     // Assert 
+
+     assertEquals(1, availability.size());
+
+     assertEquals(150L, availability.get(0).getAvailableQuantity());
+
+     assertThrows(IllegalArgumentException.class, () -> inventoryService.getAvailability(List.of()));
+
+   }
+
+   @Test
+
+   void testGetAvailability_MultipleProducts_UnknownCodesLeftOut() {
+
+     // Arrange 
+
+     indexProductWithBatches();
+
+     // Act 
+
+     List < AvailabilityResponse > availability = inventoryService.getAvailability(List.of("INVALID-CODE", "PROD-001"));
+
+     // Assert 
+
+     assertEquals(1, availability.size());
+
+     assertEquals("PROD-001", availability.get(0).getProductCode());
 
    }
 
@@ -204,19 +442,21 @@
 
      allocatedBatch.setProduct(product);
 
-     when(productRepository.findByProductCode("PROD-001")).thenReturn(Optional.of(product));
-
-     when(batchRepository.findByProductProductCodeOrderByExpiryDateAsc("PROD-001")).thenReturn(batches);
+     indexProductWithBatches();
 
      when(strategyFactory.getStrategy("FEFO")).thenReturn(inventoryStrategy);
 
-     when(inventoryStrategy.allocate(batches, 30)).thenReturn(Arrays.asList(allocatedBatch));
+     when(inventoryStrategy.getBatchOrder()).thenReturn(BatchOrder.EXPIRY_DATE);
+
+     stubAllocation(30, allocatedBatch);
 
      when(inventoryStrategy.getStrategyName()).thenReturn("FEFO");
 
-     when(batchRepository.findById(1L)).thenReturn(Optional.of(batches.get(0)));
+     when(batchRepository.decrementQuantities(argThat(list -> list.size() == 1 &&
+
+       list.get(0).getId().equals(allocatedBatch.getId()) &&
 
-     when(batchRepository.save(any(Batch.class))).thenReturn(batches.get(0));
+       list.get(0).getQuantity().equals(allocatedBatch.getQuantity())))).thenReturn(new boolean[] { true });
 
      // Act 
 
@@ -238,7 +478,241 @@
 
      assertEquals(30, response.getAllocations().get(0).getQuantityAllocated());
 
-     verify(batchRepository, times(1)).save(any(Batch.class));
+     verify(batchRepository, times(1)).decrementQuantities(anyList());
+
+     verify(batchRepository, never()).findById(any());
+
+     verify(batchRepository, never()).save(any(Batch.class));
+
+     verify(productRepository, never()).findByProductCode(anyString());
+
+     verify(batchRepository, never()).findByProductProductCodeOrderByExpiryDateAsc(anyString());
+
+   }
+
+   @Test
+
+   void testUpdateInventory_ReadsBatchesInStrategyOrder() {
+
+     // Arrange 
+
+     InventoryUpdateRequest request = new InventoryUpdateRequest("PROD-001", 10, "FIFO");
+
+     indexProductWithBatches();
+
+     when(strategyFactory.getStrategy("FIFO")).thenReturn(inventoryStrategy);
+
+     when(inventoryStrategy.getBatchOrder()).thenReturn(BatchOrder.RECEIVED_DATE);
+
+     stubAllocation(10);
+
+     when(inventoryStrategy.getStrategyName()).thenReturn("FIFO");
+
+     // Act 
+
+     inventoryService.updateInventory(request);
+
+     // Assert - BATCH-001 was received first, BATCH-002 expires first 
+
+     verify(inventoryStrategy).allocateInto(argThat(list -> list.size() == 2 &&
+
+       "BATCH-001".equals(list.get(0).getBatchNumber())), eq(10), eq(150L), any(AllocationBuffer.class));
+
+   }
+
+   @Test
+
+   void testUpdateInventory_ConditionalDecrementRejected() {
+
+     // Arrange 
+
+     InventoryUpdateRequest request = new InventoryUpdateRequest("PROD-001", 60, "FEFO");
+
+     Batch firstSlice = new Batch(2L, "BATCH-002", product, 50, LocalDate.now().plusMonths(3), LocalDate.now());
+
+     Batch secondSlice = new Batch(1L, "BATCH-001", product, 10, LocalDate.now().plusMonths(6), LocalDate.now());
+
+     indexProductWithBatches();
+
+     when(strategyFactory.getStrategy("FEFO")).thenReturn(inventoryStrategy);
+
+     stubAllocation(60, firstSlice, secondSlice);
+
+     when(batchRepository.decrementQuantities(anyList())).thenReturn(new boolean[] { true, false });
+
+     // Act & Assert - the second row no longer had enough stock, so the whole update fails 
+
+     InsufficientInventoryException exception = assertThrows(InsufficientInventoryException.class,
+
+       () -> inventoryService.updateInventory(request));
+
+     assertTrue(exception.getMessage().contains("BATCH-001"));
+
+     assertEquals(100, batchIndex.getProduct("PROD-001").orElseThrow()
+
+       .getBatches(BatchOrder.EXPIRY_DATE).get(1).getQuantity());
+
+   }
+
+   @Test
+
+   void testUpdateInventory_StaleIndex_TakesShortfallFromDatabase() {
+
+     // Arrange
+
+     InventoryUpdateRequest request = new InventoryUpdateRequest("PROD-001", 60, "FEFO");
+
+     Batch firstSlice = new Batch(2L, "BATCH-002", product, 50, LocalDate.now().plusMonths(3), LocalDate.now());
+
+     Batch secondSlice = new Batch(1L, "BATCH-001", product, 10, LocalDate.now().plusMonths(6), LocalDate.now());
+
+     Batch remainder = new Batch(1L, "BATCH-001", null, 4, LocalDate.now().plusMonths(6), LocalDate.now());
+
+     Batch received = new Batch(3L, "BATCH-003", null, 30, LocalDate.now().plusMonths(9), LocalDate.now());
+
+     indexProductWithBatches();
+
+     when(strategyFactory.getStrategy("FEFO")).thenReturn(inventoryStrategy);
+
+     when(inventoryStrategy.getBatchOrder()).thenReturn(BatchOrder.EXPIRY_DATE);
+
+     when(inventoryStrategy.getStrategyName()).thenReturn("FEFO");
+
+     stubAllocation(60, firstSlice, secondSlice);
+
+     when(batchRepository.findAllocationPrefix(eq(1L), eq(BatchOrder.EXPIRY_DATE), any(LocalDate.class), eq(10)))
+
+       .thenReturn(List.of(remainder, received));
+
+     stubAllocation(10, remainder, new Batch(3L, "BATCH-003", null, 6, LocalDate.now().plusMonths(9), LocalDate.now()));
+
+     when(batchRepository.decrementQuantities(anyList())).thenReturn(new boolean[] { true, false }, new boolean[] { true, true });
+
+     // Act
+
+     InventoryUpdateResponse response = inventoryService.updateInventory(request);
+
+     // Assert - BATCH-001 only had 4 left, so the database prefix tops the line up from BATCH-003
+
+     assertTrue(response.isSuccess());
+
+     assertEquals(3, response.getAllocations().size());
+
+     assertEquals("BATCH-002", response.getAllocations().get(0).getBatchNumber());
+
+     assertEquals("BATCH-001", response.getAllocations().get(1).getBatchNumber());
+
+     assertEquals(4, response.getAllocations().get(1).getQuantityAllocated());
+
+     assertEquals("BATCH-003", response.getAllocations().get(2).getBatchNumber());
+
+     assertEquals(6, response.getAllocations().get(2).getQuantityAllocated());
+
+     verify(batchRepository, times(2)).decrementQuantities(anyList());
+
+   }
+
+   @Test
+
+   void testUpdateInventory_Shard_TakesOnlyOwnedBatches() {
+
+     // Arrange - of two shards, shard 1 owns the odd batch ids 
+
+     InventoryUpdateRequest request = new InventoryUpdateRequest("PROD-001", 10, "FEFO");
+
+     Batch slice = new Batch(1L, "BATCH-001", product, 10, LocalDate.now().plusMonths(6), LocalDate.now());
+
+     indexProductWithBatches();
+
+     when(strategyFactory.getStrategy("FEFO")).thenReturn(inventoryStrategy);
+
+     when(inventoryStrategy.getBatchOrder()).thenReturn(BatchOrder.EXPIRY_DATE);
+
+     stubAllocation(10, slice);
+
+     when(inventoryStrategy.getStrategyName()).thenReturn("FEFO");
+
+     when(batchRepository.decrementQuantities(anyList())).thenReturn(new boolean[] { true });
+
+     // Act 
+
+     InventoryUpdateResponse response = inventoryService.updateInventory(request, new BatchShard(1, 2));
+
+     // Assert 
+
+     assertEquals("BATCH-001", response.getAllocations().get(0).getBatchNumber());
+
+     verify(inventoryStrategy).allocateInto(argThat(list -> list.size() == 1 &&
+
+       "BATCH-001".equals(list.get(0).getBatchNumber())), eq(10), eq(100L), any(AllocationBuffer.class));
+
+     assertEquals(-10, onHandCounters.getUnflushed(product.getId()));
+
+     verify(batchRepository, never()).adjustOnHandQuantity(any(), anyLong());
+
+   }
+
+   @Test
+
+   void testUpdateInventory_Shard_RejectedDecrementDoesNotTouchOtherShards() {
+
+     // Arrange 
+
+     InventoryUpdateRequest request = new InventoryUpdateRequest("PROD-001", 10, "FEFO");
+
+     Batch slice = new Batch(2L, "BATCH-002", product, 10, LocalDate.now().plusMonths(3), LocalDate.now());
+
+     indexProductWithBatches();
+
+     when(strategyFactory.getStrategy("FEFO")).thenReturn(inventoryStrategy);
+
+     when(inventoryStrategy.getBatchOrder()).thenReturn(BatchOrder.EXPIRY_DATE);
+
+     stubAllocation(10, slice);
+
+     when(batchRepository.decrementQuantities(anyList())).thenReturn(new boolean[] { false });
+
+     // Act & Assert 
+
+     assertThrows(InsufficientInventoryException.class,
+
+       () -> inventoryService.updateInventory(request, new BatchShard(0, 2)));
+
+     verify(batchRepository, never()).findAllocationPrefix(any(), any(), any(), anyInt());
+
+   }
+
+   @Test
+
+   void testUpdateInventory_IndexReflectsDecrement() {
+
+     // Arrange 
+
+     InventoryUpdateRequest request = new InventoryUpdateRequest("PROD-001", 50, "FEFO");
+
+     Batch slice = new Batch(2L, "BATCH-002", product, 50, LocalDate.now().plusMonths(3), LocalDate.now());
+
+     indexProductWithBatches();
+
+     when(strategyFactory.getStrategy("FEFO")).thenReturn(inventoryStrategy);
+
+     stubAllocation(50, slice);
+
+     when(inventoryStrategy.getStrategyName()).thenReturn("FEFO");
+
+     when(batchRepository.decrementQuantities(anyList())).thenReturn(new boolean[] { true });
+
+     // Act 
+
+     inventoryService.updateInventory(request);
+
+     // Assert - BATCH-002 is depleted and leaves the index 
+
+     List < Batch > indexed = batchIndex.getProduct("PROD-001").orElseThrow().getBatches(BatchOrder.EXPIRY_DATE);
+
+     assertEquals(1, indexed.size());
+
+     assertEquals("BATCH-001", indexed.get(0).getBatchNumber());
 
    }
 
@@ -296,8 +770,6 @@
 
      request.setQuantity(10);
 
-     when(productRepository.findByProductCode("INVALID")).thenReturn(Optional.empty());
-
      // Act & Assert 
 
      assertThrows(ProductNotFoundException.class, () -> {
@@ -320,9 +792,9 @@
 
      request.setQuantity(10);
 
-     when(productRepository.findByProductCode("PROD-001")).thenReturn(Optional.of(product));
+     batchIndex.onProductSaved(product);
 
-     when(batchRepository.findByProductProductCodeOrderByExpiryDateAsc("PROD-001")).thenReturn(Arrays.asList());
+     when(strategyFactory.getStrategy()).thenReturn(inventoryStrategy);
 
      // Act & Assert 
 
@@ -346,15 +818,13 @@
 
      request.setQuantity(200);
 
-     when(productRepository.findByProductCode("PROD-001")).thenReturn(Optional.of(product));
-
-     when(batchRepository.findByProductProductCodeOrderByExpiryDateAsc("PROD-001")).thenReturn(batches);
+     indexProductWithBatches();
 
      when(strategyFactory.getStrategy()).thenReturn(inventoryStrategy);
 
-     when(inventoryStrategy.allocate(batches, 200))
+     doThrow(new InsufficientInventoryException("Insufficient stock. Available: 150, Needed: 200"))
 
-       .thenThrow(new InsufficientInventoryException("Insufficient stock. Available: 150, Needed: 200"));
+       .when(inventoryStrategy).allocateInto(anyList(), eq(200), anyLong(), any(AllocationBuffer.class));
 
      // Act & Assert 
 
@@ -368,27 +838,239 @@
 
    @Test
 
-   void testGetAllProducts_Success() {
+   void testUpdateInventoryBulk_SameProductTwice_SeesEarlierDeductions() {
+
+     // Arrange - the index only catches up after commit, so simulate an open transaction 
+
+     BulkInventoryUpdateRequest request = new BulkInventoryUpdateRequest(Arrays.asList(
+
+       new InventoryUpdateRequest("PROD-001", 30, "FEFO"),
+
+       new InventoryUpdateRequest("PROD-001", 40, "FEFO")));
+
+     Batch firstSlice = new Batch(2L, "BATCH-002", product, 30, LocalDate.now().plusMonths(3), LocalDate.now());
+
+     Batch secondSlice = new Batch(2L, "BATCH-002", product, 20, LocalDate.now().plusMonths(3), LocalDate.now());
+
+     Batch thirdSlice = new Batch(1L, "BATCH-001", product, 20, LocalDate.now().plusMonths(6), LocalDate.now());
+
+     indexProductWithBatches();
+
+     when(strategyFactory.getStrategy("FEFO")).thenReturn(inventoryStrategy);
+
+     when(inventoryStrategy.getBatchOrder()).thenReturn(BatchOrder.EXPIRY_DATE);
+
+     stubAllocation(30, firstSlice);
+
+     stubAllocation(40, secondSlice, thirdSlice);
+
+     when(inventoryStrategy.getStrategyName()).thenReturn("FEFO");
+
+     when(batchRepository.decrementQuantities(anyList())).thenReturn(new boolean[] { true }, new boolean[] { true, true });
+
+     // Act 
+
+     TransactionSynchronizationManager.initSynchronization();
+
+     BulkInventoryUpdateResponse response;
+
+     try {
+
+       response = inventoryService.updateInventoryBulk(request);
+
+     } finally {
+
+       TransactionSynchronizationManager.clearSynchronization();
+
+     }
+
+     // Assert - the second line saw BATCH-002 reduced by the first line 
+
+     assertTrue(response.isSuccess());
+
+     assertEquals(2, response.getResults().size());
+
+     assertEquals(2, response.getResults().get(1).getAllocations().size());
+
+     verify(inventoryStrategy).allocateInto(argThat(list -> list.size() == 2 &&
+
+       list.get(0).getQuantity() == 20 && list.get(1).getQuantity() == 100), eq(40), eq(120L), any(AllocationBuffer.class));
+
+   }
+
+   @Test
+
+   void testUpdateInventoryBulk_FailingLineAbortsRequest() {
+
+     // Arrange 
+
+     BulkInventoryUpdateRequest request = new BulkInventoryUpdateRequest(Arrays.asList(
+
+       new InventoryUpdateRequest("PROD-001", 30, "FEFO"),
+
+       new InventoryUpdateRequest("INVALID", 10, "FEFO")));
+
+     Batch slice = new Batch(2L, "BATCH-002", product, 30, LocalDate.now().plusMonths(3), LocalDate.now());
+
+     indexProductWithBatches();
+
+     when(strategyFactory.getStrategy("FEFO")).thenReturn(inventoryStrategy);
+
+     stubAllocation(30, slice);
+
+     when(inventoryStrategy.getStrategyName()).thenReturn("FEFO");
+
+     when(batchRepository.decrementQuantities(anyList())).thenReturn(new boolean[] { true });
+
+     // Act & Assert - the exception rolls back the surrounding transaction 
+
+     assertThrows(ProductNotFoundException.class, () -> inventoryService.updateInventoryBulk(request));
+
+     verify(batchRepository, times(1)).decrementQuantities(anyList());
+
+   }
+
+   @Test
+
+   void testUpdateInventoryGroup_FailingLineFailsAlone_OthersCoalescedIntoOneDecrement() {
+
+     // Arrange 
+
+     List < InventoryUpdateRequest > requests = Arrays.asList(
+
+       new InventoryUpdateRequest("PROD-001", 30, "FEFO"),
+
+       new InventoryUpdateRequest("INVALID", 10, "FEFO"),
+
+       new InventoryUpdateRequest("PROD-001", 40, "FEFO"));
+
+     Batch firstSlice = new Batch(2L, "BATCH-002", product, 30, LocalDate.now().plusMonths(3), LocalDate.now());
+
+     Batch secondSlice = new Batch(2L, "BATCH-002", product, 20, LocalDate.now().plusMonths(3), LocalDate.now());
+
+     Batch thirdSlice = new Batch(1L, "BATCH-001", product, 20, LocalDate.now().plusMonths(6), LocalDate.now());
+
+     indexProductWithBatches();
+
+     when(strategyFactory.getStrategy("FEFO")).thenReturn(inventoryStrategy);
+
+     when(inventoryStrategy.getBatchOrder()).thenReturn(BatchOrder.EXPIRY_DATE);
+
+     stubAllocation(30, firstSlice);
+
+     stubAllocation(40, secondSlice, thirdSlice);
+
+     when(inventoryStrategy.getStrategyName()).thenReturn("FEFO");
+
+     // The two slices of BATCH-002 are coalesced into one 50-unit decrement 
+
+     when(batchRepository.decrementQuantities(argThat(list -> list.size() == 2 && list.get(0).getId().equals(2L) &&
+
+       list.get(0).getQuantity() == 50))).thenReturn(new boolean[] { true, true });
+
+     // Act 
+
+     TransactionSynchronizationManager.initSynchronization();
+
+     List < LineOutcome > outcomes;
+
+     try {
+
+       outcomes = inventoryService.updateInventoryGroup(requests);
+
+     } finally {
+
+       TransactionSynchronizationManager.clearSynchronization();
+
+     }
+
+     // Assert - the third line saw BATCH-002 reduced by the first 
+
+     assertTrue(outcomes.get(0).isSuccess());
+
+     assertInstanceOf(ProductNotFoundException.class, outcomes.get(1).failure());
+
+     assertEquals(2, outcomes.get(2).response().getAllocations().size());
+
+     verify(batchRepository, times(1)).decrementQuantities(anyList());
+
+   }
+
+   @Test
+
+   void testUpdateInventoryGroup_RejectedDecrementFailsWholeGroup() {
+
+     // Arrange 
+
+     List < InventoryUpdateRequest > requests = List.of(new InventoryUpdateRequest("PROD-001", 30, "FEFO"));
+
+     Batch slice = new Batch(2L, "BATCH-002", product, 30, LocalDate.now().plusMonths(3), LocalDate.now());
+
+     indexProductWithBatches();
+
+     when(strategyFactory.getStrategy("FEFO")).thenReturn(inventoryStrategy);
+
+     when(inventoryStrategy.getBatchOrder()).thenReturn(BatchOrder.EXPIRY_DATE);
+
+     stubAllocation(30, slice);
+
+     when(batchRepository.decrementQuantities(anyList())).thenReturn(new boolean[] { false });
+
+     // Act & Assert - the exception rolls back the group, and the index keeps its quantities 
+
+     assertThrows(InsufficientInventoryException.class, () -> inventoryService.updateInventoryGroup(requests));
+
+     assertEquals(50, batchIndex.getProduct("PROD-001").orElseThrow()
+
+       .getBatches(BatchOrder.EXPIRY_DATE).get(0).getQuantity());
+
+   }
+
+   @Test
+
+   void testUpdateInventoryBulk_InvalidRequest_NoItems() {
+
+     // Act & Assert 
+
+     assertThrows(IllegalArgumentException.class,
+
+       () -> inventoryService.updateInventoryBulk(new BulkInventoryUpdateRequest(List.of())));
+
+     verifyNoInteractions(batchRepository);
+
+   }
+
+   @Test
+
+   void testGetAllProducts_Success_TwoQueries() {
 
      // Arrange 
 
-     List < Product > products = Arrays.asList(product);
+     when(productRepository.findPageAfter(eq(""), any(Pageable.class))).thenReturn(List.of(
+
+       new ProductInventoryResponse("PROD-001", "Widget A", "Test Product"),
 
-     when(productRepository.findAll()).thenReturn(products);
+       new ProductInventoryResponse("PROD-002", "Widget B", "No batches")));
 
-     when(batchRepository.findByProductProductCodeOrderByExpiryDateAsc("PROD-001")).thenReturn(batches);
+     when(batchRepository.findBatchResponsesByProductCodeIn(anyCollection(), any(LocalDate.class))).thenReturn(batchRows());
 
      // Act 
 
-     List < Object > result = inventoryService.getAllProducts();
+     List < ProductInventoryResponse > result = inventoryService.getAllProducts(null, 2);
 
      // Assert 
 
-     assertNotNull(result);
+     assertEquals(2, result.size());
+
+     assertEquals(2, result.get(0).getBatches().size());
+
+     assertTrue(result.get(1).getBatches().isEmpty());
 
-     assertEquals(1, result.size());
+     verify(productRepository, times(1)).findPageAfter("", PageRequest.of(0, 2));
 
-     verify(productRepository, times(1)).findAll();
+     verify(batchRepository, times(1)).findBatchResponsesByProductCodeIn(anyCollection(), any(LocalDate.class));
+
+     verify(productRepository, never()).findAll();
 
    }
 
@@ -398,11 +1080,11 @@
 
      // Arrange 
 
-     when(productRepository.findAll()).thenReturn(Arrays.asList());
+     when(productRepository.findPageAfter(eq("PROD-999"), any(Pageable.class))).thenReturn(List.of());
 
      // Act 
 
-     List < Object > result = inventoryService.getAllProducts();
+     List < ProductInventoryResponse > result = inventoryService.getAllProducts("PROD-999", 100);
 
      // Assert 
 
@@ -410,8 +1092,20 @@
 
      assertTrue(result.isEmpty());
 
-     verify(productRepository, times(1)).findAll();
+     verifyNoInteractions(batchRepository);
+
+   }
+
+   @Test
+
+   void testGetAllProducts_InvalidLimit() {
+
+     // Act & Assert 
+
+     assertThrows(IllegalArgumentException.class, () -> inventoryService.getAllProducts(null, 0));
+
+     assertThrows(IllegalArgumentException.class, () -> inventoryService.getAllProducts(null, 1001));
 
    }
 
- }
\ No newline at end of file
+ }
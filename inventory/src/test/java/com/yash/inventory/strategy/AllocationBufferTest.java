@@ -0,0 +1,185 @@
+ package com.yash.inventory.strategy;
+
+ import com.yash.inventory.entity.Batch;
+
+ import com.yash.inventory.entity.Product;
+
+ import com.yash.inventory.exception.InsufficientInventoryException;
+
+ import org.junit.jupiter.api.BeforeEach;
+
+ import org.junit.jupiter.api.Test;
+
+ import java.lang.management.ManagementFactory;
+
+ import java.time.LocalDate;
+
+ import java.util.ArrayList;
+
+ import java.util.Collections;
+
+ import java.util.List;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+ class AllocationBufferTest {
+
+   private static final int BATCH_COUNT = 1000;
+
+   private final InventoryStrategy[] strategies = { new FEFOStrategy(), new FIFOStrategy() };
+
+   private List < Batch > orderedBatches;
+
+   @BeforeEach
+
+   void setUp() {
+
+     Product product = new Product();
+
+     product.setId(1L);
+
+     List < Batch > batches = new ArrayList < > (BATCH_COUNT);
+
+     for (int i = 0; i < BATCH_COUNT; i++) {
+
+       // Every fourth batch is empty and must be skipped
+
+       batches.add(new Batch((long) i + 1, "BATCH-" + i, product, i % 4 == 0 ? 0 : 10,
+
+         LocalDate.now().plusDays(i), LocalDate.now().minusDays(BATCH_COUNT - i)));
+
+     }
+
+     orderedBatches = Collections.unmodifiableList(batches);
+
+   }
+
+   @Test
+
+   void testAllocateInto_FillsPrimitiveSlicesInOrder() {
+
+     // Arrange
+
+     AllocationBuffer buffer = new AllocationBuffer(2);
+
+     // Act
+
+     strategies[0].allocateInto(orderedBatches, 25, 7500, buffer);
+
+     // Assert - batch 1 is empty, batches 2 and 3 are drained, batch 4 gives the rest
+
+     assertEquals(3, buffer.size());
+
+     assertEquals(2L, buffer.batchId(0));
+
+     assertEquals(1, buffer.position(0));
+
+     assertEquals(10, buffer.quantity(0));
+
+     assertEquals(3L, buffer.batchId(1));
+
+     assertEquals(4L, buffer.batchId(2));
+
+     assertEquals(5, buffer.quantity(2));
+
+     assertThrows(IndexOutOfBoundsException.class, () -> buffer.batchId(3));
+
+   }
+
+   @Test
+
+   void testAllocateInto_ClearsPreviousResult() {
+
+     // Arrange
+
+     AllocationBuffer buffer = new AllocationBuffer();
+
+     strategies[1].allocateInto(orderedBatches, 100, 7500, buffer);
+
+     // Act
+
+     strategies[1].allocateInto(orderedBatches, 3, 7500, buffer);
+
+     // Assert
+
+     assertEquals(1, buffer.size());
+
+     assertEquals(3, buffer.quantity(0));
+
+   }
+
+   @Test
+
+   void testAllocateInto_InsufficientStock() {
+
+     // Arrange
+
+     AllocationBuffer buffer = new AllocationBuffer();
+
+     // Act & Assert - a stale total that overstates the batches is still caught
+
+     assertThrows(InsufficientInventoryException.class, () -> strategies[0].allocateInto(orderedBatches, 8000, 7500, buffer));
+
+     assertThrows(InsufficientInventoryException.class, () -> strategies[0].allocateInto(orderedBatches, 7600, 9000, buffer));
+
+   }
+
+   @Test
+
+   void testAllocateInto_AllocatesNothingInSteadyState() {
+
+     // Arrange
+
+     assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+
+     com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+     assumeTrue(threads.isThreadAllocatedMemorySupported());
+
+     threads.setThreadAllocatedMemoryEnabled(true);
+
+     AllocationBuffer buffer = new AllocationBuffer();
+
+     long threadId = Thread.currentThread().getId();
+
+     int iterations = 100_000;
+
+     long checksum = 0;
+
+     for (int i = 0; i < iterations; i++) {
+
+       checksum += allocate(buffer, i);
+
+     }
+
+     // Act
+
+     long before = threads.getThreadAllocatedBytes(threadId);
+
+     for (int i = 0; i < iterations; i++) {
+
+       checksum += allocate(buffer, i);
+
+     }
+
+     long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+     // Assert - allow for the measuring call itself, nothing per iteration
+
+     assertTrue(checksum > 0);
+
+     assertTrue(allocated < 1024, "Expected no allocation per call, measured " + allocated + " bytes over " + iterations + " calls");
+
+   }
+
+   private long allocate(AllocationBuffer buffer, int i) {
+
+     strategies[i & 1].allocateInto(orderedBatches, 1 + (i % 200), 7500, buffer);
+
+     return buffer.size();
+
+   }
+
+ }
@@ -20,6 +20,10 @@
 
  import static org.junit.jupiter.api.Assertions.*;
 
+ import static org.mockito.Mockito.mock;
+
+ import static org.mockito.Mockito.verifyNoInteractions;
+
  class FEFOStrategyTest {
 
    private FEFOStrategy fefoStrategy;
@@ -220,6 +224,32 @@
 
    @Test
 
+   void testAllocate_KnownTotalBelowNeed_FailsWithoutReadingBatches() {
+
+     // Arrange - the caller's running total is trusted, the batch list is never summed 
+
+     @SuppressWarnings("unchecked")
+
+     List < Batch > untouched = mock(List.class);
+
+     // Act & Assert 
+
+     InsufficientInventoryException exception = assertThrows(
+
+       InsufficientInventoryException.class,
+
+       () -> fefoStrategy.allocate(untouched, 150, 100L)
+
+     );
+
+     assertTrue(exception.getMessage().contains("Available: 100"));
+
+     verifyNoInteractions(untouched);
+
+   }
+
+   @Test
+
    void testAllocate_CorrectSortingByExpiryDate() {
 
      // Arrange 
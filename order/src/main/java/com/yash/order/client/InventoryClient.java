@@ -8,10 +8,15 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import com.yash.order.dto.BulkInventoryUpdateRequest;
+import com.yash.order.dto.BulkInventoryUpdateResponse;
+import com.yash.order.dto.InventoryAvailabilityResponse;
 import com.yash.order.dto.InventoryBatchResponse;
 import com.yash.order.dto.InventoryUpdateRequest;
 import com.yash.order.dto.InventoryUpdateResponse;
 
+import reactor.core.publisher.Mono;
+
 /**
  * 
  *  * Client to communicate with Inventory Service
@@ -71,6 +76,44 @@ public class InventoryClient {
 
 	}
 
+	/**
+	 * 
+	 *  * Get the available quantity of several products without blocking the caller
+	 * 
+	 *  *
+	 * 
+	 *  * @param productCodes Product codes
+	 * 
+	 *  * @return Available quantities, one per distinct known product code, emitted when the response arrives
+	 * 
+	 *  * Unknown product codes are left out
+	 * 
+	 *  
+	 */
+
+	public Mono<List<InventoryAvailabilityResponse>> checkAvailabilityAsync(List<String> productCodes) {
+
+		return webClient.get()
+
+				.uri(uriBuilder -> uriBuilder.path("/inventory/available")
+
+						.queryParam("productCodes", productCodes)
+
+						.build())
+
+				.retrieve()
+
+				.bodyToMono(new ParameterizedTypeReference<List<InventoryAvailabilityResponse>>() {
+				})
+
+				.onErrorMap(WebClientResponseException.class,
+
+						e -> new RuntimeException("Failed to check availability for products: " + productCodes +
+
+								". Error: " + e.getResponseBodyAsString(), e));
+
+	}
+
 	/**
 	 * 
 	 *  * Update inventory after order placement
@@ -110,4 +153,56 @@ public class InventoryClient {
 
 	}
 
+	/**
+	 * 
+	 *  * Update inventory for all order lines in one call (all-or-nothing)
+	 * 
+	 *  *
+	 * 
+	 *  * @param request Bulk inventory update request
+	 * 
+	 *  * @return Update responses, one per line in request order
+	 * 
+	 *  
+	 */
+
+	public BulkInventoryUpdateResponse updateInventoryBatch(BulkInventoryUpdateRequest request) {
+
+		return updateInventoryBatchAsync(request).block();
+
+	}
+
+	/**
+	 * 
+	 *  * Update inventory for all order lines in one call (all-or-nothing) without blocking the caller
+	 * 
+	 *  *
+	 * 
+	 *  * @param request Bulk inventory update request
+	 * 
+	 *  * @return Update responses, one per line in request order
+	 * 
+	 *  
+	 */
+
+	public Mono<BulkInventoryUpdateResponse> updateInventoryBatchAsync(BulkInventoryUpdateRequest request) {
+
+		return webClient.post()
+
+				.uri("/inventory/update/batch")
+
+				.bodyValue(request)
+
+				.retrieve()
+
+				.bodyToMono(BulkInventoryUpdateResponse.class)
+
+				.onErrorMap(WebClientResponseException.class,
+
+						e -> new RuntimeException("Failed to update inventory for " + request.getItems().size() + " items" +
+
+								". Error: " + e.getResponseBodyAsString(), e));
+
+	}
+
 }
\ No newline at end of file
@@ -14,6 +14,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import org.springframework.context.annotation.Profile;
+
 import org.springframework.http.HttpStatus;
 
 import org.springframework.http.ResponseEntity;
@@ -25,6 +27,8 @@ import org.slf4j.LoggerFactory;
 
 @RestController
 
+@Profile("!reactive")
+
 @RequestMapping("/order")
 
 @Tag(name = "Order Management", description = "APIs for processing customer orders")
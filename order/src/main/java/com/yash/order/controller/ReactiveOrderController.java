@@ -0,0 +1,112 @@
+package com.yash.order.controller;
+
+import com.yash.order.dto.OrderRequest;
+
+import com.yash.order.service.ReactiveOrderService;
+
+import io.swagger.v3.oas.annotations.Operation;
+
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.context.annotation.Profile;
+
+import org.springframework.http.HttpStatus;
+
+import org.springframework.http.ResponseEntity;
+
+import org.springframework.web.bind.annotation.*;
+
+import reactor.core.publisher.Mono;
+
+@RestController
+
+@Profile("reactive")
+
+@RequestMapping("/order")
+
+@Tag(name = "Order Management", description = "APIs for processing customer orders")
+
+public class ReactiveOrderController {
+
+	private final ReactiveOrderService orderService;
+
+	public ReactiveOrderController(ReactiveOrderService orderService) {
+
+		this.orderService = orderService;
+
+	}
+
+	/**
+	 * 
+	 *  * POST /order - Place a new order without blocking the event loop
+	 * 
+	 *  * 
+	 * 
+	 *  * @param request Order request with customer details and items
+	 * 
+	 *  * @return Order response with order details
+	 * 
+	 *  
+	 */
+
+	@Operation(summary = "Place a new order",
+
+			description = "Creates a new order, validates inventory availability, and updates stock. " +
+
+					"Communicates with Inventory Service to ensure sufficient stock before order confirmation.")
+
+	@ApiResponses(value = {
+
+			@ApiResponse(responseCode = "201", description = "Order created successfully"),
+
+			@ApiResponse(responseCode = "400", description = "Invalid request or insufficient inventory"),
+
+			@ApiResponse(responseCode = "500", description = "Order processing failed")
+
+	})
+
+	@PostMapping
+
+	public Mono<ResponseEntity<?>> placeOrder(
+
+			@io.swagger.v3.oas.annotations.parameters.RequestBody(
+
+					description = "Order request containing customer information and list of items to order",
+
+					required = true)
+
+			@RequestBody OrderRequest request) {
+
+		return orderService.processOrder(request)
+
+				.<ResponseEntity<?>>map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response))
+
+				.onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+
+						.body(new ErrorResponse(e.getMessage()))))
+
+				.onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+
+						.body(new ErrorResponse("Order processing failed: " + e.getMessage()))))
+
+				.onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+
+						.body(new ErrorResponse("Internal server error: " + e.getMessage()))));
+
+	}
+
+	/**
+	 * 
+	 *  * Error response DTO
+	 * 
+	 *  
+	 */
+
+	private record ErrorResponse(String error) {
+	}
+
+}
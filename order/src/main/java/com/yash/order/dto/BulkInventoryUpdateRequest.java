@@ -0,0 +1,35 @@
+package com.yash.order.dto;
+
+import java.util.List;
+
+/**
+ * 
+ *  * DTO for Inventory Service bulk update request
+ * 
+ *  
+ */
+
+
+public class BulkInventoryUpdateRequest {
+
+	private List<InventoryUpdateRequest> items;
+
+	public List<InventoryUpdateRequest> getItems() {
+		return items;
+	}
+
+	public void setItems(List<InventoryUpdateRequest> items) {
+		this.items = items;
+	}
+
+	public BulkInventoryUpdateRequest(List<InventoryUpdateRequest> items) {
+		super();
+		this.items = items;
+	}
+
+	public BulkInventoryUpdateRequest() {
+		super();
+		// TODO Auto-generated constructor stub
+	}
+
+}
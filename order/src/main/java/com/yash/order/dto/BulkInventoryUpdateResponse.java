@@ -0,0 +1,57 @@
+package com.yash.order.dto;
+
+import java.util.List;
+
+/**
+ * 
+ *  * DTO for Inventory Service bulk update response
+ * 
+ *  
+ */
+
+
+public class BulkInventoryUpdateResponse {
+
+	private boolean success;
+
+	private String message;
+
+	private List<InventoryUpdateResponse> results;
+
+	public boolean isSuccess() {
+		return success;
+	}
+
+	public void setSuccess(boolean success) {
+		this.success = success;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	public List<InventoryUpdateResponse> getResults() {
+		return results;
+	}
+
+	public void setResults(List<InventoryUpdateResponse> results) {
+		this.results = results;
+	}
+
+	public BulkInventoryUpdateResponse(boolean success, String message, List<InventoryUpdateResponse> results) {
+		super();
+		this.success = success;
+		this.message = message;
+		this.results = results;
+	}
+
+	public BulkInventoryUpdateResponse() {
+		super();
+		// TODO Auto-generated constructor stub
+	}
+
+}
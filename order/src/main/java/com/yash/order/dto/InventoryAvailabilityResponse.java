@@ -0,0 +1,55 @@
+package com.yash.order.dto;
+
+/**
+ * 
+ *  * DTO for Inventory Service availability response
+ * 
+ *  
+ */
+
+
+public class InventoryAvailabilityResponse {
+
+	private String productCode;
+
+	private String productName;
+
+	private Long availableQuantity;
+
+	public String getProductCode() {
+		return productCode;
+	}
+
+	public void setProductCode(String productCode) {
+		this.productCode = productCode;
+	}
+
+	public String getProductName() {
+		return productName;
+	}
+
+	public void setProductName(String productName) {
+		this.productName = productName;
+	}
+
+	public Long getAvailableQuantity() {
+		return availableQuantity;
+	}
+
+	public void setAvailableQuantity(Long availableQuantity) {
+		this.availableQuantity = availableQuantity;
+	}
+
+	public InventoryAvailabilityResponse(String productCode, String productName, Long availableQuantity) {
+		super();
+		this.productCode = productCode;
+		this.productName = productName;
+		this.availableQuantity = availableQuantity;
+	}
+
+	public InventoryAvailabilityResponse() {
+		super();
+		// TODO Auto-generated constructor stub
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.yash.order.entity;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/** 
+
+ * R2DBC mapping of the orders table, used by the reactive order pipeline 
+
+ * Items are stored separately as {@link ReactiveOrderItem} rows because R2DBC has no relationships 
+
+ */
+
+@Table("orders")
+
+public class ReactiveOrder {
+
+  @Id
+
+  private Long id;
+
+  private String orderNumber;
+
+  private String customerName;
+
+  private String customerEmail;
+
+  private Order.OrderStatus status;
+
+  private LocalDateTime orderDate;
+
+  private Double totalAmount;
+
+  public Long getId() {
+	return id;
+  }
+
+  public void setId(Long id) {
+	this.id = id;
+  }
+
+  public String getOrderNumber() {
+	return orderNumber;
+  }
+
+  public void setOrderNumber(String orderNumber) {
+	this.orderNumber = orderNumber;
+  }
+
+  public String getCustomerName() {
+	return customerName;
+  }
+
+  public void setCustomerName(String customerName) {
+	this.customerName = customerName;
+  }
+
+  public String getCustomerEmail() {
+	return customerEmail;
+  }
+
+  public void setCustomerEmail(String customerEmail) {
+	this.customerEmail = customerEmail;
+  }
+
+  public Order.OrderStatus getStatus() {
+	return status;
+  }
+
+  public void setStatus(Order.OrderStatus status) {
+	this.status = status;
+  }
+
+  public LocalDateTime getOrderDate() {
+	return orderDate;
+  }
+
+  public void setOrderDate(LocalDateTime orderDate) {
+	this.orderDate = orderDate;
+  }
+
+  public Double getTotalAmount() {
+	return totalAmount;
+  }
+
+  public void setTotalAmount(Double totalAmount) {
+	this.totalAmount = totalAmount;
+  }
+
+  public ReactiveOrder() {
+	super();
+	// TODO Auto-generated constructor stub
+  }
+
+}
@@ -0,0 +1,103 @@
+package com.yash.order.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/** 
+
+ * R2DBC mapping of the order_items table, used by the reactive order pipeline 
+
+ */
+
+@Table("order_items")
+
+public class ReactiveOrderItem {
+
+  @Id
+
+  private Long id;
+
+  private Long orderId;
+
+  private String productCode;
+
+  private String productName;
+
+  private Integer quantity;
+
+  private Double unitPrice;
+
+  private Double totalPrice;
+
+  private String batchAllocations; // JSON string: [{"batchNumber":"BATCH001","quantity":5}] 
+
+  public Long getId() {
+	return id;
+  }
+
+  public void setId(Long id) {
+	this.id = id;
+  }
+
+  public Long getOrderId() {
+	return orderId;
+  }
+
+  public void setOrderId(Long orderId) {
+	this.orderId = orderId;
+  }
+
+  public String getProductCode() {
+	return productCode;
+  }
+
+  public void setProductCode(String productCode) {
+	this.productCode = productCode;
+  }
+
+  public String getProductName() {
+	return productName;
+  }
+
+  public void setProductName(String productName) {
+	this.productName = productName;
+  }
+
+  public Integer getQuantity() {
+	return quantity;
+  }
+
+  public void setQuantity(Integer quantity) {
+	this.quantity = quantity;
+  }
+
+  public Double getUnitPrice() {
+	return unitPrice;
+  }
+
+  public void setUnitPrice(Double unitPrice) {
+	this.unitPrice = unitPrice;
+  }
+
+  public Double getTotalPrice() {
+	return totalPrice;
+  }
+
+  public void setTotalPrice(Double totalPrice) {
+	this.totalPrice = totalPrice;
+  }
+
+  public String getBatchAllocations() {
+	return batchAllocations;
+  }
+
+  public void setBatchAllocations(String batchAllocations) {
+	this.batchAllocations = batchAllocations;
+  }
+
+  public ReactiveOrderItem() {
+	super();
+	// TODO Auto-generated constructor stub
+  }
+
+}
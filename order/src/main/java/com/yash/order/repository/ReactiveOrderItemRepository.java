@@ -0,0 +1,17 @@
+package com.yash.order.repository;
+
+import com.yash.order.entity.ReactiveOrderItem;
+
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Flux;
+
+@Repository
+
+public interface ReactiveOrderItemRepository extends R2dbcRepository < ReactiveOrderItem, Long > {
+
+  Flux < ReactiveOrderItem > findByOrderId(Long orderId);
+
+}
@@ -0,0 +1,17 @@
+package com.yash.order.repository;
+
+import com.yash.order.entity.ReactiveOrder;
+
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Mono;
+
+@Repository
+
+public interface ReactiveOrderRepository extends R2dbcRepository < ReactiveOrder, Long > {
+
+  Mono < ReactiveOrder > findByOrderNumber(String orderNumber);
+
+}
@@ -0,0 +1,169 @@
+package com.yash.order.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.yash.order.client.InventoryClient;
+import com.yash.order.dto.InventoryAvailabilityResponse;
+import com.yash.order.dto.OrderRequest;
+import com.yash.order.exception.InsufficientInventoryException;
+import com.yash.order.exception.OrderProcessingException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 
+ *  * Inventory data looked up once per order and shared by every step that needs it
+ * 
+ *  * Each distinct product code of the order is fetched exactly once
+ * 
+ *  
+ */
+
+class InventoryLookupContext {
+
+	private final Map<String, InventoryAvailabilityResponse> availabilityByProduct;
+
+	private InventoryLookupContext(Map<String, InventoryAvailabilityResponse> availabilityByProduct) {
+
+		this.availabilityByProduct = availabilityByProduct;
+
+	}
+
+	/**
+	 * 
+	 *  * Fetch availability and product names for all products of an order and check there is enough stock
+	 * 
+	 *  * Products are fetched in chunks, with up to {@code parallelism} chunks in flight at once. The first
+	 * 
+	 *  * chunk that reveals a shortfall fails the lookup and cancels the chunks still in flight.
+	 * 
+	 *  *
+	 * 
+	 *  * @param inventoryClient Inventory service client
+	 * 
+	 *  * @param request Validated order request
+	 * 
+	 *  * @param parallelism Maximum number of concurrent inventory calls
+	 * 
+	 *  * @param chunkSize Maximum number of products per inventory call
+	 * 
+	 *  * @return Lookup context for this order
+	 * 
+	 *  
+	 */
+
+	static InventoryLookupContext load(InventoryClient inventoryClient, OrderRequest request, int parallelism,
+
+			int chunkSize) {
+
+		return loadAsync(inventoryClient, request, parallelism, chunkSize).block();
+
+	}
+
+	/**
+	 * 
+	 *  * Non-blocking form of {@link #load}, completing once every chunk has been fetched and checked
+	 * 
+	 *  
+	 */
+
+	static Mono<InventoryLookupContext> loadAsync(InventoryClient inventoryClient, OrderRequest request,
+
+			int parallelism, int chunkSize) {
+
+		// Quantity needed per distinct product, across all lines of the order
+
+		Map<String, Integer> quantitiesNeeded = new LinkedHashMap<>();
+
+		for (OrderRequest.OrderItemRequest item : request.getItems()) {
+
+			quantitiesNeeded.merge(item.getProductCode(), item.getQuantity(), Integer::sum);
+
+		}
+
+		List<List<String>> chunks = new ArrayList<>();
+
+		List<String> productCodes = new ArrayList<>(quantitiesNeeded.keySet());
+
+		for (int from = 0; from < productCodes.size(); from += chunkSize) {
+
+			chunks.add(productCodes.subList(from, Math.min(from + chunkSize, productCodes.size())));
+
+		}
+
+		Map<String, InventoryAvailabilityResponse> availabilityByProduct = new ConcurrentHashMap<>();
+
+		return Flux.fromIterable(chunks)
+
+				.flatMap(chunk -> inventoryClient.checkAvailabilityAsync(chunk)
+
+						.onErrorMap(e -> new OrderProcessingException("Failed to check inventory: " + e.getMessage(), e))
+
+						.doOnNext(availability -> {
+
+							if (availability != null) {
+
+								availability.forEach(product -> availabilityByProduct.put(product.getProductCode(), product));
+
+							}
+
+							chunk.forEach(productCode -> verifyAvailable(availabilityByProduct.get(productCode),
+
+									productCode, quantitiesNeeded.get(productCode)));
+
+						}), parallelism)
+
+				.then(Mono.fromCallable(() -> new InventoryLookupContext(availabilityByProduct)));
+
+	}
+
+	/**
+	 * 
+	 *  * Check that a looked-up product holds enough stock
+	 * 
+	 *  
+	 */
+
+	private static void verifyAvailable(InventoryAvailabilityResponse product, String productCode, int quantityNeeded) {
+
+		long totalAvailable = product == null || product.getAvailableQuantity() == null ? 0 : product.getAvailableQuantity();
+
+		if (totalAvailable == 0) {
+
+			throw new OrderProcessingException("Product not found or no inventory available: " + productCode);
+
+		}
+
+		if (totalAvailable < quantityNeeded) {
+
+			throw new InsufficientInventoryException(
+
+					"Insufficient inventory for product " + productCode +
+
+							". Available: " + totalAvailable + ", Needed: " + quantityNeeded);
+
+		}
+
+	}
+
+	/**
+	 * 
+	 *  * Get the product name, falling back to the product code when it is unknown
+	 * 
+	 *  
+	 */
+
+	String getProductName(String productCode) {
+
+		InventoryAvailabilityResponse product = availabilityByProduct.get(productCode);
+
+		return product != null && product.getProductName() != null ? product.getProductName() : productCode;
+
+	}
+
+}
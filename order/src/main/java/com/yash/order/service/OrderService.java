@@ -8,17 +8,19 @@ import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import com.yash.order.client.InventoryClient;
-import com.yash.order.dto.InventoryBatchResponse;
+import com.yash.order.dto.BulkInventoryUpdateRequest;
+import com.yash.order.dto.BulkInventoryUpdateResponse;
 import com.yash.order.dto.InventoryUpdateRequest;
 import com.yash.order.dto.InventoryUpdateResponse;
 import com.yash.order.dto.OrderRequest;
 import com.yash.order.dto.OrderResponse;
 import com.yash.order.entity.Order;
 import com.yash.order.entity.OrderItem;
-import com.yash.order.exception.InsufficientInventoryException;
 import com.yash.order.exception.OrderProcessingException;
 import com.yash.order.repository.OrderRepository;
 
@@ -26,6 +28,8 @@ import jakarta.transaction.Transactional;
 
 @Service
 
+@Profile("!reactive")
+
 public class OrderService {
 
 	private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
@@ -34,12 +38,30 @@ public class OrderService {
 
 	private final InventoryClient inventoryClient;
 
-	public OrderService(OrderRepository orderRepository, InventoryClient inventoryClient) {
+	private final int lookupParallelism;
+
+	private final int lookupChunkSize;
+
+	public OrderService(OrderRepository orderRepository, InventoryClient inventoryClient,
+
+			@Value("${inventory.lookup.parallelism:4}") int lookupParallelism,
+
+			@Value("${inventory.lookup.chunk-size:5}") int lookupChunkSize) {
+
+		if (lookupParallelism <= 0 || lookupChunkSize <= 0) {
+
+			throw new IllegalArgumentException("Inventory lookup parallelism and chunk size must be positive");
+
+		}
 
 		this.orderRepository = orderRepository;
 
 		this.inventoryClient = inventoryClient;
 
+		this.lookupParallelism = lookupParallelism;
+
+		this.lookupChunkSize = lookupChunkSize;
+
 	}
 
 	/**
@@ -66,29 +88,29 @@ public class OrderService {
 
 		logger.info("second");
 
-		// Check inventory availability for all items
+		// Look up every distinct product once, checking availability concurrently and failing fast
 
-		for (OrderRequest.OrderItemRequest item : request.getItems()) {
+		InventoryLookupContext lookups = InventoryLookupContext.load(inventoryClient, request, lookupParallelism,
 
-			checkInventoryAvailability(item.getProductCode(), item.getQuantity());
-
-		}
+				lookupChunkSize);
 
 		logger.info("third");
 
 		// Create order
 
-		Order order = createOrder(request);
+		Order order = createOrder(request, lookups);
 
-		// Update inventory for each item and capture batch allocations
+		// Update inventory for all items in one call and capture batch allocations
 
 		List<String> inventoryUpdates = new ArrayList<>();
 
 		try {
 
+			List<InventoryUpdateRequest> updateRequests = new ArrayList<>();
+
 			for (OrderItem item : order.getOrderItems()) {
 
-				InventoryUpdateRequest updateRequest = new InventoryUpdateRequest(
+				updateRequests.add(new InventoryUpdateRequest(
 
 						item.getProductCode(),
 
@@ -96,9 +118,21 @@ public class OrderService {
 
 						null // Use default strategy
 
-				);
+				));
+
+			}
+
+			BulkInventoryUpdateResponse bulkResponse = inventoryClient
+
+					.updateInventoryBatch(new BulkInventoryUpdateRequest(updateRequests));
 
-				InventoryUpdateResponse updateResponse = inventoryClient.updateInventory(updateRequest);
+			// Results come back in request order, one per order item
+
+			for (int i = 0; i < order.getOrderItems().size(); i++) {
+
+				OrderItem item = order.getOrderItems().get(i);
+
+				InventoryUpdateResponse updateResponse = bulkResponse.getResults().get(i);
 
 				inventoryUpdates.add(updateResponse.getMessage());
 
@@ -145,7 +179,7 @@ public class OrderService {
 	 *  
 	 */
 
-	private void validateOrderRequest(OrderRequest request) {
+	static void validateOrderRequest(OrderRequest request) {
 
 		if (request.getCustomerName() == null || request.getCustomerName().isEmpty()) {
 
@@ -177,56 +211,6 @@ public class OrderService {
 
 	}
 
-	/**
-	 * 
-	 *  * Check inventory availability
-	 * 
-	 *  
-	 */
-
-	private void checkInventoryAvailability(String productCode, int quantityNeeded) {
-
-		logger.info("checkInventoryAvailability Method start");
-		try {
-
-			List<InventoryBatchResponse> batches = inventoryClient.checkInventory(productCode);
-
-			if (batches == null || batches.isEmpty()) {
-
-				throw new OrderProcessingException("Product not found or no inventory available: " + productCode);
-
-			}
-
-			int totalAvailable = batches.stream()
-
-					.mapToInt(InventoryBatchResponse::getQuantity)
-
-					.sum();
-
-			if (totalAvailable < quantityNeeded) {
-
-				throw new InsufficientInventoryException(
-
-						"Insufficient inventory for product " + productCode +
-
-								". Available: " + totalAvailable + ", Needed: " + quantityNeeded);
-
-			}
-
-		} catch (InsufficientInventoryException e) {
-
-			throw e;
-
-		} catch (RuntimeException e) {
-
-			throw new OrderProcessingException("Failed to check inventory: " + e.getMessage(), e);
-
-		}
-
-		logger.info("checkInventoryAvailability Method end");
-
-	}
-
 	/**
 	 * 
 	 *  * Create order entity
@@ -234,7 +218,7 @@ public class OrderService {
 	 *  
 	 */
 
-	private Order createOrder(OrderRequest request) {
+	private Order createOrder(OrderRequest request, InventoryLookupContext lookups) {
 
 		Order order = new Order();
 
@@ -264,9 +248,9 @@ public class OrderService {
 
 			orderItem.setQuantity(itemRequest.getQuantity());
 
-			// Fetch product name from inventory
+			// Product name comes from the lookups made for the availability check
 
-			String productName = getProductName(itemRequest.getProductCode());
+			String productName = lookups.getProductName(itemRequest.getProductCode());
 
 			orderItem.setProductName(productName);
 
@@ -296,35 +280,6 @@ public class OrderService {
 
 	}
 
-	/**
-	 * 
-	 *  * Get product name from inventory service
-	 * 
-	 *  
-	 */
-
-	private String getProductName(String productCode) {
-
-		try {
-
-			List<InventoryBatchResponse> batches = inventoryClient.checkInventory(productCode);
-
-			if (batches != null && !batches.isEmpty() && batches.get(0).getProductName() != null) {
-
-				return batches.get(0).getProductName();
-
-			}
-
-			return productCode; // Fallback to product code if name not found
-
-		} catch (Exception e) {
-
-			return productCode; // Fallback to product code on error
-
-		}
-
-	}
-
 	/**
 	 * 
 	 *  * Build order response
@@ -385,7 +340,7 @@ public class OrderService {
 	 *  
 	 */
 
-	private String generateOrderNumber() {
+	static String generateOrderNumber() {
 
 		return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
 
@@ -398,7 +353,7 @@ public class OrderService {
 	 *  
 	 */
 
-	private String buildBatchAllocationsString(List<InventoryUpdateResponse.BatchAllocation> allocations) {
+	static String buildBatchAllocationsString(List<InventoryUpdateResponse.BatchAllocation> allocations) {
 
 		if (allocations == null || allocations.isEmpty()) {
 
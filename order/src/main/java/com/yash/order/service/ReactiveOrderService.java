@@ -0,0 +1,337 @@
+package com.yash.order.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.yash.order.client.InventoryClient;
+import com.yash.order.dto.BulkInventoryUpdateRequest;
+import com.yash.order.dto.BulkInventoryUpdateResponse;
+import com.yash.order.dto.InventoryUpdateRequest;
+import com.yash.order.dto.InventoryUpdateResponse;
+import com.yash.order.dto.OrderRequest;
+import com.yash.order.dto.OrderResponse;
+import com.yash.order.entity.Order;
+import com.yash.order.entity.ReactiveOrder;
+import com.yash.order.entity.ReactiveOrderItem;
+import com.yash.order.exception.OrderProcessingException;
+import com.yash.order.repository.ReactiveOrderItemRepository;
+import com.yash.order.repository.ReactiveOrderRepository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 
+ *  * Non-blocking order pipeline, active with the "reactive" profile
+ * 
+ *  * Same steps as {@link OrderService}, composed as one Mono chain over WebClient and R2DBC
+ * 
+ *  
+ */
+
+@Service
+
+@Profile("reactive")
+
+public class ReactiveOrderService {
+
+	private final ReactiveOrderRepository orderRepository;
+
+	private final ReactiveOrderItemRepository orderItemRepository;
+
+	private final InventoryClient inventoryClient;
+
+	private final TransactionalOperator transactionalOperator;
+
+	private final int lookupParallelism;
+
+	private final int lookupChunkSize;
+
+	public ReactiveOrderService(ReactiveOrderRepository orderRepository,
+
+			ReactiveOrderItemRepository orderItemRepository,
+
+			InventoryClient inventoryClient,
+
+			TransactionalOperator transactionalOperator,
+
+			@Value("${inventory.lookup.parallelism:4}") int lookupParallelism,
+
+			@Value("${inventory.lookup.chunk-size:5}") int lookupChunkSize) {
+
+		if (lookupParallelism <= 0 || lookupChunkSize <= 0) {
+
+			throw new IllegalArgumentException("Inventory lookup parallelism and chunk size must be positive");
+
+		}
+
+		this.orderRepository = orderRepository;
+
+		this.orderItemRepository = orderItemRepository;
+
+		this.inventoryClient = inventoryClient;
+
+		this.transactionalOperator = transactionalOperator;
+
+		this.lookupParallelism = lookupParallelism;
+
+		this.lookupChunkSize = lookupChunkSize;
+
+	}
+
+	/**
+	 * 
+	 *  * Process order - validate, create order, and update inventory
+	 * 
+	 *  *
+	 * 
+	 *  * @param request Order request
+	 * 
+	 *  * @return Order response, emitted once the order is confirmed
+	 * 
+	 *  
+	 */
+
+	public Mono<OrderResponse> processOrder(OrderRequest request) {
+
+		return Mono.fromRunnable(() -> OrderService.validateOrderRequest(request))
+
+				// Look up every distinct product once, checking availability concurrently and failing fast
+
+				.then(Mono.defer(() -> InventoryLookupContext.loadAsync(inventoryClient, request, lookupParallelism,
+
+						lookupChunkSize)))
+
+				.flatMap(lookups -> createOrder(request, lookups))
+
+				.flatMap(this::updateInventory)
+
+				.map(placed -> buildOrderResponse(placed, "Order placed successfully"));
+
+	}
+
+	/**
+	 * 
+	 *  * Create and save the pending order with its items in one transaction
+	 * 
+	 *  
+	 */
+
+	private Mono<PlacedOrder> createOrder(OrderRequest request, InventoryLookupContext lookups) {
+
+		ReactiveOrder order = new ReactiveOrder();
+
+		order.setOrderNumber(OrderService.generateOrderNumber());
+
+		order.setCustomerName(request.getCustomerName());
+
+		order.setCustomerEmail(request.getCustomerEmail());
+
+		order.setStatus(Order.OrderStatus.PENDING);
+
+		order.setOrderDate(LocalDateTime.now());
+
+		List<ReactiveOrderItem> orderItems = new ArrayList<>();
+
+		double totalAmount = 0.0;
+
+		for (OrderRequest.OrderItemRequest itemRequest : request.getItems()) {
+
+			ReactiveOrderItem orderItem = new ReactiveOrderItem();
+
+			orderItem.setProductCode(itemRequest.getProductCode());
+
+			orderItem.setQuantity(itemRequest.getQuantity());
+
+			orderItem.setProductName(lookups.getProductName(itemRequest.getProductCode()));
+
+			double unitPrice = itemRequest.getUnitPrice() != null ? itemRequest.getUnitPrice() : 0.0;
+
+			double itemTotal = unitPrice * itemRequest.getQuantity();
+
+			orderItem.setUnitPrice(unitPrice);
+
+			orderItem.setTotalPrice(itemTotal);
+
+			totalAmount += itemTotal;
+
+			orderItems.add(orderItem);
+
+		}
+
+		order.setTotalAmount(totalAmount);
+
+		return orderRepository.save(order)
+
+				.flatMap(savedOrder -> {
+
+					orderItems.forEach(item -> item.setOrderId(savedOrder.getId()));
+
+					return orderItemRepository.saveAll(orderItems).collectList()
+
+							.map(savedItems -> new PlacedOrder(savedOrder, savedItems));
+
+				})
+
+				.as(transactionalOperator::transactional);
+
+	}
+
+	/**
+	 * 
+	 *  * Deduct inventory for all items in one call, then confirm the order
+	 * 
+	 *  * The order is marked failed only when the inventory call itself fails, so no stock was deducted.
+	 * 
+	 *  * If saving the confirmation fails after the deduction, the order is left pending for reconciliation
+	 * 
+	 *  * rather than marked failed while its stock stays deducted.
+	 * 
+	 *  
+	 */
+
+	private Mono<PlacedOrder> updateInventory(PlacedOrder placed) {
+
+		List<InventoryUpdateRequest> updateRequests = placed.items().stream()
+
+				.map(item -> new InventoryUpdateRequest(item.getProductCode(), item.getQuantity(), null))
+
+				.collect(Collectors.toList());
+
+		return inventoryClient.updateInventoryBatchAsync(new BulkInventoryUpdateRequest(updateRequests))
+
+				.onErrorResume(e -> {
+
+					// If inventory update fails, mark order as failed
+
+					placed.order().setStatus(Order.OrderStatus.FAILED);
+
+					return orderRepository.save(placed.order())
+
+							.then(Mono.error(new OrderProcessingException(
+
+									"Order created but inventory update failed: " + e.getMessage(), e)));
+
+				})
+
+				// Stock is deducted from here on, so a failure must not mark the order failed
+
+				.flatMap(bulkResponse -> confirmOrder(placed, bulkResponse)
+
+						.onErrorMap(e -> new OrderProcessingException("Inventory deducted but order " +
+
+								placed.order().getOrderNumber() + " could not be confirmed and is left pending: " +
+
+								e.getMessage(), e)));
+
+	}
+
+	/**
+	 * 
+	 *  * Record the batch allocations and confirm the order in one transaction
+	 * 
+	 *  
+	 */
+
+	private Mono<PlacedOrder> confirmOrder(PlacedOrder placed, BulkInventoryUpdateResponse bulkResponse) {
+
+		return Mono.defer(() -> {
+
+			// Results come back in request order, one per order item
+
+			for (int i = 0; i < placed.items().size(); i++) {
+
+				InventoryUpdateResponse updateResponse = bulkResponse.getResults().get(i);
+
+				if (updateResponse.getAllocations() != null && !updateResponse.getAllocations().isEmpty()) {
+
+					placed.items().get(i).setBatchAllocations(
+
+							OrderService.buildBatchAllocationsString(updateResponse.getAllocations()));
+
+				}
+
+			}
+
+			placed.order().setStatus(Order.OrderStatus.CONFIRMED);
+
+			return orderItemRepository.saveAll(placed.items()).then(orderRepository.save(placed.order()))
+
+					.thenReturn(placed);
+
+		}).as(transactionalOperator::transactional);
+
+	}
+
+	/**
+	 * 
+	 *  * Build order response
+	 * 
+	 *  
+	 */
+
+	private OrderResponse buildOrderResponse(PlacedOrder placed, String message) {
+
+		ReactiveOrder order = placed.order();
+
+		List<OrderResponse.OrderItemResponse> itemResponses = placed.items().stream()
+
+				.map(item -> new OrderResponse.OrderItemResponse(
+
+						item.getProductCode(),
+
+						item.getProductName(),
+
+						item.getQuantity(),
+
+						item.getUnitPrice(),
+
+						item.getTotalPrice(),
+
+						item.getBatchAllocations()
+
+				))
+
+				.collect(Collectors.toList());
+
+		return new OrderResponse(
+
+				order.getId(),
+
+				order.getOrderNumber(),
+
+				order.getCustomerName(),
+
+				order.getCustomerEmail(),
+
+				order.getStatus().name(),
+
+				order.getOrderDate(),
+
+				order.getTotalAmount(),
+
+				itemResponses,
+
+				message
+
+		);
+
+	}
+
+	/**
+	 * 
+	 *  * Saved order together with its saved items
+	 * 
+	 *  
+	 */
+
+	private record PlacedOrder(ReactiveOrder order, List<ReactiveOrderItem> items) {
+	}
+
+}
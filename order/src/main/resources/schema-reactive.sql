@@ -0,0 +1,22 @@
+-- Schema for the reactive profile; the default profile lets Hibernate create the same tables
+
+CREATE TABLE IF NOT EXISTS orders (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    order_number VARCHAR(255) NOT NULL UNIQUE,
+    customer_name VARCHAR(255) NOT NULL,
+    customer_email VARCHAR(255),
+    status VARCHAR(255) NOT NULL,
+    order_date TIMESTAMP NOT NULL,
+    total_amount DOUBLE
+);
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    order_id BIGINT NOT NULL REFERENCES orders (id),
+    product_code VARCHAR(255) NOT NULL,
+    product_name VARCHAR(255),
+    quantity INT NOT NULL,
+    unit_price DOUBLE,
+    total_price DOUBLE,
+    batch_allocations VARCHAR(1000)
+);
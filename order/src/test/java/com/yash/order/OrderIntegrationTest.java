@@ -22,6 +22,10 @@
 
  import org.springframework.boot.test.mock.mockito.MockBean;
 
+ import org.mockito.stubbing.Answer;
+
+ import reactor.core.publisher.Mono;
+
  import org.springframework.boot.test.web.client.TestRestTemplate;
 
  import org.springframework.boot.test.web.server.LocalServerPort;
@@ -38,13 +42,19 @@
 
  import java.util.Collections;
 
+ import java.util.HashMap;
+
  import java.util.List;
 
+ import java.util.Map;
+
+ import java.util.stream.Collectors;
+
  import static org.junit.jupiter.api.Assertions.*;
 
  import static org.mockito.ArgumentMatchers.any;
 
- import static org.mockito.ArgumentMatchers.anyString;
+ import static org.mockito.ArgumentMatchers.anyList;
 
  import static org.mockito.Mockito.when;
 
@@ -76,6 +86,8 @@
 
    private String baseUrl;
 
+   private final Map < String, InventoryAvailabilityResponse > stubbedAvailability = new HashMap < > ();
+
    @BeforeEach
 
    void setUp() {
@@ -126,7 +138,7 @@
 
      );
 
-     when(inventoryClient.checkInventory("PROD001")).thenReturn(inventoryBatches);
+     stubInventory("PROD001", inventoryBatches);
 
      InventoryUpdateResponse updateResponse = new InventoryUpdateResponse(
 
@@ -142,7 +154,7 @@
 
      );
 
-     when(inventoryClient.updateInventory(any(InventoryUpdateRequest.class))).thenReturn(updateResponse);
+     when(inventoryClient.updateInventoryBatch(any(BulkInventoryUpdateRequest.class))).thenAnswer(eachLine(updateResponse));
 
      // Act 
 
@@ -240,7 +252,7 @@
 
      // Mock inventory responses for both products 
 
-     when(inventoryClient.checkInventory("PROD001")).thenReturn(Arrays.asList(
+     stubInventory("PROD001", Arrays.asList(
 
        new InventoryBatchResponse(1L, "BATCH001", 10,
 
@@ -248,7 +260,7 @@
 
      ));
 
-     when(inventoryClient.checkInventory("PROD002")).thenReturn(Arrays.asList(
+     stubInventory("PROD002", Arrays.asList(
 
        new InventoryBatchResponse(2L, "BATCH002", 10,
 
@@ -256,13 +268,13 @@
 
      ));
 
-     when(inventoryClient.updateInventory(any(InventoryUpdateRequest.class))).thenReturn(
+     when(inventoryClient.updateInventoryBatch(any(BulkInventoryUpdateRequest.class))).thenAnswer(eachLine(
 
        new InventoryUpdateResponse(true, "Success", "PROD001", 3,
 
          Collections.singletonList(new InventoryUpdateResponse.BatchAllocation("BATCH001", 3)))
 
-     );
+     ));
 
      // Act 
 
@@ -324,7 +336,7 @@
 
      // Mock insufficient inventory 
 
-     when(inventoryClient.checkInventory("PROD001")).thenReturn(Arrays.asList(
+     stubInventory("PROD001", Arrays.asList(
 
        new InventoryBatchResponse(1L, "BATCH001", 5,
 
@@ -414,7 +426,7 @@
 
      // Mock inventory check succeeds but update fails 
 
-     when(inventoryClient.checkInventory("PROD001")).thenReturn(Arrays.asList(
+     stubInventory("PROD001", Arrays.asList(
 
        new InventoryBatchResponse(1L, "BATCH001", 10,
 
@@ -422,7 +434,7 @@
 
      ));
 
-     when(inventoryClient.updateInventory(any(InventoryUpdateRequest.class)))
+     when(inventoryClient.updateInventoryBatch(any(BulkInventoryUpdateRequest.class)))
 
        .thenThrow(new RuntimeException("Inventory service unavailable"));
 
@@ -474,7 +486,7 @@
 
      );
 
-     when(inventoryClient.checkInventory("PROD001")).thenReturn(Arrays.asList(
+     stubInventory("PROD001", Arrays.asList(
 
        new InventoryBatchResponse(1L, "BATCH001", 10,
 
@@ -504,7 +516,7 @@
 
      );
 
-     when(inventoryClient.updateInventory(any(InventoryUpdateRequest.class))).thenReturn(updateResponse);
+     when(inventoryClient.updateInventoryBatch(any(BulkInventoryUpdateRequest.class))).thenAnswer(eachLine(updateResponse));
 
      // Act 
 
@@ -568,21 +580,23 @@
 
      );
 
-     when(inventoryClient.checkInventory(anyString())).thenReturn(Arrays.asList(
+     List < InventoryBatchResponse > batches = Arrays.asList(
 
        new InventoryBatchResponse(1L, "BATCH001", 10,
 
          LocalDate.now().plusMonths(6), LocalDate.now(), "PROD001", "Product 1")
 
-     ));
+     );
 
-     when(inventoryClient.updateInventory(any())).thenReturn(
+     stubInventory("PROD001", batches);
+
+     when(inventoryClient.updateInventoryBatch(any(BulkInventoryUpdateRequest.class))).thenAnswer(eachLine(
 
        new InventoryUpdateResponse(true, "Success", "PROD001", 2,
 
          Collections.singletonList(new InventoryUpdateResponse.BatchAllocation("BATCH001", 2)))
 
-     );
+     ));
 
      // Act 
 
@@ -610,4 +624,54 @@
 
    }
 
- }
\ No newline at end of file
+   /** 
+
+    * Answer a bulk inventory update with the same line response for every requested item 
+
+    */
+
+   private static Answer < BulkInventoryUpdateResponse > eachLine(InventoryUpdateResponse lineResponse) {
+
+     return invocation -> {
+
+       BulkInventoryUpdateRequest request = invocation.getArgument(0);
+
+       return new BulkInventoryUpdateResponse(true, "Success",
+
+         Collections.nCopies(request.getItems().size(), lineResponse));
+
+     };
+
+   }
+
+   /** 
+
+    * Stub the availability the inventory service reports for a product, built from its batches 
+
+    */
+
+   private void stubInventory(String productCode, List < InventoryBatchResponse > batches) {
+
+     stubbedAvailability.put(productCode, new InventoryAvailabilityResponse(productCode,
+
+       batches.isEmpty() ? null : batches.get(0).getProductName(),
+
+       batches.stream().mapToLong(InventoryBatchResponse::getQuantity).sum()));
+
+     when(inventoryClient.checkAvailabilityAsync(anyList())).thenAnswer(invocation -> {
+
+       List < String > productCodes = invocation.getArgument(0);
+
+       return Mono.just(productCodes.stream()
+
+         .filter(stubbedAvailability::containsKey)
+
+         .map(stubbedAvailability::get)
+
+         .collect(Collectors.toList()));
+
+     });
+
+   }
+
+ }
@@ -0,0 +1,307 @@
+ package com.yash.order;
+
+ import com.yash.order.client.InventoryClient;
+
+ import com.yash.order.dto.*;
+
+ import com.yash.order.entity.Order;
+
+ import com.yash.order.entity.ReactiveOrder;
+
+ import com.yash.order.entity.ReactiveOrderItem;
+
+ import com.yash.order.repository.ReactiveOrderItemRepository;
+
+ import com.yash.order.repository.ReactiveOrderRepository;
+
+ import org.junit.jupiter.api.BeforeEach;
+
+ import org.junit.jupiter.api.Test;
+
+ import org.springframework.beans.factory.annotation.Autowired;
+
+ import org.springframework.boot.test.context.SpringBootTest;
+
+ import org.springframework.boot.test.mock.mockito.MockBean;
+
+ import reactor.core.publisher.Mono;
+
+ import org.springframework.http.HttpStatus;
+
+ import org.springframework.test.context.ActiveProfiles;
+
+ import org.springframework.test.web.reactive.server.WebTestClient;
+
+ import java.util.Collections;
+
+ import java.util.List;
+
+ import static org.junit.jupiter.api.Assertions.*;
+
+ import static org.mockito.ArgumentMatchers.any;
+
+ import static org.mockito.ArgumentMatchers.anyList;
+
+ import static org.mockito.Mockito.when;
+
+ @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+
+ @ActiveProfiles({ "test", "reactive" })
+
+ class ReactiveOrderIntegrationTest {
+
+   @Autowired
+
+   private WebTestClient webTestClient;
+
+   @Autowired
+
+   private ReactiveOrderRepository orderRepository;
+
+   @Autowired
+
+   private ReactiveOrderItemRepository orderItemRepository;
+
+   @MockBean
+
+   private InventoryClient inventoryClient;
+
+   @BeforeEach
+
+   void setUp() {
+
+     // Clean up database before each test 
+
+     orderItemRepository.deleteAll().then(orderRepository.deleteAll()).block();
+
+   }
+
+   @Test
+
+   void testPlaceOrder_Success_SavedInDatabase() {
+
+     // Arrange 
+
+     OrderRequest orderRequest = new OrderRequest(
+
+       "John Doe",
+
+       "john@example.com",
+
+       Collections.singletonList(new OrderRequest.OrderItemRequest("PROD001", 5, 100.0))
+
+     );
+
+     when(inventoryClient.checkAvailabilityAsync(anyList())).thenReturn(Mono.just(List.of(
+
+       new InventoryAvailabilityResponse("PROD001", "Product 1", 10L))));
+
+     when(inventoryClient.updateInventoryBatchAsync(any(BulkInventoryUpdateRequest.class))).thenReturn(Mono.just(
+
+       new BulkInventoryUpdateResponse(true, "Success", List.of(
+
+         new InventoryUpdateResponse(true, "Inventory updated successfully", "PROD001", 5,
+
+           Collections.singletonList(new InventoryUpdateResponse.BatchAllocation("BATCH001", 5)))))));
+
+     // Act 
+
+     OrderResponse orderResponse = webTestClient.post().uri("/order")
+
+       .bodyValue(orderRequest)
+
+       .exchange()
+
+       .expectStatus().isEqualTo(HttpStatus.CREATED)
+
+       .expectBody(OrderResponse.class)
+
+       .returnResult()
+
+       .getResponseBody();
+
+     // Assert 
+
+     assertNotNull(orderResponse);
+
+     assertEquals("CONFIRMED", orderResponse.getStatus());
+
+     assertEquals(500.0, orderResponse.getTotalAmount());
+
+     assertEquals("Product 1", orderResponse.getItems().get(0).getProductName());
+
+     // Verify database persistence 
+
+     List < ReactiveOrder > orders = orderRepository.findAll().collectList().block();
+
+     assertEquals(1, orders.size());
+
+     ReactiveOrder savedOrder = orders.get(0);
+
+     assertEquals(Order.OrderStatus.CONFIRMED, savedOrder.getStatus());
+
+     assertEquals(orderResponse.getOrderNumber(), savedOrder.getOrderNumber());
+
+     List < ReactiveOrderItem > items = orderItemRepository.findByOrderId(savedOrder.getId()).collectList().block();
+
+     assertEquals(1, items.size());
+
+     assertEquals("PROD001", items.get(0).getProductCode());
+
+     assertTrue(items.get(0).getBatchAllocations().contains("BATCH001"));
+
+   }
+
+   @Test
+
+   void testPlaceOrder_InsufficientInventory_OrderNotSaved() {
+
+     // Arrange 
+
+     OrderRequest orderRequest = new OrderRequest(
+
+       "Test User",
+
+       "test@example.com",
+
+       Collections.singletonList(new OrderRequest.OrderItemRequest("PROD001", 100, 50.0))
+
+     );
+
+     when(inventoryClient.checkAvailabilityAsync(anyList())).thenReturn(Mono.just(List.of(
+
+       new InventoryAvailabilityResponse("PROD001", "Product 1", 5L))));
+
+     // Act & Assert 
+
+     webTestClient.post().uri("/order")
+
+       .bodyValue(orderRequest)
+
+       .exchange()
+
+       .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+
+     assertEquals(0L, orderRepository.count().block());
+
+   }
+
+   @Test
+
+   void testPlaceOrder_InvalidRequest_OrderNotSaved() {
+
+     // Arrange - Missing customer name 
+
+     OrderRequest invalidRequest = new OrderRequest(
+
+       null,
+
+       "test@example.com",
+
+       Collections.singletonList(new OrderRequest.OrderItemRequest("PROD001", 5, 100.0))
+
+     );
+
+     // Act & Assert 
+
+     webTestClient.post().uri("/order")
+
+       .bodyValue(invalidRequest)
+
+       .exchange()
+
+       .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+
+     assertEquals(0L, orderRepository.count().block());
+
+   }
+
+   @Test
+
+   void testPlaceOrder_InventoryUpdateFails_OrderMarkedAsFailed() {
+
+     // Arrange 
+
+     OrderRequest orderRequest = new OrderRequest(
+
+       "Test User",
+
+       "test@example.com",
+
+       Collections.singletonList(new OrderRequest.OrderItemRequest("PROD001", 5, 100.0))
+
+     );
+
+     when(inventoryClient.checkAvailabilityAsync(anyList())).thenReturn(Mono.just(List.of(
+
+       new InventoryAvailabilityResponse("PROD001", "Product 1", 10L))));
+
+     when(inventoryClient.updateInventoryBatchAsync(any(BulkInventoryUpdateRequest.class)))
+
+       .thenReturn(Mono.error(new RuntimeException("Inventory service unavailable")));
+
+     // Act & Assert 
+
+     webTestClient.post().uri("/order")
+
+       .bodyValue(orderRequest)
+
+       .exchange()
+
+       .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+
+     // No stock was deducted, so the order created in its own transaction is marked FAILED 
+
+     List < ReactiveOrder > orders = orderRepository.findAll().collectList().block();
+
+     assertEquals(1, orders.size());
+
+     assertEquals(Order.OrderStatus.FAILED, orders.get(0).getStatus());
+
+   }
+
+   @Test
+
+   void testPlaceOrder_ConfirmFailsAfterDeduction_OrderLeftPending() {
+
+     // Arrange - the bulk update succeeds but returns no per-line results, so confirming the order fails 
+
+     OrderRequest orderRequest = new OrderRequest(
+
+       "Test User",
+
+       "test@example.com",
+
+       Collections.singletonList(new OrderRequest.OrderItemRequest("PROD001", 5, 100.0))
+
+     );
+
+     when(inventoryClient.checkAvailabilityAsync(anyList())).thenReturn(Mono.just(List.of(
+
+       new InventoryAvailabilityResponse("PROD001", "Product 1", 10L))));
+
+     when(inventoryClient.updateInventoryBatchAsync(any(BulkInventoryUpdateRequest.class))).thenReturn(Mono.just(
+
+       new BulkInventoryUpdateResponse(true, "Success", List.of())));
+
+     // Act & Assert 
+
+     webTestClient.post().uri("/order")
+
+       .bodyValue(orderRequest)
+
+       .exchange()
+
+       .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+
+     // Stock was deducted, so the order is not marked FAILED and its confirmation was rolled back 
+
+     List < ReactiveOrder > orders = orderRepository.findAll().collectList().block();
+
+     assertEquals(1, orders.size());
+
+     assertEquals(Order.OrderStatus.PENDING, orders.get(0).getStatus());
+
+   }
+
+ }
@@ -22,12 +22,15 @@
 
  import org.mockito.ArgumentCaptor;
 
- import org.mockito.InjectMocks;
-
  import org.mockito.Mock;
+ import org.mockito.stubbing.Answer;
+
+ import reactor.core.publisher.Mono;
 
  import org.mockito.junit.jupiter.MockitoExtension;
 
+ import java.time.Duration;
+
  import java.time.LocalDate;
 
  import java.util.ArrayList;
@@ -36,8 +39,20 @@
 
  import java.util.Collections;
 
+ import java.util.HashMap;
+
  import java.util.List;
 
+ import java.util.Map;
+
+ import java.util.concurrent.atomic.AtomicBoolean;
+
+ import java.util.concurrent.atomic.AtomicInteger;
+
+ import java.util.stream.Collectors;
+
+ import java.util.stream.IntStream;
+
  import static org.junit.jupiter.api.Assertions.*;
 
  import static org.mockito.ArgumentMatchers.*;
@@ -56,10 +71,10 @@
 
    private InventoryClient inventoryClient;
 
-   @InjectMocks
-
    private OrderService orderService;
 
+   private final Map < String, InventoryAvailabilityResponse > stubbedAvailability = new HashMap < > ();
+
    private OrderRequest validOrderRequest;
 
    private List < InventoryBatchResponse > availableBatches;
@@ -70,6 +85,8 @@
 
    void setUp() {
 
+     orderService = new OrderService(orderRepository, inventoryClient, 4, 5);
+
      // Setup valid order request 
 
      OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest(
@@ -134,9 +151,9 @@
 
      // Arrange 
 
-     when(inventoryClient.checkInventory("PROD001")).thenReturn(availableBatches);
+     stubInventory("PROD001", availableBatches);
 
-     when(inventoryClient.updateInventory(any(InventoryUpdateRequest.class))).thenReturn(updateResponse);
+     when(inventoryClient.updateInventoryBatch(any(BulkInventoryUpdateRequest.class))).thenAnswer(eachLine(updateResponse));
 
      Order savedOrder = new Order();
 
@@ -170,9 +187,11 @@
 
      assertNotNull(response);
 
-     verify(inventoryClient, times(2)).checkInventory("PROD001"); // Once for availability check, once for product name 
+     verify(inventoryClient, times(1)).checkAvailabilityAsync(List.of("PROD001")); // Availability and product name 
 
-     verify(inventoryClient, times(1)).updateInventory(any(InventoryUpdateRequest.class));
+     verify(inventoryClient, never()).checkInventory(anyString());
+
+     verify(inventoryClient, times(1)).updateInventoryBatch(argThat(request -> request.getItems().size() == 1));
 
      verify(orderRepository, times(2)).save(any(Order.class)); // Once for pending, once for confirmed 
 
@@ -330,13 +349,15 @@
 
      // Arrange 
 
-     when(inventoryClient.checkInventory("PROD001")).thenReturn(Collections.emptyList());
+     stubInventory("PROD001", Collections.emptyList());
 
      // Act & Assert 
 
      assertThrows(OrderProcessingException.class, () -> orderService.processOrder(validOrderRequest));
 
-     verify(inventoryClient, times(1)).checkInventory("PROD001");
+     verify(inventoryClient, times(1)).checkAvailabilityAsync(List.of("PROD001"));
+
+     verify(inventoryClient, never()).checkInventory(anyString());
 
      verify(orderRepository, never()).save(any(Order.class));
 
@@ -356,13 +377,15 @@
 
      );
 
-     when(inventoryClient.checkInventory("PROD001")).thenReturn(insufficientBatches);
+     stubInventory("PROD001", insufficientBatches);
 
      // Act & Assert 
 
      assertThrows(InsufficientInventoryException.class, () -> orderService.processOrder(validOrderRequest));
 
-     verify(inventoryClient, times(1)).checkInventory("PROD001");
+     verify(inventoryClient, times(1)).checkAvailabilityAsync(List.of("PROD001"));
+
+     verify(inventoryClient, never()).checkInventory(anyString());
 
      verify(orderRepository, never()).save(any(Order.class));
 
@@ -374,9 +397,9 @@
 
      // Arrange 
 
-     when(inventoryClient.checkInventory("PROD001")).thenReturn(availableBatches);
+     stubInventory("PROD001", availableBatches);
 
-     when(inventoryClient.updateInventory(any(InventoryUpdateRequest.class)))
+     when(inventoryClient.updateInventoryBatch(any(BulkInventoryUpdateRequest.class)))
 
        .thenThrow(new RuntimeException("Inventory service unavailable"));
 
@@ -406,9 +429,11 @@
 
      assertThrows(OrderProcessingException.class, () -> orderService.processOrder(validOrderRequest));
 
-     verify(inventoryClient, times(2)).checkInventory("PROD001"); // Once for availability, once for product name 
+     verify(inventoryClient, times(1)).checkAvailabilityAsync(List.of("PROD001")); // Availability and product name 
 
-     verify(inventoryClient, times(1)).updateInventory(any(InventoryUpdateRequest.class));
+     verify(inventoryClient, never()).checkInventory(anyString());
+
+     verify(inventoryClient, times(1)).updateInventoryBatch(argThat(request -> request.getItems().size() == 1));
 
      verify(orderRepository, times(2)).save(any(Order.class)); // Saves as PENDING then FAILED 
 
@@ -420,9 +445,9 @@
 
      // Arrange 
 
-     when(inventoryClient.checkInventory("PROD001")).thenReturn(availableBatches);
+     stubInventory("PROD001", availableBatches);
 
-     when(inventoryClient.updateInventory(any(InventoryUpdateRequest.class))).thenReturn(updateResponse);
+     when(inventoryClient.updateInventoryBatch(any(BulkInventoryUpdateRequest.class))).thenAnswer(eachLine(updateResponse));
 
      ArgumentCaptor < Order > orderCaptor = ArgumentCaptor.forClass(Order.class);
 
@@ -498,11 +523,11 @@
 
      );
 
-     when(inventoryClient.checkInventory("PROD001")).thenReturn(batches1);
+     stubInventory("PROD001", batches1);
 
-     when(inventoryClient.checkInventory("PROD002")).thenReturn(batches2);
+     stubInventory("PROD002", batches2);
 
-     when(inventoryClient.updateInventory(any(InventoryUpdateRequest.class))).thenReturn(updateResponse);
+     when(inventoryClient.updateInventoryBatch(any(BulkInventoryUpdateRequest.class))).thenAnswer(eachLine(updateResponse));
 
      when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
 
@@ -526,11 +551,159 @@
 
      assertNotNull(response);
 
-     verify(inventoryClient, times(2)).checkInventory("PROD001"); // Availability + product name 
+     verify(inventoryClient, times(1)).checkAvailabilityAsync(List.of("PROD001", "PROD002")); // One lookup for both products 
+
+     verify(inventoryClient, never()).checkInventory(anyString());
+
+     verify(inventoryClient, times(1)).updateInventoryBatch(argThat(request -> request.getItems().size() == 2));
+
+   }
+
+   @Test
+
+   void testProcessOrder_SameProductOnTwoLines_LookedUpOnce() {
+
+     // Arrange 
+
+     OrderRequest repeatedProductRequest = new OrderRequest(
+
+       "Jane Doe",
+
+       "jane@example.com",
+
+       Arrays.asList(new OrderRequest.OrderItemRequest("PROD001", 5, 100.0),
+
+         new OrderRequest.OrderItemRequest("PROD001", 2, 100.0))
 
-     verify(inventoryClient, times(2)).checkInventory("PROD002"); // Availability + product name 
+     );
+
+     stubInventory("PROD001", availableBatches);
+
+     when(inventoryClient.updateInventoryBatch(any(BulkInventoryUpdateRequest.class))).thenAnswer(eachLine(updateResponse));
+
+     when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+     // Act 
+
+     OrderResponse response = orderService.processOrder(repeatedProductRequest);
+
+     // Assert 
+
+     assertEquals("Product 1", response.getItems().get(1).getProductName());
 
-     verify(inventoryClient, times(2)).updateInventory(any(InventoryUpdateRequest.class));
+     verify(inventoryClient, times(1)).checkAvailabilityAsync(List.of("PROD001"));
+
+     verify(inventoryClient, never()).checkInventory(anyString());
+
+   }
+
+   @Test
+
+   void testProcessOrder_AvailabilityChecksFanOutWithinParallelismBound() {
+
+     // Arrange - one product per call, at most 3 calls in flight 
+
+     OrderService fanOutService = new OrderService(orderRepository, inventoryClient, 3, 1);
+
+     OrderRequest sixProductRequest = new OrderRequest(
+
+       "Jane Doe",
+
+       "jane@example.com",
+
+       IntStream.rangeClosed(1, 6)
+
+       .mapToObj(i -> new OrderRequest.OrderItemRequest("PROD00" + i, 1, 10.0))
+
+       .collect(Collectors.toList())
+
+     );
+
+     AtomicInteger inFlight = new AtomicInteger();
+
+     AtomicInteger maxInFlight = new AtomicInteger();
+
+     when(inventoryClient.checkAvailabilityAsync(anyList())).thenAnswer(invocation -> {
+
+       List < String > productCodes = invocation.getArgument(0);
+
+       return Mono.defer(() -> {
+
+           maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+           return Mono.delay(Duration.ofMillis(100));
+
+         })
+
+         .map(tick -> List.of(new InventoryAvailabilityResponse(productCodes.get(0), "Product", 10L)))
+
+         .doOnTerminate(inFlight::decrementAndGet);
+
+     });
+
+     when(inventoryClient.updateInventoryBatch(any(BulkInventoryUpdateRequest.class))).thenAnswer(eachLine(updateResponse));
+
+     when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+     // Act 
+
+     OrderResponse response = fanOutService.processOrder(sixProductRequest);
+
+     // Assert 
+
+     assertEquals(6, response.getItems().size());
+
+     assertEquals(3, maxInFlight.get());
+
+     verify(inventoryClient, times(6)).checkAvailabilityAsync(anyList());
+
+   }
+
+   @Test
+
+   void testProcessOrder_FirstShortfallCancelsPendingChecks() {
+
+     // Arrange 
+
+     OrderService fanOutService = new OrderService(orderRepository, inventoryClient, 2, 1);
+
+     OrderRequest twoProductRequest = new OrderRequest(
+
+       "Jane Doe",
+
+       "jane@example.com",
+
+       Arrays.asList(new OrderRequest.OrderItemRequest("PROD001", 5, 10.0),
+
+         new OrderRequest.OrderItemRequest("PROD002", 5, 10.0))
+
+     );
+
+     AtomicBoolean slowCheckCancelled = new AtomicBoolean();
+
+     when(inventoryClient.checkAvailabilityAsync(List.of("PROD001")))
+
+       .thenReturn(Mono.delay(Duration.ofMillis(50))
+
+         .map(tick -> List.of(new InventoryAvailabilityResponse("PROD001", "Product 1", 2L))));
+
+     when(inventoryClient.checkAvailabilityAsync(List.of("PROD002")))
+
+       .thenReturn(Mono.delay(Duration.ofSeconds(30))
+
+         .map(tick -> List.of(new InventoryAvailabilityResponse("PROD002", "Product 2", 10L)))
+
+         .doOnCancel(() -> slowCheckCancelled.set(true)));
+
+     // Act & Assert - the shortfall on PROD001 ends the lookup without waiting for PROD002 
+
+     assertTimeoutPreemptively(Duration.ofSeconds(5),
+
+       () -> assertThrows(InsufficientInventoryException.class, () -> fanOutService.processOrder(twoProductRequest)));
+
+     assertTrue(slowCheckCancelled.get());
+
+     verify(orderRepository, never()).save(any(Order.class));
 
    }
 
@@ -540,7 +713,7 @@
 
      // Arrange 
 
-     when(inventoryClient.checkInventory("PROD001")).thenReturn(availableBatches);
+     stubInventory("PROD001", availableBatches);
 
      InventoryUpdateResponse updateResponseWithAllocations = new InventoryUpdateResponse(
 
@@ -562,9 +735,9 @@
 
      );
 
-     when(inventoryClient.updateInventory(any(InventoryUpdateRequest.class)))
+     when(inventoryClient.updateInventoryBatch(any(BulkInventoryUpdateRequest.class)))
 
-       .thenReturn(updateResponseWithAllocations);
+       .thenAnswer(eachLine(updateResponseWithAllocations));
 
      ArgumentCaptor < Order > orderCaptor = ArgumentCaptor.forClass(Order.class);
 
@@ -610,4 +783,54 @@
 
    }
 
- }
\ No newline at end of file
+   /** 
+
+    * Answer a bulk inventory update with the same line response for every requested item 
+
+    */
+
+   private static Answer < BulkInventoryUpdateResponse > eachLine(InventoryUpdateResponse lineResponse) {
+
+     return invocation -> {
+
+       BulkInventoryUpdateRequest request = invocation.getArgument(0);
+
+       return new BulkInventoryUpdateResponse(true, "Success",
+
+         Collections.nCopies(request.getItems().size(), lineResponse));
+
+     };
+
+   }
+
+   /** 
+
+    * Stub the availability the inventory service reports for a product, built from its batches 
+
+    */
+
+   private void stubInventory(String productCode, List < InventoryBatchResponse > batches) {
+
+     stubbedAvailability.put(productCode, new InventoryAvailabilityResponse(productCode,
+
+       batches.isEmpty() ? null : batches.get(0).getProductName(),
+
+       batches.stream().mapToLong(InventoryBatchResponse::getQuantity).sum()));
+
+     when(inventoryClient.checkAvailabilityAsync(anyList())).thenAnswer(invocation -> {
+
+       List < String > productCodes = invocation.getArgument(0);
+
+       return Mono.just(productCodes.stream()
+
+         .filter(stubbedAvailability::containsKey)
+
+         .map(stubbedAvailability::get)
+
+         .collect(Collectors.toList()));
+
+     });
+
+   }
+
+ }